@@ -2,8 +2,10 @@ package com.programacao.web.fatec.api_fatec;
 
 import org.springframework.boot.SpringApplication;
 import org.springframework.boot.autoconfigure.SpringBootApplication;
+import org.springframework.scheduling.annotation.EnableScheduling;
 
 @SpringBootApplication
+@EnableScheduling
 public class ApiFatecApplication {
 
 	public static void main(String[] args) {
@@ -0,0 +1,92 @@
+package com.programacao.web.fatec.api_fatec.controller;
+
+import java.util.List;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.CacheControl;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.PathVariable;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.context.request.WebRequest;
+
+import com.programacao.web.fatec.api_fatec.domain.cidade.CidadeService;
+import com.programacao.web.fatec.api_fatec.domain.cidade.dto.CidadeResponseDto;
+import com.programacao.web.fatec.api_fatec.domain.cliente.ClienteCursor;
+import com.programacao.web.fatec.api_fatec.domain.cliente.ClienteVersao;
+import com.programacao.web.fatec.api_fatec.domain.cliente.dto.ClientePaginaDto;
+import com.programacao.web.fatec.api_fatec.domain.cliente.dto.ClienteResponseDto;
+import com.programacao.web.fatec.api_fatec.infra.Compartimento;
+
+
+@RestController
+@RequestMapping("/api/cidades")
+public class CidadeController {
+
+    @Autowired
+    private CidadeService cidadeService;
+
+    @Autowired
+    private ClienteVersao clienteVersao;
+
+    /**
+     * Busca uma cidade pelo ID com a quantidade dos seus clientes (sem a lista de clientes).
+     * 
+     * A resposta tem ETag; com If-None-Match igual retorna 304 (Not Modified).
+     * 
+     * @param id ID da cidade
+     * @param request Requisição, usada para comparar o If-None-Match
+     * @return ResponseEntity com a cidade e status 200 (OK), 304 (Not Modified) ou 404 (Not Found)
+     */
+    @GetMapping("/{id}")
+    public ResponseEntity<CidadeResponseDto> buscarCidade(@PathVariable Long id, WebRequest request) {
+        if (naoModificado(request)) {
+            return null;
+        }
+        return ResponseEntity.ok().cacheControl(CacheControl.noCache()).body(cidadeService.buscarPorId(id));
+    }
+
+    /**
+     * Lista os clientes de uma cidade com paginação por chave (keyset) ordenada por ID.
+     * 
+     * O cursor da próxima página vem no cabeçalho X-Next-Cursor (ausente na última página) e pode
+     * ser enviado de volta no parâmetro cursor. A resposta tem ETag; com If-None-Match igual
+     * retorna 304 (Not Modified) sem consultar o banco.
+     * 
+     * @param id ID da cidade
+     * @param after ID do último cliente da página anterior (opcional)
+     * @param cursor Cursor opaco recebido no cabeçalho X-Next-Cursor (opcional)
+     * @param limit Tamanho da página (opcional)
+     * @param request Requisição, usada para comparar o If-None-Match
+     * @return ResponseEntity com a página de clientes e status 200 (OK), 304 (Not Modified)
+     *         ou 404 (Not Found) se a cidade não existir
+     */
+    @GetMapping("/{id}/clientes")
+    @Compartimento(Compartimento.LISTAGEM)
+    public ResponseEntity<List<ClienteResponseDto>> listarClientes(
+            @PathVariable Long id,
+            @RequestParam(required = false) Long after,
+            @RequestParam(required = false) String cursor,
+            @RequestParam(required = false) Integer limit,
+            WebRequest request) {
+        if (naoModificado(request)) {
+            return null;
+        }
+
+        Long ultimoId = cursor != null ? ClienteCursor.decodificar(cursor) : after;
+        ClientePaginaDto pagina = cidadeService.listarClientes(id, ultimoId, limit);
+
+        ResponseEntity.BodyBuilder resposta = ResponseEntity.ok().cacheControl(CacheControl.noCache());
+        if (pagina.getProximoCursor() != null) {
+            resposta.header(ClienteController.HEADER_PROXIMO_CURSOR, pagina.getProximoCursor());
+        }
+        return resposta.body(pagina.getClientes());
+    }
+
+    private boolean naoModificado(WebRequest request) {
+        return request.checkNotModified(clienteVersao.etag());
+    }
+
+}
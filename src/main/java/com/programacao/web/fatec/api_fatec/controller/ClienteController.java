@@ -1,25 +1,53 @@
 package com.programacao.web.fatec.api_fatec.controller;
 
+import java.io.IOException;
+import java.net.URI;
 import java.util.List;
 
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.CacheControl;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
+import org.springframework.http.InvalidMediaTypeException;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
+import org.springframework.web.HttpMediaTypeNotAcceptableException;
 import org.springframework.web.bind.annotation.DeleteMapping;
 import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.PatchMapping;
 import org.springframework.web.bind.annotation.PathVariable;
 import org.springframework.web.bind.annotation.PostMapping;
 import org.springframework.web.bind.annotation.PutMapping;
 import org.springframework.web.bind.annotation.RequestBody;
+import org.springframework.web.bind.annotation.RequestHeader;
 import org.springframework.web.bind.annotation.RequestMapping;
 import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.bind.annotation.RequestPart;
 import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.context.request.WebRequest;
+import org.springframework.web.multipart.MultipartFile;
 
+import jakarta.servlet.http.HttpServletResponse;
+
+import com.programacao.web.fatec.api_fatec.domain.cliente.ClienteCursor;
+import com.programacao.web.fatec.api_fatec.domain.cliente.ClienteEstatisticas;
+import com.programacao.web.fatec.api_fatec.domain.cliente.ClienteImportacaoService;
 import com.programacao.web.fatec.api_fatec.domain.cliente.ClienteService;
+import com.programacao.web.fatec.api_fatec.domain.cliente.ClienteVersao;
 import com.programacao.web.fatec.api_fatec.domain.cliente.dto.BuscaPorIdOuNomeDto;
+import com.programacao.web.fatec.api_fatec.domain.cliente.dto.ClienteEstatisticasDto;
+import com.programacao.web.fatec.api_fatec.domain.cliente.dto.ClienteImportacaoDto;
+import com.programacao.web.fatec.api_fatec.domain.cliente.dto.ClienteLoteResultadoDto;
+import com.programacao.web.fatec.api_fatec.domain.cliente.dto.ClientePaginaDto;
+import com.programacao.web.fatec.api_fatec.domain.cliente.dto.ClientePatchDto;
 import com.programacao.web.fatec.api_fatec.domain.cliente.dto.ClientePostDto;
 import com.programacao.web.fatec.api_fatec.domain.cliente.dto.ClientePutDto;
+import com.programacao.web.fatec.api_fatec.domain.cliente.dto.ClienteRemocaoDto;
+import com.programacao.web.fatec.api_fatec.domain.cliente.dto.ClienteResponseDto;
+import com.programacao.web.fatec.api_fatec.domain.cliente.dto.ClienteVersionadoDto;
 import com.programacao.web.fatec.api_fatec.entities.Cliente;
+import com.programacao.web.fatec.api_fatec.exception.BadRequestException;
+import com.programacao.web.fatec.api_fatec.infra.Compartimento;
 
 
 @RestController
@@ -29,27 +57,130 @@ public class ClienteController {
     @Autowired
     private ClienteService clienteService;
 
+    @Autowired
+    private ClienteImportacaoService clienteImportacaoService;
+
+    @Autowired
+    private ClienteVersao clienteVersao;
+
+    @Autowired
+    private ClienteEstatisticas clienteEstatisticas;
+
+    /**
+     * Cabeçalho de resposta com o cursor opaco da próxima página da listagem.
+     */
+    public static final String HEADER_PROXIMO_CURSOR = "X-Next-Cursor";
+
+    private static final MediaType NDJSON = MediaType.parseMediaType("application/x-ndjson");
+
     /**
-     * Lista todos os clientes.
+     * Lista os clientes.
      * 
-     * @return ResponseEntity com a lista de clientes e status 200 (OK)
+     * Sem parâmetros, retorna no máximo api.clientes.listagem.maximo clientes; se a lista chegar
+     * a esse limite, o cabeçalho X-Next-Cursor indica que ela pode estar truncada e permite
+     * continuar pela listagem paginada.
+     * Com after, cursor ou limit, usa paginação por chave (keyset) ordenada por ID:
+     * o cursor da próxima página vem no cabeçalho X-Next-Cursor (ausente na última página)
+     * e pode ser enviado de volta no parâmetro cursor.
+     * 
+     * A resposta tem ETag; com If-None-Match igual retorna 304 (Not Modified) sem consultar o banco.
+     * 
+     * @param after ID do último cliente da página anterior (opcional)
+     * @param cursor Cursor opaco recebido no cabeçalho X-Next-Cursor (opcional)
+     * @param limit Tamanho da página (opcional)
+     * @param request Requisição, usada para comparar o If-None-Match
+     * @return ResponseEntity com a lista de clientes e status 200 (OK), ou 304 (Not Modified)
      */
     @GetMapping("/listarClientes")
-    public ResponseEntity<List<Cliente>> listarClientes() {
-        List<Cliente> clientes = clienteService.listarClientes();
-        return ResponseEntity.ok(clientes);
+    @Compartimento(Compartimento.LISTAGEM)
+    public ResponseEntity<List<ClienteResponseDto>> listarClientes(
+            @RequestParam(required = false) Long after,
+            @RequestParam(required = false) String cursor,
+            @RequestParam(required = false) Integer limit,
+            WebRequest request) {
+        if (naoModificado(request)) {
+            return null;
+        }
+
+        ClientePaginaDto pagina;
+        if (after == null && cursor == null && limit == null) {
+            pagina = clienteService.listarClientes();
+        } else {
+            Long ultimoId = cursor != null ? ClienteCursor.decodificar(cursor) : after;
+            pagina = clienteService.listarClientesPaginado(ultimoId, limit);
+        }
+
+        ResponseEntity.BodyBuilder resposta = ResponseEntity.ok().cacheControl(CacheControl.noCache());
+        if (pagina.getProximoCursor() != null) {
+            resposta.header(HEADER_PROXIMO_CURSOR, pagina.getProximoCursor());
+        }
+        return resposta.body(pagina.getClientes());
+    }
+
+    /**
+     * Exporta todos os clientes em NDJSON (um cliente JSON por linha).
+     * 
+     * Os bytes são escritos diretamente no stream de saída do servlet à medida que as linhas
+     * são lidas do banco, então o primeiro cliente é enviado sem esperar o fim da consulta
+     * e o uso de memória não depende da quantidade de clientes.
+     * 
+     * A resposta é sempre application/x-ndjson: uma requisição que aceite apenas application/json
+     * recebe 406 (Not Acceptable), já que o corpo não é um único documento JSON; envie
+     * Accept: application/x-ndjson (ou nenhum Accept). Como o status 200 já foi enviado quando
+     * as linhas começam a sair, uma falha no meio da exportação não vira um erro da API: a conexão
+     * é fechada sem terminar a resposta (no HTTP/1.1, sem o último chunk), e o cliente deve tratar
+     * uma resposta incompleta como falha, e não como o fim dos clientes.
+     * 
+     * @param accept Cabeçalho Accept da requisição (opcional)
+     * @param response Resposta HTTP onde o NDJSON será escrito
+     * @throws HttpMediaTypeNotAcceptableException se o Accept não aceitar application/x-ndjson
+     * @throws IOException se ocorrer um erro ao escrever a resposta
+     */
+    @GetMapping("/export")
+    public void exportarClientes(@RequestHeader(value = HttpHeaders.ACCEPT, required = false) String accept,
+            HttpServletResponse response) throws HttpMediaTypeNotAcceptableException, IOException {
+        // Conferido aqui, e não com produces: uma requisição que não casasse com o produces
+        // cairia em /{id} com id=export e receberia 400 em vez de 406
+        if (!aceitaNdjson(accept)) {
+            throw new HttpMediaTypeNotAcceptableException(List.of(NDJSON));
+        }
+        response.setContentType("application/x-ndjson");
+        response.setCharacterEncoding("UTF-8");
+        clienteService.exportarClientes(response.getOutputStream());
+    }
+
+    /**
+     * Verifica se o cabeçalho Accept aceita NDJSON (sem Accept, aceita qualquer tipo).
+     */
+    private static boolean aceitaNdjson(String accept) {
+        if (accept == null || accept.isBlank()) {
+            return true;
+        }
+        try {
+            return MediaType.parseMediaTypes(accept).stream().anyMatch(NDJSON::isCompatibleWith);
+        } catch (InvalidMediaTypeException e) {
+            return false;
+        }
     }
 
     /**
      * Busca clientes por ID ou nome usando um parâmetro de caminho.
      * 
+     * A resposta tem ETag; com If-None-Match igual retorna 304 (Not Modified) sem consultar o banco.
+     * 
      * @param search Texto para busca (ID ou nome)
-     * @return ResponseEntity com a lista de clientes encontrados e status 200 (OK)
+     * @param request Requisição, usada para comparar o If-None-Match
+     * @return ResponseEntity com a lista de clientes encontrados e status 200 (OK), ou 304 (Not Modified)
      */
     @GetMapping("/buscaPorIdOuNome/{search}")
-    public ResponseEntity<List<Cliente>> buscaPorIdOuNomeGenerico(@PathVariable String search) {
-        List<Cliente> clientes = clienteService.buscaPorIdOuNomeGenerico(search);
-        return ResponseEntity.ok(clientes);
+    @Compartimento(Compartimento.BUSCA)
+    public ResponseEntity<List<ClienteResponseDto>> buscaPorIdOuNomeGenerico(@PathVariable String search,
+            WebRequest request) {
+        if (naoModificado(request)) {
+            return null;
+        }
+        List<ClienteResponseDto> clientes = clienteService.buscaPorIdOuNomeGenerico(search);
+        return ResponseEntity.ok().cacheControl(CacheControl.noCache()).body(clientes);
     }
 
     /**
@@ -59,21 +190,51 @@ public class ClienteController {
      * @return ResponseEntity com a lista de clientes encontrados e status 200 (OK)
      */
     @PostMapping("/buscaPorIdOuNome")
-    public ResponseEntity<List<Cliente>> buscaPorIdOuNome(@RequestBody BuscaPorIdOuNomeDto dto) {
-        List<Cliente> clientes = clienteService.buscaPorIdOuNome(dto);
+    @Compartimento(Compartimento.BUSCA)
+    public ResponseEntity<List<ClienteResponseDto>> buscaPorIdOuNome(@RequestBody BuscaPorIdOuNomeDto dto) {
+        List<ClienteResponseDto> clientes = clienteService.buscaPorIdOuNome(dto);
         return ResponseEntity.ok(clientes);
     }
 
     /**
      * Busca clientes por texto que corresponda ao ID, nome ou nome da cidade.
      * 
-     * @param texto O texto a ser buscado em múltiplos campos
-     * @return ResponseEntity com a lista de clientes encontrados e status 200 (OK)
+     * O texto também aceita campos combinados com AND, como estado:SP cidade:"Belo Horizonte"
+     * nome:jo* id:42 cidade_id:7, resolvidos pelos índices em vez de percorrer a tabela.
+     * 
+     * A resposta tem ETag; com If-None-Match igual retorna 304 (Not Modified) sem consultar o banco.
+     * 
+     * @param texto O texto a ser buscado em múltiplos campos, ou uma consulta com campos
+     * @param request Requisição, usada para comparar o If-None-Match
+     * @return ResponseEntity com a lista de clientes encontrados e status 200 (OK), 304 (Not Modified)
+     *         ou 400 (Bad Request) se um campo da consulta for inválido
      */
     @GetMapping("/buscarPorTexto")
-    public ResponseEntity<List<Cliente>> buscarPorTexto(@RequestParam String texto) {
-        List<Cliente> clientes = clienteService.buscarPorTexto(texto);
-        return ResponseEntity.ok(clientes);
+    @Compartimento(Compartimento.BUSCA)
+    public ResponseEntity<List<ClienteResponseDto>> buscarPorTexto(@RequestParam String texto, WebRequest request) {
+        if (naoModificado(request)) {
+            return null;
+        }
+        List<ClienteResponseDto> clientes = clienteService.buscarPorTexto(texto);
+        return ResponseEntity.ok().cacheControl(CacheControl.noCache()).body(clientes);
+    }
+
+    /**
+     * Retorna a quantidade de clientes no total, por estado e por cidade.
+     * 
+     * As contagens são mantidas em memória e atualizadas a cada escrita, sem GROUP BY por
+     * requisição. A resposta tem ETag; com If-None-Match igual retorna 304 (Not Modified).
+     * 
+     * @param request Requisição, usada para comparar o If-None-Match
+     * @return ResponseEntity com as estatísticas e status 200 (OK), 304 (Not Modified) ou
+     *         503 (Service Unavailable) enquanto as contagens iniciais são calculadas
+     */
+    @GetMapping("/stats")
+    public ResponseEntity<ClienteEstatisticasDto> estatisticas(WebRequest request) {
+        if (naoModificado(request)) {
+            return null;
+        }
+        return ResponseEntity.ok().cacheControl(CacheControl.noCache()).body(clienteEstatisticas.consultar());
     }
 
     /**
@@ -83,11 +244,80 @@ public class ClienteController {
      * @return ResponseEntity com o cliente criado e status 201 (Created)
      */
     @PostMapping(value = "", consumes = "application/json")
+    @Compartimento(Compartimento.ESCRITA)
     public ResponseEntity<Cliente> createCliente(@RequestBody ClientePostDto dto) {
         Cliente novoCliente = clienteService.createCliente(dto);
         return ResponseEntity.status(HttpStatus.CREATED).body(novoCliente);
     }
 
+    /**
+     * Cria vários clientes em uma única requisição, gravados em blocos com INSERTs em lote.
+     * 
+     * @param dtos Array com os dados dos clientes a serem criados
+     * @return ResponseEntity com o resultado de cada item e status 201 (Created) se todos foram
+     *         criados, ou 207 (Multi-Status) se algum item falhou
+     */
+    @PostMapping(value = "/batch", consumes = "application/json")
+    @Compartimento(Compartimento.ESCRITA)
+    public ResponseEntity<List<ClienteLoteResultadoDto>> createClientesEmLote(@RequestBody List<ClientePostDto> dtos) {
+        List<ClienteLoteResultadoDto> resultados = clienteService.createClientesEmLote(dtos);
+        boolean todosCriados = resultados.stream()
+                .allMatch(r -> ClienteLoteResultadoDto.CRIADO.equals(r.getStatus()));
+        return ResponseEntity.status(todosCriados ? HttpStatus.CREATED : HttpStatus.MULTI_STATUS).body(resultados);
+    }
+
+    /**
+     * Importa clientes de um arquivo CSV em segundo plano.
+     * 
+     * O arquivo (parte "arquivo" do multipart) deve ter cabeçalho com as colunas nome e endereco
+     * e, opcionalmente, cidade_id ou cidade e estado. A resposta é enviada antes do processamento,
+     * com o ID da importação e o endereço de acompanhamento no cabeçalho Location.
+     * 
+     * @param arquivo Arquivo CSV
+     * @return ResponseEntity com a situação inicial da importação e status 202 (Accepted)
+     * @throws IOException se não for possível gravar o arquivo recebido
+     */
+    @PostMapping(value = "/import", consumes = "multipart/form-data")
+    public ResponseEntity<ClienteImportacaoDto> importarClientes(@RequestPart("arquivo") MultipartFile arquivo)
+            throws IOException {
+        ClienteImportacaoDto importacao = clienteImportacaoService.iniciar(arquivo);
+        return ResponseEntity.accepted()
+                .location(URI.create("/api/clientes/import/" + importacao.getId()))
+                .body(importacao);
+    }
+
+    /**
+     * Consulta o progresso de uma importação de clientes: linhas processadas, clientes importados,
+     * vazão e erros por linha.
+     * 
+     * @param id ID da importação
+     * @return ResponseEntity com a situação da importação e status 200 (OK)
+     */
+    @GetMapping("/import/{id}")
+    public ResponseEntity<ClienteImportacaoDto> consultarImportacao(@PathVariable String id) {
+        return ResponseEntity.ok(clienteImportacaoService.consultar(id));
+    }
+
+    /**
+     * Busca um cliente pelo ID.
+     * 
+     * O ETag da resposta é a versão do cliente (por exemplo, ETag: "3"), e é esse valor que o
+     * PATCH espera no If-Match. Com If-None-Match igual à versão atual retorna 304 (Not Modified).
+     * 
+     * @param id ID do cliente
+     * @param request Requisição, usada para comparar o If-None-Match
+     * @return ResponseEntity com o cliente e status 200 (OK), ou 304 (Not Modified)
+     */
+    @GetMapping("/{id}")
+    @Compartimento(Compartimento.LISTAGEM)
+    public ResponseEntity<ClienteResponseDto> buscarCliente(@PathVariable Long id, WebRequest request) {
+        ClienteVersionadoDto cliente = clienteService.buscarCliente(id);
+        if (request.checkNotModified(String.valueOf(cliente.getVersao()))) {
+            return null;
+        }
+        return ResponseEntity.ok().cacheControl(CacheControl.noCache()).body(cliente.getCliente());
+    }
+
     /**
      * Deleta um cliente pelo ID.
      * 
@@ -95,11 +325,35 @@ public class ClienteController {
      * @return ResponseEntity com mensagem de sucesso e status 200 (OK)
      */
     @DeleteMapping("/{id}")
+    @Compartimento(Compartimento.ESCRITA)
     public ResponseEntity<String> deletarCliente(@PathVariable Long id) {
         String mensagem = clienteService.deletarCliente(id);
         return ResponseEntity.ok(mensagem);
     }
 
+    /**
+     * Remove vários clientes de uma vez: pelos IDs enviados no corpo (array JSON) ou por filtro,
+     * com todos os clientes de uma cidade (parâmetro cidadeId). Informe apenas uma das formas.
+     * 
+     * Cada bloco de até 1000 IDs é removido com um único DELETE, sem carregar os clientes.
+     * 
+     * @param ids IDs dos clientes (opcional)
+     * @param cidadeId ID da cidade cujos clientes serão removidos (opcional)
+     * @return ResponseEntity com a quantidade de clientes solicitados e removidos e status 200 (OK)
+     */
+    @DeleteMapping("")
+    @Compartimento(Compartimento.ESCRITA)
+    public ResponseEntity<ClienteRemocaoDto> deletarClientes(@RequestBody(required = false) List<Long> ids,
+            @RequestParam(required = false) Long cidadeId) {
+        if ((ids == null) == (cidadeId == null)) {
+            throw new BadRequestException("Informe os IDs no corpo da requisição ou o parâmetro cidadeId (apenas um deles)");
+        }
+        ClienteRemocaoDto resultado = cidadeId != null
+                ? clienteService.deletarClientesPorCidade(cidadeId)
+                : clienteService.deletarClientes(ids);
+        return ResponseEntity.ok(resultado);
+    }
+
     /**
      * Atualiza um cliente existente.
      * 
@@ -108,9 +362,72 @@ public class ClienteController {
      * @return ResponseEntity com o cliente atualizado e status 200 (OK)
      */
     @PutMapping(value = "/{id}", consumes = "application/json")
+    @Compartimento(Compartimento.ESCRITA)
     public ResponseEntity<Cliente> alterarCliente(@PathVariable Long id, @RequestBody ClientePutDto dto) {
         Cliente clienteAtualizado = clienteService.alterarCliente(id, dto);
         return ResponseEntity.ok(clienteAtualizado);
     }
 
-}
+    /**
+     * Altera apenas os campos informados de um cliente, com um único UPDATE no banco.
+     * 
+     * A versão sobre a qual a alteração foi feita pode ser enviada no cabeçalho If-Match
+     * (por exemplo, If-Match: "3") ou no campo versao do corpo. O If-Match espera o ETag de
+     * GET /api/clientes/{id}, ou o da resposta de um PATCH anterior, que são a versão do cliente;
+     * o ETag das listagens e buscas identifica a versão de toda a tabela e é recusado com 400.
+     * Se o cliente já estiver em outra versão, nada é alterado e a resposta é 409 (Conflict).
+     * 
+     * @param id ID do cliente
+     * @param dto Campos a alterar
+     * @param ifMatch Versão esperada do cliente (opcional)
+     * @return ResponseEntity com status 204 (No Content) e, se a versão foi informada, o ETag da nova versão
+     */
+    @PatchMapping(value = "/{id}", consumes = "application/json")
+    @Compartimento(Compartimento.ESCRITA)
+    public ResponseEntity<Void> alterarParcialCliente(@PathVariable Long id, @RequestBody ClientePatchDto dto,
+            @RequestHeader(value = HttpHeaders.IF_MATCH, required = false) String ifMatch) {
+        Long versaoEsperada = ifMatch != null ? versaoDoIfMatch(ifMatch) : dto.getVersao();
+        Long novaVersao = clienteService.alterarParcialCliente(id, dto, versaoEsperada);
+
+        ResponseEntity.HeadersBuilder<?> resposta = ResponseEntity.noContent();
+        if (novaVersao != null) {
+            resposta.eTag(String.valueOf(novaVersao));
+        }
+        return resposta.build();
+    }
+
+    /**
+     * Converte o cabeçalho If-Match na versão esperada do cliente ("*" aceita qualquer versão).
+     */
+    private static Long versaoDoIfMatch(String ifMatch) {
+        String valor = ifMatch.trim();
+        if (valor.equals("*")) {
+            return null;
+        }
+        if (valor.startsWith("W/")) {
+            valor = valor.substring(2);
+        }
+        valor = valor.replace("\"", "");
+        try {
+            return Long.parseLong(valor);
+        } catch (NumberFormatException e) {
+            throw new BadRequestException("If-Match deve conter a versão do cliente (o ETag de GET /api/clientes/{id}): "
+                    + ifMatch);
+        }
+    }
+
+    /**
+     * Calcula o ETag da consulta a partir da versão da tabela de clientes e compara com o
+     * If-None-Match da requisição. O ETag é sempre adicionado à resposta.
+     * 
+     * A versão é lida antes da consulta ao banco: se uma escrita terminar no meio, a resposta
+     * pode trazer dados mais novos que o ETag, mas nunca o contrário.
+     * 
+     * @param request Requisição
+     * @return true se o cliente já tem a versão atual (a resposta 304 já foi preparada)
+     */
+    private boolean naoModificado(WebRequest request) {
+        return request.checkNotModified(clienteVersao.etag());
+    }
+
+}
\ No newline at end of file
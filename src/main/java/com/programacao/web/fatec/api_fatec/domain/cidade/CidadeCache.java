@@ -0,0 +1,141 @@
+package com.programacao.web.fatec.api_fatec.domain.cidade;
+
+import java.time.Duration;
+import java.util.Optional;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.github.benmanes.caffeine.cache.stats.CacheStats;
+import com.programacao.web.fatec.api_fatec.entities.Cidade;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import jakarta.annotation.PostConstruct;
+
+/**
+ * Cache de leitura (read-through) das cidades, usado nos caminhos de escrita de clientes.
+ * 
+ * Criar ou alterar um cliente precisa resolver a cidade pelo ID, e as cidades quase nunca mudam.
+ * Em vez de um SELECT por escrita, as cidades são buscadas no CidadeRepository apenas na primeira
+ * vez e mantidas em um cache concorrente com tamanho máximo (eviction por frequência/recência)
+ * e expiração, que registra estatísticas de acertos e falhas (expostas como métricas cache.*).
+ * 
+ * Alterações e remoções de cidades invalidam a entrada correspondente através do
+ * {@link CidadeEventosListener}. Como em ClienteBuscaCache, a verificação da geração e a gravação
+ * acontecem sob o lock de leitura e a invalidação sob o de escrita, então um valor lido antes de
+ * uma invalidação nunca é gravado depois dela.
+ */
+@Component
+public class CidadeCache {
+
+    @Autowired
+    private CidadeRepository cidadeRepository;
+
+    @Autowired
+    private MeterRegistry meterRegistry;
+
+    @Value("${api.cidades.cache.tamanho-maximo:10000}")
+    private long tamanhoMaximo;
+
+    @Value("${api.cidades.cache.expiracao:PT1H}")
+    private Duration expiracao;
+
+    private Cache<Long, Cidade> cache;
+
+    /**
+     * Contador de invalidações, usado para não gravar no cache um valor lido antes de uma invalidação.
+     */
+    private final AtomicLong geracao = new AtomicLong();
+
+    private final ReentrantReadWriteLock lock = new ReentrantReadWriteLock();
+
+    @PostConstruct
+    void inicializar() {
+        cache = Caffeine.newBuilder()
+                .maximumSize(tamanhoMaximo)
+                .expireAfterWrite(expiracao)
+                .recordStats()
+                .build();
+        // Expõe acertos, falhas, tamanho e remoções como métricas cache.* com a tag cache=cidades
+        CaffeineCacheMetrics.monitor(meterRegistry, cache, "cidades");
+    }
+
+    /**
+     * Busca uma cidade pelo ID, consultando o banco apenas se ela não estiver no cache.
+     * 
+     * Cada chamada recebe uma cópia própria (desanexada do contexto de persistência), para que
+     * threads diferentes nunca compartilhem a mesma instância da entidade.
+     * 
+     * @param id ID da cidade
+     * @return A cidade, ou Optional vazio se ela não existir (cidades inexistentes não são cacheadas)
+     */
+    public Optional<Cidade> buscarPorId(Long id) {
+        Cidade cidade = cache.getIfPresent(id);
+        if (cidade == null) {
+            // A consulta é feita fora do cache.get(id, loader): o loader roda dentro de um bloco
+            // synchronized do ConcurrentHashMap e prenderia a thread carregadora de uma virtual
+            // thread durante todo o acesso JDBC.
+            long geracaoInicial = geracao.get();
+            cidade = cidadeRepository.findById(id).map(CidadeCache::copiar).orElse(null);
+            // Se houve invalidação durante a consulta, o valor lido pode estar desatualizado
+            if (cidade != null) {
+                lock.readLock().lock();
+                try {
+                    if (geracao.get() == geracaoInicial) {
+                        cache.put(id, cidade);
+                    }
+                } finally {
+                    lock.readLock().unlock();
+                }
+            }
+        }
+        return Optional.ofNullable(cidade).map(CidadeCache::copiar);
+    }
+
+    /**
+     * Remove uma cidade do cache. Deve ser chamado sempre que a cidade for alterada ou removida.
+     * 
+     * @param id ID da cidade
+     */
+    public void invalidar(Long id) {
+        lock.writeLock().lock();
+        try {
+            geracao.incrementAndGet();
+            cache.invalidate(id);
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    /**
+     * Remove todas as cidades do cache.
+     */
+    public void invalidarTodas() {
+        lock.writeLock().lock();
+        try {
+            geracao.incrementAndGet();
+            cache.invalidateAll();
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    /**
+     * Retorna as estatísticas do cache (acertos, falhas, carregamentos e remoções).
+     * 
+     * @return Estatísticas acumuladas desde a inicialização
+     */
+    public CacheStats estatisticas() {
+        return cache.stats();
+    }
+
+    private static Cidade copiar(Cidade cidade) {
+        return new Cidade(cidade.getId(), cidade.getNome(), cidade.getEstado());
+    }
+}
@@ -0,0 +1,111 @@
+package com.programacao.web.fatec.api_fatec.domain.cidade;
+
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import com.programacao.web.fatec.api_fatec.domain.cliente.ClienteBuscaCache;
+import com.programacao.web.fatec.api_fatec.domain.cliente.ClienteEstatisticas;
+import com.programacao.web.fatec.api_fatec.domain.cliente.ClienteIndiceTrigrama;
+import com.programacao.web.fatec.api_fatec.domain.cliente.ClienteVersao;
+import com.programacao.web.fatec.api_fatec.entities.Cidade;
+import com.programacao.web.fatec.api_fatec.infra.LeituraReplica;
+
+import jakarta.persistence.PostRemove;
+import jakarta.persistence.PostUpdate;
+
+/**
+ * Listener JPA que mantém os dados derivados de cidades consistentes quando uma cidade muda
+ * (cache de cidades, índice e cache de busca, estatísticas e versão usada nos ETags de clientes).
+ * 
+ * Registrado na entidade Cidade com @EntityListeners, é chamado pelo Hibernate em qualquer
+ * alteração ou remoção de cidade, independentemente de qual serviço a fez. A invalidação dos caches
+ * e o incremento da versão são feitos imediatamente e repetidos após o commit, para que uma leitura
+ * concorrente feita antes do commit não deixe a versão antiga no cache (se a transação for
+ * desfeita, isso só custa novas consultas). O índice de trigramas e as estatísticas guardam o
+ * próprio estado da cidade, então só são atualizados após o commit: um rollback não deixa neles um
+ * nome que não foi gravado nem remove uma cidade que continua existindo.
+ * 
+ * As dependências são obtidas por ObjectProvider porque o listener é criado junto com o
+ * EntityManagerFactory, antes dos beans que dependem dos repositórios.
+ */
+@Component
+public class CidadeEventosListener {
+
+    @Autowired
+    private ObjectProvider<CidadeCache> cidadeCache;
+
+    @Autowired
+    private ObjectProvider<ClienteIndiceTrigrama> indiceTrigrama;
+
+    @Autowired
+    private ObjectProvider<ClienteVersao> clienteVersao;
+
+    @Autowired
+    private ObjectProvider<ClienteBuscaCache> buscaCache;
+
+    @Autowired
+    private ObjectProvider<ClienteEstatisticas> estatisticas;
+
+    @PostUpdate
+    void aposAlterar(Cidade cidade) {
+        Cidade copia = new Cidade(cidade.getId(), cidade.getNome(), cidade.getEstado());
+        // Registrado antes da invalidação: após o commit, o índice já tem o novo nome quando os
+        // caches são invalidados, então uma busca que recarregue o cache já o encontra
+        executarAposCommit(() -> {
+            indiceTrigrama.getObject().atualizarCidade(copia);
+            estatisticas.getObject().atualizarCidade(copia);
+        });
+        executarAgoraEAposCommit(() -> {
+            cidadeCache.getObject().invalidar(copia.getId());
+            buscaCache.getObject().invalidarCidade(copia.getId(), copia.getNome());
+            clienteVersao.getObject().incrementar();
+        });
+        LeituraReplica.registrarEscrita();
+    }
+
+    @PostRemove
+    void aposRemover(Cidade cidade) {
+        Long id = cidade.getId();
+        executarAposCommit(() -> {
+            indiceTrigrama.getObject().removerCidade(id);
+            estatisticas.getObject().removerCidade(id);
+        });
+        executarAgoraEAposCommit(() -> {
+            cidadeCache.getObject().invalidar(id);
+            buscaCache.getObject().invalidarCidade(id, null);
+            clienteVersao.getObject().incrementar();
+        });
+        LeituraReplica.registrarEscrita();
+    }
+
+    private static void executarAgoraEAposCommit(Runnable acao) {
+        acao.run();
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            registrarAposCommit(acao);
+        }
+    }
+
+    /**
+     * Executa a ação após o commit da transação atual, ou imediatamente se não houver transação
+     * (a alteração já foi gravada).
+     */
+    private static void executarAposCommit(Runnable acao) {
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            registrarAposCommit(acao);
+        } else {
+            acao.run();
+        }
+    }
+
+    private static void registrarAposCommit(Runnable acao) {
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCommit() {
+                acao.run();
+            }
+        });
+    }
+}
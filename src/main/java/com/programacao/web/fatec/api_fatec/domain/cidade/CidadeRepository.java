@@ -8,6 +8,7 @@ import com.programacao.web.fatec.api_fatec.entities.Cidade;
 import com.programacao.web.fatec.api_fatec.entities.Estado;
 
 import java.util.List;
+import java.util.Optional;
 
 /**
  * Repositório para operações de banco de dados relacionadas à entidade Cidade.
@@ -15,4 +16,13 @@ import java.util.List;
  */
 public interface CidadeRepository extends JpaRepository<Cidade, Long> {
 
+    /**
+     * Busca uma cidade pelo nome normalizado (sem diferenciar maiúsculas nem acentos) e estado,
+     * pelo índice de nome_normalizado.
+     * 
+     * @param nomeNormalizado Nome da cidade normalizado com TextoBusca.normalizar
+     * @param estado Estado da cidade
+     * @return A primeira cidade encontrada, ou Optional vazio
+     */
+    Optional<Cidade> findFirstByNomeNormalizadoAndEstado(String nomeNormalizado, Estado estado);
 }
\ No newline at end of file
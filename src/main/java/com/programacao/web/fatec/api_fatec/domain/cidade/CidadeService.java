@@ -0,0 +1,69 @@
+package com.programacao.web.fatec.api_fatec.domain.cidade;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Service;
+
+import com.programacao.web.fatec.api_fatec.domain.cidade.dto.CidadeResponseDto;
+import com.programacao.web.fatec.api_fatec.domain.cliente.ClienteEstatisticas;
+import com.programacao.web.fatec.api_fatec.domain.cliente.ClienteRepository;
+import com.programacao.web.fatec.api_fatec.domain.cliente.ClienteService;
+import com.programacao.web.fatec.api_fatec.domain.cliente.dto.ClientePaginaDto;
+import com.programacao.web.fatec.api_fatec.entities.Cidade;
+import com.programacao.web.fatec.api_fatec.exception.ResourceNotFoundException;
+
+/**
+ * Consultas de cidades e dos seus clientes, sem carregar a coleção Cidade.clientes.
+ */
+@Service
+public class CidadeService {
+
+    @Autowired
+    private CidadeCache cidadeCache;
+
+    @Autowired
+    private ClienteRepository clienteRepository;
+
+    @Autowired
+    private ClienteService clienteService;
+
+    @Autowired
+    private ClienteEstatisticas clienteEstatisticas;
+
+    /**
+     * Busca uma cidade pelo ID com a quantidade dos seus clientes.
+     * 
+     * A quantidade vem das contagens em memória; enquanto elas não estiverem prontas é feito
+     * um COUNT pelo índice de cidade_id.
+     * 
+     * @param id ID da cidade
+     * @return A cidade com a quantidade de clientes
+     * @throws ResourceNotFoundException se a cidade não existir
+     */
+    public CidadeResponseDto buscarPorId(Long id) {
+        Cidade cidade = buscarCidade(id);
+        Long quantidade = clienteEstatisticas.quantidadeDaCidade(id);
+        if (quantidade == null) {
+            quantidade = clienteRepository.contarPorCidadeId(id);
+        }
+        return new CidadeResponseDto(cidade.getId(), cidade.getNome(), cidade.getEstado(), quantidade);
+    }
+
+    /**
+     * Lista uma página dos clientes de uma cidade, ordenados por ID.
+     * 
+     * @param id ID da cidade
+     * @param after ID do último cliente da página anterior (null para a primeira página)
+     * @param limit Tamanho da página (null para o tamanho padrão)
+     * @return Página com os clientes e o cursor da próxima página (null na última página)
+     * @throws ResourceNotFoundException se a cidade não existir
+     */
+    public ClientePaginaDto listarClientes(Long id, Long after, Integer limit) {
+        buscarCidade(id);
+        return clienteService.listarClientesDaCidade(id, after, limit);
+    }
+
+    private Cidade buscarCidade(Long id) {
+        return cidadeCache.buscarPorId(id)
+                .orElseThrow(() -> new ResourceNotFoundException("Cidade", "id", id));
+    }
+}
@@ -0,0 +1,23 @@
+package com.programacao.web.fatec.api_fatec.domain.cidade.dto;
+
+import com.programacao.web.fatec.api_fatec.entities.Estado;
+
+/**
+ * Modelo de leitura de uma cidade com a quantidade dos seus clientes.
+ * 
+ * Nunca carrega a coleção Cidade.clientes: a quantidade vem das contagens em memória
+ * (ClienteEstatisticas) e os clientes são listados em páginas por GET /api/cidades/{id}/clientes.
+ * 
+ * {
+ *   "id": 1,
+ *   "nome": "São Paulo",
+ *   "estado": "SP",
+ *   "quantidadeClientes": 3
+ * }
+ */
+public record CidadeResponseDto(
+        Long id,
+        String nome,
+        Estado estado,
+        long quantidadeClientes) {
+}
@@ -0,0 +1,480 @@
+package com.programacao.web.fatec.api_fatec.domain.cliente;
+
+import java.time.Duration;
+import java.util.Collection;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+import java.util.function.BiPredicate;
+import java.util.function.Consumer;
+import java.util.function.Supplier;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.github.benmanes.caffeine.cache.RemovalCause;
+import com.github.benmanes.caffeine.cache.stats.CacheStats;
+import com.programacao.web.fatec.api_fatec.domain.cliente.dto.ClienteResponseDto;
+import com.programacao.web.fatec.api_fatec.entities.Cidade;
+import com.programacao.web.fatec.api_fatec.entities.Cliente;
+import com.programacao.web.fatec.api_fatec.entities.Estado;
+import com.programacao.web.fatec.api_fatec.infra.LeituraReplica;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import jakarta.annotation.PostConstruct;
+
+/**
+ * Cache dos resultados das buscas de clientes por ID, nome e texto.
+ *
+ * As entradas são identificadas pela busca normalizada (tipo, ID e termo em minúsculas e sem
+ * acentos, como as colunas nome_normalizado das consultas) e limitadas pela quantidade total de clientes guardados
+ * (api.clientes.busca.cache.peso-maximo) e por tempo (api.clientes.busca.cache.expiracao).
+ * Acertos, falhas e remoções são expostos como métricas cache.* com a tag cache=clientes-busca.
+ *
+ * Quando um cliente ou uma cidade muda, apenas as entradas afetadas são removidas: as que contêm
+ * o cliente (ou a cidade) no resultado e as cujo critério de busca corresponde ao novo estado.
+ * Termos com curinga do LIKE (ou nulos) não têm equivalente em memória e são sempre removidos.
+ *
+ * Uma escrita não percorre o cache: as entradas são indexadas pelos IDs de clientes e cidades do
+ * resultado, pelo ID buscado e pelo primeiro trigrama do termo (um nome só contém o termo se
+ * contiver esse trigrama). A invalidação confere apenas as entradas encontradas pelos IDs e pelos
+ * trigramas do novo nome, mais as que não têm trigrama (termos curtos ou com curinga e consultas
+ * estruturadas). Os índices de uma entrada são atualizados na mesma operação atômica do cache que
+ * a grava, substitui, remove ou expira, então sempre correspondem ao resultado guardado.
+ *
+ * Para que um resultado lido antes de uma escrita nunca seja gravado depois da invalidação,
+ * toda invalidação incrementa uma geração e só é gravado o resultado cuja consulta começou e
+ * terminou na mesma geração. A verificação e a gravação acontecem sob o lock de leitura, e a
+ * invalidação sob o de escrita, então nenhuma entrada é gravada no meio de uma invalidação.
+ * Pelo mesmo motivo, um resultado lido de uma réplica atrasada ({@link LeituraReplica#defasada()})
+ * não é gravado: a invalidação já pode ter acontecido antes de a réplica receber a escrita.
+ */
+@Component
+public class ClienteBuscaCache {
+
+    @Autowired
+    private MeterRegistry meterRegistry;
+
+    @Value("${api.clientes.busca.cache.habilitado:true}")
+    private boolean habilitado;
+
+    /**
+     * Quantidade máxima de clientes somando os resultados de todas as entradas.
+     */
+    @Value("${api.clientes.busca.cache.peso-maximo:100000}")
+    private long pesoMaximo;
+
+    @Value("${api.clientes.busca.cache.expiracao:PT5M}")
+    private Duration expiracao;
+
+    private Cache<Chave, Resultado> cache;
+
+    private final AtomicLong geracao = new AtomicLong();
+
+    private final ReentrantReadWriteLock lock = new ReentrantReadWriteLock();
+
+    /**
+     * Entradas por ID de cliente: as que o têm no resultado e as que buscam por esse ID.
+     */
+    private final Map<Long, Set<Chave>> porCliente = new ConcurrentHashMap<>();
+
+    /**
+     * Entradas por ID das cidades que aparecem no resultado.
+     */
+    private final Map<Long, Set<Chave>> porCidade = new ConcurrentHashMap<>();
+
+    /**
+     * Entradas por primeiro trigrama do termo buscado.
+     */
+    private final Map<String, Set<Chave>> porTrigrama = new ConcurrentHashMap<>();
+
+    /**
+     * Entradas sem trigrama, conferidas em toda criação ou alteração.
+     */
+    private final Set<Chave> semTrigrama = ConcurrentHashMap.newKeySet();
+
+    private Counter invalidacoes;
+
+    @PostConstruct
+    void inicializar() {
+        cache = Caffeine.newBuilder()
+                .maximumWeight(pesoMaximo)
+                .weigher((Chave chave, Resultado resultado) -> resultado.clientes().size() + 1)
+                .expireAfterWrite(expiracao)
+                // Chamado dentro da operação atômica que remove a entrada por tamanho ou expiração
+                .evictionListener((Chave chave, Resultado resultado, RemovalCause causa) -> desindexar(chave, resultado))
+                .recordStats()
+                .build();
+        CaffeineCacheMetrics.monitor(meterRegistry, cache, "clientes-busca");
+        invalidacoes = Counter.builder("api.clientes.busca.cache.invalidacoes")
+                .description("Entradas do cache de buscas de clientes removidas por escritas")
+                .register(meterRegistry);
+    }
+
+    /**
+     * Retorna o resultado da busca do cache ou, se não estiver lá, executa a consulta e guarda
+     * o resultado (desde que nenhuma invalidação tenha acontecido durante a consulta).
+     *
+     * @param chave Busca normalizada
+     * @param consulta Consulta executada em caso de falha no cache
+     * @return Lista imutável de clientes
+     */
+    public List<ClienteResponseDto> buscar(Chave chave, Supplier<List<ClienteResponseDto>> consulta) {
+        if (!habilitado) {
+            return consulta.get();
+        }
+
+        Resultado resultado = cache.getIfPresent(chave);
+        if (resultado != null) {
+            return resultado.clientes();
+        }
+
+        long geracaoInicial = geracao.get();
+        Resultado novo = Resultado.de(consulta.get());
+        if (LeituraReplica.defasada()) {
+            // Lido de uma réplica que ainda não aplicou todas as escritas: não vai para o cache
+            return novo.clientes();
+        }
+
+        lock.readLock().lock();
+        try {
+            if (geracao.get() == geracaoInicial) {
+                cache.asMap().compute(chave, (c, anterior) -> {
+                    if (anterior != null) {
+                        desindexar(c, anterior);
+                    }
+                    indexar(c, novo);
+                    return novo;
+                });
+            }
+        } finally {
+            lock.readLock().unlock();
+        }
+        return novo.clientes();
+    }
+
+    /**
+     * Remove as entradas afetadas pela criação ou alteração de clientes. Deve ser chamado depois
+     * que os clientes foram gravados.
+     *
+     * @param clientes Clientes no novo estado (com a cidade, se houver)
+     */
+    public void invalidarClientes(List<Cliente> clientes) {
+        invalidarAlterados(clientes.stream().map(Alterado::de).toList());
+    }
+
+    /**
+     * Remove as entradas afetadas por uma alteração parcial de cliente, conhecendo apenas os
+     * campos alterados. Um campo que não mudou não altera quais buscas o cliente satisfaz por
+     * ele, e as buscas que já continham o cliente são removidas pelo ID.
+     *
+     * @param id ID do cliente
+     * @param nome Novo nome, ou null se não mudou
+     * @param cidadeNome Nome da nova cidade, ou null se a cidade não mudou ou foi removida
+     */
+    public void invalidarAlteracaoParcial(Long id, String nome, String cidadeNome) {
+        invalidarAlterados(List.of(new Alterado(id, TextoBusca.normalizar(nome), TextoBusca.normalizar(cidadeNome),
+                null, null, false)));
+    }
+
+    private void invalidarAlterados(List<Alterado> alterados) {
+        invalidar(candidatas -> {
+            candidatas.addAll(semTrigrama);
+            for (Alterado alterado : alterados) {
+                adicionar(candidatas, porCliente.get(alterado.id()));
+                adicionarPorTrigramas(candidatas, alterado.nome());
+                adicionarPorTrigramas(candidatas, alterado.cidadeNome());
+            }
+        }, (chave, resultado) -> {
+            for (Alterado alterado : alterados) {
+                if (resultado.ids().contains(alterado.id()) || chave.podeConter(alterado)) {
+                    return true;
+                }
+            }
+            return false;
+        });
+    }
+
+    /**
+     * Remove as entradas que contêm algum dos clientes removidos. Deve ser chamado depois da remoção.
+     *
+     * @param ids IDs dos clientes removidos
+     */
+    public void invalidarClientesRemovidos(Collection<Long> ids) {
+        Set<Long> removidos = Set.copyOf(ids);
+        invalidar(candidatas -> removidos.forEach(id -> adicionar(candidatas, porCliente.get(id))),
+                (chave, resultado) -> contemAlgum(resultado.ids(), removidos));
+    }
+
+    /**
+     * Remove as entradas afetadas pela alteração de uma cidade: as que mostram a cidade no
+     * resultado, as buscas por texto que passam a corresponder ao novo nome e as consultas
+     * estruturadas que filtram por cidade ou estado.
+     *
+     * @param cidadeId ID da cidade
+     * @param novoNome Novo nome da cidade, ou null se ela foi removida
+     */
+    public void invalidarCidade(Long cidadeId, String novoNome) {
+        invalidar(candidatas -> {
+            adicionar(candidatas, porCidade.get(cidadeId));
+            if (novoNome != null) {
+                candidatas.addAll(semTrigrama);
+                adicionarPorTrigramas(candidatas, TextoBusca.normalizar(novoNome));
+            }
+        }, (chave, resultado) -> resultado.cidadeIds().contains(cidadeId)
+                || (novoNome != null && chave.podeConterCidade(novoNome)));
+    }
+
+    /**
+     * Retorna as estatísticas do cache (acertos, falhas e remoções).
+     *
+     * @return Estatísticas acumuladas desde a inicialização
+     */
+    public CacheStats estatisticas() {
+        return cache.stats();
+    }
+
+    private static boolean contemAlgum(Set<Long> a, Set<Long> b) {
+        Set<Long> menor = a.size() <= b.size() ? a : b;
+        Set<Long> maior = menor == a ? b : a;
+        for (Long id : menor) {
+            if (maior.contains(id)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * Remove as entradas afetadas entre as candidatas encontradas pelos índices.
+     *
+     * @param candidatas Adiciona ao conjunto recebido as entradas que podem ter sido afetadas
+     * @param afetada Confere, com o resultado guardado, se a entrada deve ser removida
+     */
+    private void invalidar(Consumer<Set<Chave>> candidatas, BiPredicate<Chave, Resultado> afetada) {
+        if (!habilitado) {
+            return;
+        }
+        lock.writeLock().lock();
+        try {
+            geracao.incrementAndGet();
+            Set<Chave> chaves = new HashSet<>();
+            candidatas.accept(chaves);
+            for (Chave chave : chaves) {
+                cache.asMap().computeIfPresent(chave, (c, resultado) -> {
+                    if (!afetada.test(c, resultado)) {
+                        return resultado;
+                    }
+                    desindexar(c, resultado);
+                    invalidacoes.increment();
+                    return null;
+                });
+            }
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    private void indexar(Chave chave, Resultado resultado) {
+        for (Long id : resultado.ids()) {
+            indexar(porCliente, id, chave);
+        }
+        if (chave.id() != null) {
+            indexar(porCliente, chave.id(), chave);
+        }
+        for (Long cidadeId : resultado.cidadeIds()) {
+            indexar(porCidade, cidadeId, chave);
+        }
+        String trigrama = chave.trigrama();
+        if (trigrama != null) {
+            indexar(porTrigrama, trigrama, chave);
+        } else {
+            semTrigrama.add(chave);
+        }
+    }
+
+    private void desindexar(Chave chave, Resultado resultado) {
+        for (Long id : resultado.ids()) {
+            desindexar(porCliente, id, chave);
+        }
+        if (chave.id() != null) {
+            desindexar(porCliente, chave.id(), chave);
+        }
+        for (Long cidadeId : resultado.cidadeIds()) {
+            desindexar(porCidade, cidadeId, chave);
+        }
+        String trigrama = chave.trigrama();
+        if (trigrama != null) {
+            desindexar(porTrigrama, trigrama, chave);
+        } else {
+            semTrigrama.remove(chave);
+        }
+    }
+
+    private static <K> void indexar(Map<K, Set<Chave>> indice, K valor, Chave chave) {
+        indice.compute(valor, (v, chaves) -> {
+            Set<Chave> conjunto = chaves != null ? chaves : ConcurrentHashMap.newKeySet();
+            conjunto.add(chave);
+            return conjunto;
+        });
+    }
+
+    private static <K> void desindexar(Map<K, Set<Chave>> indice, K valor, Chave chave) {
+        indice.computeIfPresent(valor, (v, chaves) -> {
+            chaves.remove(chave);
+            return chaves.isEmpty() ? null : chaves;
+        });
+    }
+
+    private static void adicionar(Set<Chave> candidatas, Set<Chave> chaves) {
+        if (chaves != null) {
+            candidatas.addAll(chaves);
+        }
+    }
+
+    /**
+     * Adiciona as entradas cujo termo começa por algum trigrama do texto, ou seja, as que o
+     * texto pode conter.
+     *
+     * @param textoNormalizado Nome normalizado, ou null
+     */
+    private void adicionarPorTrigramas(Set<Chave> candidatas, String textoNormalizado) {
+        if (textoNormalizado == null) {
+            return;
+        }
+        for (int i = 0; i + 3 <= textoNormalizado.length(); i++) {
+            adicionar(candidatas, porTrigrama.get(textoNormalizado.substring(i, i + 3)));
+        }
+    }
+
+    /**
+     * Tipo de busca, que define quais campos o termo compara.
+     */
+    public enum Tipo {
+        /** ID ou nome do cliente (buscaPorIdOuNome). */
+        ID_OU_NOME,
+        /** ID, nome do cliente ou nome da cidade (buscarPorTexto). */
+        TEXTO,
+        /** Consulta estruturada (buscarPorTexto com campos, ver {@link ClienteConsulta}). */
+        CONSULTA
+    }
+
+    /**
+     * Busca normalizada usada como chave do cache.
+     *
+     * @param tipo Tipo de busca
+     * @param id ID buscado, ou null
+     * @param termo Termo buscado normalizado (minúsculas, sem acentos), ou null
+     * @param consulta Consulta estruturada (apenas no tipo CONSULTA)
+     */
+    public record Chave(Tipo tipo, Long id, String termo, ClienteConsulta consulta) {
+
+        public static Chave idOuNome(Long id, String nome) {
+            return new Chave(Tipo.ID_OU_NOME, id, TextoBusca.normalizar(nome), null);
+        }
+
+        public static Chave texto(Long id, String texto) {
+            return new Chave(Tipo.TEXTO, id, TextoBusca.normalizar(texto), null);
+        }
+
+        public static Chave consulta(ClienteConsulta consulta) {
+            return new Chave(Tipo.CONSULTA, null, null, consulta);
+        }
+
+        /**
+         * Verifica se um cliente com estes dados pode fazer parte do resultado desta busca.
+         * Na dúvida (termo nulo ou com curinga) retorna true.
+         */
+        boolean podeConter(Alterado cliente) {
+            if (tipo == Tipo.CONSULTA) {
+                // Com AND, um campo que não mudou pode passar a corresponder junto com o que mudou:
+                // sem o estado completo do cliente não dá para descartar a entrada
+                return !cliente.completo() || consulta.corresponde(cliente.id(), cliente.nome(),
+                        cliente.cidadeId(), cliente.cidadeNome(), cliente.estado());
+            }
+            if (Objects.equals(id, cliente.id()) || termoSemEquivalente()) {
+                return true;
+            }
+            return contem(cliente.nome(), termo)
+                    || (tipo == Tipo.TEXTO && contem(cliente.cidadeNome(), termo));
+        }
+
+        /**
+         * Verifica se clientes de uma cidade com este nome podem fazer parte do resultado.
+         */
+        boolean podeConterCidade(String cidadeNome) {
+            if (tipo == Tipo.CONSULTA) {
+                return consulta.dependeDaCidade(TextoBusca.normalizar(cidadeNome));
+            }
+            return tipo == Tipo.TEXTO && (termoSemEquivalente() || TextoBusca.contem(cidadeNome, termo));
+        }
+
+        /**
+         * Primeiro trigrama do termo, pelo qual a entrada é encontrada quando um nome passa a
+         * conter o termo.
+         *
+         * @return O trigrama, ou null se a entrada tiver de ser conferida em toda escrita (consulta
+         *         estruturada, termo com menos de 3 caracteres, nulo ou com curinga)
+         */
+        String trigrama() {
+            if (tipo == Tipo.CONSULTA || termoSemEquivalente() || termo.length() < 3) {
+                return null;
+            }
+            return termo.substring(0, 3);
+        }
+
+        private boolean termoSemEquivalente() {
+            return termo == null || TextoBusca.temCuringa(termo);
+        }
+
+        private static boolean contem(String valorNormalizado, String termo) {
+            return valorNormalizado != null && valorNormalizado.contains(termo);
+        }
+    }
+
+    /**
+     * Novo estado de um cliente alterado, com os textos já normalizados para a comparação
+     * com várias entradas. Em uma alteração parcial (completo = false) só os campos alterados
+     * são conhecidos.
+     */
+    private record Alterado(Long id, String nome, String cidadeNome, Long cidadeId, Estado estado,
+            boolean completo) {
+
+        static Alterado de(Cliente cliente) {
+            Cidade cidade = cliente.getCidade();
+            return new Alterado(cliente.getId(), TextoBusca.normalizar(cliente.getNome()),
+                    cidade != null ? TextoBusca.normalizar(cidade.getNome()) : null,
+                    cidade != null ? cidade.getId() : null,
+                    cidade != null ? cidade.getEstado() : null,
+                    true);
+        }
+    }
+
+    /**
+     * Resultado guardado, com os IDs de clientes e cidades indexados para a invalidação.
+     */
+    private record Resultado(List<ClienteResponseDto> clientes, Set<Long> ids, Set<Long> cidadeIds) {
+
+        static Resultado de(List<ClienteResponseDto> clientes) {
+            Set<Long> ids = new HashSet<>();
+            Set<Long> cidadeIds = new HashSet<>();
+            for (ClienteResponseDto cliente : clientes) {
+                ids.add(cliente.id());
+                if (cliente.cidadeId() != null) {
+                    cidadeIds.add(cliente.cidadeId());
+                }
+            }
+            return new Resultado(List.copyOf(clientes), ids, cidadeIds);
+        }
+    }
+}
@@ -0,0 +1,154 @@
+package com.programacao.web.fatec.api_fatec.domain.cliente;
+
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutionException;
+import java.util.function.Supplier;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import com.programacao.web.fatec.api_fatec.domain.cliente.dto.ClienteResponseDto;
+import com.programacao.web.fatec.api_fatec.exception.ServiceUnavailableException;
+import com.programacao.web.fatec.api_fatec.infra.LeituraReplica;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PostConstruct;
+
+/**
+ * Compartilhamento das buscas de clientes idênticas que chegam ao mesmo tempo (single-flight).
+ *
+ * A primeira busca com uma chave executa a consulta; as que chegam com a mesma chave enquanto ela
+ * está em andamento esperam e recebem o mesmo resultado, em vez de repetir a mesma varredura no
+ * banco. Nada é guardado depois que a consulta termina: isso é papel do {@link ClienteBuscaCache},
+ * que fica antes deste compartilhamento e também funciona sem ele.
+ *
+ * Uma busca só aproveita uma consulta iniciada depois da última escrita em clientes: a chave
+ * inclui a versão de {@link ClienteVersao} no início da consulta, então quem chega depois de uma
+ * escrita inicia outra consulta e vê a escrita. A chave também inclui a posição de replicação
+ * exigida da réplica ({@link LeituraReplica}), para que uma leitura presa às próprias escritas
+ * não receba o resultado de uma réplica que ainda não as aplicou; se a consulta compartilhada
+ * foi feita em uma réplica atrasada, todas as buscas que a aproveitaram ficam marcadas como
+ * defasadas.
+ *
+ * Se a consulta falhar, todas as buscas que a aguardavam recebem a mesma exceção. Se a thread que
+ * a executava foi interrompida, as demais não herdam a interrupção: a primeira delas executa a
+ * consulta de novo.
+ *
+ * Métricas: api.clientes.busca.compartilhadas (buscas atendidas pela consulta de outra) e
+ * api.clientes.busca.em-andamento (consultas em execução).
+ */
+@Component
+public class ClienteBuscasEmAndamento {
+
+    @Autowired
+    private ClienteVersao clienteVersao;
+
+    @Autowired
+    private MeterRegistry meterRegistry;
+
+    @Value("${api.clientes.busca.compartilhamento.habilitado:true}")
+    private boolean habilitado;
+
+    private final Map<Execucao, CompletableFuture<Resultado>> emAndamento = new ConcurrentHashMap<>();
+
+    private Counter compartilhadas;
+
+    @PostConstruct
+    void inicializar() {
+        compartilhadas = Counter.builder("api.clientes.busca.compartilhadas")
+                .description("Buscas de clientes atendidas pela consulta idêntica de outra requisição")
+                .register(meterRegistry);
+        Gauge.builder("api.clientes.busca.em-andamento", emAndamento, Map::size)
+                .description("Consultas de busca de clientes em execução que podem ser compartilhadas")
+                .register(meterRegistry);
+    }
+
+    /**
+     * Executa a consulta da busca ou, se uma consulta idêntica já estiver em andamento, espera
+     * o resultado dela.
+     *
+     * @param chave Busca normalizada
+     * @param consulta Consulta ao banco
+     * @return Lista imutável de clientes
+     */
+    public List<ClienteResponseDto> executar(ClienteBuscaCache.Chave chave,
+            Supplier<List<ClienteResponseDto>> consulta) {
+        if (!habilitado) {
+            return consulta.get();
+        }
+
+        while (true) {
+            Execucao execucao = new Execucao(chave, clienteVersao.atual(), LeituraReplica.ativa(),
+                    LeituraReplica.posicaoMinima());
+            CompletableFuture<Resultado> nova = new CompletableFuture<>();
+            CompletableFuture<Resultado> existente = emAndamento.putIfAbsent(execucao, nova);
+            if (existente == null) {
+                return consultar(execucao, nova, consulta);
+            }
+            try {
+                Resultado resultado = aguardar(existente);
+                compartilhadas.increment();
+                if (resultado.defasada()) {
+                    LeituraReplica.registrarDefasada();
+                }
+                return resultado.clientes();
+            } catch (CancellationException e) {
+                // A thread que executava a consulta foi interrompida: tenta de novo
+            }
+        }
+    }
+
+    private List<ClienteResponseDto> consultar(Execucao execucao, CompletableFuture<Resultado> futuro,
+            Supplier<List<ClienteResponseDto>> consulta) {
+        try {
+            List<ClienteResponseDto> clientes = List.copyOf(consulta.get());
+            futuro.complete(new Resultado(clientes, LeituraReplica.defasada()));
+            return clientes;
+        } catch (RuntimeException | Error e) {
+            if (Thread.currentThread().isInterrupted()) {
+                futuro.cancel(false);
+            } else {
+                futuro.completeExceptionally(e);
+            }
+            throw e;
+        } finally {
+            emAndamento.remove(execucao, futuro);
+        }
+    }
+
+    private static Resultado aguardar(CompletableFuture<Resultado> futuro) {
+        try {
+            return futuro.get();
+        } catch (InterruptedException e) {
+            // Só esta busca desiste; a consulta continua para as demais
+            Thread.currentThread().interrupt();
+            throw new ServiceUnavailableException("A busca foi interrompida antes de terminar", 1);
+        } catch (ExecutionException e) {
+            if (e.getCause() instanceof RuntimeException falha) {
+                throw falha;
+            }
+            if (e.getCause() instanceof Error erro) {
+                throw erro;
+            }
+            throw new IllegalStateException(e.getCause());
+        }
+    }
+
+    /**
+     * Identifica uma consulta compartilhável: a busca, a versão dos clientes quando ela começou
+     * e para onde as leituras podem ir.
+     */
+    private record Execucao(ClienteBuscaCache.Chave chave, long versao, boolean leituraReplica,
+            long posicaoMinima) {
+    }
+
+    private record Resultado(List<ClienteResponseDto> clientes, boolean defasada) {
+    }
+}
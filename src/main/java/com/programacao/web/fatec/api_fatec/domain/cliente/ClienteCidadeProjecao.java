@@ -0,0 +1,11 @@
+package com.programacao.web.fatec.api_fatec.domain.cliente;
+
+/**
+ * Projeção com o ID de um cliente e o ID da sua cidade, usada para manter as contagens
+ * por cidade quando clientes mudam de cidade ou são removidos.
+ */
+public interface ClienteCidadeProjecao {
+    Long getId();
+
+    Long getCidadeId();
+}
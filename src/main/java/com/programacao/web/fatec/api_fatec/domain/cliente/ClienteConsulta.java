@@ -0,0 +1,332 @@
+package com.programacao.web.fatec.api_fatec.domain.cliente;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+import java.util.Optional;
+
+import org.springframework.data.jpa.domain.Specification;
+
+import com.programacao.web.fatec.api_fatec.entities.Cidade;
+import com.programacao.web.fatec.api_fatec.entities.Cliente;
+import com.programacao.web.fatec.api_fatec.entities.Estado;
+import com.programacao.web.fatec.api_fatec.exception.BadRequestException;
+
+import jakarta.persistence.criteria.CriteriaBuilder;
+import jakarta.persistence.criteria.Expression;
+import jakarta.persistence.criteria.Join;
+import jakarta.persistence.criteria.JoinType;
+import jakarta.persistence.criteria.Predicate;
+import jakarta.persistence.criteria.Root;
+
+/**
+ * Consulta estruturada de clientes, por exemplo: estado:SP cidade:"Belo Horizonte" nome:jo* id:42
+ *
+ * Campos aceitos (sem diferenciar maiúsculas no nome do campo):
+ * - id:42 e cidade_id:7 comparam o ID (igualdade);
+ * - estado:SP aceita a sigla ou o nome do estado ("estado:\"Minas Gerais\"");
+ * - nome:valor e cidade:valor comparam o nome normalizado (minúsculas, sem acentos). Sem '*' o
+ *   nome deve ser igual ao valor; '*' corresponde a qualquer sequência, então nome:jo* é busca por
+ *   prefixo e nome:*silva* por trecho.
+ *
+ * Valores com espaços vão entre aspas. Palavras sem campo formam um texto livre com a mesma
+ * semântica de /buscarPorTexto (ID, trecho do nome ou trecho do nome da cidade). Todos os
+ * critérios informados são combinados com AND; se um campo se repetir, vale o último.
+ *
+ * Os critérios são compilados em predicados JPA Criteria ({@link #especificacao()}) sobre colunas
+ * indexadas: IDs pela chave, cidade_id pelo índice de clientes.cidade_id e nomes sem '*' inicial
+ * pelos índices de nome_normalizado. Só o texto livre exige o OR amplo que percorre a tabela.
+ * O mesmo critério é avaliado em memória por {@link #corresponde}, usado pelo cache de buscas para
+ * decidir quais resultados uma escrita invalida.
+ *
+ * @param id ID do cliente, ou null
+ * @param cidadeId ID da cidade, ou null
+ * @param estado Estado da cidade, ou null
+ * @param nome Padrão do nome normalizado (com '*'), ou null
+ * @param cidade Padrão do nome normalizado da cidade (com '*'), ou null
+ * @param texto Texto livre normalizado, ou null
+ * @param textoId ID correspondente ao texto livre, se ele for numérico
+ */
+public record ClienteConsulta(
+        Long id,
+        Long cidadeId,
+        Estado estado,
+        String nome,
+        String cidade,
+        String texto,
+        Long textoId) {
+
+    private static final List<String> CAMPOS = List.of("id", "cidade_id", "estado", "nome", "cidade");
+
+    private static final char CURINGA = '*';
+
+    private static final char ESCAPE = '\\';
+
+    /**
+     * Interpreta o texto de uma busca como consulta estruturada.
+     *
+     * A leitura é feita caractere a caractere, sem exceções para controle de fluxo: um trecho
+     * "palavra:" que não seja um campo conhecido (como "12:30") é tratado como texto livre.
+     *
+     * @param consulta Texto da busca
+     * @return A consulta, ou Optional vazio se o texto não tiver nenhum campo (busca por texto simples)
+     * @throws BadRequestException se um campo estiver vazio ou tiver valor inválido
+     */
+    public static Optional<ClienteConsulta> interpretar(String consulta) {
+        if (consulta == null) {
+            return Optional.empty();
+        }
+
+        Long id = null;
+        Long cidadeId = null;
+        Estado estado = null;
+        String nome = null;
+        String cidade = null;
+        List<String> livres = new ArrayList<>();
+        boolean temCampo = false;
+
+        int i = 0;
+        int n = consulta.length();
+        while (i < n) {
+            if (Character.isWhitespace(consulta.charAt(i))) {
+                i++;
+                continue;
+            }
+
+            String campo = null;
+            int fimCampo = i;
+            while (fimCampo < n && (Character.isLetter(consulta.charAt(fimCampo)) || consulta.charAt(fimCampo) == '_')) {
+                fimCampo++;
+            }
+            if (fimCampo > i && fimCampo < n && consulta.charAt(fimCampo) == ':') {
+                String candidato = consulta.substring(i, fimCampo).toLowerCase(Locale.ROOT);
+                if (CAMPOS.contains(candidato)) {
+                    campo = candidato;
+                    i = fimCampo + 1;
+                }
+            }
+
+            // Valor entre aspas (até a próxima aspa) ou até o próximo espaço
+            String valor;
+            if (i < n && consulta.charAt(i) == '"') {
+                int fechamento = consulta.indexOf('"', i + 1);
+                int fim = fechamento >= 0 ? fechamento : n;
+                valor = consulta.substring(i + 1, fim);
+                i = fechamento >= 0 ? fechamento + 1 : n;
+            } else {
+                int fim = i;
+                while (fim < n && !Character.isWhitespace(consulta.charAt(fim))) {
+                    fim++;
+                }
+                valor = consulta.substring(i, fim);
+                i = fim;
+            }
+            valor = valor.strip();
+
+            if (campo == null) {
+                if (!valor.isEmpty()) {
+                    livres.add(valor);
+                }
+                continue;
+            }
+            if (valor.isEmpty()) {
+                throw new BadRequestException("O campo " + campo + " da busca está sem valor");
+            }
+            temCampo = true;
+            switch (campo) {
+                case "id" -> id = converterId(campo, valor);
+                case "cidade_id" -> cidadeId = converterId(campo, valor);
+                case "estado" -> estado = converterEstado(valor);
+                case "nome" -> nome = TextoBusca.normalizar(valor);
+                default -> cidade = TextoBusca.normalizar(valor);
+            }
+        }
+
+        if (!temCampo) {
+            return Optional.empty();
+        }
+        String texto = livres.isEmpty() ? null : TextoBusca.normalizar(String.join(" ", livres));
+        return Optional.of(new ClienteConsulta(id, cidadeId, estado, nome, cidade, texto,
+                texto != null ? TextoBusca.converterId(texto) : null));
+    }
+
+    /**
+     * Compila a consulta em um predicado JPA Criteria sobre Cliente. O LEFT JOIN com a cidade é
+     * reaproveitado se já existir na consulta (para que a projeção e o filtro usem o mesmo JOIN).
+     *
+     * @return Especificação com todos os critérios combinados com AND
+     */
+    public Specification<Cliente> especificacao() {
+        return (root, query, cb) -> {
+            List<Predicate> predicados = new ArrayList<>();
+            if (id != null) {
+                predicados.add(cb.equal(root.get("id"), id));
+            }
+            if (cidadeId != null) {
+                // Compara a chave estrangeira (índice de clientes.cidade_id), sem depender do JOIN
+                predicados.add(cb.equal(root.get("cidade").get("id"), cidadeId));
+            }
+            if (nome != null) {
+                predicados.add(comparar(cb, root.get("nomeNormalizado"), nome));
+            }
+            if (estado != null || cidade != null || texto != null) {
+                Join<Cliente, Cidade> cid = cidade(root);
+                if (estado != null) {
+                    predicados.add(cb.equal(cid.get("estado"), estado));
+                }
+                if (cidade != null) {
+                    predicados.add(comparar(cb, cid.get("nomeNormalizado"), cidade));
+                }
+                if (texto != null) {
+                    String trecho = "%" + escapar(texto) + "%";
+                    Predicate nomeOuCidade = cb.or(
+                            cb.like(root.get("nomeNormalizado"), trecho, ESCAPE),
+                            cb.like(cid.get("nomeNormalizado"), trecho, ESCAPE));
+                    predicados.add(textoId != null ? cb.or(cb.equal(root.get("id"), textoId), nomeOuCidade) : nomeOuCidade);
+                }
+            }
+            return cb.and(predicados.toArray(Predicate[]::new));
+        };
+    }
+
+    /**
+     * Retorna o LEFT JOIN de Cliente com Cidade da consulta, criando-o se ainda não existir.
+     *
+     * @param root Raiz da consulta
+     * @return JOIN com a cidade
+     */
+    @SuppressWarnings("unchecked")
+    public static Join<Cliente, Cidade> cidade(Root<Cliente> root) {
+        for (Join<Cliente, ?> join : root.getJoins()) {
+            if (join.getAttribute().getName().equals("cidade")) {
+                return (Join<Cliente, Cidade>) join;
+            }
+        }
+        return root.join("cidade", JoinType.LEFT);
+    }
+
+    /**
+     * Avalia a consulta em memória sobre o estado de um cliente, com a mesma semântica do SQL.
+     *
+     * @param clienteId ID do cliente
+     * @param nomeNormalizado Nome normalizado do cliente
+     * @param clienteCidadeId ID da cidade do cliente, ou null
+     * @param cidadeNomeNormalizado Nome normalizado da cidade, ou null
+     * @param clienteEstado Estado da cidade, ou null
+     * @return true se o cliente faz parte do resultado
+     */
+    public boolean corresponde(Long clienteId, String nomeNormalizado, Long clienteCidadeId,
+            String cidadeNomeNormalizado, Estado clienteEstado) {
+        if (id != null && !id.equals(clienteId)) {
+            return false;
+        }
+        if (cidadeId != null && !cidadeId.equals(clienteCidadeId)) {
+            return false;
+        }
+        if (estado != null && estado != clienteEstado) {
+            return false;
+        }
+        if (nome != null && !corresponde(nome, nomeNormalizado)) {
+            return false;
+        }
+        if (cidade != null && !corresponde(cidade, cidadeNomeNormalizado)) {
+            return false;
+        }
+        if (texto != null) {
+            return (textoId != null && textoId.equals(clienteId))
+                    || contem(nomeNormalizado, texto)
+                    || contem(cidadeNomeNormalizado, texto);
+        }
+        return true;
+    }
+
+    /**
+     * Verifica se alterar uma cidade (nome ou estado) pode mudar quais clientes dela fazem parte
+     * do resultado.
+     *
+     * @param novoNomeNormalizado Novo nome normalizado da cidade
+     * @return true se a consulta filtra pela cidade ou pelo estado, ou se o texto livre pode
+     *         passar a corresponder ao novo nome
+     */
+    public boolean dependeDaCidade(String novoNomeNormalizado) {
+        return estado != null
+                || (cidade != null && corresponde(cidade, novoNomeNormalizado))
+                || (texto != null && contem(novoNomeNormalizado, texto));
+    }
+
+    private static Predicate comparar(CriteriaBuilder cb, Expression<String> coluna, String padrao) {
+        if (padrao.indexOf(CURINGA) < 0) {
+            return cb.equal(coluna, padrao);
+        }
+        // nome_normalizado LIKE 'jo%' é atendido pelo índice (range scan); '*' inicial não é
+        return cb.like(coluna, escapar(padrao).replace(CURINGA, '%'), ESCAPE);
+    }
+
+    /**
+     * Escapa os caracteres especiais do LIKE, para que só o '*' da consulta seja curinga.
+     */
+    private static String escapar(String valor) {
+        StringBuilder escapado = new StringBuilder(valor.length());
+        for (int i = 0; i < valor.length(); i++) {
+            char c = valor.charAt(i);
+            if (c == '%' || c == '_' || c == ESCAPE) {
+                escapado.append(ESCAPE);
+            }
+            escapado.append(c);
+        }
+        return escapado.toString();
+    }
+
+    private static boolean contem(String valor, String trecho) {
+        return valor != null && valor.contains(trecho);
+    }
+
+    /**
+     * Compara um valor com um padrão em que '*' corresponde a qualquer sequência (inclusive vazia).
+     */
+    static boolean corresponde(String padrao, String valor) {
+        if (valor == null) {
+            return false;
+        }
+        int p = 0;
+        int v = 0;
+        int ultimoCuringa = -1;
+        int retomada = 0;
+        while (v < valor.length()) {
+            if (p < padrao.length() && padrao.charAt(p) == CURINGA) {
+                ultimoCuringa = p++;
+                retomada = v;
+            } else if (p < padrao.length() && padrao.charAt(p) == valor.charAt(v)) {
+                p++;
+                v++;
+            } else if (ultimoCuringa >= 0) {
+                p = ultimoCuringa + 1;
+                v = ++retomada;
+            } else {
+                return false;
+            }
+        }
+        while (p < padrao.length() && padrao.charAt(p) == CURINGA) {
+            p++;
+        }
+        return p == padrao.length();
+    }
+
+    private static Long converterId(String campo, String valor) {
+        Long convertido = TextoBusca.converterId(valor);
+        if (convertido == null) {
+            throw new BadRequestException("O campo " + campo + " da busca deve ser numérico: " + valor);
+        }
+        return convertido;
+    }
+
+    private static Estado converterEstado(String siglaOuNome) {
+        String normalizado = TextoBusca.normalizar(siglaOuNome);
+        for (Estado e : Estado.values()) {
+            if (e.name().equalsIgnoreCase(normalizado) || TextoBusca.normalizar(e.getNome()).equals(normalizado)) {
+                return e;
+            }
+        }
+        throw new BadRequestException("Estado inválido na busca: " + siglaOuNome);
+    }
+}
@@ -0,0 +1,11 @@
+package com.programacao.web.fatec.api_fatec.domain.cliente;
+
+/**
+ * Projeção com a quantidade de clientes de uma cidade (cidadeId nulo para os clientes sem
+ * cidade), usada para calcular e reconciliar as estatísticas de clientes.
+ */
+public interface ClienteContagemProjecao {
+    Long getCidadeId();
+
+    Long getQuantidade();
+}
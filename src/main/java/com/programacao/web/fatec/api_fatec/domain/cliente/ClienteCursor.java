@@ -0,0 +1,52 @@
+package com.programacao.web.fatec.api_fatec.domain.cliente;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Base64;
+
+import com.programacao.web.fatec.api_fatec.exception.BadRequestException;
+
+/**
+ * Cursor opaco usado na paginação por chave (keyset) da listagem de clientes.
+ * 
+ * O cursor guarda apenas o ID do último cliente da página anterior, codificado em Base64
+ * (URL-safe), para que o cliente da API não dependa do formato interno. A próxima página é
+ * obtida com "WHERE id > :after ORDER BY id", que custa o mesmo em qualquer profundidade,
+ * ao contrário da paginação por OFFSET.
+ */
+public final class ClienteCursor {
+
+    private static final String PREFIXO = "id:";
+
+    private ClienteCursor() {
+    }
+
+    /**
+     * Codifica o ID do último cliente de uma página em um cursor opaco.
+     * 
+     * @param ultimoId ID do último cliente retornado
+     * @return Cursor opaco para a próxima página
+     */
+    public static String codificar(Long ultimoId) {
+        byte[] bytes = (PREFIXO + ultimoId).getBytes(StandardCharsets.UTF_8);
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(bytes);
+    }
+
+    /**
+     * Decodifica um cursor opaco gerado por {@link #codificar(Long)}.
+     * 
+     * @param cursor Cursor recebido na requisição
+     * @return ID do último cliente da página anterior
+     * @throws BadRequestException se o cursor não puder ser decodificado
+     */
+    public static Long decodificar(String cursor) {
+        try {
+            String valor = new String(Base64.getUrlDecoder().decode(cursor), StandardCharsets.UTF_8);
+            if (!valor.startsWith(PREFIXO)) {
+                throw new BadRequestException("Cursor de paginação inválido: " + cursor);
+            }
+            return Long.parseLong(valor.substring(PREFIXO.length()));
+        } catch (IllegalArgumentException e) {
+            throw new BadRequestException("Cursor de paginação inválido: " + cursor);
+        }
+    }
+}
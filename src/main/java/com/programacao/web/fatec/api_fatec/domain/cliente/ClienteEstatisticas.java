@@ -0,0 +1,379 @@
+package com.programacao.web.fatec.api_fatec.domain.cliente;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.EnumMap;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import com.programacao.web.fatec.api_fatec.domain.cidade.CidadeCache;
+import com.programacao.web.fatec.api_fatec.domain.cidade.CidadeRepository;
+import com.programacao.web.fatec.api_fatec.domain.cliente.dto.ClienteEstatisticasCidadeDto;
+import com.programacao.web.fatec.api_fatec.domain.cliente.dto.ClienteEstatisticasDto;
+import com.programacao.web.fatec.api_fatec.domain.cliente.dto.ClienteEstatisticasEstadoDto;
+import com.programacao.web.fatec.api_fatec.entities.Cidade;
+import com.programacao.web.fatec.api_fatec.entities.Cliente;
+import com.programacao.web.fatec.api_fatec.entities.Estado;
+import com.programacao.web.fatec.api_fatec.exception.ServiceUnavailableException;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PostConstruct;
+
+/**
+ * Quantidade de clientes por cidade (e, somando as cidades, por estado), mantida em memória.
+ *
+ * As contagens são calculadas com um GROUP BY pela cidade_id (sem JOIN) quando a aplicação termina de iniciar e depois
+ * atualizadas pelo ClienteService a cada criação, troca de cidade e remoção, com um LongAdder
+ * por cidade (sem lock entre escritas concorrentes). Assim GET /api/clientes/stats nunca
+ * percorre a tabela de clientes.
+ *
+ * Uma reconciliação periódica (api.clientes.estatisticas.reconciliacao) refaz o GROUP BY e
+ * corrige as cidades que divergiram. As cidades alteradas enquanto a consulta executava são
+ * ignoradas naquela rodada, porque não é possível saber se a consulta já viu a alteração;
+ * elas são conferidas na rodada seguinte. Correções são registradas no log e na métrica
+ * api.clientes.estatisticas.correcoes.
+ *
+ * Como o ClienteService só aplica uma escrita aqui depois do commit, uma escrita confirmada
+ * antes do GROUP BY mas aplicada só depois que a reconciliação terminou é contada duas vezes
+ * (pela consulta e pelo incremento). A cidade fica com essa diferença até a reconciliação
+ * seguinte, que a corrige como qualquer outra divergência.
+ */
+@Component
+public class ClienteEstatisticas {
+
+    private static final Logger log = LoggerFactory.getLogger(ClienteEstatisticas.class);
+
+    /**
+     * Chave usada no conjunto de alteradas para os clientes sem cidade.
+     */
+    private static final Long SEM_CIDADE = -1L;
+
+    /**
+     * Rodadas extras da primeira contagem quando houve escritas durante ela.
+     */
+    private static final int TENTATIVAS_INICIALIZACAO = 3;
+
+    @Autowired
+    private ClienteRepository clienteRepository;
+
+    @Autowired
+    private CidadeRepository cidadeRepository;
+
+    @Autowired
+    private CidadeCache cidadeCache;
+
+    @Autowired
+    private ClienteVersao clienteVersao;
+
+    @Autowired
+    private MeterRegistry meterRegistry;
+
+    private final Map<Long, ContadorCidade> cidades = new ConcurrentHashMap<>();
+
+    private final LongAdder semCidade = new LongAdder();
+
+    /**
+     * Escritas usam o lock de leitura (várias ao mesmo tempo); o início e o fim da
+     * reconciliação usam o de escrita, para que nenhuma alteração fique fora do conjunto
+     * de alteradas.
+     */
+    private final ReentrantReadWriteLock lock = new ReentrantReadWriteLock();
+
+    /**
+     * Cidades alteradas desde o início da reconciliação em andamento, ou null se não houver uma.
+     */
+    private Set<Long> alteradas;
+
+    private volatile boolean pronto;
+
+    private volatile LocalDateTime reconciliadoEm;
+
+    private Counter correcoes;
+
+    @PostConstruct
+    void inicializar() {
+        correcoes = Counter.builder("api.clientes.estatisticas.correcoes")
+                .description("Cidades com contagem de clientes corrigida pela reconciliação")
+                .register(meterRegistry);
+    }
+
+    /**
+     * Retorna a quantidade de clientes no total, por estado e por cidade.
+     *
+     * @return Estatísticas atuais
+     * @throws ServiceUnavailableException se as contagens ainda não foram calculadas
+     */
+    public ClienteEstatisticasDto consultar() {
+        if (!pronto) {
+            throw new ServiceUnavailableException("As estatísticas de clientes ainda estão sendo calculadas", 5);
+        }
+
+        Map<Estado, Long> porEstado = new EnumMap<>(Estado.class);
+        List<ClienteEstatisticasCidadeDto> porCidade = new ArrayList<>(cidades.size());
+        long semCidadeAtual = semCidade.sum();
+        long total = semCidadeAtual;
+        for (ContadorCidade contador : cidades.values()) {
+            long quantidade = contador.quantidade.sum();
+            Estado estado = contador.estado;
+            total += quantidade;
+            if (estado != null) {
+                porEstado.merge(estado, quantidade, Long::sum);
+            }
+            porCidade.add(new ClienteEstatisticasCidadeDto(contador.id, contador.nome, estado, quantidade));
+        }
+        porCidade.sort(Comparator.comparingLong(ClienteEstatisticasCidadeDto::getQuantidade).reversed()
+                .thenComparing(ClienteEstatisticasCidadeDto::getCidadeId));
+
+        List<ClienteEstatisticasEstadoDto> estados = new ArrayList<>();
+        for (Estado estado : Estado.values()) {
+            estados.add(new ClienteEstatisticasEstadoDto(estado, porEstado.getOrDefault(estado, 0L)));
+        }
+        return new ClienteEstatisticasDto(total, semCidadeAtual, estados, porCidade, reconciliadoEm);
+    }
+
+    /**
+     * Retorna a quantidade de clientes de uma cidade, sem consultar o banco.
+     *
+     * @param cidadeId ID da cidade
+     * @return Quantidade de clientes, ou null se as contagens ainda não foram calculadas
+     */
+    public Long quantidadeDaCidade(Long cidadeId) {
+        if (!pronto) {
+            return null;
+        }
+        ContadorCidade contador = cidades.get(cidadeId);
+        return contador != null ? contador.quantidade.sum() : 0L;
+    }
+
+    /**
+     * Conta clientes criados. Deve ser chamado depois que os clientes foram gravados.
+     *
+     * @param clientes Clientes criados (com a cidade, se houver)
+     */
+    public void adicionar(List<Cliente> clientes) {
+        for (Cliente cliente : clientes) {
+            Cidade cidade = cliente.getCidade();
+            somar(cidade != null ? cidade.getId() : null, cidade, 1);
+        }
+    }
+
+    /**
+     * Move um cliente de cidade. Deve ser chamado depois que a alteração foi gravada.
+     *
+     * @param cidadeAnteriorId Cidade anterior, ou null se o cliente não tinha cidade
+     * @param novaCidade Nova cidade, ou null se o cliente ficou sem cidade
+     */
+    public void mover(Long cidadeAnteriorId, Cidade novaCidade) {
+        Long novaCidadeId = novaCidade != null ? novaCidade.getId() : null;
+        if (!Objects.equals(cidadeAnteriorId, novaCidadeId)) {
+            somar(cidadeAnteriorId, null, -1);
+            somar(novaCidadeId, novaCidade, 1);
+        }
+    }
+
+    /**
+     * Desconta clientes removidos. Deve ser chamado depois que a remoção foi gravada.
+     *
+     * @param removidos ID e cidade de cada cliente removido
+     */
+    public void remover(List<ClienteCidadeProjecao> removidos) {
+        for (ClienteCidadeProjecao removido : removidos) {
+            somar(removido.getCidadeId(), null, -1);
+        }
+    }
+
+    /**
+     * Atualiza o nome e o estado de uma cidade alterada.
+     *
+     * @param cidade Cidade alterada
+     */
+    public void atualizarCidade(Cidade cidade) {
+        ContadorCidade contador = cidades.get(cidade.getId());
+        if (contador != null) {
+            contador.nome = cidade.getNome();
+            contador.estado = cidade.getEstado();
+        }
+    }
+
+    /**
+     * Remove uma cidade das estatísticas. Uma cidade só pode ser removida sem clientes
+     * (chave estrangeira), então nenhum cliente deixa de ser contado.
+     *
+     * @param cidadeId ID da cidade removida
+     */
+    public void removerCidade(Long cidadeId) {
+        cidades.remove(cidadeId);
+    }
+
+    /**
+     * Confere as contagens com o banco (GROUP BY) e corrige as que divergiram. Executado quando
+     * a aplicação termina de iniciar, para calcular as contagens iniciais, e depois a cada
+     * api.clientes.estatisticas.reconciliacao.
+     */
+    @EventListener(ApplicationReadyEvent.class)
+    @Scheduled(fixedDelayString = "${api.clientes.estatisticas.reconciliacao:PT5M}",
+            initialDelayString = "${api.clientes.estatisticas.reconciliacao:PT5M}")
+    public synchronized void reconciliar() {
+        long inicio = System.currentTimeMillis();
+        boolean inicial = !pronto;
+        int ignoradas = reconciliarUmaVez(inicial);
+        for (int i = 0; inicial && ignoradas > 0 && i < TENTATIVAS_INICIALIZACAO; i++) {
+            ignoradas = reconciliarUmaVez(true);
+        }
+
+        if (inicial) {
+            log.info("Estatísticas de clientes calculadas para {} cidades em {} ms",
+                    cidades.size(), System.currentTimeMillis() - inicio);
+        } else if (ignoradas > 0) {
+            log.debug("{} cidades alteradas durante a reconciliação serão conferidas na próxima", ignoradas);
+        }
+    }
+
+    /**
+     * Executa uma rodada de reconciliação.
+     *
+     * @param inicial Se é a contagem inicial (que não conta como correção)
+     * @return Quantidade de cidades ignoradas por terem sido alteradas durante a consulta
+     */
+    private int reconciliarUmaVez(boolean inicial) {
+        lock.writeLock().lock();
+        try {
+            alteradas = ConcurrentHashMap.newKeySet();
+        } finally {
+            lock.writeLock().unlock();
+        }
+
+        List<Cidade> cidadesBanco;
+        Map<Long, Long> contagens = new HashMap<>();
+        try {
+            cidadesBanco = cidadeRepository.findAll();
+            for (ClienteContagemProjecao contagem : clienteRepository.contarPorCidade()) {
+                contagens.put(contagem.getCidadeId(), contagem.getQuantidade());
+            }
+        } catch (RuntimeException e) {
+            lock.writeLock().lock();
+            try {
+                alteradas = null;
+            } finally {
+                lock.writeLock().unlock();
+            }
+            throw e;
+        }
+
+        lock.writeLock().lock();
+        try {
+            int corrigidas = 0;
+            Set<Long> existentes = new HashSet<>();
+            for (Cidade cidade : cidadesBanco) {
+                Long cidadeId = cidade.getId();
+                existentes.add(cidadeId);
+                ContadorCidade contador = cidades.computeIfAbsent(cidadeId, ContadorCidade::new);
+                contador.nome = cidade.getNome();
+                contador.estado = cidade.getEstado();
+                if (!alteradas.contains(cidadeId)
+                        && corrigir(contador.quantidade, contagens.getOrDefault(cidadeId, 0L))) {
+                    corrigidas++;
+                }
+            }
+            cidades.keySet().removeIf(cidadeId -> !existentes.contains(cidadeId) && !alteradas.contains(cidadeId));
+            if (!alteradas.contains(SEM_CIDADE) && corrigir(semCidade, contagens.getOrDefault(null, 0L))) {
+                corrigidas++;
+            }
+
+            if (!inicial && corrigidas > 0) {
+                log.warn("Reconciliação corrigiu a contagem de clientes de {} cidades", corrigidas);
+                correcoes.increment(corrigidas);
+                clienteVersao.incrementar();
+            }
+            int ignoradas = alteradas.size();
+            alteradas = null;
+            reconciliadoEm = LocalDateTime.now();
+            pronto = true;
+            return ignoradas;
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    /**
+     * Ajusta o contador para o valor do banco. Chamado sob o lock de escrita.
+     *
+     * @return true se o valor estava diferente
+     */
+    private static boolean corrigir(LongAdder contador, long valor) {
+        long atual = contador.sum();
+        if (atual == valor) {
+            return false;
+        }
+        contador.add(valor - atual);
+        return true;
+    }
+
+    private void somar(Long cidadeId, Cidade cidade, long quantidade) {
+        ContadorCidade contador = cidadeId != null ? contador(cidadeId, cidade) : null;
+        lock.readLock().lock();
+        try {
+            (contador != null ? contador.quantidade : semCidade).add(quantidade);
+            if (alteradas != null) {
+                alteradas.add(cidadeId != null ? cidadeId : SEM_CIDADE);
+            }
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /**
+     * Obtém o contador da cidade, criando-o (com nome e estado do cache de cidades) se for
+     * uma cidade criada depois da última reconciliação.
+     */
+    private ContadorCidade contador(Long cidadeId, Cidade cidade) {
+        ContadorCidade contador = cidades.get(cidadeId);
+        if (contador != null) {
+            return contador;
+        }
+        Cidade dados = cidade != null ? cidade : cidadeCache.buscarPorId(cidadeId).orElse(null);
+        return cidades.computeIfAbsent(cidadeId, id -> {
+            ContadorCidade novo = new ContadorCidade(id);
+            if (dados != null) {
+                novo.nome = dados.getNome();
+                novo.estado = dados.getEstado();
+            }
+            return novo;
+        });
+    }
+
+    /**
+     * Contador de uma cidade. Nome e estado são atualizados quando a cidade muda.
+     */
+    private static final class ContadorCidade {
+
+        private final Long id;
+
+        private final LongAdder quantidade = new LongAdder();
+
+        private volatile String nome;
+
+        private volatile Estado estado;
+
+        ContadorCidade(Long id) {
+            this.id = id;
+        }
+    }
+}
@@ -0,0 +1,364 @@
+package com.programacao.web.fatec.api_fatec.domain.cliente;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import com.programacao.web.fatec.api_fatec.domain.cidade.CidadeCache;
+import com.programacao.web.fatec.api_fatec.domain.cliente.dto.ClientePostDto;
+import com.programacao.web.fatec.api_fatec.entities.Cidade;
+import com.programacao.web.fatec.api_fatec.entities.Cliente;
+import com.programacao.web.fatec.api_fatec.exception.ServiceUnavailableException;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+
+/**
+ * Gravação agrupada (group commit) das criações de clientes.
+ *
+ * Sem ela, cada POST /api/clientes abre a sua transação e faz o seu commit. Com
+ * api.clientes.criacao.agrupada.habilitado=true, as criações entram em uma fila limitada
+ * (api.clientes.criacao.agrupada.fila) e uma única thread gravadora as retira em lotes: espera
+ * no máximo api.clientes.criacao.agrupada.espera-maxima após o primeiro item, ou até juntar
+ * api.clientes.criacao.agrupada.lote-maximo itens, e grava o lote pelo mesmo caminho da criação
+ * em lote ({@link ClienteService#salvarBloco(List)}): uma transação e INSERTs em lote JDBC.
+ * Cada requisição espera o seu item e recebe o cliente com o ID gerado.
+ *
+ * A cidade é resolvida pela thread gravadora a cada tentativa de gravação, junto com o lote: a
+ * requisição apenas enfileira os dados e não usa nenhuma conexão enquanto espera.
+ *
+ * Com a fila cheia a criação é recusada com 503 e Retry-After, e também quando o pedido passa
+ * api.clientes.criacao.agrupada.espera-resultado ainda na fila: ele é cancelado e não é mais
+ * gravado. Um pedido que a gravadora já retirou da fila para uma transação não pode ser cancelado,
+ * e a requisição espera o resultado dele além desse tempo: um 503 para um cliente que acaba
+ * gravado levaria quem respeita o Retry-After a criá-lo em duplicidade. Se o lote falhar no banco,
+ * cada item é regravado sozinho, para que um cliente inválido não derrube os demais.
+ * O tamanho dos lotes, o tempo de espera na fila, o tamanho da fila e as recusas são expostos
+ * como métricas api.clientes.criacao.agrupada.*.
+ */
+@Component
+public class ClienteGravacaoAgrupada {
+
+    private static final Logger log = LoggerFactory.getLogger(ClienteGravacaoAgrupada.class);
+
+    /**
+     * Tempo sugerido (Retry-After) para reenviar uma criação recusada por fila cheia.
+     */
+    private static final long RETRY_AFTER_SEGUNDOS = 1;
+
+    @Autowired
+    private ClienteService clienteService;
+
+    @Autowired
+    private CidadeCache cidadeCache;
+
+    @Autowired
+    private MeterRegistry meterRegistry;
+
+    @Value("${api.clientes.criacao.agrupada.habilitado:false}")
+    private boolean habilitado;
+
+    /**
+     * Quantidade de criações aguardando gravação; além disso novas criações são recusadas.
+     */
+    @Value("${api.clientes.criacao.agrupada.fila:10000}")
+    private int capacidadeFila;
+
+    /**
+     * Quantidade máxima de clientes gravados em cada transação.
+     */
+    @Value("${api.clientes.criacao.agrupada.lote-maximo:200}")
+    private int loteMaximo;
+
+    /**
+     * Tempo máximo que o primeiro item de um lote espera por outros antes de o lote ser gravado.
+     */
+    @Value("${api.clientes.criacao.agrupada.espera-maxima:PT0.005S}")
+    private Duration esperaMaxima;
+
+    /**
+     * Tempo máximo que uma requisição espera o seu cliente ser gravado.
+     */
+    @Value("${api.clientes.criacao.agrupada.espera-resultado:PT10S}")
+    private Duration esperaResultado;
+
+    private BlockingQueue<Pedido> fila;
+
+    private Thread gravadora;
+
+    private volatile boolean executando;
+
+    /**
+     * Exclui a entrada na fila (lock de leitura) do encerramento (lock de escrita): depois que
+     * executando passa a false nenhum pedido entra na fila, e a gravadora grava tudo o que entrou.
+     */
+    private final ReentrantReadWriteLock encerramento = new ReentrantReadWriteLock();
+
+    private DistributionSummary tamanhoLote;
+
+    private Timer esperaFila;
+
+    private Counter recusas;
+
+    @PostConstruct
+    void inicializar() {
+        if (!habilitado) {
+            return;
+        }
+        fila = new ArrayBlockingQueue<>(capacidadeFila);
+
+        tamanhoLote = DistributionSummary.builder("api.clientes.criacao.agrupada.lote")
+                .description("Clientes gravados em cada transação da gravação agrupada")
+                .publishPercentileHistogram()
+                .register(meterRegistry);
+        esperaFila = Timer.builder("api.clientes.criacao.agrupada.espera")
+                .description("Tempo entre a entrada na fila e o início da gravação do lote")
+                .publishPercentileHistogram()
+                .register(meterRegistry);
+        recusas = Counter.builder("api.clientes.criacao.agrupada.recusas")
+                .description("Criações de clientes recusadas com a fila de gravação cheia")
+                .register(meterRegistry);
+        Gauge.builder("api.clientes.criacao.agrupada.fila", fila, BlockingQueue::size)
+                .description("Criações de clientes aguardando gravação")
+                .register(meterRegistry);
+
+        executando = true;
+        gravadora = Thread.ofPlatform().name("gravacao-clientes").daemon().start(this::executar);
+        log.info("Gravação agrupada de clientes habilitada (lotes de até {} itens, espera máxima de {} ms)",
+                loteMaximo, esperaMaxima.toMillis());
+    }
+
+    /**
+     * Para a thread gravadora. Os clientes que ainda estão na fila são gravados antes de parar.
+     */
+    @PreDestroy
+    void finalizar() throws InterruptedException {
+        if (gravadora == null) {
+            return;
+        }
+        encerramento.writeLock().lock();
+        try {
+            executando = false;
+        } finally {
+            encerramento.writeLock().unlock();
+        }
+        gravadora.join(TimeUnit.SECONDS.toMillis(30));
+    }
+
+    /**
+     * Verifica se as criações de clientes devem passar pela gravação agrupada.
+     *
+     * @return true se api.clientes.criacao.agrupada.habilitado=true
+     */
+    public boolean habilitado() {
+        return habilitado;
+    }
+
+    /**
+     * Coloca um cliente novo na fila de gravação e espera o lote dele ser gravado.
+     *
+     * @param dto Dados do cliente (uma cidade inexistente deixa o cliente sem cidade)
+     * @return Cliente gravado, com o ID gerado
+     * @throws ServiceUnavailableException se a fila estiver cheia, a gravação estiver encerrada ou o
+     *         cliente continuar na fila após espera-resultado
+     */
+    public Cliente criar(ClientePostDto dto) {
+        Pedido pedido = new Pedido(dto.getNome(), dto.getEndereco(), dto.getCidadeId(),
+                System.nanoTime(), new CompletableFuture<>(), new AtomicBoolean());
+        if (!enfileirar(pedido)) {
+            recusas.increment();
+            throw new ServiceUnavailableException("A fila de gravação de clientes está cheia", RETRY_AFTER_SEGUNDOS);
+        }
+
+        try {
+            try {
+                return pedido.resultado().get(esperaResultado.toNanos(), TimeUnit.NANOSECONDS);
+            } catch (TimeoutException e) {
+                if (pedido.cancelar()) {
+                    recusas.increment();
+                    throw new ServiceUnavailableException("A gravação do cliente demorou além do limite",
+                            RETRY_AFTER_SEGUNDOS);
+                }
+                // Já está em uma transação, que a gravadora sempre conclui com o cliente ou com o erro
+                return pedido.resultado().get();
+            }
+        } catch (InterruptedException e) {
+            pedido.cancelar();
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("Interrompido aguardando a gravação do cliente", e);
+        } catch (ExecutionException e) {
+            if (e.getCause() instanceof RuntimeException causa) {
+                throw causa;
+            }
+            throw new IllegalStateException("Falha ao gravar o cliente", e.getCause());
+        }
+    }
+
+    private boolean enfileirar(Pedido pedido) {
+        encerramento.readLock().lock();
+        try {
+            return executando && fila.offer(pedido);
+        } finally {
+            encerramento.readLock().unlock();
+        }
+    }
+
+    private void executar() {
+        List<Pedido> lote = new ArrayList<>(loteMaximo);
+        while (executando || !fila.isEmpty()) {
+            try {
+                Pedido primeiro = fila.poll(100, TimeUnit.MILLISECONDS);
+                if (primeiro == null) {
+                    continue;
+                }
+                lote.add(primeiro);
+                juntar(lote);
+                gravar(lote);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                lote.forEach(this::recusarEncerrada);
+                break;
+            } catch (RuntimeException e) {
+                // Nunca deixa a gravadora parar, nem uma requisição esperando um pedido já retirado
+                log.error("Falha inesperada na gravação agrupada de clientes", e);
+                lote.forEach(pedido -> pedido.resultado().completeExceptionally(e));
+            } finally {
+                lote.clear();
+            }
+        }
+
+        // Interrompida: quem ainda estiver esperando recebe um erro em vez de ficar preso
+        Pedido restante;
+        while ((restante = fila.poll()) != null) {
+            recusarEncerrada(restante);
+        }
+    }
+
+    private void recusarEncerrada(Pedido pedido) {
+        pedido.resultado().completeExceptionally(
+                new ServiceUnavailableException("A gravação de clientes foi encerrada", RETRY_AFTER_SEGUNDOS));
+    }
+
+    /**
+     * Completa o lote com o que já está na fila e, se ainda não estiver cheio, espera por novos
+     * itens até esgotar a espera máxima contada a partir do primeiro item.
+     */
+    private void juntar(List<Pedido> lote) throws InterruptedException {
+        long limite = System.nanoTime() + esperaMaxima.toNanos();
+        while (lote.size() < loteMaximo) {
+            fila.drainTo(lote, loteMaximo - lote.size());
+            long restante = limite - System.nanoTime();
+            if (lote.size() >= loteMaximo || restante <= 0) {
+                return;
+            }
+            Pedido proximo = fila.poll(restante, TimeUnit.NANOSECONDS);
+            if (proximo == null) {
+                return;
+            }
+            lote.add(proximo);
+        }
+    }
+
+    private void gravar(List<Pedido> lote) {
+        // Pedidos cancelados por quem desistiu de esperar não são gravados; os demais deixam de
+        // poder ser cancelados
+        lote.removeIf(pedido -> !pedido.reservar());
+        if (lote.isEmpty()) {
+            return;
+        }
+        long inicio = System.nanoTime();
+        for (Pedido pedido : lote) {
+            esperaFila.record(inicio - pedido.enfileiradoEm(), TimeUnit.NANOSECONDS);
+        }
+        tamanhoLote.record(lote.size());
+
+        List<Cliente> clientes;
+        try {
+            clientes = lote.stream().map(this::novoCliente).toList();
+            clienteService.salvarBloco(clientes);
+        } catch (RuntimeException e) {
+            if (lote.size() > 1) {
+                log.warn("Lote de {} clientes falhou ({}); gravando os itens um a um", lote.size(), e.getMessage());
+                lote.forEach(this::gravarSozinho);
+            } else {
+                lote.get(0).resultado().completeExceptionally(e);
+            }
+            return;
+        }
+        for (int i = 0; i < lote.size(); i++) {
+            lote.get(i).resultado().complete(clientes.get(i));
+        }
+    }
+
+    private void gravarSozinho(Pedido pedido) {
+        try {
+            // Um cliente novo a cada tentativa: o da transação desfeita já recebeu ID e versão
+            Cliente cliente = novoCliente(pedido);
+            clienteService.salvarBloco(List.of(cliente));
+            pedido.resultado().complete(cliente);
+        } catch (RuntimeException e) {
+            pedido.resultado().completeExceptionally(e);
+        }
+    }
+
+    private Cliente novoCliente(Pedido pedido) {
+        Cliente cliente = new Cliente(null, pedido.nome(), pedido.endereco());
+        if (pedido.cidadeId() != null) {
+            Cidade cidade = cidadeCache.buscarPorId(pedido.cidadeId()).orElse(null);
+            cliente.setCidade(cidade);
+        }
+        return cliente;
+    }
+
+    /**
+     * Criação aguardando gravação.
+     *
+     * @param nome Nome do cliente
+     * @param endereco Endereço do cliente
+     * @param cidadeId ID da cidade do cliente, ou null
+     * @param enfileiradoEm Momento (System.nanoTime) em que entrou na fila
+     * @param resultado Concluído com o cliente gravado ou com o erro da gravação
+     * @param decidido Passa a true quando a gravadora reserva o pedido ou quem o criou o cancela,
+     *            o que acontecer primeiro
+     */
+    private record Pedido(String nome, String endereco, Long cidadeId, long enfileiradoEm,
+            CompletableFuture<Cliente> resultado, AtomicBoolean decidido) {
+
+        /**
+         * Reserva o pedido para gravação, que a partir daí não pode mais ser cancelado.
+         *
+         * @return false se o pedido já tiver sido cancelado
+         */
+        boolean reservar() {
+            return decidido.compareAndSet(false, true);
+        }
+
+        /**
+         * Cancela o pedido, se a gravadora ainda não o tiver reservado.
+         *
+         * @return false se o pedido já estiver reservado e vá ser gravado
+         */
+        boolean cancelar() {
+            return decidido.compareAndSet(false, true);
+        }
+    }
+}
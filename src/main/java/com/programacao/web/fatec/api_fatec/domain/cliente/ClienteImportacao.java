@@ -0,0 +1,137 @@
+package com.programacao.web.fatec.api_fatec.domain.cliente;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.atomic.AtomicLong;
+
+import com.programacao.web.fatec.api_fatec.domain.cliente.dto.ClienteImportacaoDto;
+import com.programacao.web.fatec.api_fatec.domain.cliente.dto.ClienteImportacaoErroDto;
+
+/**
+ * Situação de uma importação de clientes por CSV.
+ *
+ * É escrita apenas pela thread que executa a importação e lida pelas requisições de
+ * acompanhamento, por isso os contadores são atômicos e os demais campos voláteis.
+ */
+class ClienteImportacao {
+
+    private final String id = UUID.randomUUID().toString();
+
+    private final String arquivo;
+
+    private final long bytesTotal;
+
+    private final int maximoErros;
+
+    private final LocalDateTime criadaEm = LocalDateTime.now();
+
+    private final AtomicLong bytesLidos = new AtomicLong();
+
+    private final AtomicLong linhasProcessadas = new AtomicLong();
+
+    private final AtomicLong importados = new AtomicLong();
+
+    private final AtomicLong linhasComErro = new AtomicLong();
+
+    private final List<ClienteImportacaoErroDto> erros = new ArrayList<>();
+
+    private volatile String status = ClienteImportacaoDto.AGUARDANDO;
+
+    private volatile LocalDateTime iniciadaEm;
+
+    private volatile LocalDateTime concluidaEm;
+
+    private volatile long inicioNanos;
+
+    private volatile long fimNanos;
+
+    private volatile String mensagem;
+
+    ClienteImportacao(String arquivo, long bytesTotal, int maximoErros) {
+        this.arquivo = arquivo;
+        this.bytesTotal = bytesTotal;
+        this.maximoErros = maximoErros;
+    }
+
+    String getId() {
+        return id;
+    }
+
+    void iniciar() {
+        inicioNanos = System.nanoTime();
+        iniciadaEm = LocalDateTime.now();
+        status = ClienteImportacaoDto.EM_ANDAMENTO;
+    }
+
+    void concluir() {
+        finalizar(ClienteImportacaoDto.CONCLUIDA, null);
+    }
+
+    void falhar(String mensagem) {
+        finalizar(ClienteImportacaoDto.FALHOU, mensagem);
+    }
+
+    void registrarBytesLidos(long bytes) {
+        bytesLidos.set(bytes);
+    }
+
+    void registrarLinhaProcessada() {
+        linhasProcessadas.incrementAndGet();
+    }
+
+    void registrarImportados(int quantidade) {
+        importados.addAndGet(quantidade);
+    }
+
+    /**
+     * Registra o erro de uma linha. Todas as linhas com erro são contadas, mas apenas as
+     * primeiras maximoErros mensagens são guardadas.
+     */
+    void registrarErro(long linha, String erro) {
+        linhasComErro.incrementAndGet();
+        synchronized (erros) {
+            if (erros.size() < maximoErros) {
+                erros.add(new ClienteImportacaoErroDto(linha, erro));
+            }
+        }
+    }
+
+    ClienteImportacaoDto paraDto() {
+        long lidos = bytesLidos.get();
+        long gravados = importados.get();
+
+        double percentual = 0;
+        if (ClienteImportacaoDto.CONCLUIDA.equals(status)) {
+            percentual = 100;
+        } else if (bytesTotal > 0) {
+            percentual = Math.min(100.0, lidos * 100.0 / bytesTotal);
+        }
+
+        double clientesPorSegundo = 0;
+        if (iniciadaEm != null) {
+            long fim = concluidaEm != null ? fimNanos : System.nanoTime();
+            double segundos = (fim - inicioNanos) / 1_000_000_000.0;
+            if (segundos > 0) {
+                clientesPorSegundo = gravados / segundos;
+            }
+        }
+
+        List<ClienteImportacaoErroDto> copiaErros;
+        synchronized (erros) {
+            copiaErros = List.copyOf(erros);
+        }
+
+        return new ClienteImportacaoDto(id, status, arquivo, bytesTotal, lidos, percentual,
+                linhasProcessadas.get(), gravados, linhasComErro.get(), clientesPorSegundo,
+                criadaEm, iniciadaEm, concluidaEm, mensagem, copiaErros);
+    }
+
+    private void finalizar(String status, String mensagem) {
+        fimNanos = System.nanoTime();
+        concluidaEm = LocalDateTime.now();
+        this.mensagem = mensagem;
+        this.status = status;
+    }
+}
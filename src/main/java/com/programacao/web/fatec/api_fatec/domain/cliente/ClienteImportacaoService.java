@@ -0,0 +1,445 @@
+package com.programacao.web.fatec.api_fatec.domain.cliente;
+
+import java.io.FilterInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Optional;
+import java.util.regex.Pattern;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.core.task.TaskRejectedException;
+import org.springframework.scheduling.concurrent.ThreadPoolTaskExecutor;
+import org.springframework.stereotype.Service;
+import org.springframework.web.multipart.MultipartFile;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.programacao.web.fatec.api_fatec.domain.cidade.CidadeCache;
+import com.programacao.web.fatec.api_fatec.domain.cidade.CidadeRepository;
+import com.programacao.web.fatec.api_fatec.domain.cliente.dto.ClienteImportacaoDto;
+import com.programacao.web.fatec.api_fatec.domain.cliente.dto.ClientePostDto;
+import com.programacao.web.fatec.api_fatec.entities.Cidade;
+import com.programacao.web.fatec.api_fatec.entities.Cliente;
+import com.programacao.web.fatec.api_fatec.entities.Estado;
+import com.programacao.web.fatec.api_fatec.exception.BadRequestException;
+import com.programacao.web.fatec.api_fatec.exception.ResourceNotFoundException;
+import com.programacao.web.fatec.api_fatec.exception.ServiceUnavailableException;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.jvm.ExecutorServiceMetrics;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+
+/**
+ * Importação assíncrona de clientes a partir de um arquivo CSV.
+ *
+ * O arquivo enviado é copiado para um arquivo temporário e a requisição retorna imediatamente
+ * com o ID da importação. Um executor próprio e limitado (api.clientes.importacao.threads threads
+ * e fila de api.clientes.importacao.fila importações) lê o arquivo registro a registro e grava os
+ * clientes em transações de api.clientes.lote.tamanho-bloco itens pelo mesmo caminho da criação
+ * em lote ({@link ClienteService#salvarBloco(List)}), então o arquivo nunca é carregado inteiro
+ * em memória. Quando a fila está cheia a importação é recusada com 503.
+ *
+ * O CSV deve ter cabeçalho com as colunas nome e endereco e, opcionalmente, cidade_id ou
+ * cidade e estado (sigla ou nome). Cada cidade distinta é resolvida uma única vez por importação.
+ * A situação das importações fica disponível por api.clientes.importacao.retencao.
+ */
+@Service
+public class ClienteImportacaoService {
+
+    private static final Logger log = LoggerFactory.getLogger(ClienteImportacaoService.class);
+
+    /**
+     * Tempo sugerido (Retry-After) para reenviar uma importação recusada por fila cheia.
+     */
+    private static final long RETRY_AFTER_SEGUNDOS = 30;
+
+    @Autowired
+    private ClienteService clienteService;
+
+    @Autowired
+    private CidadeCache cidadeCache;
+
+    @Autowired
+    private CidadeRepository cidadeRepository;
+
+    @Autowired
+    private MeterRegistry meterRegistry;
+
+    /**
+     * Quantidade de importações executadas ao mesmo tempo.
+     */
+    @Value("${api.clientes.importacao.threads:2}")
+    private int threads;
+
+    /**
+     * Quantidade de importações aguardando execução; além disso novas importações são recusadas.
+     */
+    @Value("${api.clientes.importacao.fila:10}")
+    private int fila;
+
+    /**
+     * Quantidade máxima de mensagens de erro guardadas por importação.
+     */
+    @Value("${api.clientes.importacao.maximo-erros:1000}")
+    private int maximoErros;
+
+    /**
+     * Tempo durante o qual a situação de uma importação pode ser consultada.
+     */
+    @Value("${api.clientes.importacao.retencao:PT24H}")
+    private Duration retencao;
+
+    /**
+     * Quantidade de clientes gravados em cada transação.
+     */
+    @Value("${api.clientes.lote.tamanho-bloco:500}")
+    private int tamanhoBloco;
+
+    private ThreadPoolTaskExecutor executor;
+
+    private Cache<String, ClienteImportacao> importacoes;
+
+    private Counter linhasImportadas;
+
+    private Counter linhasComErro;
+
+    @PostConstruct
+    void inicializar() {
+        executor = new ThreadPoolTaskExecutor();
+        executor.setCorePoolSize(threads);
+        executor.setMaxPoolSize(threads);
+        executor.setQueueCapacity(fila);
+        executor.setThreadNamePrefix("importacao-clientes-");
+        executor.initialize();
+        ExecutorServiceMetrics.monitor(meterRegistry, executor.getThreadPoolExecutor(), "importacao-clientes");
+
+        importacoes = Caffeine.newBuilder()
+                .expireAfterWrite(retencao)
+                .build();
+
+        linhasImportadas = Counter.builder("api.clientes.importacao.linhas")
+                .description("Linhas de CSV processadas pela importação de clientes")
+                .tag("resultado", "importada")
+                .register(meterRegistry);
+        linhasComErro = Counter.builder("api.clientes.importacao.linhas")
+                .description("Linhas de CSV processadas pela importação de clientes")
+                .tag("resultado", "erro")
+                .register(meterRegistry);
+    }
+
+    @PreDestroy
+    void encerrar() {
+        executor.shutdown();
+    }
+
+    /**
+     * Recebe um arquivo CSV e agenda a sua importação.
+     *
+     * @param arquivo Arquivo CSV enviado
+     * @return Situação inicial da importação (com o ID para acompanhamento)
+     * @throws IOException se não for possível copiar o arquivo para o disco
+     * @throws BadRequestException se o arquivo estiver vazio
+     * @throws ServiceUnavailableException se a fila de importações estiver cheia
+     */
+    public ClienteImportacaoDto iniciar(MultipartFile arquivo) throws IOException {
+        if (arquivo == null || arquivo.isEmpty()) {
+            throw new BadRequestException("O arquivo CSV não foi enviado ou está vazio");
+        }
+
+        // O arquivo do multipart é removido ao fim da requisição, então a importação usa uma cópia própria
+        Path temporario = Files.createTempFile("importacao-clientes-", ".csv");
+        try {
+            arquivo.transferTo(temporario);
+        } catch (IOException | RuntimeException e) {
+            Files.deleteIfExists(temporario);
+            throw e;
+        }
+
+        ClienteImportacao importacao = new ClienteImportacao(
+                arquivo.getOriginalFilename(), Files.size(temporario), maximoErros);
+        importacoes.put(importacao.getId(), importacao);
+
+        try {
+            executor.execute(() -> executar(importacao, temporario));
+        } catch (TaskRejectedException e) {
+            importacoes.invalidate(importacao.getId());
+            Files.deleteIfExists(temporario);
+            throw new ServiceUnavailableException(
+                    "A fila de importações está cheia; tente novamente mais tarde", RETRY_AFTER_SEGUNDOS);
+        }
+
+        return importacao.paraDto();
+    }
+
+    /**
+     * Consulta a situação de uma importação.
+     *
+     * @param id ID da importação
+     * @return Situação atual da importação
+     * @throws ResourceNotFoundException se a importação não existir ou já tiver expirado
+     */
+    public ClienteImportacaoDto consultar(String id) {
+        ClienteImportacao importacao = importacoes.getIfPresent(id);
+        if (importacao == null) {
+            throw new ResourceNotFoundException("Importação", "id", id);
+        }
+        return importacao.paraDto();
+    }
+
+    private void executar(ClienteImportacao importacao, Path arquivo) {
+        importacao.iniciar();
+        log.info("Importação {} iniciada", importacao.getId());
+
+        Map<String, Optional<Cidade>> cidades = new HashMap<>();
+        List<Cliente> bloco = new ArrayList<>(tamanhoBloco);
+        List<Long> linhasDoBloco = new ArrayList<>(tamanhoBloco);
+
+        try (ContadorBytes entrada = new ContadorBytes(Files.newInputStream(arquivo));
+                LeitorCsv leitor = new LeitorCsv(new InputStreamReader(entrada, StandardCharsets.UTF_8))) {
+            List<String> cabecalho = leitor.proximoRegistro();
+            if (cabecalho == null) {
+                importacao.falhar("O arquivo CSV está vazio");
+                return;
+            }
+            Colunas colunas = Colunas.de(cabecalho);
+
+            List<String> registro;
+            while ((registro = leitor.proximoRegistro()) != null) {
+                long linha = leitor.linhaDoRegistro();
+                importacao.registrarLinhaProcessada();
+                try {
+                    bloco.add(converter(registro, colunas, cidades));
+                    linhasDoBloco.add(linha);
+                } catch (LinhaInvalidaException e) {
+                    registrarErro(importacao, linha, e.getMessage());
+                }
+
+                if (bloco.size() == tamanhoBloco) {
+                    gravar(importacao, bloco, linhasDoBloco);
+                    importacao.registrarBytesLidos(entrada.lidos);
+                }
+            }
+            gravar(importacao, bloco, linhasDoBloco);
+            importacao.registrarBytesLidos(entrada.lidos);
+            importacao.concluir();
+        } catch (LinhaInvalidaException | IOException | RuntimeException e) {
+            importacao.falhar(e.getMessage());
+            log.warn("Importação {} falhou: {}", importacao.getId(), e.getMessage());
+        } finally {
+            try {
+                Files.deleteIfExists(arquivo);
+            } catch (IOException e) {
+                log.warn("Não foi possível remover o arquivo temporário {}", arquivo, e);
+            }
+        }
+
+        ClienteImportacaoDto situacao = importacao.paraDto();
+        log.info("Importação {} finalizada com status {}: {} clientes importados, {} linhas com erro ({} clientes/s)",
+                situacao.getId(), situacao.getStatus(), situacao.getImportados(), situacao.getLinhasComErro(),
+                Math.round(situacao.getClientesPorSegundo()));
+    }
+
+    /**
+     * Grava o bloco em uma transação. Se o bloco falhar no banco, todas as suas linhas são
+     * registradas com erro, como na criação em lote.
+     */
+    private void gravar(ClienteImportacao importacao, List<Cliente> bloco, List<Long> linhasDoBloco) {
+        if (bloco.isEmpty()) {
+            return;
+        }
+        try {
+            clienteService.salvarBloco(bloco);
+            importacao.registrarImportados(bloco.size());
+            linhasImportadas.increment(bloco.size());
+        } catch (RuntimeException e) {
+            for (Long linha : linhasDoBloco) {
+                registrarErro(importacao, linha, "Falha ao gravar o bloco: " + e.getMessage());
+            }
+        }
+        bloco.clear();
+        linhasDoBloco.clear();
+    }
+
+    private void registrarErro(ClienteImportacao importacao, long linha, String erro) {
+        importacao.registrarErro(linha, erro);
+        linhasComErro.increment();
+    }
+
+    private Cliente converter(List<String> registro, Colunas colunas, Map<String, Optional<Cidade>> cidades)
+            throws LinhaInvalidaException {
+        ClientePostDto dto = new ClientePostDto(colunas.nome(registro), colunas.endereco(registro), null);
+        String erro = ClienteService.validar(dto);
+        if (erro != null) {
+            throw new LinhaInvalidaException(erro);
+        }
+
+        Cliente cliente = new Cliente(null, dto.getNome(), dto.getEndereco());
+        cliente.setCidade(resolverCidade(registro, colunas, cidades));
+        return cliente;
+    }
+
+    /**
+     * Resolve a cidade da linha pelo ID ou pelo nome e estado, consultando cada valor
+     * distinto uma única vez durante a importação.
+     *
+     * @return A cidade, ou null se a linha não informar cidade
+     */
+    private Cidade resolverCidade(List<String> registro, Colunas colunas, Map<String, Optional<Cidade>> cidades)
+            throws LinhaInvalidaException {
+        String cidadeId = colunas.cidadeId(registro);
+        if (!cidadeId.isEmpty()) {
+            Long id;
+            try {
+                id = Long.parseLong(cidadeId);
+            } catch (NumberFormatException e) {
+                throw new LinhaInvalidaException("cidade_id inválido: " + cidadeId);
+            }
+            return cidades.computeIfAbsent("id:" + id, chave -> cidadeCache.buscarPorId(id))
+                    .orElseThrow(() -> new LinhaInvalidaException("Cidade não encontrada com id: " + id));
+        }
+
+        String nome = colunas.cidade(registro);
+        if (nome.isEmpty()) {
+            return null;
+        }
+        String siglaOuNome = colunas.estado(registro);
+        Estado estado = Colunas.converterEstado(siglaOuNome);
+        if (estado == null) {
+            throw new LinhaInvalidaException("estado inválido para a cidade " + nome + ": " + siglaOuNome);
+        }
+        String nomeNormalizado = TextoBusca.normalizar(nome);
+        return cidades.computeIfAbsent(nomeNormalizado + "|" + estado,
+                chave -> cidadeRepository.findFirstByNomeNormalizadoAndEstado(nomeNormalizado, estado))
+                .orElseThrow(() -> new LinhaInvalidaException("Cidade não encontrada: " + nome + "/" + estado));
+    }
+
+    /**
+     * Posições das colunas do CSV, identificadas pelo cabeçalho (sem diferenciar maiúsculas,
+     * acentos, espaços e _).
+     */
+    private record Colunas(int nome, int endereco, int cidadeId, int cidade, int estado) {
+
+        private static final Pattern SEPARADORES = Pattern.compile("[\\s_]");
+
+        /**
+         * Estados pela sigla e pelo nome, já normalizados.
+         */
+        private static final Map<String, Estado> ESTADOS = new HashMap<>();
+
+        static {
+            for (Estado estado : Estado.values()) {
+                ESTADOS.put(estado.name().toLowerCase(Locale.ROOT), estado);
+                ESTADOS.put(normalizarCabecalho(estado.getNome()), estado);
+            }
+        }
+
+        static Colunas de(List<String> cabecalho) throws LinhaInvalidaException {
+            Map<String, Integer> posicoes = new HashMap<>();
+            for (int i = 0; i < cabecalho.size(); i++) {
+                posicoes.putIfAbsent(normalizarCabecalho(cabecalho.get(i)), i);
+            }
+            Colunas colunas = new Colunas(
+                    posicoes.getOrDefault("nome", -1),
+                    posicoes.getOrDefault("endereco", -1),
+                    posicoes.getOrDefault("cidadeid", -1),
+                    posicoes.getOrDefault("cidade", -1),
+                    posicoes.getOrDefault("estado", -1));
+            if (colunas.nome < 0 || colunas.endereco < 0) {
+                throw new LinhaInvalidaException("O cabeçalho do CSV deve conter as colunas nome e endereco");
+            }
+            return colunas;
+        }
+
+        String nome(List<String> registro) {
+            return valor(registro, nome);
+        }
+
+        String endereco(List<String> registro) {
+            return valor(registro, endereco);
+        }
+
+        String cidadeId(List<String> registro) {
+            return valor(registro, cidadeId);
+        }
+
+        String cidade(List<String> registro) {
+            return valor(registro, cidade);
+        }
+
+        String estado(List<String> registro) {
+            return valor(registro, estado);
+        }
+
+        /**
+         * Converte a sigla ou o nome do estado no enum, ou retorna null se não corresponder a nenhum.
+         */
+        static Estado converterEstado(String siglaOuNome) {
+            return ESTADOS.get(normalizarCabecalho(siglaOuNome));
+        }
+
+        private static String valor(List<String> registro, int posicao) {
+            return posicao >= 0 && posicao < registro.size() ? registro.get(posicao).trim() : "";
+        }
+
+        /**
+         * Mesma normalização das buscas ({@link TextoBusca#normalizar(String)}), sem espaços e _.
+         */
+        private static String normalizarCabecalho(String texto) {
+            return SEPARADORES.matcher(TextoBusca.normalizar(texto)).replaceAll("");
+        }
+    }
+
+    /**
+     * Linha do CSV que não pode ser importada. A importação registra o erro e continua.
+     */
+    private static class LinhaInvalidaException extends Exception {
+        LinhaInvalidaException(String mensagem) {
+            super(mensagem);
+        }
+    }
+
+    /**
+     * Conta os bytes lidos do arquivo, usados para calcular o progresso da importação.
+     */
+    private static class ContadorBytes extends FilterInputStream {
+
+        private volatile long lidos;
+
+        ContadorBytes(InputStream in) {
+            super(in);
+        }
+
+        @Override
+        public int read() throws IOException {
+            int b = super.read();
+            if (b >= 0) {
+                lidos++;
+            }
+            return b;
+        }
+
+        @Override
+        public int read(byte[] b, int off, int len) throws IOException {
+            int n = super.read(b, off, len);
+            if (n > 0) {
+                lidos += n;
+            }
+            return n;
+        }
+    }
+}
@@ -0,0 +1,15 @@
+package com.programacao.web.fatec.api_fatec.domain.cliente;
+
+/**
+ * Projeção com os campos de um cliente usados pelo índice de trigramas.
+ * Evita carregar entidades completas (e gerenciadas) ao construir o índice.
+ */
+public interface ClienteIndiceProjecao {
+    Long getId();
+
+    String getNome();
+
+    Long getCidadeId();
+
+    String getCidadeNome();
+}
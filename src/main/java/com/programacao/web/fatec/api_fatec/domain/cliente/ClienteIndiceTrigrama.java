@@ -0,0 +1,338 @@
+package com.programacao.web.fatec.api_fatec.domain.cliente;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+import java.util.function.Consumer;
+import java.util.stream.Stream;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.annotation.Transactional;
+
+import com.programacao.web.fatec.api_fatec.domain.cliente.dto.ClienteResponseDto;
+import com.programacao.web.fatec.api_fatec.entities.Cidade;
+import com.programacao.web.fatec.api_fatec.entities.Cliente;
+
+/**
+ * Índice de trigramas em memória sobre o nome do cliente e o nome da sua cidade.
+ *
+ * A consulta buscarPorIdOuNomeComCidade usa LIKE '%texto%', que nenhum índice do banco consegue
+ * atender, então cada chamada de /buscarPorTexto percorre a tabela inteira. Este índice resolve
+ * os IDs candidatos pela interseção das posting lists dos trigramas do texto, o serviço busca
+ * apenas essas linhas pela chave primária e confirma cada uma ({@link #confirmar}): o índice não
+ * guarda os textos, então um candidato pode ter os trigramas do termo fora de sequência.
+ *
+ * O índice é construído quando a aplicação termina de iniciar e mantido de forma incremental
+ * pelo ClienteService. Enquanto não estiver pronto, ou quando estiver desabilitado
+ * (api.clientes.busca.indice-trigrama.habilitado=false), as buscas continuam indo ao banco.
+ */
+@Component
+public class ClienteIndiceTrigrama {
+
+    private static final Logger log = LoggerFactory.getLogger(ClienteIndiceTrigrama.class);
+
+    /**
+     * Menor tamanho de termo que gera pelo menos um trigrama.
+     */
+    private static final int TAMANHO_MINIMO_TERMO = 3;
+
+    @Autowired
+    private ClienteRepository clienteRepository;
+
+    @Value("${api.clientes.busca.indice-trigrama.habilitado:true}")
+    private boolean habilitado;
+
+    private final ReentrantReadWriteLock lock = new ReentrantReadWriteLock();
+
+    private Estrutura estrutura = new Estrutura();
+
+    private volatile boolean pronto;
+
+    /**
+     * Alterações recebidas enquanto o índice está sendo construído. Elas são reaplicadas
+     * sobre a nova estrutura antes de ela passar a ser usada, para que nenhuma escrita
+     * feita durante a construção seja perdida.
+     */
+    private List<Consumer<Estrutura>> pendentes;
+
+    /**
+     * Constrói (ou reconstrói) o índice a partir do banco de dados.
+     * Executado automaticamente quando a aplicação termina de iniciar.
+     */
+    @EventListener(ApplicationReadyEvent.class)
+    @Transactional(readOnly = true)
+    public void reconstruir() {
+        if (!habilitado) {
+            log.info("Índice de trigramas de clientes desabilitado; buscas por texto usarão o banco");
+            return;
+        }
+
+        lock.writeLock().lock();
+        try {
+            pendentes = new ArrayList<>();
+        } finally {
+            lock.writeLock().unlock();
+        }
+
+        long inicio = System.currentTimeMillis();
+        Estrutura nova = new Estrutura();
+        try (Stream<ClienteIndiceProjecao> clientes = clienteRepository.streamParaIndice()) {
+            Iterator<ClienteIndiceProjecao> iterator = clientes.iterator();
+            while (iterator.hasNext()) {
+                ClienteIndiceProjecao c = iterator.next();
+                nova.indexar(c.getId(), c.getNome(), c.getCidadeId(), c.getCidadeNome());
+            }
+        } catch (RuntimeException e) {
+            lock.writeLock().lock();
+            try {
+                pendentes = null;
+            } finally {
+                lock.writeLock().unlock();
+            }
+            throw e;
+        }
+
+        lock.writeLock().lock();
+        try {
+            pendentes.forEach(alteracao -> alteracao.accept(nova));
+            pendentes = null;
+            estrutura = nova;
+            pronto = true;
+        } finally {
+            lock.writeLock().unlock();
+        }
+
+        log.info("Índice de trigramas de clientes construído com {} clientes em {} ms",
+                nova.nomes.tamanho(), System.currentTimeMillis() - inicio);
+    }
+
+    /**
+     * Verifica se o índice pode responder uma busca por texto com a mesma semântica do SQL.
+     *
+     * @param texto Texto buscado
+     * @return true se o índice está habilitado e pronto, e o texto tem pelo menos 3 caracteres
+     *         e nenhum caractere curinga do LIKE
+     */
+    public boolean podeAtender(String texto) {
+        return habilitado
+                && pronto
+                && texto != null
+                && TextoBusca.normalizar(texto).length() >= TAMANHO_MINIMO_TERMO
+                && !TextoBusca.temCuringa(texto);
+    }
+
+    /**
+     * Resolve os IDs candidatos da busca por texto: todos os clientes que correspondem a
+     * "c.id = idLong OR c.nome_normalizado LIKE '%texto%' OR cidade.nome_normalizado LIKE '%texto%'",
+     * mais os que têm todos os trigramas do texto no nome ou na cidade, mas não em sequência.
+     * Confirme os clientes carregados com {@link #confirmar}.
+     *
+     * @param texto Texto buscado (verifique antes com {@link #podeAtender(String)})
+     * @param idLong ID buscado, ou null se o texto não for numérico
+     * @return IDs dos clientes candidatos
+     */
+    public Set<Long> candidatosPorTexto(String texto, Long idLong) {
+        String termo = TextoBusca.normalizar(texto);
+
+        lock.readLock().lock();
+        try {
+            Set<Long> ids = new HashSet<>();
+            for (long id : estrutura.nomes.buscar(termo)) {
+                ids.add(id);
+            }
+            for (long cidadeId : estrutura.cidades.buscar(termo)) {
+                ids.addAll(estrutura.clientesPorCidade.getOrDefault(cidadeId, Set.of()));
+            }
+            if (idLong != null && estrutura.cidadeDoCliente.containsKey(idLong)) {
+                ids.add(idLong);
+            }
+            return ids;
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /**
+     * Mantém apenas os clientes que de fato correspondem à busca por texto, com a mesma regra do
+     * SQL, descartando os candidatos de {@link #candidatosPorTexto} que não contêm o texto.
+     *
+     * @param candidatos Clientes carregados a partir dos IDs candidatos
+     * @param texto Texto buscado
+     * @param idLong ID buscado, ou null se o texto não for numérico
+     * @return Clientes encontrados, na mesma ordem
+     */
+    public List<ClienteResponseDto> confirmar(List<ClienteResponseDto> candidatos, String texto, Long idLong) {
+        return candidatos.stream()
+                .filter(c -> c.id().equals(idLong)
+                        || TextoBusca.contem(c.nome(), texto)
+                        || TextoBusca.contem(c.cidadeNome(), texto))
+                .toList();
+    }
+
+    /**
+     * Adiciona ou atualiza um cliente no índice. Deve ser chamado após o cliente ser salvo.
+     *
+     * @param cliente Cliente salvo (com a cidade carregada, se houver)
+     */
+    public void indexar(Cliente cliente) {
+        Long id = cliente.getId();
+        String nome = cliente.getNome();
+        Cidade cidade = cliente.getCidade();
+        Long cidadeId = cidade != null ? cidade.getId() : null;
+        String cidadeNome = cidade != null ? cidade.getNome() : null;
+        aplicar(e -> e.indexar(id, nome, cidadeId, cidadeNome));
+    }
+
+    /**
+     * Aplica uma alteração parcial de um cliente ao índice, sem precisar do estado completo.
+     * Deve ser chamado após a alteração ser gravada.
+     * 
+     * @param id ID do cliente
+     * @param nome Novo nome, ou null se o nome não mudou
+     * @param alterarCidade Se a cidade mudou
+     * @param cidade Nova cidade, ou null se o cliente ficou sem cidade (considerada apenas se alterarCidade)
+     */
+    public void alterarParcial(Long id, String nome, boolean alterarCidade, Cidade cidade) {
+        Long cidadeId = cidade != null ? cidade.getId() : null;
+        String cidadeNome = cidade != null ? cidade.getNome() : null;
+        aplicar(e -> e.alterarParcial(id, nome, alterarCidade, cidadeId, cidadeNome));
+    }
+
+    /**
+     * Remove clientes do índice. Deve ser chamado após os clientes serem removidos.
+     *
+     * @param ids IDs dos clientes removidos
+     */
+    public void remover(Collection<Long> ids) {
+        List<Long> copia = List.copyOf(ids);
+        aplicar(e -> copia.forEach(e::remover));
+    }
+
+    /**
+     * Atualiza o nome de uma cidade no índice. Deve ser chamado quando uma cidade for alterada.
+     *
+     * @param cidade Cidade alterada
+     */
+    public void atualizarCidade(Cidade cidade) {
+        Long id = cidade.getId();
+        String nome = cidade.getNome();
+        aplicar(e -> e.atualizarCidade(id, nome));
+    }
+
+    /**
+     * Remove uma cidade do índice. Deve ser chamado quando uma cidade for removida.
+     *
+     * @param cidadeId ID da cidade removida
+     */
+    public void removerCidade(Long cidadeId) {
+        aplicar(e -> e.removerCidade(cidadeId));
+    }
+
+    private void aplicar(Consumer<Estrutura> alteracao) {
+        if (!habilitado) {
+            return;
+        }
+        lock.writeLock().lock();
+        try {
+            alteracao.accept(estrutura);
+            if (pendentes != null) {
+                pendentes.add(alteracao);
+            }
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    /**
+     * Conjunto de estruturas do índice. Os nomes de cidade são indexados uma única vez por
+     * cidade (e não por cliente), então renomear uma cidade não exige reindexar seus clientes.
+     */
+    private static class Estrutura {
+
+        private final PostingsTrigrama nomes = new PostingsTrigrama();
+
+        private final PostingsTrigrama cidades = new PostingsTrigrama();
+
+        private final Map<Long, Long> cidadeDoCliente = new HashMap<>();
+
+        private final Map<Long, Set<Long>> clientesPorCidade = new HashMap<>();
+
+        /**
+         * Nome normalizado de cada cidade indexada (uma entrada por cidade, não por cliente), para
+         * reindexar a cidade só quando o nome muda.
+         */
+        private final Map<Long, String> nomesCidades = new HashMap<>();
+
+        void indexar(Long id, String nome, Long cidadeId, String cidadeNome) {
+            remover(id);
+            nomes.adicionar(id, TextoBusca.normalizar(nome));
+            // HashMap aceita valor null: o cliente sem cidade continua registrado para a busca por ID
+            cidadeDoCliente.put(id, cidadeId);
+            vincularCidade(id, cidadeId, cidadeNome);
+        }
+
+        void alterarParcial(Long id, String nome, boolean alterarCidade, Long cidadeId, String cidadeNome) {
+            if (!cidadeDoCliente.containsKey(id)) {
+                return;
+            }
+            if (nome != null) {
+                nomes.adicionar(id, TextoBusca.normalizar(nome));
+            }
+            if (alterarCidade) {
+                desvincularCidade(id, cidadeDoCliente.put(id, cidadeId));
+                vincularCidade(id, cidadeId, cidadeNome);
+            }
+        }
+
+        void remover(Long id) {
+            nomes.remover(id);
+            desvincularCidade(id, cidadeDoCliente.remove(id));
+        }
+
+        private void vincularCidade(Long id, Long cidadeId, String cidadeNome) {
+            if (cidadeId != null) {
+                clientesPorCidade.computeIfAbsent(cidadeId, c -> new HashSet<>()).add(id);
+                String cidadeNormalizada = TextoBusca.normalizar(cidadeNome);
+                if (!Objects.equals(nomesCidades.get(cidadeId), cidadeNormalizada)) {
+                    atualizarCidade(cidadeId, cidadeNome);
+                }
+            }
+        }
+
+        void atualizarCidade(Long cidadeId, String cidadeNome) {
+            String cidadeNormalizada = TextoBusca.normalizar(cidadeNome);
+            nomesCidades.put(cidadeId, cidadeNormalizada);
+            cidades.adicionar(cidadeId, cidadeNormalizada);
+        }
+
+        void removerCidade(Long cidadeId) {
+            nomesCidades.remove(cidadeId);
+            cidades.remover(cidadeId);
+        }
+
+        private void desvincularCidade(Long id, Long cidadeId) {
+            if (cidadeId != null) {
+                Set<Long> clientes = clientesPorCidade.get(cidadeId);
+                if (clientes != null) {
+                    clientes.remove(id);
+                    if (clientes.isEmpty()) {
+                        clientesPorCidade.remove(cidadeId);
+                    }
+                }
+            }
+        }
+    }
+}
@@ -1,13 +1,27 @@
 package com.programacao.web.fatec.api_fatec.domain.cliente;
 
+import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Lock;
+import org.springframework.data.jpa.repository.Modifying;
 import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
 import org.springframework.data.repository.query.Param;
+import org.springframework.transaction.annotation.Transactional;
 
+import com.programacao.web.fatec.api_fatec.domain.cliente.dto.ClienteResponseDto;
 import com.programacao.web.fatec.api_fatec.entities.Cidade;
 import com.programacao.web.fatec.api_fatec.entities.Cliente;
 import com.programacao.web.fatec.api_fatec.entities.Estado;
+import java.util.Collection;
 import java.util.List;
+import java.util.Optional;
+import java.util.stream.Stream;
+
+import org.hibernate.jpa.HibernateHints;
+
+import jakarta.persistence.LockModeType;
+import jakarta.persistence.QueryHint;
 
 /**
  * Repositório para operações de banco de dados relacionadas à entidade Cliente.
@@ -23,58 +37,250 @@ public interface ClienteRepository extends JpaRepository<Cliente, Long>{
     List<Cliente> findByNome(String nome);
 
     /**
-     * Busca clientes pelo ID da cidade.
+     * Busca uma página dos clientes de uma cidade com ID maior que o informado, ordenados por ID
+     * (paginação keyset). Usa o índice (cidade_id, id), então o custo de qualquer página é o
+     * mesmo da primeira, mesmo em cidades com centenas de milhares de clientes.
      * 
-     * @param cidadeId O ID da cidade dos clientes a serem buscados
-     * @return Lista de clientes da cidade especificada
+     * @param cidadeId ID da cidade
+     * @param after ID do último cliente da página anterior (0 para a primeira página)
+     * @param pageable Tamanho da página (use sempre a página 0, o deslocamento vem de after)
+     * @return Lista de clientes da página
      */
-    @Query("select c from Cliente c where c.cidade.id = :cidadeId")
-    List<Cliente> findByCidadeId(@Param("cidadeId") Long cidadeId);
+    @Query("""
+        select new com.programacao.web.fatec.api_fatec.domain.cliente.dto.ClienteResponseDto(
+            c.id, c.nome, c.endereco, cid.id, cid.nome, cid.estado)
+        from Cliente c
+        join c.cidade cid
+        where c.cidade.id = :cidadeId
+            and c.id > :after
+        order by c.id
+        """)
+    List<ClienteResponseDto> buscarPaginaPorCidade(@Param("cidadeId") Long cidadeId, @Param("after") Long after,
+            Pageable pageable);
 
     /**
-     * Busca clientes por ID ou nome (parcial, case-insensitive).
+     * Conta os clientes de uma cidade pelo índice de cidade_id.
+     * 
+     * @param cidadeId ID da cidade
+     * @return Quantidade de clientes da cidade
+     */
+    @Query("select count(c) from Cliente c where c.cidade.id = :cidadeId")
+    long contarPorCidadeId(@Param("cidadeId") Long cidadeId);
+
+    /**
+     * Busca uma página de clientes com ID maior que o informado, ordenados por ID (paginação keyset).
+     * 
+     * A cidade vem do mesmo SELECT (left join) direto para o modelo de leitura, sem carregar entidades.
+     * Como o filtro usa a chave primária, o custo de qualquer página é o mesmo da primeira.
+     * 
+     * @param after ID do último cliente da página anterior (0 para a primeira página)
+     * @param pageable Tamanho da página (use sempre a página 0, o deslocamento vem de after)
+     * @return Lista de clientes da página
+     */
+    @Query("""
+        select new com.programacao.web.fatec.api_fatec.domain.cliente.dto.ClienteResponseDto(
+            c.id, c.nome, c.endereco, cid.id, cid.nome, cid.estado)
+        from Cliente c
+        left join c.cidade cid
+        where c.id > :after
+        order by c.id
+        """)
+    List<ClienteResponseDto> buscarPagina(@Param("after") Long after, Pageable pageable);
+
+    /**
+     * Percorre todos os clientes, ordenados por ID, como um Stream apoiado em um cursor JDBC.
+     * 
+     * As linhas são lidas do banco em blocos de fetch size (em vez de carregar a tabela inteira)
+     * e convertidas direto para o modelo de leitura, sem entidades no contexto de persistência.
+     * Deve ser chamado dentro de uma transação e o Stream deve ser fechado após o uso.
+     * 
+     * @return Stream com todos os clientes e suas cidades
+     */
+    @Query("""
+        select new com.programacao.web.fatec.api_fatec.domain.cliente.dto.ClienteResponseDto(
+            c.id, c.nome, c.endereco, cid.id, cid.nome, cid.estado)
+        from Cliente c
+        left join c.cidade cid
+        order by c.id
+        """)
+    @QueryHints(@QueryHint(name = HibernateHints.HINT_FETCH_SIZE, value = "500"))
+    Stream<ClienteResponseDto> streamTodos();
+
+    /**
+     * Percorre os campos de texto de todos os clientes (nome e cidade), usados para construir
+     * o índice de trigramas em memória. Deve ser chamado dentro de uma transação.
+     * 
+     * @return Stream com a projeção de cada cliente
+     */
+    @Query("""
+        select c.id as id, c.nome as nome, cid.id as cidadeId, cid.nome as cidadeNome
+        from Cliente c
+        left join c.cidade cid
+        """)
+    @QueryHints(@QueryHint(name = HibernateHints.HINT_FETCH_SIZE, value = "1000"))
+    Stream<ClienteIndiceProjecao> streamParaIndice();
+
+    /**
+     * Busca clientes pelos IDs, ordenados por ID, com a cidade vinda do mesmo SELECT.
+     * 
+     * @param ids IDs dos clientes
+     * @return Lista de clientes encontrados
+     */
+    @Query("""
+        select new com.programacao.web.fatec.api_fatec.domain.cliente.dto.ClienteResponseDto(
+            c.id, c.nome, c.endereco, cid.id, cid.nome, cid.estado)
+        from Cliente c
+        left join c.cidade cid
+        where c.id in :ids
+        order by c.id
+        """)
+    List<ClienteResponseDto> buscarPorIds(@Param("ids") Collection<Long> ids);
+
+    /**
+     * Busca clientes por ID ou nome (parcial, sem diferenciar maiúsculas nem acentos).
+     * 
+     * O nome é comparado com a coluna nome_normalizado, então deve ser passado já normalizado
+     * ({@link TextoBusca#normalizar(String)}); nenhuma função é aplicada às linhas.
      * 
      * @param id O ID do cliente a ser buscado
-     * @param nome O nome (parcial) do cliente a ser buscado
+     * @param nome O nome (parcial e normalizado) do cliente a ser buscado
      * @return Lista de clientes que correspondem ao ID ou nome
      */
     @Query("""
-        select c from Cliente c 
+        select new com.programacao.web.fatec.api_fatec.domain.cliente.dto.ClienteResponseDto(
+            c.id, c.nome, c.endereco, cid.id, cid.nome, cid.estado)
+        from Cliente c
+        left join c.cidade cid
         where 
             (c.id = :id) 
-            OR (lower(c.nome) like lower(concat('%', :nome, '%')))
+            OR (c.nomeNormalizado like concat('%', :nome, '%'))
         """)
-    List<Cliente> buscarPorIdOuNome(@Param("id") Long id, @Param("nome") String nome);
+    List<ClienteResponseDto> buscarPorIdOuNome(@Param("id") Long id, @Param("nome") String nome);
 
     /**
      * Busca clientes por texto que corresponda ao ID, nome ou nome da cidade.
-     * Este método demonstra como trabalhar com relacionamentos em consultas SQL no PostgreSQL.
+     * Este método demonstra como trabalhar com relacionamentos em consultas JPQL.
      * 
      * No banco dados relacional, os relacionamentos são implementados usando chaves estrangeiras.
      * A tabela 'clientes' tem uma coluna 'cidade_id' que referencia a tabela 'cidades'.
      * 
-     * Na consulta SQL nativa, usamos JOIN para conectar as tabelas:
-     * - c.* seleciona todos os campos da tabela clientes
-     * - LEFT JOIN cidades cid ON c.cidade_id = cid.id conecta as tabelas
+     * Na consulta JPQL, usamos JOIN pelo relacionamento para conectar as entidades:
+     * - select new ClienteResponseDto(...) monta o modelo de leitura direto do resultado
+     * - left join c.cidade cid gera o LEFT JOIN cidades pela chave estrangeira cidade_id
      * - Condições WHERE filtram os resultados
      * 
      * O parâmetro texto é usado para buscar em múltiplos campos:
      * - Se o texto puder ser convertido para Long, busca também pelo ID do cliente
-     * - Busca por correspondência parcial no nome do cliente (case-insensitive)
-     * - Busca por correspondência parcial no nome da cidade (case-insensitive)
+     * - Busca por correspondência parcial no nome do cliente (sem diferenciar maiúsculas nem acentos)
+     * - Busca por correspondência parcial no nome da cidade (sem diferenciar maiúsculas nem acentos)
      * 
-     * @param texto O texto a ser buscado em múltiplos campos
+     * Os nomes são comparados com as colunas nome_normalizado, então o texto deve ser passado já
+     * normalizado ({@link TextoBusca#normalizar(String)}).
+     * 
+     * @param texto O texto (normalizado) a ser buscado em múltiplos campos
      * @return Lista de clientes que correspondem aos critérios de busca
      */
-    @Query(value = """
-        SELECT c.* FROM clientes c
-        LEFT JOIN cidades cid ON c.cidade_id = cid.id
-        WHERE 
-            (:idLong IS NOT NULL AND c.id = :idLong)
-            OR LOWER(c.nome) LIKE LOWER(CONCAT('%', :texto, '%'))
-            OR LOWER(cid.nome) LIKE LOWER(CONCAT('%', :texto, '%'))
-        """, nativeQuery = true)
-    List<Cliente> buscarPorIdOuNomeComCidade(
+    @Query("""
+        select new com.programacao.web.fatec.api_fatec.domain.cliente.dto.ClienteResponseDto(
+            c.id, c.nome, c.endereco, cid.id, cid.nome, cid.estado)
+        from Cliente c
+        left join c.cidade cid
+        where 
+            (:idLong is not null and c.id = :idLong)
+            or c.nomeNormalizado like concat('%', :texto, '%')
+            or cid.nomeNormalizado like concat('%', :texto, '%')
+        """)
+    List<ClienteResponseDto> buscarPorIdOuNomeComCidade(
         @Param("texto") String texto,
         @Param("idLong") Long idLong);
+
+    /**
+     * Altera apenas os campos informados de um cliente em um único UPDATE condicional,
+     * incrementando a versão.
+     * 
+     * nome e endereco nulos mantêm o valor atual; a cidade só é alterada se alterarCidade for
+     * true (e cidadeId nulo remove a cidade). Com versao informada, a linha só é alterada se
+     * ainda estiver nessa versão. Como o UPDATE não passa pelo ciclo de vida da entidade, o
+     * nome normalizado é recebido junto com o nome.
+     * 
+     * @param id ID do cliente
+     * @param nome Novo nome, ou null para manter
+     * @param nomeNormalizado Novo nome normalizado ({@link TextoBusca#normalizar(String)}), ou null para manter
+     * @param endereco Novo endereço, ou null para manter
+     * @param alterarCidade Se a cidade deve ser alterada
+     * @param cidadeId Nova cidade (considerada apenas se alterarCidade for true)
+     * @param versao Versão esperada, ou null para alterar qualquer versão
+     * @return Quantidade de linhas alteradas (0 se o cliente não existe ou a versão mudou)
+     */
+    @Transactional
+    @Modifying
+    @Query(nativeQuery = true, value = """
+        update clientes set
+            nome = coalesce(:nome, nome),
+            nome_normalizado = coalesce(:nomeNormalizado, nome_normalizado),
+            endereco = coalesce(:endereco, endereco),
+            cidade_id = case when :alterarCidade then :cidadeId else cidade_id end,
+            versao = versao + 1
+        where id = :id
+            and (:versao is null or versao = :versao)
+        """)
+    int alterarParcial(
+        @Param("id") Long id,
+        @Param("nome") String nome,
+        @Param("nomeNormalizado") String nomeNormalizado,
+        @Param("endereco") String endereco,
+        @Param("alterarCidade") boolean alterarCidade,
+        @Param("cidadeId") Long cidadeId,
+        @Param("versao") Long versao);
+
+    /**
+     * Busca a versão atual de um cliente.
+     * 
+     * @param id ID do cliente
+     * @return Versão do cliente, ou Optional vazio se ele não existir
+     */
+    @Query("select c.versao from Cliente c where c.id = :id")
+    Optional<Long> buscarVersao(@Param("id") Long id);
+
+    /**
+     * Busca os IDs dos clientes de uma cidade, sem carregar as entidades.
+     * 
+     * @param cidadeId ID da cidade
+     * @return IDs dos clientes da cidade
+     */
+    @Query("select c.id from Cliente c where c.cidade.id = :cidadeId")
+    List<Long> buscarIdsPorCidadeId(@Param("cidadeId") Long cidadeId);
+
+    /**
+     * Remove os clientes com os IDs informados em um único DELETE, sem carregá-los antes.
+     * Deve ser chamado dentro de uma transação.
+     * 
+     * @param ids IDs dos clientes (respeite o limite da cláusula IN)
+     * @return Quantidade de clientes removidos
+     */
+    @Modifying
+    @Query("delete from Cliente c where c.id in :ids")
+    int removerPorIds(@Param("ids") Collection<Long> ids);
+
+    /**
+     * Busca a cidade atual de cada cliente e bloqueia as linhas (SELECT ... FOR UPDATE) até o
+     * fim da transação, para que a cidade lida seja a mesma no momento da alteração ou remoção.
+     * Deve ser chamado dentro de uma transação.
+     * 
+     * @param ids IDs dos clientes (respeite o limite da cláusula IN)
+     * @return ID e cidade de cada cliente encontrado
+     */
+    @Lock(LockModeType.PESSIMISTIC_WRITE)
+    @Query("select c.id as id, c.cidade.id as cidadeId from Cliente c where c.id in :ids")
+    List<ClienteCidadeProjecao> bloquearComCidade(@Param("ids") Collection<Long> ids);
+
+    /**
+     * Conta os clientes de cada cidade com um GROUP BY sobre a chave estrangeira, sem JOIN
+     * (o grupo com cidadeId nulo é o dos clientes sem cidade). Usado apenas para inicializar e
+     * reconciliar as estatísticas mantidas em memória.
+     * 
+     * @return Quantidade de clientes por cidade
+     */
+    @Query("select c.cidade.id as cidadeId, count(*) as quantidade from Cliente c group by c.cidade.id")
+    List<ClienteContagemProjecao> contarPorCidade();
 }
@@ -1,70 +1,369 @@
 package com.programacao.web.fatec.api_fatec.domain.cliente;
 
+import java.io.IOException;
+import java.io.OutputStream;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Iterator;
+import java.util.LinkedHashSet;
 import java.util.List;
+import java.util.Objects;
 import java.util.Optional;
+import java.util.Set;
+import java.util.function.Supplier;
+import java.util.stream.Stream;
 
+import org.springframework.beans.factory.ObjectProvider;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.PageRequest;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
 
-import com.programacao.web.fatec.api_fatec.domain.cidade.CidadeRepository;
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.programacao.web.fatec.api_fatec.domain.cidade.CidadeCache;
 import com.programacao.web.fatec.api_fatec.domain.cliente.dto.BuscaPorIdOuNomeDto;
+import com.programacao.web.fatec.api_fatec.domain.cliente.dto.ClienteLoteResultadoDto;
+import com.programacao.web.fatec.api_fatec.domain.cliente.dto.ClientePaginaDto;
+import com.programacao.web.fatec.api_fatec.domain.cliente.dto.ClientePatchDto;
 import com.programacao.web.fatec.api_fatec.domain.cliente.dto.ClientePostDto;
 import com.programacao.web.fatec.api_fatec.domain.cliente.dto.ClientePutDto;
+import com.programacao.web.fatec.api_fatec.domain.cliente.dto.ClienteRemocaoDto;
+import com.programacao.web.fatec.api_fatec.domain.cliente.dto.ClienteResponseDto;
+import com.programacao.web.fatec.api_fatec.domain.cliente.dto.ClienteVersionadoDto;
 import com.programacao.web.fatec.api_fatec.entities.Cidade;
 import com.programacao.web.fatec.api_fatec.entities.Cliente;
+import com.programacao.web.fatec.api_fatec.exception.BadRequestException;
+import com.programacao.web.fatec.api_fatec.exception.ConflictException;
 import com.programacao.web.fatec.api_fatec.exception.ResourceNotFoundException;
+import com.programacao.web.fatec.api_fatec.exception.ServiceUnavailableException;
+import com.programacao.web.fatec.api_fatec.infra.LeituraReplica;
+
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.criteria.CriteriaBuilder;
+import jakarta.persistence.criteria.CriteriaQuery;
+import jakarta.persistence.criteria.Join;
+import jakarta.persistence.criteria.Root;
 
 @Service
 public class ClienteService {
+    /**
+     * Quantidade máxima de IDs em cada cláusula IN.
+     */
+    private static final int TAMANHO_BLOCO_IN = 1000;
+
     @Autowired
     private ClienteRepository clienteRepository;
 
     @Autowired
-    private CidadeRepository cidadeRepository;
+    private CidadeCache cidadeCache;
 
-    public List<Cliente> listarClientes() {
-        return clienteRepository.findAll();
+    @Autowired
+    private ClienteIndiceTrigrama indiceTrigrama;
+
+    @Autowired
+    private ClienteVersao clienteVersao;
+
+    @Autowired
+    private ClienteBuscaCache buscaCache;
+
+    @Autowired
+    private ClienteBuscasEmAndamento buscasEmAndamento;
+
+    @Autowired
+    private ClienteEstatisticas estatisticas;
+
+    /**
+     * Obtida por ObjectProvider porque a gravação agrupada também depende deste serviço.
+     */
+    @Autowired
+    private ObjectProvider<ClienteGravacaoAgrupada> gravacaoAgrupada;
+
+    @Autowired
+    private EntityManager entityManager;
+
+    @Autowired
+    private TransactionTemplate transactionTemplate;
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    /**
+     * Quantidade de clientes escritos na exportação entre cada flush da saída.
+     */
+    @Value("${api.clientes.exportacao.bloco:500}")
+    private int exportacaoBloco;
+
+    /**
+     * Quantidade de clientes gravados em cada transação da criação em lote.
+     */
+    @Value("${api.clientes.lote.tamanho-bloco:500}")
+    private int loteTamanhoBloco;
+
+    /**
+     * Quantidade máxima de clientes aceita em uma requisição de criação em lote.
+     */
+    @Value("${api.clientes.lote.maximo:10000}")
+    private int loteMaximo;
+
+    /**
+     * Quantidade máxima de clientes retornada pela listagem sem paginação.
+     */
+    @Value("${api.clientes.listagem.maximo:1000}")
+    private int listagemMaximo;
+
+    /**
+     * Tamanho de página usado quando o parâmetro limit não é informado.
+     */
+    @Value("${api.clientes.pagina.tamanho-padrao:50}")
+    private int paginaTamanhoPadrao;
+
+    /**
+     * Maior tamanho de página aceito no parâmetro limit.
+     */
+    @Value("${api.clientes.pagina.tamanho-maximo:500}")
+    private int paginaTamanhoMaximo;
+
+    /**
+     * Lista os clientes sem paginação, limitado a api.clientes.listagem.maximo registros
+     * (os de menor ID), para que a listagem nunca carregue a tabela inteira em memória.
+     * Quando a lista chega ao limite, a página traz o cursor para continuar a listagem
+     * paginada a partir do último cliente, como em {@link #listarClientesPaginado}.
+     * 
+     * @return Página com no máximo api.clientes.listagem.maximo clientes e o cursor do restante
+     *         (null se a lista não chegou ao limite)
+     */
+    public ClientePaginaDto listarClientes() {
+        return pagina(LeituraReplica.executar(() -> clienteRepository.buscarPagina(0L,
+                PageRequest.of(0, listagemMaximo))), listagemMaximo);
     }
 
-    public List<Cliente> buscaPorIdOuNomeGenerico(String search) {
-        Long id = null;
-        try {
-            id = Long.parseLong(search);
-        } catch (Exception e) {
-            // TODO: handle exception
-            System.err.println(e.getMessage());
+    /**
+     * Lista uma página de clientes usando paginação por chave (keyset) sobre o ID.
+     * 
+     * @param after ID do último cliente da página anterior (null para a primeira página)
+     * @param limit Tamanho da página (null para o tamanho padrão)
+     * @return Página com os clientes e o cursor da próxima página (null na última página)
+     * @throws BadRequestException se o limit estiver fora do intervalo permitido
+     */
+    public ClientePaginaDto listarClientesPaginado(Long after, Integer limit) {
+        int tamanho = tamanhoPagina(limit);
+        return pagina(LeituraReplica.executar(() -> clienteRepository.buscarPagina(after != null ? after : 0L,
+                PageRequest.of(0, tamanho))), tamanho);
+    }
+
+    /**
+     * Lista uma página dos clientes de uma cidade usando paginação por chave (keyset) sobre o ID,
+     * sem carregar a coleção Cidade.clientes.
+     * 
+     * @param cidadeId ID da cidade
+     * @param after ID do último cliente da página anterior (null para a primeira página)
+     * @param limit Tamanho da página (null para o tamanho padrão)
+     * @return Página com os clientes e o cursor da próxima página (null na última página)
+     * @throws BadRequestException se o limit estiver fora do intervalo permitido
+     */
+    public ClientePaginaDto listarClientesDaCidade(Long cidadeId, Long after, Integer limit) {
+        int tamanho = tamanhoPagina(limit);
+        return pagina(LeituraReplica.executar(() -> clienteRepository.buscarPaginaPorCidade(cidadeId,
+                after != null ? after : 0L, PageRequest.of(0, tamanho))), tamanho);
+    }
+
+    /**
+     * Busca um cliente pelo ID, com a versão usada no controle de concorrência otimista.
+     * 
+     * A leitura vai sempre para o banco principal: a versão retornada é a que o PATCH com
+     * If-Match compara, e a de uma réplica atrasada resultaria em um 409 desnecessário.
+     * 
+     * @param id ID do cliente
+     * @return Cliente e a sua versão atual
+     * @throws ResourceNotFoundException se o cliente não for encontrado
+     */
+    @Transactional(readOnly = true)
+    public ClienteVersionadoDto buscarCliente(Long id) {
+        Cliente cliente = clienteRepository.findById(id)
+                .orElseThrow(() -> new ResourceNotFoundException("Cliente", "id", id));
+        return new ClienteVersionadoDto(ClienteResponseDto.de(cliente), cliente.getVersao());
+    }
+
+    private int tamanhoPagina(Integer limit) {
+        int tamanho = limit != null ? limit : paginaTamanhoPadrao;
+        if (tamanho < 1 || tamanho > paginaTamanhoMaximo) {
+            throw new BadRequestException(
+                    "O parâmetro limit deve estar entre 1 e " + paginaTamanhoMaximo + ": " + tamanho);
+        }
+        return tamanho;
+    }
+
+    private static ClientePaginaDto pagina(List<ClienteResponseDto> clientes, int tamanho) {
+        // Só existe próxima página se esta veio cheia
+        String proximoCursor = null;
+        if (clientes.size() == tamanho) {
+            proximoCursor = ClienteCursor.codificar(clientes.get(clientes.size() - 1).id());
+        }
+        return new ClientePaginaDto(clientes, proximoCursor);
+    }
+
+    /**
+     * Exporta todos os clientes em JSON delimitado por quebra de linha (NDJSON), um cliente por linha.
+     * 
+     * Os clientes são lidos por um Stream apoiado em cursor JDBC e escritos diretamente na saída,
+     * sem montar uma lista em memória. Como o Stream produz o modelo de leitura (e não entidades),
+     * nada fica retido no contexto de persistência e o uso de heap é constante.
+     * 
+     * @param saida Stream de saída onde o NDJSON será escrito (não é fechado por este método)
+     * @return Quantidade de clientes exportados
+     * @throws IOException se ocorrer um erro ao escrever na saída
+     */
+    @Transactional(readOnly = true)
+    public long exportarClientes(OutputStream saida) throws IOException {
+        long total = 0;
+        try (Stream<ClienteResponseDto> clientes = clienteRepository.streamTodos();
+                JsonGenerator gerador = objectMapper.getFactory().createGenerator(saida)) {
+            gerador.disable(JsonGenerator.Feature.AUTO_CLOSE_TARGET);
+            // Se a leitura falhar no meio de um cliente, o close não deve completar o objeto
+            // pela metade e fazê-lo parecer uma linha válida
+            gerador.disable(JsonGenerator.Feature.AUTO_CLOSE_JSON_CONTENT);
+            // Sem separador entre valores raiz: cada cliente termina com '\n'
+            gerador.setRootValueSeparator(null);
+
+            Iterator<ClienteResponseDto> iterator = clientes.iterator();
+            while (iterator.hasNext()) {
+                objectMapper.writeValue(gerador, iterator.next());
+                gerador.writeRaw('\n');
+                total++;
+
+                if (total % exportacaoBloco == 0) {
+                    gerador.flush();
+                }
+            }
+            gerador.flush();
         }
+        return total;
+    }
 
-        return clienteRepository.buscarPorIdOuNome(id, search);
+    public List<ClienteResponseDto> buscaPorIdOuNomeGenerico(String search) {
+        Long idBusca = TextoBusca.converterId(search);
+        return LeituraReplica.executar(() -> buscar(ClienteBuscaCache.Chave.idOuNome(idBusca, search),
+                () -> clienteRepository.buscarPorIdOuNome(idBusca, TextoBusca.normalizar(search))));
     }
 
-    public List<Cliente> buscaPorIdOuNome(BuscaPorIdOuNomeDto dto) {
-        return clienteRepository.buscarPorIdOuNome(dto.getId(), dto.getNome());
+    public List<ClienteResponseDto> buscaPorIdOuNome(BuscaPorIdOuNomeDto dto) {
+        ClienteBuscaCache.Chave chave = ClienteBuscaCache.Chave.idOuNome(dto.getId(), dto.getNome());
+        return LeituraReplica.executar(() -> buscar(chave,
+                () -> clienteRepository.buscarPorIdOuNome(dto.getId(), TextoBusca.normalizar(dto.getNome()))));
+    }
+
+    /**
+     * Busca clientes por texto. Um texto com campos (estado:SP cidade:"Belo Horizonte" nome:jo* id:42)
+     * é uma consulta estruturada, com os critérios combinados com AND sobre colunas indexadas
+     * ({@link ClienteConsulta}); um texto simples busca no ID, no nome e no nome da cidade.
+     * 
+     * @param texto Texto ou consulta estruturada
+     * @return Clientes encontrados, ordenados por ID na consulta estruturada
+     * @throws BadRequestException se a consulta estruturada tiver um campo inválido
+     */
+    public List<ClienteResponseDto> buscarPorTexto(String texto) {
+        return LeituraReplica.executar(() -> buscarPorTextoOuConsulta(texto));
     }
 
-    public List<Cliente> buscarPorTexto(String texto) {
-        // Tenta converter o texto para Long para buscar por ID
-        Long idLong = null;
-        try {
-            idLong = Long.parseLong(texto);
-        } catch (NumberFormatException e) {
-            // Se não for possível converter para Long, deixa idLong como null
-            System.out.println("Texto não pode ser convertido para Long: " + texto);
+    private List<ClienteResponseDto> buscarPorTextoOuConsulta(String texto) {
+        Optional<ClienteConsulta> consulta = ClienteConsulta.interpretar(texto);
+        if (consulta.isPresent()) {
+            return buscar(ClienteBuscaCache.Chave.consulta(consulta.get()),
+                    () -> buscarPorConsulta(consulta.get()));
         }
 
-        // Chama o método do repositório com o texto e o possível ID
-        return clienteRepository.buscarPorIdOuNomeComCidade(texto, idLong);
+        // Número sem exceção: a maioria das buscas é por nome
+        Long idBusca = TextoBusca.converterId(texto);
+        return buscar(ClienteBuscaCache.Chave.texto(idBusca, texto), () -> {
+            // Quando possível, resolve os IDs pelo índice de trigramas e busca só essas linhas
+            if (indiceTrigrama.podeAtender(texto)) {
+                List<ClienteResponseDto> candidatos = buscarPorIds(indiceTrigrama.candidatosPorTexto(texto, idBusca));
+                return indiceTrigrama.confirmar(candidatos, texto, idBusca);
+            }
+
+            // Chama o método do repositório com o texto e o possível ID
+            return clienteRepository.buscarPorIdOuNomeComCidade(TextoBusca.normalizar(texto), idBusca);
+        });
+    }
+
+    /**
+     * Busca no cache e, em caso de falha, executa a consulta, compartilhada com as buscas idênticas
+     * em andamento ({@link ClienteBuscasEmAndamento}).
+     * 
+     * @param chave Busca normalizada
+     * @param consulta Consulta ao banco
+     * @return Lista imutável de clientes
+     */
+    private List<ClienteResponseDto> buscar(ClienteBuscaCache.Chave chave, Supplier<List<ClienteResponseDto>> consulta) {
+        return buscaCache.buscar(chave, () -> buscasEmAndamento.executar(chave, consulta));
+    }
+
+    /**
+     * Executa uma consulta estruturada com JPA Criteria, projetando direto no modelo de leitura
+     * (mesmo LEFT JOIN com a cidade usado pelo filtro).
+     * 
+     * @param consulta Consulta estruturada
+     * @return Clientes encontrados, ordenados por ID
+     */
+    private List<ClienteResponseDto> buscarPorConsulta(ClienteConsulta consulta) {
+        CriteriaBuilder cb = entityManager.getCriteriaBuilder();
+        CriteriaQuery<ClienteResponseDto> query = cb.createQuery(ClienteResponseDto.class);
+        Root<Cliente> cliente = query.from(Cliente.class);
+        Join<Cliente, Cidade> cidade = ClienteConsulta.cidade(cliente);
+        query.select(cb.construct(ClienteResponseDto.class,
+                        cliente.get("id"), cliente.get("nome"), cliente.get("endereco"),
+                        cidade.get("id"), cidade.get("nome"), cidade.get("estado")))
+                .where(consulta.especificacao().toPredicate(cliente, query, cb))
+                .orderBy(cb.asc(cliente.get("id")));
+        return entityManager.createQuery(query).getResultList();
+    }
+
+    /**
+     * Busca clientes pelos IDs em blocos, para não exceder o tamanho da cláusula IN.
+     * 
+     * @param ids IDs dos clientes
+     * @return Lista de clientes ordenada por ID
+     */
+    private List<ClienteResponseDto> buscarPorIds(Set<Long> ids) {
+        List<Long> ordenados = new ArrayList<>(ids);
+        Collections.sort(ordenados);
+
+        List<ClienteResponseDto> clientes = new ArrayList<>(ordenados.size());
+        for (int i = 0; i < ordenados.size(); i += TAMANHO_BLOCO_IN) {
+            List<Long> bloco = ordenados.subList(i, Math.min(i + TAMANHO_BLOCO_IN, ordenados.size()));
+            clientes.addAll(clienteRepository.buscarPorIds(bloco));
+        }
+        return clientes;
     }
 
+    /**
+     * Cria um cliente. Com api.clientes.criacao.agrupada.habilitado=true o cliente é gravado junto
+     * com as criações concorrentes em uma única transação ({@link ClienteGravacaoAgrupada}).
+     * 
+     * @param dto Dados do cliente
+     * @return Cliente criado, com o ID gerado
+     * @throws ServiceUnavailableException se a fila da gravação agrupada estiver cheia
+     */
     public Cliente createCliente(ClientePostDto dto) {
+        ClienteGravacaoAgrupada agrupada = gravacaoAgrupada.getObject();
+        if (agrupada.habilitado()) {
+            Cliente criado = agrupada.criar(dto);
+            // O lote foi confirmado pela thread gravadora: o registro é feito aqui, na requisição
+            LeituraReplica.registrarEscrita();
+            return criado;
+        }
+
         Cliente cliente = new Cliente();
         cliente.setNome(dto.getNome());
         cliente.setEndereco(dto.getEndereco());
 
         // Verifica se o cliente tem uma cidade associada
         if (dto.getCidadeId() != null) {
-            // Busca a cidade pelo ID
-            Optional<Cidade> cidadeOpt = cidadeRepository.findById(dto.getCidadeId());
+            // Busca a cidade pelo ID (no cache, indo ao banco apenas na primeira vez)
+            Optional<Cidade> cidadeOpt = cidadeCache.buscarPorId(dto.getCidadeId());
 
             // Se a cidade existir, associa ao cliente
             if (cidadeOpt.isPresent()) {
@@ -72,47 +371,317 @@ public class ClienteService {
             }
         }
 
-        return clienteRepository.save(cliente);
+        Cliente salvo = clienteRepository.save(cliente);
+        aposSalvar(List.of(salvo), () -> estatisticas.adicionar(List.of(salvo)));
+        return salvo;
     }
 
-    public Cliente alterarCliente(Long id, ClientePutDto dto) {
-        // Verifica se o cliente existe
-        if (!clienteRepository.existsById(id)) {
-            throw new ResourceNotFoundException("Cliente", "id", id);
+    /**
+     * Cria vários clientes de uma vez, em transações de api.clientes.lote.tamanho-bloco itens.
+     * 
+     * Os IDs vêm de uma sequence pooled, então o Hibernate agrupa os INSERTs de cada bloco em
+     * lotes JDBC (hibernate.jdbc.batch_size) em vez de fazer uma ida ao banco por cliente.
+     * Itens inválidos são reportados individualmente; se um bloco falhar no banco, apenas os
+     * itens daquele bloco são marcados com erro.
+     * 
+     * @param dtos Dados dos clientes a serem criados
+     * @return Resultado de cada item, na mesma ordem da requisição
+     * @throws BadRequestException se a lista estiver vazia ou exceder api.clientes.lote.maximo
+     */
+    public List<ClienteLoteResultadoDto> createClientesEmLote(List<ClientePostDto> dtos) {
+        if (dtos == null || dtos.isEmpty() || dtos.size() > loteMaximo) {
+            throw new BadRequestException("O lote deve conter entre 1 e " + loteMaximo + " clientes");
         }
 
-        Cliente cliente = new Cliente();
-        cliente.setId(id);
-        cliente.setNome(dto.getNome());
-        cliente.setEndereco(dto.getEndereco());
+        ClienteLoteResultadoDto[] resultados = new ClienteLoteResultadoDto[dtos.size()];
+        List<Integer> indices = new ArrayList<>();
+        List<Cliente> clientes = new ArrayList<>();
 
-        // Verifica se o cliente tem uma cidade associada
+        for (int i = 0; i < dtos.size(); i++) {
+            ClientePostDto dto = dtos.get(i);
+            String erro = validar(dto);
+            if (erro != null) {
+                resultados[i] = ClienteLoteResultadoDto.erro(i, erro);
+                continue;
+            }
+
+            Cliente cliente = new Cliente(null, dto.getNome(), dto.getEndereco());
+            if (dto.getCidadeId() != null) {
+                cidadeCache.buscarPorId(dto.getCidadeId()).ifPresent(cliente::setCidade);
+            }
+            indices.add(i);
+            clientes.add(cliente);
+        }
+
+        for (int inicio = 0; inicio < clientes.size(); inicio += loteTamanhoBloco) {
+            int fim = Math.min(inicio + loteTamanhoBloco, clientes.size());
+            List<Cliente> bloco = clientes.subList(inicio, fim);
+            try {
+                salvarBloco(bloco);
+                for (int j = inicio; j < fim; j++) {
+                    int indice = indices.get(j);
+                    resultados[indice] = ClienteLoteResultadoDto.criado(indice, clientes.get(j).getId());
+                }
+            } catch (RuntimeException e) {
+                for (int j = inicio; j < fim; j++) {
+                    int indice = indices.get(j);
+                    resultados[indice] = ClienteLoteResultadoDto.erro(indice, "Falha ao gravar o bloco: " + e.getMessage());
+                }
+            }
+        }
+
+        return List.of(resultados);
+    }
+
+    /**
+     * Grava um bloco de clientes novos em uma única transação, com INSERTs em lote JDBC,
+     * e atualiza o índice e o cache de busca, as estatísticas e a versão da tabela após o commit.
+     * 
+     * @param clientes Clientes sem ID (são preenchidos com o ID gerado)
+     */
+    public void salvarBloco(List<Cliente> clientes) {
+        transactionTemplate.executeWithoutResult(status -> {
+            clienteRepository.saveAll(clientes);
+            entityManager.flush();
+            entityManager.clear();
+        });
+        aposSalvar(clientes, () -> estatisticas.adicionar(clientes));
+    }
+
+    /**
+     * Atualiza os dados derivados de clientes (índice de busca, cache de buscas, estatísticas e
+     * versão usada nos ETags) depois que clientes foram criados ou alterados e a transação
+     * terminou, e registra a escrita para o leia-suas-escritas das réplicas.
+     * 
+     * A versão é incrementada por último: uma leitura que já vê a versão nova (e guarda a resposta
+     * com o ETag dela) não pode receber as estatísticas anteriores à escrita.
+     * 
+     * @param clientes Clientes gravados, no novo estado
+     * @param atualizarEstatisticas Atualização das contagens por cidade causada pela escrita
+     */
+    private void aposSalvar(List<Cliente> clientes, Runnable atualizarEstatisticas) {
+        clientes.forEach(indiceTrigrama::indexar);
+        buscaCache.invalidarClientes(clientes);
+        atualizarEstatisticas.run();
+        clienteVersao.incrementar();
+        LeituraReplica.registrarEscrita();
+    }
+
+    /**
+     * Atualiza os dados derivados de clientes depois que clientes foram removidos.
+     * 
+     * @param removidos ID e cidade dos clientes removidos
+     */
+    private void aposRemover(List<ClienteCidadeProjecao> removidos) {
+        List<Long> ids = removidos.stream().map(ClienteCidadeProjecao::getId).toList();
+        indiceTrigrama.remover(ids);
+        estatisticas.remover(removidos);
+        buscaCache.invalidarClientesRemovidos(ids);
+        clienteVersao.incrementar();
+        LeituraReplica.registrarEscrita();
+    }
+
+    /**
+     * Valida os campos obrigatórios de um cliente novo, de acordo com as colunas da tabela.
+     * 
+     * @param dto Dados do cliente
+     * @return Mensagem de erro, ou null se o cliente for válido
+     */
+    static String validar(ClientePostDto dto) {
+        if (dto == null) {
+            return "Cliente não informado";
+        }
+        if (dto.getNome() == null || dto.getNome().isBlank() || dto.getNome().length() > 60) {
+            return "nome é obrigatório e deve ter até 60 caracteres";
+        }
+        if (dto.getEndereco() == null || dto.getEndereco().isBlank() || dto.getEndereco().length() > 60) {
+            return "endereco é obrigatório e deve ter até 60 caracteres";
+        }
+        return null;
+    }
+
+    /**
+     * Substitui os dados de um cliente (PUT). Uma cidade não informada deixa o cliente sem cidade.
+     * 
+     * O cliente é carregado e alterado na mesma transação, então a versão é verificada no UPDATE
+     * e uma alteração concorrente resulta em conflito (409) em vez de ser sobrescrita.
+     * 
+     * @param id ID do cliente
+     * @param dto Novos dados do cliente
+     * @return Cliente alterado
+     * @throws ResourceNotFoundException se o cliente não for encontrado
+     */
+    public Cliente alterarCliente(Long id, ClientePutDto dto) {
+        Long[] cidadeAnteriorId = new Long[1];
+        Cliente salvo = transactionTemplate.execute(status -> {
+            Cliente cliente = clienteRepository.findById(id)
+                    .orElseThrow(() -> new ResourceNotFoundException("Cliente", "id", id));
+            cidadeAnteriorId[0] = cliente.getCidadeId();
+            cliente.setNome(dto.getNome());
+            cliente.setEndereco(dto.getEndereco());
+
+            // Busca a cidade pelo ID (no cache, indo ao banco apenas na primeira vez)
+            Cidade cidade = null;
+            if (dto.getCidadeId() != null) {
+                cidade = cidadeCache.buscarPorId(dto.getCidadeId()).orElse(null);
+            }
+            cliente.setCidade(cidade);
+            return cliente;
+        });
+        aposSalvar(List.of(salvo), () -> estatisticas.mover(cidadeAnteriorId[0], salvo.getCidade()));
+        return salvo;
+    }
+
+    /**
+     * Altera apenas os campos informados de um cliente (PATCH) com um único UPDATE condicional,
+     * sem carregar o cliente antes.
+     * 
+     * Com versão esperada, o UPDATE só é aplicado se o cliente ainda estiver nessa versão.
+     * Quando a cidade muda, a cidade anterior é lida com SELECT ... FOR UPDATE na mesma
+     * transação do UPDATE, para atualizar as estatísticas por cidade.
+     * Apenas quando nenhuma linha é alterada é feita uma segunda consulta, para diferenciar
+     * cliente inexistente (404) de versão desatualizada (409).
+     * 
+     * @param id ID do cliente
+     * @param dto Campos a alterar
+     * @param versaoEsperada Versão sobre a qual a alteração foi feita, ou null para não verificar
+     * @return Nova versão do cliente, ou null se a versão esperada não foi informada
+     * @throws BadRequestException se nenhum campo for informado ou algum for inválido
+     * @throws ResourceNotFoundException se o cliente ou a cidade não forem encontrados
+     * @throws ConflictException se o cliente não estiver mais na versão esperada
+     */
+    public Long alterarParcialCliente(Long id, ClientePatchDto dto, Long versaoEsperada) {
+        if (dto.getNome() == null && dto.getEndereco() == null && !dto.isCidadeIdInformado()) {
+            throw new BadRequestException("Informe ao menos um dos campos nome, endereco ou cidadeId");
+        }
+        if (dto.getNome() != null && (dto.getNome().isBlank() || dto.getNome().length() > 60)) {
+            throw new BadRequestException("nome não pode ser vazio e deve ter até 60 caracteres");
+        }
+        if (dto.getEndereco() != null && (dto.getEndereco().isBlank() || dto.getEndereco().length() > 60)) {
+            throw new BadRequestException("endereco não pode ser vazio e deve ter até 60 caracteres");
+        }
+
+        Cidade cidade = null;
         if (dto.getCidadeId() != null) {
-            // Busca a cidade pelo ID
-            Optional<Cidade> cidadeOpt = cidadeRepository.findById(dto.getCidadeId());
+            cidade = cidadeCache.buscarPorId(dto.getCidadeId())
+                    .orElseThrow(() -> new ResourceNotFoundException("Cidade", "id", dto.getCidadeId()));
+        }
 
-            // Se a cidade existir, associa ao cliente
-            cidadeOpt.ifPresent(cliente::setCidade);
+        Long[] cidadeAnteriorId = new Long[1];
+        Integer alterados;
+        if (dto.isCidadeIdInformado()) {
+            alterados = transactionTemplate.execute(status -> {
+                clienteRepository.bloquearComCidade(List.of(id))
+                        .forEach(anterior -> cidadeAnteriorId[0] = anterior.getCidadeId());
+                return alterarParcial(id, dto, versaoEsperada);
+            });
+        } else {
+            alterados = alterarParcial(id, dto, versaoEsperada);
+        }
+        if (alterados == null || alterados == 0) {
+            Long versaoAtual = clienteRepository.buscarVersao(id)
+                    .orElseThrow(() -> new ResourceNotFoundException("Cliente", "id", id));
+            throw new ConflictException("O cliente " + id + " está na versão " + versaoAtual
+                    + ", e não na versão " + versaoEsperada);
         }
 
-        return clienteRepository.save(cliente);
+        indiceTrigrama.alterarParcial(id, dto.getNome(), dto.isCidadeIdInformado(), cidade);
+        buscaCache.invalidarAlteracaoParcial(id, dto.getNome(), cidade != null ? cidade.getNome() : null);
+        if (dto.isCidadeIdInformado()) {
+            estatisticas.mover(cidadeAnteriorId[0], cidade);
+        }
+        clienteVersao.incrementar();
+        LeituraReplica.registrarEscrita();
+        return versaoEsperada != null ? versaoEsperada + 1 : null;
+    }
+
+    private int alterarParcial(Long id, ClientePatchDto dto, Long versaoEsperada) {
+        return clienteRepository.alterarParcial(id, dto.getNome(), TextoBusca.normalizar(dto.getNome()), dto.getEndereco(),
+                dto.isCidadeIdInformado(), dto.getCidadeId(), versaoEsperada);
     }
 
     /**
-     * Deleta um cliente pelo ID.
+     * Deleta um cliente pelo ID. A cidade do cliente é lida com SELECT ... FOR UPDATE (sem
+     * carregar a entidade) na mesma transação do DELETE, para atualizar as estatísticas.
      * 
      * @param id ID do cliente a ser deletado
      * @return Mensagem de confirmação
      * @throws ResourceNotFoundException se o cliente não for encontrado
      */
     public String deletarCliente(Long id) {
-        // Verifica se o cliente existe
-        if (!clienteRepository.existsById(id)) {
+        List<ClienteCidadeProjecao> removidos = transactionTemplate.execute(status -> {
+            List<ClienteCidadeProjecao> bloqueados = clienteRepository.bloquearComCidade(List.of(id));
+            if (!bloqueados.isEmpty()) {
+                clienteRepository.removerPorIds(List.of(id));
+            }
+            return bloqueados;
+        });
+        if (removidos == null || removidos.isEmpty()) {
             throw new ResourceNotFoundException("Cliente", "id", id);
         }
 
-        // Deleta o cliente
-        clienteRepository.deleteById(id);
+        aposRemover(removidos);
         return "Cliente Deletado";
     }
+
+    /**
+     * Remove vários clientes pelos IDs, com um DELETE por bloco de até 1000 IDs,
+     * todos na mesma transação. IDs inexistentes são ignorados.
+     * 
+     * @param ids IDs dos clientes
+     * @return Quantidade de IDs distintos solicitados e de clientes removidos
+     * @throws BadRequestException se a lista estiver vazia ou exceder api.clientes.lote.maximo
+     */
+    public ClienteRemocaoDto deletarClientes(List<Long> ids) {
+        if (ids == null || ids.isEmpty() || ids.size() > loteMaximo) {
+            throw new BadRequestException("A lista deve conter entre 1 e " + loteMaximo + " IDs");
+        }
+        if (ids.stream().anyMatch(Objects::isNull)) {
+            throw new BadRequestException("A lista de IDs não pode conter valores nulos");
+        }
+        List<Long> distintos = new ArrayList<>(new LinkedHashSet<>(ids));
+        return removerEmBlocos(() -> distintos);
+    }
+
+    /**
+     * Remove todos os clientes de uma cidade. Os IDs são lidos uma vez (para manter o índice e
+     * o cache de busca consistentes) e removidos com um DELETE por bloco, na mesma transação.
+     * Clientes incluídos na cidade depois da leitura não são removidos.
+     * 
+     * @param cidadeId ID da cidade
+     * @return Quantidade de clientes encontrados e removidos
+     */
+    public ClienteRemocaoDto deletarClientesPorCidade(Long cidadeId) {
+        return removerEmBlocos(() -> clienteRepository.buscarIdsPorCidadeId(cidadeId));
+    }
+
+    /**
+     * Remove os clientes em blocos de TAMANHO_BLOCO_IN IDs, um DELETE por bloco, em uma única
+     * transação, e atualiza os dados derivados após o commit. Antes de cada DELETE as linhas do
+     * bloco são bloqueadas com a cidade de cada cliente (SELECT ... FOR UPDATE), de forma que os
+     * clientes lidos são exatamente os removidos.
+     * 
+     * @param buscaIds Fornece os IDs a remover (executado dentro da transação)
+     * @return Quantidade de IDs e de clientes removidos
+     */
+    private ClienteRemocaoDto removerEmBlocos(Supplier<List<Long>> buscaIds) {
+        List<Long> ids = new ArrayList<>();
+        List<ClienteCidadeProjecao> removidos = new ArrayList<>();
+        transactionTemplate.executeWithoutResult(status -> {
+            ids.addAll(buscaIds.get());
+            for (int i = 0; i < ids.size(); i += TAMANHO_BLOCO_IN) {
+                List<Long> bloco = ids.subList(i, Math.min(i + TAMANHO_BLOCO_IN, ids.size()));
+                List<ClienteCidadeProjecao> bloqueados = clienteRepository.bloquearComCidade(bloco);
+                if (!bloqueados.isEmpty()) {
+                    clienteRepository.removerPorIds(bloco);
+                    removidos.addAll(bloqueados);
+                }
+            }
+        });
+
+        if (!removidos.isEmpty()) {
+            aposRemover(removidos);
+        }
+        return new ClienteRemocaoDto(ids.size(), removidos.size());
+    }
 }
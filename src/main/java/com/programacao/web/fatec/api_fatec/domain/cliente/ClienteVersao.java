@@ -0,0 +1,50 @@
+package com.programacao.web.fatec.api_fatec.domain.cliente;
+
+import java.util.concurrent.atomic.AtomicLong;
+
+import org.springframework.stereotype.Component;
+
+/**
+ * Versão da tabela de clientes, usada para gerar os ETags das listagens e buscas.
+ * 
+ * Toda escrita em clientes (e toda alteração de cidade, que aparece nos resultados) incrementa
+ * a versão depois de gravada. Enquanto a versão não muda, uma mesma URL sempre produz o mesmo
+ * resultado, então o ETag pode ser calculado sem consultar o banco e uma requisição com
+ * If-None-Match igual recebe 304 sem executar a consulta nem serializar a resposta.
+ * 
+ * A versão começa no horário de inicialização, para que ETags emitidos antes de um reinício
+ * (com o banco em memória recriado) não sejam aceitos depois dele.
+ */
+@Component
+public class ClienteVersao {
+
+    private final AtomicLong versao = new AtomicLong(System.currentTimeMillis());
+
+    /**
+     * Registra que os dados de clientes mudaram. Deve ser chamado depois que a escrita
+     * foi gravada (após o commit), para que um ETag novo nunca corresponda a dados antigos.
+     */
+    public void incrementar() {
+        versao.incrementAndGet();
+    }
+
+    /**
+     * @return Versão atual
+     */
+    public long atual() {
+        return versao.get();
+    }
+
+    /**
+     * Gera um ETag forte para a versão atual.
+     * 
+     * O ETag vale para uma única URL (o cliente só o envia de volta à URL que o emitiu), então a
+     * versão basta para identificar a resposta, sem incluir os parâmetros da consulta. O prefixo
+     * impede que ele seja confundido com a versão de um cliente no If-Match.
+     * 
+     * @return ETag entre aspas, no formato "clientes-versao"
+     */
+    public String etag() {
+        return "\"clientes-" + Long.toHexString(versao.get()) + "\"";
+    }
+}
@@ -0,0 +1,163 @@
+package com.programacao.web.fatec.api_fatec.domain.cliente;
+
+import java.io.BufferedReader;
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.Reader;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Leitor de CSV que lê um registro por vez, sem carregar o arquivo em memória.
+ *
+ * Segue o formato da RFC 4180: campos entre aspas podem conter o separador, quebras de linha
+ * e aspas escapadas como "". O separador (vírgula ou ponto e vírgula) é detectado pela
+ * primeira linha, e um BOM UTF-8 no início do arquivo é ignorado.
+ */
+class LeitorCsv implements Closeable {
+
+    /**
+     * Tamanho máximo de um registro em caracteres, para que um arquivo malformado (por exemplo,
+     * com aspas que nunca fecham) não faça o leitor acumular o restante do arquivo em memória.
+     */
+    static final int TAMANHO_MAXIMO_REGISTRO = 64 * 1024;
+
+    private static final int FIM = -1;
+
+    private final BufferedReader reader;
+
+    private final char separador;
+
+    private long linha = 1;
+
+    private long linhaDoRegistro;
+
+    LeitorCsv(Reader reader) throws IOException {
+        this.reader = reader instanceof BufferedReader br ? br : new BufferedReader(reader);
+        this.separador = detectarSeparador();
+    }
+
+    /**
+     * Lê o próximo registro, ignorando linhas em branco.
+     *
+     * @return Campos do registro, ou null no fim do arquivo
+     * @throws IOException se ocorrer um erro de leitura ou o registro for inválido
+     */
+    List<String> proximoRegistro() throws IOException {
+        List<String> campos;
+        do {
+            campos = lerRegistro();
+        } while (campos != null && campos.size() == 1 && campos.get(0).isBlank());
+        return campos;
+    }
+
+    /**
+     * @return Número da linha do arquivo (a partir de 1) onde começa o último registro lido
+     */
+    long linhaDoRegistro() {
+        return linhaDoRegistro;
+    }
+
+    @Override
+    public void close() throws IOException {
+        reader.close();
+    }
+
+    private List<String> lerRegistro() throws IOException {
+        int c = reader.read();
+        if (c == FIM) {
+            return null;
+        }
+
+        linhaDoRegistro = linha;
+        List<String> campos = new ArrayList<>();
+        StringBuilder campo = new StringBuilder();
+        int tamanho = 0;
+        boolean entreAspas = false;
+        int anterior = FIM;
+
+        while (true) {
+            if (++tamanho > TAMANHO_MAXIMO_REGISTRO) {
+                throw new IOException("Registro da linha " + linhaDoRegistro
+                        + " excede " + TAMANHO_MAXIMO_REGISTRO + " caracteres");
+            }
+
+            if (entreAspas) {
+                if (c == FIM) {
+                    throw new IOException("Aspas abertas na linha " + linhaDoRegistro + " não foram fechadas");
+                }
+                if (c == '"') {
+                    reader.mark(1);
+                    int seguinte = reader.read();
+                    if (seguinte == '"') {
+                        campo.append('"');
+                    } else {
+                        entreAspas = false;
+                        reader.reset();
+                    }
+                } else {
+                    // \r\n conta como uma quebra; \r ou \n sozinhos, também
+                    if (c == '\r' || (c == '\n' && anterior != '\r')) {
+                        linha++;
+                    }
+                    campo.append((char) c);
+                }
+            } else if (c == '"' && campo.isEmpty()) {
+                entreAspas = true;
+            } else if (c == separador) {
+                campos.add(campo.toString());
+                campo.setLength(0);
+            } else if (c == '\r' || c == '\n' || c == FIM) {
+                if (c == '\r') {
+                    reader.mark(1);
+                    if (reader.read() != '\n') {
+                        reader.reset();
+                    }
+                }
+                if (c != FIM) {
+                    linha++;
+                }
+                campos.add(campo.toString());
+                return campos;
+            } else {
+                campo.append((char) c);
+            }
+
+            anterior = c;
+            c = reader.read();
+        }
+    }
+
+    /**
+     * Detecta o separador pelo primeiro registro: ponto e vírgula se ele tiver mais ponto e vírgula
+     * do que vírgulas fora de aspas, senão vírgula. Também descarta o BOM UTF-8, se houver.
+     */
+    private char detectarSeparador() throws IOException {
+        reader.mark(1);
+        if (reader.read() != '\uFEFF') {
+            reader.reset();
+        }
+        reader.mark(TAMANHO_MAXIMO_REGISTRO);
+
+        int c;
+        int virgulas = 0;
+        int pontoEVirgulas = 0;
+        boolean entreAspas = false;
+        for (int i = 0; i < TAMANHO_MAXIMO_REGISTRO; i++) {
+            c = reader.read();
+            if (c == FIM || (!entreAspas && (c == '\n' || c == '\r'))) {
+                break;
+            }
+            // Uma aspa escapada ("") abre e fecha em seguida, sem mudar o estado
+            if (c == '"') {
+                entreAspas = !entreAspas;
+            } else if (!entreAspas && c == ',') {
+                virgulas++;
+            } else if (!entreAspas && c == ';') {
+                pontoEVirgulas++;
+            }
+        }
+        reader.reset();
+        return pontoEVirgulas > virgulas ? ';' : ',';
+    }
+}
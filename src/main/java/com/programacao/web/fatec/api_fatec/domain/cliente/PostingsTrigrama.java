@@ -0,0 +1,217 @@
+package com.programacao.web.fatec.api_fatec.domain.cliente;
+
+import java.util.Arrays;
+import java.util.BitSet;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.Map;
+
+/**
+ * Índice invertido de trigramas (sequências de 3 caracteres) sobre textos identificados por ID.
+ *
+ * Cada texto indexado recebe um número de documento sequencial, e para cada trigrama é mantida a
+ * lista (posting list) ordenada, em um int[], dos documentos cujo texto o contém. Como os números
+ * só crescem, incluir um documento é acrescentar no fim das listas. Uma busca intersecta as listas
+ * de todos os trigramas do termo, começando pela menor, com busca binária nas maiores.
+ *
+ * O texto não é guardado: alterar ou remover um ID só marca o documento anterior como removido,
+ * e as buscas o ignoram. Quando os removidos passam de um quarto dos documentos, as listas são
+ * compactadas e os documentos renumerados, sem precisar dos textos. Sem o texto, a busca também
+ * não confirma a substring: um ID cujo texto tem todos os trigramas do termo, mas não em
+ * sequência, é retornado como candidato e deve ser confirmado por quem chama.
+ *
+ * Esta classe não é thread-safe: o acesso concorrente é controlado por quem a utiliza.
+ */
+class PostingsTrigrama {
+
+    /**
+     * Quantidade mínima de documentos removidos antes de compactar, para não compactar índices
+     * pequenos a cada remoção.
+     */
+    private static final int MINIMO_REMOVIDOS_COMPACTACAO = 1024;
+
+    private final Map<Long, Lista> postings = new HashMap<>();
+
+    private final Map<Long, Integer> documentoDoId = new HashMap<>();
+
+    private long[] idDoDocumento = new long[1024];
+
+    private int documentos;
+
+    private final BitSet removidos = new BitSet();
+
+    private int quantidadeRemovidos;
+
+    /**
+     * Adiciona ou substitui o texto de um ID.
+     *
+     * @param id ID do documento
+     * @param texto Texto já normalizado (null remove o documento)
+     */
+    void adicionar(long id, String texto) {
+        remover(id);
+        if (texto == null) {
+            return;
+        }
+        if (documentos == idDoDocumento.length) {
+            idDoDocumento = Arrays.copyOf(idDoDocumento, documentos * 2);
+        }
+        int documento = documentos++;
+        idDoDocumento[documento] = id;
+        documentoDoId.put(id, documento);
+        for (long trigrama : trigramas(texto)) {
+            postings.computeIfAbsent(trigrama, t -> new Lista()).acrescentar(documento);
+        }
+    }
+
+    /**
+     * Remove um ID do índice.
+     *
+     * @param id ID do documento
+     */
+    void remover(long id) {
+        Integer documento = documentoDoId.remove(id);
+        if (documento == null) {
+            return;
+        }
+        removidos.set(documento);
+        quantidadeRemovidos++;
+        if (quantidadeRemovidos >= MINIMO_REMOVIDOS_COMPACTACAO && quantidadeRemovidos * 4 > documentos) {
+            compactar();
+        }
+    }
+
+    /**
+     * Busca os IDs cujo texto contém todos os trigramas do termo.
+     *
+     * @param termo Termo já normalizado, com pelo menos 3 caracteres
+     * @return IDs candidatos, que incluem todos os IDs cujo texto contém o termo
+     */
+    long[] buscar(String termo) {
+        long[] trigramas = trigramas(termo);
+        Lista[] listas = new Lista[trigramas.length];
+        for (int i = 0; i < trigramas.length; i++) {
+            listas[i] = postings.get(trigramas[i]);
+            if (listas[i] == null) {
+                return new long[0];
+            }
+        }
+        Arrays.sort(listas, (a, b) -> Integer.compare(a.tamanho, b.tamanho));
+
+        Lista menor = listas[0];
+        // Início da próxima busca em cada lista: os documentos da menor vêm em ordem crescente
+        int[] inicios = new int[listas.length];
+        long[] resultado = new long[menor.tamanho];
+        int encontrados = 0;
+        for (int i = 0; i < menor.tamanho; i++) {
+            int documento = menor.documentos[i];
+            if (!removidos.get(documento) && contidoEmTodas(documento, listas, inicios)) {
+                resultado[encontrados++] = idDoDocumento[documento];
+            }
+        }
+        return Arrays.copyOf(resultado, encontrados);
+    }
+
+    /**
+     * @return Quantidade de documentos indexados
+     */
+    int tamanho() {
+        return documentoDoId.size();
+    }
+
+    private static boolean contidoEmTodas(int documento, Lista[] listas, int[] inicios) {
+        for (int i = 1; i < listas.length; i++) {
+            Lista lista = listas[i];
+            int posicao = Arrays.binarySearch(lista.documentos, inicios[i], lista.tamanho, documento);
+            if (posicao < 0) {
+                inicios[i] = -posicao - 1;
+                return false;
+            }
+            inicios[i] = posicao + 1;
+        }
+        return true;
+    }
+
+    /**
+     * Remove os documentos removidos de todas as listas e renumera os restantes, mantendo a ordem.
+     */
+    private void compactar() {
+        int[] novoNumero = new int[documentos];
+        int vivos = 0;
+        for (int documento = 0; documento < documentos; documento++) {
+            if (removidos.get(documento)) {
+                novoNumero[documento] = -1;
+            } else {
+                novoNumero[documento] = vivos;
+                idDoDocumento[vivos++] = idDoDocumento[documento];
+            }
+        }
+
+        Iterator<Lista> listas = postings.values().iterator();
+        while (listas.hasNext()) {
+            Lista lista = listas.next();
+            lista.renumerar(novoNumero);
+            if (lista.tamanho == 0) {
+                listas.remove();
+            }
+        }
+        documentoDoId.replaceAll((id, documento) -> novoNumero[documento]);
+
+        documentos = vivos;
+        removidos.clear();
+        quantidadeRemovidos = 0;
+    }
+
+    /**
+     * Extrai os trigramas distintos de um texto, cada um codificado em um long
+     * (três caracteres UTF-16 de 16 bits).
+     */
+    private static long[] trigramas(String texto) {
+        int quantidade = Math.max(0, texto.length() - 2);
+        long[] resultado = new long[quantidade];
+        for (int i = 0; i < quantidade; i++) {
+            resultado[i] = ((long) texto.charAt(i) << 32)
+                    | ((long) texto.charAt(i + 1) << 16)
+                    | texto.charAt(i + 2);
+        }
+        Arrays.sort(resultado);
+        int distintos = 0;
+        for (int i = 0; i < quantidade; i++) {
+            if (i == 0 || resultado[i] != resultado[i - 1]) {
+                resultado[distintos++] = resultado[i];
+            }
+        }
+        return Arrays.copyOf(resultado, distintos);
+    }
+
+    /**
+     * Posting list: números de documento em ordem crescente.
+     */
+    private static final class Lista {
+
+        private int[] documentos = new int[4];
+
+        private int tamanho;
+
+        void acrescentar(int documento) {
+            if (tamanho == documentos.length) {
+                documentos = Arrays.copyOf(documentos, tamanho + (tamanho >> 1) + 1);
+            }
+            documentos[tamanho++] = documento;
+        }
+
+        void renumerar(int[] novoNumero) {
+            int restantes = 0;
+            for (int i = 0; i < tamanho; i++) {
+                int novo = novoNumero[documentos[i]];
+                if (novo >= 0) {
+                    documentos[restantes++] = novo;
+                }
+            }
+            tamanho = restantes;
+            if (documentos.length > 2 * tamanho + 4) {
+                documentos = Arrays.copyOf(documentos, tamanho);
+            }
+        }
+    }
+}
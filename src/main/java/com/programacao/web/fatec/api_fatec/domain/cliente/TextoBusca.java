@@ -0,0 +1,94 @@
+package com.programacao.web.fatec.api_fatec.domain.cliente;
+
+import java.text.Normalizer;
+import java.util.Locale;
+import java.util.regex.Pattern;
+
+/**
+ * Regras de comparação de texto usadas pelas buscas de clientes.
+ * 
+ * Os nomes de clientes e cidades são gravados também em colunas nome_normalizado (em minúsculas
+ * e sem acentos, calculadas por {@link #normalizar(String)} ao gravar a entidade), e as consultas
+ * SQL comparam nome_normalizado LIKE '%termo normalizado%'. Assim "joao" encontra "João" e
+ * nenhuma função é aplicada às linhas durante a busca. Os componentes que respondem buscas em
+ * memória (como o índice de trigramas) usam estes métodos para reproduzir a mesma semântica.
+ */
+public final class TextoBusca {
+
+    private static final Pattern ACENTOS = Pattern.compile("\\p{M}");
+
+    private TextoBusca() {
+    }
+
+    /**
+     * Normaliza um texto para a comparação: minúsculas e sem acentos ("São Paulo" vira "sao paulo").
+     * É a mesma regra usada para preencher as colunas nome_normalizado.
+     * 
+     * @param texto Texto original (pode ser null)
+     * @return Texto normalizado, ou null se o texto for null
+     */
+    public static String normalizar(String texto) {
+        if (texto == null) {
+            return null;
+        }
+        String minusculo = texto.toLowerCase(Locale.ROOT);
+        if (ascii(minusculo)) {
+            return minusculo;
+        }
+        return ACENTOS.matcher(Normalizer.normalize(minusculo, Normalizer.Form.NFD)).replaceAll("");
+    }
+
+    private static boolean ascii(String texto) {
+        for (int i = 0; i < texto.length(); i++) {
+            if (texto.charAt(i) >= 0x80) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    /**
+     * Verifica se um valor contém o termo, equivalente a nome_normalizado LIKE '%termo normalizado%'.
+     * 
+     * @param valor Valor armazenado (pode ser null, que nunca corresponde)
+     * @param termo Termo buscado, sem caracteres curinga
+     * @return true se o valor normalizado contém o termo normalizado
+     */
+    public static boolean contem(String valor, String termo) {
+        return valor != null && normalizar(valor).contains(normalizar(termo));
+    }
+
+    /**
+     * Converte o texto buscado em ID quando ele é um número, sem usar exceções: a maioria das
+     * buscas é por nome, e Long.parseLong lançaria e descartaria uma exceção em cada uma delas.
+     * 
+     * @param texto Texto buscado (pode ser null)
+     * @return O ID, ou null se o texto não for um número inteiro positivo que caiba em um Long
+     */
+    public static Long converterId(String texto) {
+        if (texto == null || texto.isEmpty() || texto.length() > 18) {
+            return null;
+        }
+        long id = 0;
+        for (int i = 0; i < texto.length(); i++) {
+            char c = texto.charAt(i);
+            if (c < '0' || c > '9') {
+                return null;
+            }
+            id = id * 10 + (c - '0');
+        }
+        return id;
+    }
+
+    /**
+     * Verifica se o termo contém caracteres com significado especial no LIKE
+     * ('%', '_' e o caractere de escape '\'). Nesses casos a comparação em memória
+     * não é equivalente e a busca deve ser feita pelo banco.
+     * 
+     * @param termo Termo buscado
+     * @return true se o termo contém algum caractere curinga
+     */
+    public static boolean temCuringa(String termo) {
+        return termo.indexOf('%') >= 0 || termo.indexOf('_') >= 0 || termo.indexOf('\\') >= 0;
+    }
+}
@@ -0,0 +1,20 @@
+package com.programacao.web.fatec.api_fatec.domain.cliente.dto;
+
+import com.programacao.web.fatec.api_fatec.entities.Estado;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * DTO com a quantidade de clientes de uma cidade.
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class ClienteEstatisticasCidadeDto {
+    private Long cidadeId;
+    private String nome;
+    private Estado estado;
+    private long quantidade;
+}
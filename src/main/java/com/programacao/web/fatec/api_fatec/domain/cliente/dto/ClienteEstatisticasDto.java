@@ -0,0 +1,26 @@
+package com.programacao.web.fatec.api_fatec.domain.cliente.dto;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * DTO com a quantidade de clientes no total, por estado e por cidade.
+ * 
+ * Os estados aparecem todos (na ordem do enum Estado, inclusive os sem clientes) e as cidades
+ * em ordem decrescente de quantidade. reconciliadoEm é o momento da última conferência das
+ * contagens com o banco.
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class ClienteEstatisticasDto {
+    private long total;
+    private long semCidade;
+    private List<ClienteEstatisticasEstadoDto> estados;
+    private List<ClienteEstatisticasCidadeDto> cidades;
+    private LocalDateTime reconciliadoEm;
+}
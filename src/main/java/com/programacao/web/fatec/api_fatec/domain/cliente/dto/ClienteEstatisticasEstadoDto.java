@@ -0,0 +1,18 @@
+package com.programacao.web.fatec.api_fatec.domain.cliente.dto;
+
+import com.programacao.web.fatec.api_fatec.entities.Estado;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * DTO com a quantidade de clientes de um estado.
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class ClienteEstatisticasEstadoDto {
+    private Estado estado;
+    private long quantidade;
+}
@@ -0,0 +1,42 @@
+package com.programacao.web.fatec.api_fatec.domain.cliente.dto;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * DTO com a situação de uma importação de clientes por CSV.
+ * 
+ * O progresso é medido pelos bytes do arquivo já lidos; a vazão considera apenas os clientes
+ * gravados desde o início do processamento. A lista de erros é limitada a
+ * api.clientes.importacao.maximo-erros itens, enquanto linhasComErro conta todos.
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class ClienteImportacaoDto {
+
+    public static final String AGUARDANDO = "AGUARDANDO";
+    public static final String EM_ANDAMENTO = "EM_ANDAMENTO";
+    public static final String CONCLUIDA = "CONCLUIDA";
+    public static final String FALHOU = "FALHOU";
+
+    private String id;
+    private String status;
+    private String arquivo;
+    private long bytesTotal;
+    private long bytesLidos;
+    private double percentual;
+    private long linhasProcessadas;
+    private long importados;
+    private long linhasComErro;
+    private double clientesPorSegundo;
+    private LocalDateTime criadaEm;
+    private LocalDateTime iniciadaEm;
+    private LocalDateTime concluidaEm;
+    private String mensagem;
+    private List<ClienteImportacaoErroDto> erros;
+}
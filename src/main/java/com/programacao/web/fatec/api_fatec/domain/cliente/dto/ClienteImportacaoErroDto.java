@@ -0,0 +1,17 @@
+package com.programacao.web.fatec.api_fatec.domain.cliente.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * DTO com o erro de uma linha da importação de clientes por CSV.
+ * A linha corresponde à linha do arquivo (a partir de 1, contando o cabeçalho).
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class ClienteImportacaoErroDto {
+    private long linha;
+    private String erro;
+}
@@ -0,0 +1,31 @@
+package com.programacao.web.fatec.api_fatec.domain.cliente.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * DTO com o resultado de um item da criação de clientes em lote.
+ * O indice corresponde à posição do item no array enviado na requisição.
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class ClienteLoteResultadoDto {
+
+    public static final String CRIADO = "CRIADO";
+    public static final String ERRO = "ERRO";
+
+    private int indice;
+    private Long id;
+    private String status;
+    private String erro;
+
+    public static ClienteLoteResultadoDto criado(int indice, Long id) {
+        return new ClienteLoteResultadoDto(indice, id, CRIADO, null);
+    }
+
+    public static ClienteLoteResultadoDto erro(int indice, String erro) {
+        return new ClienteLoteResultadoDto(indice, null, ERRO, erro);
+    }
+}
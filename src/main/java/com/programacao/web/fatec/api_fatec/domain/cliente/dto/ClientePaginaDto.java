@@ -0,0 +1,19 @@
+package com.programacao.web.fatec.api_fatec.domain.cliente.dto;
+
+import java.util.List;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * DTO que representa uma página da listagem de clientes paginada por chave (keyset).
+ * O proximoCursor é null quando não há mais páginas.
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class ClientePaginaDto {
+    private List<ClienteResponseDto> clientes;
+    private String proximoCursor;
+}
@@ -0,0 +1,33 @@
+package com.programacao.web.fatec.api_fatec.domain.cliente.dto;
+
+import com.fasterxml.jackson.annotation.JsonIgnore;
+
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * DTO para atualização parcial de cliente (PATCH).
+ * 
+ * Apenas os campos presentes no JSON são alterados. nome e endereco nulos ou ausentes
+ * permanecem como estão; cidadeId ausente mantém a cidade e "cidadeId": null remove a cidade.
+ * versao, se informada, é a versão do cliente sobre a qual a alteração foi feita.
+ */
+@Data
+@NoArgsConstructor
+public class ClientePatchDto {
+    private String nome;
+    private String endereco;
+    private Long cidadeId;
+    private Long versao;
+
+    /**
+     * Indica se cidadeId estava presente no JSON (mesmo que null).
+     */
+    @JsonIgnore
+    private boolean cidadeIdInformado;
+
+    public void setCidadeId(Long cidadeId) {
+        this.cidadeId = cidadeId;
+        this.cidadeIdInformado = true;
+    }
+}
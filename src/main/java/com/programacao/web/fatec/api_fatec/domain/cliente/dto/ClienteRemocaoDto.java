@@ -0,0 +1,18 @@
+package com.programacao.web.fatec.api_fatec.domain.cliente.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * DTO com o resultado da remoção de clientes em lote.
+ * solicitados é a quantidade de IDs enviados (ou encontrados pelo filtro) e removidos
+ * a quantidade de linhas efetivamente apagadas.
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class ClienteRemocaoDto {
+    private int solicitados;
+    private int removidos;
+}
@@ -0,0 +1,49 @@
+package com.programacao.web.fatec.api_fatec.domain.cliente.dto;
+
+import com.fasterxml.jackson.annotation.JsonProperty;
+import com.programacao.web.fatec.api_fatec.entities.Cidade;
+import com.programacao.web.fatec.api_fatec.entities.Cliente;
+import com.programacao.web.fatec.api_fatec.entities.Estado;
+
+/**
+ * Modelo de leitura (imutável) de um cliente, retornado pelas listagens e buscas.
+ * 
+ * É preenchido diretamente pelas consultas JPQL com constructor expression
+ * ("select new ...ClienteResponseDto(...)"), com a cidade vinda do mesmo JOIN. Assim nenhuma
+ * entidade é carregada no contexto de persistência, não há SELECT extra por cidade e o JSON
+ * segue o FORMATO 1 documentado em Cliente (apenas os campos cidade_*):
+ * 
+ * {
+ *   "id": 5,
+ *   "nome": "Pedro",
+ *   "endereco": "Av. Beira Mar, 789",
+ *   "cidade_id": 5,
+ *   "cidade_nome": "Fortaleza",
+ *   "cidade_estado": "CE"
+ * }
+ */
+public record ClienteResponseDto(
+        Long id,
+        String nome,
+        String endereco,
+        @JsonProperty("cidade_id") Long cidadeId,
+        @JsonProperty("cidade_nome") String cidadeNome,
+        @JsonProperty("cidade_estado") Estado cidadeEstado) {
+
+    /**
+     * Cria o modelo de leitura a partir de uma entidade já carregada.
+     * 
+     * @param cliente Entidade do cliente
+     * @return Modelo de leitura equivalente
+     */
+    public static ClienteResponseDto de(Cliente cliente) {
+        Cidade cidade = cliente.getCidade();
+        return new ClienteResponseDto(
+                cliente.getId(),
+                cliente.getNome(),
+                cliente.getEndereco(),
+                cidade != null ? cidade.getId() : null,
+                cidade != null ? cidade.getNome() : null,
+                cidade != null ? cidade.getEstado() : null);
+    }
+}
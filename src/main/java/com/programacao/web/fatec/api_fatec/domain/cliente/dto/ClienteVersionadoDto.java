@@ -0,0 +1,17 @@
+package com.programacao.web.fatec.api_fatec.domain.cliente.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * DTO que representa um cliente lido junto com a sua versão (controle de concorrência otimista).
+ * A versão não faz parte do corpo da resposta: vai no ETag, para ser enviada de volta no If-Match.
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class ClienteVersionadoDto {
+    private ClienteResponseDto cliente;
+    private Long versao;
+}
@@ -24,6 +24,9 @@ public class DadosIniciaisService {
     @Autowired
     private CidadeRepository cidadeRepository;
 
+    @Autowired
+    private GeradorDadosSinteticos geradorDadosSinteticos;
+
     /**
      * Método executado após a inicialização do contexto do Spring.
      * Cria dados iniciais para demonstração, incluindo cidades e clientes.
@@ -31,9 +34,17 @@ public class DadosIniciaisService {
      * Relacionamento 1:N entre Cidade e Cliente:
      * - Uma cidade pode ter vários clientes (1:N)
      * - Um cliente pertence a uma única cidade (N:1)
+     *
+     * Com a geração de dados sintéticos ligada (api.dados.sinteticos.clientes), ela substitui
+     * os dados de demonstração.
      */
     @PostConstruct
     public void inicializarDados() {
+        if (geradorDadosSinteticos.habilitado()) {
+            geradorDadosSinteticos.gerar();
+            return;
+        }
+
         // Criando 5 cidades de exemplo com diferentes estados
         Cidade saoPaulo = cidadeRepository.save(new Cidade(null, "São Paulo", Estado.SP));
         Cidade rioDeJaneiro = cidadeRepository.save(new Cidade(null, "Rio de Janeiro", Estado.RJ));
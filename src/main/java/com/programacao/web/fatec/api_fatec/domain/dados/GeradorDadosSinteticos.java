@@ -0,0 +1,295 @@
+package com.programacao.web.fatec.api_fatec.domain.dados;
+
+import java.util.ArrayList;
+import java.util.EnumMap;
+import java.util.List;
+import java.util.Map;
+import java.util.SplittableRandom;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import com.programacao.web.fatec.api_fatec.domain.cliente.TextoBusca;
+import com.programacao.web.fatec.api_fatec.entities.Estado;
+
+/**
+ * Gerador de dados sintéticos para testes de volume: milhares de cidades nos 27 estados e
+ * milhões de clientes, inseridos em lote via JDBC (sem passar pelo Hibernate). Por isso as colunas
+ * nome_normalizado, que as entidades preenchem ao gravar, são calculadas aqui.
+ *
+ * A distribuição segue aproximadamente a população: a quantidade de cidades e de clientes de
+ * cada estado é proporcional à sua população, e dentro do estado os clientes se concentram nas
+ * primeiras cidades (a primeira é a capital). Com a mesma semente os dados gerados são sempre
+ * os mesmos, o que permite repetir uma medição sobre a mesma base.
+ *
+ * Desligado por padrão. Para usar, inicie com api.dados.sinteticos.clientes maior que zero;
+ * nesse caso ele substitui os dados de demonstração do DadosIniciaisService.
+ */
+@Service
+public class GeradorDadosSinteticos {
+
+    private static final Logger log = LoggerFactory.getLogger(GeradorDadosSinteticos.class);
+
+    private static final String INSERT_CIDADE =
+            "insert into cidades (id, nome, nome_normalizado, estado) values (?, ?, ?, ?)";
+
+    private static final String INSERT_CLIENTE =
+            "insert into clientes (id, nome, nome_normalizado, endereco, cidade_id, versao) values (?, ?, ?, ?, ?, 0)";
+
+    /**
+     * População aproximada de cada estado, em centenas de milhares (Censo 2022).
+     */
+    private static final Map<Estado, Integer> POPULACAO = new EnumMap<>(Estado.class);
+
+    private static final Map<Estado, String> CAPITAIS = new EnumMap<>(Estado.class);
+
+    static {
+        popular(Estado.AC, 8, "Rio Branco");
+        popular(Estado.AL, 31, "Maceió");
+        popular(Estado.AP, 7, "Macapá");
+        popular(Estado.AM, 39, "Manaus");
+        popular(Estado.BA, 141, "Salvador");
+        popular(Estado.CE, 88, "Fortaleza");
+        popular(Estado.DF, 28, "Brasília");
+        popular(Estado.ES, 38, "Vitória");
+        popular(Estado.GO, 71, "Goiânia");
+        popular(Estado.MA, 68, "São Luís");
+        popular(Estado.MT, 37, "Cuiabá");
+        popular(Estado.MS, 28, "Campo Grande");
+        popular(Estado.MG, 205, "Belo Horizonte");
+        popular(Estado.PA, 81, "Belém");
+        popular(Estado.PB, 40, "João Pessoa");
+        popular(Estado.PR, 114, "Curitiba");
+        popular(Estado.PE, 91, "Recife");
+        popular(Estado.PI, 33, "Teresina");
+        popular(Estado.RJ, 161, "Rio de Janeiro");
+        popular(Estado.RN, 33, "Natal");
+        popular(Estado.RS, 109, "Porto Alegre");
+        popular(Estado.RO, 16, "Porto Velho");
+        popular(Estado.RR, 6, "Boa Vista");
+        popular(Estado.SC, 76, "Florianópolis");
+        popular(Estado.SP, 444, "São Paulo");
+        popular(Estado.SE, 22, "Aracaju");
+        popular(Estado.TO, 15, "Palmas");
+    }
+
+    private static final String[] PREFIXOS_CIDADE = {
+        "Santa", "São", "Nova", "Porto", "Campo", "Vila", "Barra", "Lagoa", "Serra", "Alto",
+        "Bom Jesus", "Santo Antônio", "Ribeirão", "Monte", "Vale", "Pedra", "Ponte", "Água", "Morro", "Cachoeira"
+    };
+
+    private static final String[] COMPLEMENTOS_CIDADE = {
+        "Alegre", "Verde", "Bonita", "Grande", "Azul", "do Sul", "do Norte", "da Serra", "do Oeste", "das Flores",
+        "dos Campos", "do Rio", "da Mata", "das Palmeiras", "do Leste", "da Boa Vista", "Formosa", "Nova", "Dourada",
+        "Clara", "do Paraíso", "das Pedras", "do Sertão", "da Cruz", "dos Pinheiros", "Real", "da Aurora", "do Vale",
+        "Branca", "Preta"
+    };
+
+    private static final String[] NOMES = {
+        "Ana", "Bruno", "Carla", "Daniel", "Eduarda", "Felipe", "Gabriela", "Henrique", "Isabela", "João",
+        "Larissa", "Marcos", "Natália", "Otávio", "Paula", "Rafael", "Sabrina", "Thiago", "Vanessa", "William",
+        "Beatriz", "Caio", "Débora", "Enzo", "Fernanda", "Gustavo", "Helena", "Igor", "Júlia", "Lucas",
+        "Mariana", "Nicolas", "Olívia", "Pedro", "Renata", "Samuel", "Tatiane", "Vitor", "Yasmin", "Arthur",
+        "Camila", "Diego", "Elisa", "Fábio", "Giovana", "Heitor", "Letícia", "Matheus", "Priscila", "Rodrigo",
+        "Sofia", "Tiago", "Valentina", "Alice", "Bernardo", "Cecília", "Davi", "Lorena", "Miguel", "Manuela"
+    };
+
+    private static final String[] SOBRENOMES = {
+        "Silva", "Santos", "Oliveira", "Souza", "Rodrigues", "Ferreira", "Alves", "Pereira", "Lima", "Gomes",
+        "Costa", "Ribeiro", "Martins", "Carvalho", "Almeida", "Lopes", "Soares", "Fernandes", "Vieira", "Barbosa",
+        "Rocha", "Dias", "Nascimento", "Andrade", "Moreira", "Nunes", "Marques", "Machado", "Mendes", "Freitas",
+        "Cardoso", "Ramos", "Gonçalves", "Santana", "Teixeira", "Araújo", "Correia", "Pinto", "Monteiro", "Moura",
+        "Cavalcanti", "Batista", "Campos", "Castro", "Azevedo", "Farias", "Borges", "Medeiros", "Xavier", "Brito"
+    };
+
+    private static final String[] LOGRADOUROS = {
+        "Rua", "Rua", "Rua", "Avenida", "Avenida", "Travessa", "Alameda", "Praça", "Estrada"
+    };
+
+    private static final String[] NOMES_LOGRADOURO = {
+        "das Flores", "XV de Novembro", "Sete de Setembro", "Tiradentes", "Brasil", "Getúlio Vargas", "da Paz",
+        "Santos Dumont", "Dom Pedro II", "das Acácias", "dos Bandeirantes", "Rui Barbosa", "Marechal Deodoro",
+        "Boa Vista", "da Liberdade", "São João", "Paraná", "Amazonas", "dos Ipês", "Independência"
+    };
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private TransactionTemplate transactionTemplate;
+
+    /**
+     * Quantidade de clientes a gerar na inicialização (0 = desligado).
+     */
+    @Value("${api.dados.sinteticos.clientes:0}")
+    private int clientes;
+
+    /**
+     * Quantidade de cidades a gerar, distribuídas entre os estados (pelo menos uma por estado).
+     */
+    @Value("${api.dados.sinteticos.cidades:3000}")
+    private int cidades;
+
+    @Value("${api.dados.sinteticos.semente:42}")
+    private long semente;
+
+    /**
+     * Linhas inseridas por transação.
+     */
+    @Value("${api.dados.sinteticos.tamanho-bloco:1000}")
+    private int tamanhoBloco;
+
+    /**
+     * @return true se a geração na inicialização está ligada
+     */
+    public boolean habilitado() {
+        return clientes > 0;
+    }
+
+    /**
+     * Gera a quantidade configurada de cidades e clientes.
+     */
+    public void gerar() {
+        gerar(cidades, clientes, semente);
+    }
+
+    /**
+     * Gera cidades e clientes e insere em lote. Os IDs são atribuídos aqui, em sequência, e as
+     * sequences do Hibernate são avançadas depois, então os registros criados pela API a seguir
+     * não colidem com os gerados.
+     *
+     * @param quantidadeCidades Quantidade de cidades (pelo menos uma por estado)
+     * @param quantidadeClientes Quantidade de clientes
+     * @param semente Semente do gerador aleatório
+     */
+    public void gerar(int quantidadeCidades, int quantidadeClientes, long semente) {
+        long inicio = System.currentTimeMillis();
+        SplittableRandom random = new SplittableRandom(semente);
+
+        Map<Estado, long[]> cidadesPorEstado = gerarCidades(quantidadeCidades);
+        Estado[] estados = Estado.values();
+        long[] populacaoAcumulada = new long[estados.length];
+        long total = 0;
+        for (int i = 0; i < estados.length; i++) {
+            total += POPULACAO.get(estados[i]);
+            populacaoAcumulada[i] = total;
+        }
+
+        long proximoId = reservarIds("clientes_seq", quantidadeClientes);
+        List<Object[]> lote = new ArrayList<>(tamanhoBloco);
+        for (int i = 0; i < quantidadeClientes; i++) {
+            Estado estado = sortearEstado(estados, populacaoAcumulada, random.nextLong(total));
+            long[] ids = cidadesPorEstado.get(estado);
+            // Concentra os clientes nas primeiras cidades do estado (a capital é a primeira)
+            double r = random.nextDouble();
+            long cidadeId = ids[(int) (ids.length * r * r * r)];
+            String nome = nomeCliente(random);
+            lote.add(new Object[] { proximoId++, nome, TextoBusca.normalizar(nome), endereco(random), cidadeId });
+            if (lote.size() == tamanhoBloco) {
+                inserir(INSERT_CLIENTE, lote);
+                lote.clear();
+            }
+        }
+        inserir(INSERT_CLIENTE, lote);
+
+        log.info("Dados sintéticos gerados: {} cidades e {} clientes em {} ms",
+                cidadesPorEstado.values().stream().mapToInt(ids -> ids.length).sum(), quantidadeClientes,
+                System.currentTimeMillis() - inicio);
+    }
+
+    /**
+     * Insere as cidades, repartidas entre os estados pela população.
+     *
+     * @return IDs das cidades de cada estado, começando pela capital
+     */
+    private Map<Estado, long[]> gerarCidades(int quantidade) {
+        long populacaoTotal = POPULACAO.values().stream().mapToLong(Integer::longValue).sum();
+        Map<Estado, long[]> cidadesPorEstado = new EnumMap<>(Estado.class);
+        List<Object[]> linhas = new ArrayList<>();
+
+        int porEstadoMaximo = PREFIXOS_CIDADE.length * COMPLEMENTOS_CIDADE.length;
+        long proximoId = reservarIds("cidades_seq", quantidade + Estado.values().length);
+        for (Estado estado : Estado.values()) {
+            int quantidadeEstado = (int) Math.max(1, quantidade * POPULACAO.get(estado) / populacaoTotal);
+            long[] ids = new long[quantidadeEstado];
+            for (int i = 0; i < quantidadeEstado; i++) {
+                String nome = i == 0 ? CAPITAIS.get(estado) : nomeCidade(i - 1, porEstadoMaximo);
+                ids[i] = proximoId++;
+                linhas.add(new Object[] { ids[i], nome, TextoBusca.normalizar(nome), estado.name() });
+            }
+            cidadesPorEstado.put(estado, ids);
+        }
+
+        for (int i = 0; i < linhas.size(); i += tamanhoBloco) {
+            inserir(INSERT_CIDADE,
+                    linhas.subList(i, Math.min(i + tamanhoBloco, linhas.size())));
+        }
+        return cidadesPorEstado;
+    }
+
+    /**
+     * Reserva um intervalo de IDs da sequence: lê o próximo valor e reinicia a sequence depois
+     * do intervalo. A folga de 100 cobre o bloco que o Hibernate aloca a cada leitura
+     * (allocationSize = 50), qualquer que seja o otimizador usado.
+     *
+     * @return Primeiro ID do intervalo
+     */
+    private long reservarIds(String sequence, int quantidade) {
+        long inicio = jdbcTemplate.queryForObject("select next value for " + sequence, Long.class);
+        jdbcTemplate.execute("alter sequence " + sequence + " restart with " + (inicio + quantidade + 100));
+        return inicio;
+    }
+
+    private void inserir(String sql, List<Object[]> linhas) {
+        if (!linhas.isEmpty()) {
+            transactionTemplate.executeWithoutResult(status -> jdbcTemplate.batchUpdate(sql, linhas));
+        }
+    }
+
+    private static String nomeCidade(int indice, int porEstadoMaximo) {
+        String nome = PREFIXOS_CIDADE[indice % PREFIXOS_CIDADE.length] + " "
+                + COMPLEMENTOS_CIDADE[(indice / PREFIXOS_CIDADE.length) % COMPLEMENTOS_CIDADE.length];
+        int repeticao = indice / porEstadoMaximo;
+        return repeticao == 0 ? nome : nome + " " + (repeticao + 1);
+    }
+
+    private static String nomeCliente(SplittableRandom random) {
+        String nome = NOMES[random.nextInt(NOMES.length)] + " " + SOBRENOMES[random.nextInt(SOBRENOMES.length)];
+        if (random.nextInt(3) == 0) {
+            nome += " " + SOBRENOMES[random.nextInt(SOBRENOMES.length)];
+        }
+        return nome;
+    }
+
+    private static String endereco(SplittableRandom random) {
+        String logradouro = LOGRADOUROS[random.nextInt(LOGRADOUROS.length)] + " ";
+        logradouro += random.nextBoolean()
+                ? NOMES_LOGRADOURO[random.nextInt(NOMES_LOGRADOURO.length)]
+                : NOMES[random.nextInt(NOMES.length)] + " " + SOBRENOMES[random.nextInt(SOBRENOMES.length)];
+        return logradouro + ", " + (1 + random.nextInt(4999));
+    }
+
+    private static Estado sortearEstado(Estado[] estados, long[] populacaoAcumulada, long sorteio) {
+        int baixo = 0;
+        int alto = estados.length - 1;
+        while (baixo < alto) {
+            int meio = (baixo + alto) >>> 1;
+            if (populacaoAcumulada[meio] > sorteio) {
+                alto = meio;
+            } else {
+                baixo = meio + 1;
+            }
+        }
+        return estados[baixo];
+    }
+
+    private static void popular(Estado estado, int populacao, String capital) {
+        POPULACAO.put(estado, populacao);
+        CAPITAIS.put(estado, capital);
+    }
+}
@@ -1,16 +1,24 @@
 package com.programacao.web.fatec.api_fatec.entities;
 
-import com.fasterxml.jackson.annotation.JsonManagedReference;
+import com.fasterxml.jackson.annotation.JsonIgnore;
+import com.programacao.web.fatec.api_fatec.domain.cidade.CidadeEventosListener;
+import com.programacao.web.fatec.api_fatec.domain.cliente.TextoBusca;
 
 import jakarta.persistence.Column;
 import jakarta.persistence.Entity;
+import jakarta.persistence.EntityListeners;
 import jakarta.persistence.EnumType;
 import jakarta.persistence.Enumerated;
 import jakarta.persistence.GeneratedValue;
 import jakarta.persistence.GenerationType;
 import jakarta.persistence.Id;
+import jakarta.persistence.Index;
 import jakarta.persistence.OneToMany;
+import jakarta.persistence.PrePersist;
+import jakarta.persistence.PreUpdate;
+import jakarta.persistence.SequenceGenerator;
 import jakarta.persistence.Table;
+import lombok.AccessLevel;
 import lombok.AllArgsConstructor;
 import lombok.Getter;
 import lombok.NoArgsConstructor;
@@ -23,22 +31,41 @@ import java.util.List;
  * Entidade que representa uma cidade no sistema.
  * Uma cidade possui um id, um nome e um estado.
  * Uma cidade pode estar relacionada a vários clientes (relacionamento 1:N).
+ * 
+ * Alterações e remoções são observadas pelo {@link CidadeEventosListener}, que invalida
+ * o cache de cidades e atualiza o índice de busca de clientes.
  */
 @Entity
-@Table(name = "cidades")
+@Table(name = "cidades", indexes = @Index(name = "idx_cidades_nome_normalizado", columnList = "nome_normalizado"))
+@EntityListeners(CidadeEventosListener.class)
 @Getter
 @Setter
 @NoArgsConstructor
 @AllArgsConstructor
 public class Cidade {
 
+    /**
+     * O ID é gerado por sequence com otimizador pooled (allocationSize = 50): o Hibernate reserva
+     * 50 IDs por chamada à sequence e consegue agrupar os INSERTs em lotes JDBC, o que não é
+     * possível com GenerationType.IDENTITY.
+     */
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "cidades_seq")
+    @SequenceGenerator(name = "cidades_seq", sequenceName = "cidades_seq", allocationSize = 50)
     private Long id;
 
     @Column(nullable = false, length = 60)
     private String nome;
 
+    /**
+     * Nome em minúsculas e sem acentos, comparado pelas buscas no lugar de LOWER(nome).
+     * Calculado a partir do nome sempre que a cidade é gravada (ver {@link TextoBusca}).
+     */
+    @JsonIgnore
+    @Setter(AccessLevel.NONE)
+    @Column(name = "nome_normalizado", nullable = false, length = 60)
+    private String nomeNormalizado;
+
     @Enumerated(EnumType.STRING)
     @Column(nullable = false)
     private Estado estado;
@@ -49,13 +76,23 @@ public class Cidade {
      * mappedBy = "cidade" indica que o campo "cidade" na entidade Cliente
      * é o proprietário do relacionamento.
      * 
-     * @JsonManagedReference é usado para evitar recursão infinita na serialização JSON.
-     * Este lado do relacionamento será serializado normalmente.
+     * @JsonIgnore impede que a coleção seja carregada e serializada junto com a cidade: uma
+     * cidade grande tem centenas de milhares de clientes. Para listá-los use a paginação de
+     * GET /api/cidades/{id}/clientes, e para a quantidade o CidadeResponseDto.
      */
     @OneToMany(mappedBy = "cidade")
-    @JsonManagedReference
+    @JsonIgnore
     private List<Cliente> clientes = new ArrayList<>();
 
+    /**
+     * Atualiza o nome normalizado antes de inserir ou alterar a cidade.
+     */
+    @PrePersist
+    @PreUpdate
+    void normalizarNome() {
+        nomeNormalizado = TextoBusca.normalizar(nome);
+    }
+
     /**
      * Construtor para criar uma cidade sem clientes inicialmente.
      * 
@@ -3,16 +3,22 @@ package com.programacao.web.fatec.api_fatec.entities;
 import com.fasterxml.jackson.annotation.JsonProperty;
 import com.fasterxml.jackson.annotation.JsonIgnoreProperties;
 import com.fasterxml.jackson.annotation.JsonIgnore;
-import com.fasterxml.jackson.annotation.JsonBackReference;
+import com.programacao.web.fatec.api_fatec.domain.cliente.TextoBusca;
 
 import jakarta.persistence.Column;
 import jakarta.persistence.Entity;
 import jakarta.persistence.GeneratedValue;
 import jakarta.persistence.GenerationType;
 import jakarta.persistence.Id;
+import jakarta.persistence.Index;
 import jakarta.persistence.JoinColumn;
 import jakarta.persistence.ManyToOne;
+import jakarta.persistence.PrePersist;
+import jakarta.persistence.PreUpdate;
+import jakarta.persistence.SequenceGenerator;
 import jakarta.persistence.Table;
+import jakarta.persistence.Version;
+import lombok.AccessLevel;
 import lombok.Getter;
 import lombok.NoArgsConstructor;
 import lombok.Setter;
@@ -20,24 +26,54 @@ import lombok.Setter;
 /**
  * Entidade que representa um cliente no sistema.
  * Um cliente possui um id, um nome, um endereço e está associado a uma cidade.
+ * 
+ * O índice (cidade_id, id) atende a listagem paginada dos clientes de uma cidade
+ * (GET /api/cidades/{id}/clientes) e as contagens por cidade sem percorrer a tabela.
+ * O índice de nome_normalizado atende as buscas por prefixo do nome.
  */
 @Entity
-@Table(name="clientes")
+@Table(name="clientes", indexes = {
+        @Index(name = "idx_clientes_cidade_id_id", columnList = "cidade_id, id"),
+        @Index(name = "idx_clientes_nome_normalizado", columnList = "nome_normalizado")
+})
 @Getter
 @Setter
 @NoArgsConstructor
 public class Cliente {
 
+    /**
+     * O ID é gerado por sequence com otimizador pooled (allocationSize = 50): o Hibernate reserva
+     * 50 IDs por chamada à sequence e consegue agrupar os INSERTs em lotes JDBC, o que não é
+     * possível com GenerationType.IDENTITY.
+     */
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "clientes_seq")
+    @SequenceGenerator(name = "clientes_seq", sequenceName = "clientes_seq", allocationSize = 50)
     private Long id;
 
     @Column(nullable = false, length = 60)
     private String nome;
 
+    /**
+     * Nome em minúsculas e sem acentos, comparado pelas buscas no lugar de LOWER(nome).
+     * Calculado a partir do nome sempre que o cliente é gravado (ver {@link TextoBusca}).
+     */
+    @JsonIgnore
+    @Setter(AccessLevel.NONE)
+    @Column(name = "nome_normalizado", nullable = false, length = 60)
+    private String nomeNormalizado;
+
     @Column(nullable = false, length = 60)
     private String endereco;
 
+    /**
+     * Versão para controle de concorrência otimista: incrementada a cada alteração, uma
+     * alteração feita sobre uma versão antiga é rejeitada (409) em vez de sobrescrever a outra.
+     */
+    @Version
+    @Column(nullable = false)
+    private Long versao;
+
     /**
      * Relacionamento ManyToOne com a entidade Cidade.
      * Muitos clientes podem estar associados a uma única cidade (relacionamento N:1).
@@ -86,9 +122,9 @@ public class Cliente {
      *   }
      * }
      * 
-     * @JsonBackReference é usado para evitar recursão infinita na serialização JSON.
-     * Marca este lado do relacionamento como a referência de volta, que será omitida durante a serialização.
-     * Funciona em conjunto com @JsonManagedReference na entidade Cidade.
+     * Não há recursão infinita na serialização JSON porque a coleção Cidade.clientes é
+     * marcada com @JsonIgnore; @JsonIgnoreProperties("clientes") garante o mesmo caso a
+     * coleção volte a ser serializada.
      */
     @ManyToOne
     @JoinColumn(name = "cidade_id")
@@ -97,6 +133,15 @@ public class Cliente {
     //@JsonIgnore
     private Cidade cidade;
 
+    /**
+     * Atualiza o nome normalizado antes de inserir ou alterar o cliente.
+     */
+    @PrePersist
+    @PreUpdate
+    void normalizarNome() {
+        nomeNormalizado = TextoBusca.normalizar(nome);
+    }
+
     /**
      * Construtor para criar um cliente sem associá-lo a uma cidade.
      * 
@@ -0,0 +1,18 @@
+package com.programacao.web.fatec.api_fatec.exception;
+
+/**
+ * Exceção lançada quando os parâmetros de uma requisição são inválidos.
+ * Esta exceção é usada para indicar que o cliente enviou valores que não podem ser
+ * interpretados (por exemplo, um cursor de paginação corrompido ou um limite fora do intervalo).
+ */
+public class BadRequestException extends RuntimeException {
+
+    /**
+     * Construtor que recebe uma mensagem detalhada sobre o parâmetro inválido.
+     * 
+     * @param message Mensagem descritiva do erro
+     */
+    public BadRequestException(String message) {
+        super(message);
+    }
+}
@@ -0,0 +1,17 @@
+package com.programacao.web.fatec.api_fatec.exception;
+
+/**
+ * Exceção lançada quando uma alteração não pode ser aplicada porque o recurso foi alterado
+ * por outra requisição (por exemplo, a versão informada não é mais a versão atual).
+ */
+public class ConflictException extends RuntimeException {
+
+    /**
+     * Construtor que recebe uma mensagem detalhada sobre o conflito.
+     * 
+     * @param message Mensagem descritiva do erro
+     */
+    public ConflictException(String message) {
+        super(message);
+    }
+}
@@ -3,18 +3,26 @@ package com.programacao.web.fatec.api_fatec.exception;
 import java.util.ArrayList;
 import java.util.List;
 
+import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.http.converter.HttpMessageNotReadableException;
+import org.springframework.orm.ObjectOptimisticLockingFailureException;
+import org.springframework.web.HttpMediaTypeNotAcceptableException;
 import org.springframework.validation.FieldError;
 import org.springframework.validation.ObjectError;
 import org.springframework.web.bind.MethodArgumentNotValidException;
 import org.springframework.web.bind.annotation.ExceptionHandler;
 import org.springframework.web.bind.annotation.RestControllerAdvice;
+import org.springframework.web.context.request.ServletWebRequest;
 import org.springframework.web.context.request.WebRequest;
+import org.springframework.web.method.annotation.MethodArgumentTypeMismatchException;
 import org.springframework.web.servlet.mvc.method.annotation.ResponseEntityExceptionHandler;
 
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+
 /**
  * Manipulador global de exceções para a API.
  * 
@@ -23,10 +31,17 @@ import org.springframework.web.servlet.mvc.method.annotation.ResponseEntityExcep
  * 
  * O @RestControllerAdvice combina as funcionalidades de @ControllerAdvice e @ResponseBody,
  * permitindo que os métodos retornem objetos que serão automaticamente convertidos para JSON.
+ * 
+ * Cada erro tratado incrementa o contador api.erros, com as tags tipo (nome simples da exceção)
+ * e status (código HTTP). A mensagem e o caminho da requisição nunca viram tags, para manter
+ * a cardinalidade das métricas baixa.
  */
 @RestControllerAdvice
 public class GlobalExceptionHandler {
 
+    @Autowired
+    private MeterRegistry meterRegistry;
+
     /**
      * Manipula exceções do tipo ResourceNotFoundException.
      * 
@@ -48,9 +63,121 @@ public class GlobalExceptionHandler {
                 request.getDescription(false).replace("uri=", "")
         );
 
+        registrarErro(ex, HttpStatus.NOT_FOUND);
         return new ResponseEntity<>(apiError, HttpStatus.NOT_FOUND);
     }
 
+    /**
+     * Manipula exceções do tipo HttpMediaTypeNotAcceptableException.
+     * 
+     * Este método é chamado quando o endpoint não produz nenhum dos tipos do cabeçalho Accept
+     * (por exemplo, /api/clientes/export, que só produz application/x-ndjson, com
+     * Accept: application/json). Retorna uma resposta com status 406 (Not Acceptable).
+     * 
+     * @param ex A exceção HttpMediaTypeNotAcceptableException que foi lançada
+     * @param request A requisição web que gerou a exceção
+     * @return ResponseEntity contendo o objeto ApiError com detalhes do erro
+     */
+    @ExceptionHandler(HttpMediaTypeNotAcceptableException.class)
+    public ResponseEntity<ApiError> handleHttpMediaTypeNotAcceptable(
+            HttpMediaTypeNotAcceptableException ex, WebRequest request) {
+
+        ApiError apiError = new ApiError(
+                HttpStatus.NOT_ACCEPTABLE.value(),
+                "Tipo de resposta não suportado",
+                "Tipos produzidos por este endpoint: " + ex.getSupportedMediaTypes(),
+                request.getDescription(false).replace("uri=", "")
+        );
+
+        registrarErro(ex, HttpStatus.NOT_ACCEPTABLE);
+        return new ResponseEntity<>(apiError, HttpStatus.NOT_ACCEPTABLE);
+    }
+
+    /**
+     * Manipula exceções do tipo BadRequestException.
+     * 
+     * Este método é chamado quando a requisição contém parâmetros inválidos
+     * (por exemplo, um cursor de paginação que não pode ser decodificado).
+     * Retorna uma resposta com status 400 (Bad Request) e um corpo contendo detalhes do erro.
+     * 
+     * @param ex A exceção BadRequestException que foi lançada
+     * @param request A requisição web que gerou a exceção
+     * @return ResponseEntity contendo o objeto ApiError com detalhes do erro
+     */
+    @ExceptionHandler(BadRequestException.class)
+    public ResponseEntity<ApiError> handleBadRequestException(
+            BadRequestException ex, WebRequest request) {
+
+        ApiError apiError = new ApiError(
+                HttpStatus.BAD_REQUEST.value(),
+                "Requisição inválida",
+                ex.getMessage(),
+                request.getDescription(false).replace("uri=", "")
+        );
+
+        registrarErro(ex, HttpStatus.BAD_REQUEST);
+        return new ResponseEntity<>(apiError, HttpStatus.BAD_REQUEST);
+    }
+
+    /**
+     * Manipula conflitos de concorrência: ConflictException e falhas de lock otimista
+     * (a entidade foi alterada por outra transação entre a leitura e a gravação).
+     * 
+     * Retorna uma resposta com status 409 (Conflict); o cliente deve ler a versão atual
+     * do recurso e reenviar a alteração.
+     * 
+     * @param ex A exceção que foi lançada
+     * @param request A requisição web que gerou a exceção
+     * @return ResponseEntity contendo o objeto ApiError com detalhes do erro
+     */
+    @ExceptionHandler({ ConflictException.class, ObjectOptimisticLockingFailureException.class })
+    public ResponseEntity<ApiError> handleConflictException(
+            RuntimeException ex, WebRequest request) {
+
+        String mensagem = ex instanceof ConflictException
+                ? ex.getMessage()
+                : "O recurso foi alterado por outra requisição; leia a versão atual e tente novamente";
+
+        ApiError apiError = new ApiError(
+                HttpStatus.CONFLICT.value(),
+                "Conflito",
+                mensagem,
+                request.getDescription(false).replace("uri=", "")
+        );
+
+        registrarErro(ex, HttpStatus.CONFLICT);
+        return new ResponseEntity<>(apiError, HttpStatus.CONFLICT);
+    }
+
+    /**
+     * Manipula exceções do tipo ServiceUnavailableException.
+     * 
+     * Este método é chamado quando a API não tem capacidade para aceitar a requisição no momento
+     * (por exemplo, a fila de importações está cheia). Retorna uma resposta com status
+     * 503 (Service Unavailable) e o cabeçalho Retry-After.
+     * 
+     * @param ex A exceção ServiceUnavailableException que foi lançada
+     * @param request A requisição web que gerou a exceção
+     * @return ResponseEntity contendo o objeto ApiError com detalhes do erro
+     */
+    @ExceptionHandler(ServiceUnavailableException.class)
+    public ResponseEntity<ApiError> handleServiceUnavailableException(
+            ServiceUnavailableException ex, WebRequest request) {
+
+        ApiError apiError = new ApiError(
+                HttpStatus.SERVICE_UNAVAILABLE.value(),
+                "Serviço indisponível",
+                ex.getMessage(),
+                request.getDescription(false).replace("uri=", "")
+        );
+
+        HttpHeaders headers = new HttpHeaders();
+        headers.set(HttpHeaders.RETRY_AFTER, String.valueOf(ex.getRetryAfterSegundos()));
+
+        registrarErro(ex, HttpStatus.SERVICE_UNAVAILABLE);
+        return new ResponseEntity<>(apiError, headers, HttpStatus.SERVICE_UNAVAILABLE);
+    }
+
     /**
      * Manipula exceções de validação de argumentos de método.
      * 
@@ -83,6 +210,7 @@ public class GlobalExceptionHandler {
                 request.getDescription(false).replace("uri=", "")
         );
 
+        registrarErro(ex, HttpStatus.BAD_REQUEST);
         return new ResponseEntity<>(apiError, HttpStatus.BAD_REQUEST);
     }
 
@@ -107,6 +235,34 @@ public class GlobalExceptionHandler {
                 request.getDescription(false).replace("uri=", "")
         );
 
+        registrarErro(ex, HttpStatus.BAD_REQUEST);
+        return new ResponseEntity<>(apiError, HttpStatus.BAD_REQUEST);
+    }
+
+    /**
+     * Manipula exceções do tipo MethodArgumentTypeMismatchException.
+     * 
+     * Este método é chamado quando um parâmetro da URL não pode ser convertido para o tipo esperado
+     * (por exemplo, GET /api/clientes/abc, ou um caminho digitado errado como /api/clientes/listarCliente,
+     * que cai em /api/clientes/{id}). Retorna uma resposta com status 400 (Bad Request).
+     * 
+     * @param ex A exceção MethodArgumentTypeMismatchException que foi lançada
+     * @param request A requisição web que gerou a exceção
+     * @return ResponseEntity contendo o objeto ApiError com detalhes do erro
+     */
+    @ExceptionHandler(MethodArgumentTypeMismatchException.class)
+    public ResponseEntity<ApiError> handleMethodArgumentTypeMismatch(
+            MethodArgumentTypeMismatchException ex, WebRequest request) {
+
+        String tipo = ex.getRequiredType() != null ? ex.getRequiredType().getSimpleName() : "esperado";
+        ApiError apiError = new ApiError(
+                HttpStatus.BAD_REQUEST.value(),
+                "Requisição inválida",
+                "O parâmetro " + ex.getName() + " deve ser do tipo " + tipo + ": " + ex.getValue(),
+                request.getDescription(false).replace("uri=", "")
+        );
+
+        registrarErro(ex, HttpStatus.BAD_REQUEST);
         return new ResponseEntity<>(apiError, HttpStatus.BAD_REQUEST);
     }
 
@@ -119,10 +275,20 @@ public class GlobalExceptionHandler {
      * @param ex A exceção que foi lançada
      * @param request A requisição web que gerou a exceção
      * @return ResponseEntity contendo o objeto ApiError com detalhes do erro
+     * @throws Exception a própria exceção, se a resposta já tiver sido enviada em parte
      */
     @ExceptionHandler(Exception.class)
     public ResponseEntity<ApiError> handleGlobalException(
-            Exception ex, WebRequest request) {
+            Exception ex, WebRequest request) throws Exception {
+
+        // Com a resposta já enviada em parte (por exemplo, no meio do /export), não há como
+        // trocar o status: a exceção segue para o Tomcat, que fecha a conexão sem terminar a
+        // resposta, e o cliente percebe a falha em vez de receber um 200 truncado
+        if (request instanceof ServletWebRequest servlet && servlet.getResponse() != null
+                && servlet.getResponse().isCommitted()) {
+            registrarErro(ex, HttpStatus.INTERNAL_SERVER_ERROR);
+            throw ex;
+        }
 
         ApiError apiError = new ApiError(
                 HttpStatus.INTERNAL_SERVER_ERROR.value(),
@@ -131,6 +297,22 @@ public class GlobalExceptionHandler {
                 request.getDescription(false).replace("uri=", "")
         );
 
+        registrarErro(ex, HttpStatus.INTERNAL_SERVER_ERROR);
         return new ResponseEntity<>(apiError, HttpStatus.INTERNAL_SERVER_ERROR);
     }
+
+    /**
+     * Incrementa o contador de erros da API para o tipo de exceção e o status HTTP.
+     * 
+     * @param ex A exceção tratada
+     * @param status O status HTTP retornado
+     */
+    private void registrarErro(Exception ex, HttpStatus status) {
+        Counter.builder("api.erros")
+                .description("Erros retornados pela API através do GlobalExceptionHandler")
+                .tag("tipo", ex.getClass().getSimpleName())
+                .tag("status", String.valueOf(status.value()))
+                .register(meterRegistry)
+                .increment();
+    }
 }
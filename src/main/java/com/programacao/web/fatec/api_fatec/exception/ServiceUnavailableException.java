@@ -0,0 +1,26 @@
+package com.programacao.web.fatec.api_fatec.exception;
+
+/**
+ * Exceção lançada quando a API está temporariamente sem capacidade para atender a requisição
+ * (por exemplo, a fila de importações está cheia). O cliente pode tentar novamente depois
+ * do intervalo indicado no cabeçalho Retry-After.
+ */
+public class ServiceUnavailableException extends RuntimeException {
+
+    private final long retryAfterSegundos;
+
+    /**
+     * Construtor que recebe a mensagem e o tempo sugerido para uma nova tentativa.
+     * 
+     * @param message Mensagem descritiva do erro
+     * @param retryAfterSegundos Segundos sugeridos antes de tentar novamente
+     */
+    public ServiceUnavailableException(String message, long retryAfterSegundos) {
+        super(message);
+        this.retryAfterSegundos = retryAfterSegundos;
+    }
+
+    public long getRetryAfterSegundos() {
+        return retryAfterSegundos;
+    }
+}
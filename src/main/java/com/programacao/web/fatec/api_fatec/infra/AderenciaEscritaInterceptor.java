@@ -0,0 +1,90 @@
+package com.programacao.web.fatec.api_fatec.infra;
+
+import java.time.Duration;
+
+import org.springframework.web.servlet.HandlerInterceptor;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+
+/**
+ * Leia-suas-escritas com réplicas: depois de uma escrita, as leituras do mesmo cliente só vão
+ * para uma réplica que já aplicou essa escrita, durante a janela api.replicas.aderencia.
+ *
+ * Quando o caminho de escrita confirma uma transação ({@link LeituraReplica#registrarEscrita()},
+ * após o commit e antes de a resposta ser escrita) é guardada a posição de replicação do
+ * principal naquele momento, que já inclui a transação. Se a posição fosse guardada só ao fim da
+ * requisição, o cliente poderia receber a resposta e fazer a próxima leitura antes disso, e ler
+ * de uma réplica sem a própria escrita. O fim de cada requisição de escrita (POST, PUT, PATCH,
+ * DELETE) guarda a posição de novo, para as escritas que não passam por esse registro. As
+ * requisições seguintes do cliente exigem essa posição das réplicas ({@link LeituraReplica});
+ * passada a janela, o cliente volta a ler de qualquer réplica disponível.
+ *
+ * O cliente é identificado pelo cabeçalho X-Client-Id, ou pelo endereço de origem sem ele.
+ */
+class AderenciaEscritaInterceptor implements HandlerInterceptor {
+
+    /**
+     * Cabeçalho opcional que identifica o cliente da API (por exemplo, atrás de um proxy).
+     */
+    static final String HEADER_CLIENTE = "X-Client-Id";
+
+    private final ReplicacaoSimulada replicacao;
+
+    private final Cache<String, Long> ultimaEscrita;
+
+    AderenciaEscritaInterceptor(ReplicacaoSimulada replicacao, Duration janela) {
+        this.replicacao = replicacao;
+        this.ultimaEscrita = Caffeine.newBuilder()
+                .expireAfterWrite(janela)
+                .maximumSize(100_000)
+                .build();
+    }
+
+    @Override
+    public boolean preHandle(HttpServletRequest request, HttpServletResponse response, Object handler) {
+        String cliente = cliente(request);
+        Long posicao = ultimaEscrita.getIfPresent(cliente);
+        if (posicao != null) {
+            LeituraReplica.exigirPosicao(posicao);
+        }
+        if (escrita(request)) {
+            LeituraReplica.aoRegistrarEscrita(() -> registrar(cliente));
+        }
+        return true;
+    }
+
+    @Override
+    public void afterCompletion(HttpServletRequest request, HttpServletResponse response, Object handler,
+            Exception ex) {
+        try {
+            if (escrita(request)) {
+                registrar(cliente(request));
+            }
+        } finally {
+            LeituraReplica.limparRequisicao();
+        }
+    }
+
+    /**
+     * Guarda a posição atual do principal como a última escrita do cliente, sem voltar a uma
+     * posição anterior já guardada por outra requisição dele.
+     */
+    private void registrar(String cliente) {
+        long posicao = replicacao.posicao();
+        ultimaEscrita.asMap().merge(cliente, posicao, Math::max);
+    }
+
+    private static boolean escrita(HttpServletRequest request) {
+        String metodo = request.getMethod();
+        return !"GET".equals(metodo) && !"HEAD".equals(metodo) && !"OPTIONS".equals(metodo);
+    }
+
+    private static String cliente(HttpServletRequest request) {
+        String cliente = request.getHeader(HEADER_CLIENTE);
+        return cliente != null && !cliente.isBlank() ? cliente : request.getRemoteAddr();
+    }
+}
@@ -0,0 +1,41 @@
+package com.programacao.web.fatec.api_fatec.infra;
+
+import java.lang.annotation.Documented;
+import java.lang.annotation.ElementType;
+import java.lang.annotation.Retention;
+import java.lang.annotation.RetentionPolicy;
+import java.lang.annotation.Target;
+
+/**
+ * Coloca um endpoint em um compartimento de concorrência (bulkhead).
+ *
+ * Os endpoints de um mesmo compartimento dividem um limite de requisições simultâneas, ajustado
+ * pela latência observada, e uma fila de espera limitada ({@link CompartimentoConcorrencia}).
+ * Assim, um pico de buscas esgota apenas o compartimento de buscas e não atrasa as escritas.
+ * Cada compartimento é configurado em api.compartimentos.&lt;nome&gt;.*.
+ */
+@Documented
+@Retention(RetentionPolicy.RUNTIME)
+@Target({ ElementType.METHOD, ElementType.TYPE })
+public @interface Compartimento {
+
+    /**
+     * Buscas por texto, ID ou nome, que podem percorrer a tabela de clientes.
+     */
+    String BUSCA = "busca";
+
+    /**
+     * Listagens paginadas por chave.
+     */
+    String LISTAGEM = "listagem";
+
+    /**
+     * Criações, alterações e remoções.
+     */
+    String ESCRITA = "escrita";
+
+    /**
+     * Nome do compartimento.
+     */
+    String value();
+}
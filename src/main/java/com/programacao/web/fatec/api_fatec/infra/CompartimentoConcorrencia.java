@@ -0,0 +1,161 @@
+package com.programacao.web.fatec.api_fatec.infra;
+
+import java.time.Duration;
+import java.util.concurrent.locks.Condition;
+import java.util.concurrent.locks.ReentrantLock;
+
+import com.programacao.web.fatec.api_fatec.exception.ServiceUnavailableException;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+
+/**
+ * Compartimento de concorrência (bulkhead) de um grupo de endpoints.
+ *
+ * Até {@link LimiteAdaptativo#atual()} requisições executam ao mesmo tempo; as seguintes esperam
+ * em uma fila de no máximo capacidadeFila requisições, por no máximo esperaMaxima. Com a fila
+ * cheia, ou passada a espera, a requisição é recusada na hora com 503 e Retry-After, em vez de
+ * ocupar uma thread do Tomcat e aguardar uma conexão do pool. Quem chega com requisições já na
+ * fila entra no fim dela.
+ *
+ * Métricas: api.compartimentos.limite, api.compartimentos.em-execucao,
+ * api.compartimentos.aguardando e api.compartimentos.recusas (por motivo), todas com a tag
+ * compartimento.
+ */
+class CompartimentoConcorrencia {
+
+    private final String nome;
+
+    private final LimiteAdaptativo limite;
+
+    private final int capacidadeFila;
+
+    private final Duration esperaMaxima;
+
+    private final long retryAfterSegundos;
+
+    private final ReentrantLock lock = new ReentrantLock();
+
+    private final Condition vagaLiberada = lock.newCondition();
+
+    private int emExecucao;
+
+    private int aguardando;
+
+    private final Counter recusasFilaCheia;
+
+    private final Counter recusasEspera;
+
+    CompartimentoConcorrencia(String nome, LimiteAdaptativo limite, int capacidadeFila, Duration esperaMaxima,
+            long retryAfterSegundos, MeterRegistry meterRegistry) {
+        this.nome = nome;
+        this.limite = limite;
+        this.capacidadeFila = capacidadeFila;
+        this.esperaMaxima = esperaMaxima;
+        this.retryAfterSegundos = retryAfterSegundos;
+
+        Gauge.builder("api.compartimentos.limite", this, c -> c.limiteAtual())
+                .description("Requisições simultâneas permitidas no compartimento")
+                .tag("compartimento", nome)
+                .register(meterRegistry);
+        Gauge.builder("api.compartimentos.em-execucao", this, c -> c.emExecucao)
+                .description("Requisições em execução no compartimento")
+                .tag("compartimento", nome)
+                .register(meterRegistry);
+        Gauge.builder("api.compartimentos.aguardando", this, c -> c.aguardando)
+                .description("Requisições na fila de espera do compartimento")
+                .tag("compartimento", nome)
+                .register(meterRegistry);
+        recusasFilaCheia = recusas("fila-cheia", meterRegistry);
+        recusasEspera = recusas("espera", meterRegistry);
+    }
+
+    private Counter recusas(String motivo, MeterRegistry meterRegistry) {
+        return Counter.builder("api.compartimentos.recusas")
+                .description("Requisições recusadas com 503 pelo compartimento")
+                .tag("compartimento", nome)
+                .tag("motivo", motivo)
+                .register(meterRegistry);
+    }
+
+    /**
+     * Ocupa uma vaga no compartimento, esperando na fila se necessário.
+     *
+     * @return Requisições em execução no compartimento, incluindo esta
+     * @throws ServiceUnavailableException se a fila estiver cheia ou a espera passar de esperaMaxima
+     */
+    int entrar() {
+        lock.lock();
+        try {
+            if (aguardando == 0 && emExecucao < limite.atual()) {
+                return ++emExecucao;
+            }
+            if (aguardando >= capacidadeFila) {
+                recusasFilaCheia.increment();
+                throw sobrecarregado();
+            }
+            aguardando++;
+            try {
+                long restante = esperaMaxima.toNanos();
+                while (emExecucao >= limite.atual()) {
+                    if (restante <= 0) {
+                        recusasEspera.increment();
+                        throw sobrecarregado();
+                    }
+                    restante = vagaLiberada.awaitNanos(restante);
+                }
+                emExecucao++;
+                // O limite pode ter crescido mais de uma vaga: o próximo da fila também tenta
+                if (emExecucao < limite.atual()) {
+                    vagaLiberada.signal();
+                }
+                return emExecucao;
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                recusasEspera.increment();
+                throw sobrecarregado();
+            } finally {
+                aguardando--;
+            }
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * Libera a vaga ocupada por {@link #entrar()}.
+     *
+     * @param latenciaNanos Tempo de execução da requisição
+     * @param emExecucaoNaEntrada Valor retornado por {@link #entrar()}
+     * @param amostrar false para não usar a latência no ajuste do limite (por exemplo, 304 sem consulta)
+     */
+    void sair(long latenciaNanos, int emExecucaoNaEntrada, boolean amostrar) {
+        lock.lock();
+        try {
+            if (amostrar) {
+                limite.registrar(latenciaNanos, Math.max(emExecucaoNaEntrada, emExecucao));
+            }
+            emExecucao--;
+            if (emExecucao < limite.atual()) {
+                vagaLiberada.signal();
+            }
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    private int limiteAtual() {
+        lock.lock();
+        try {
+            return limite.atual();
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    private ServiceUnavailableException sobrecarregado() {
+        return new ServiceUnavailableException(
+                "Muitas requisições simultâneas de " + nome + "; tente novamente em instantes", retryAfterSegundos);
+    }
+}
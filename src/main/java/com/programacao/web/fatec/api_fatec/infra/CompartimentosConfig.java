@@ -0,0 +1,61 @@
+package com.programacao.web.fatec.api_fatec.infra;
+
+import java.time.Duration;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.context.properties.bind.Binder;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.core.env.Environment;
+import org.springframework.web.servlet.config.annotation.InterceptorRegistry;
+import org.springframework.web.servlet.config.annotation.WebMvcConfigurer;
+
+import io.micrometer.core.instrument.MeterRegistry;
+
+/**
+ * Compartimentos de concorrência por classe de endpoint (api.compartimentos.habilitado, desligado
+ * por padrão).
+ *
+ * Cada compartimento lê api.compartimentos.&lt;nome&gt;.limite-inicial, limite-minimo,
+ * limite-maximo, fila e espera-maxima; sem eles valem os padrões abaixo. A tolerância de latência
+ * e o Retry-After das recusas são comuns a todos.
+ */
+@Configuration
+@ConditionalOnProperty(name = "api.compartimentos.habilitado", havingValue = "true")
+public class CompartimentosConfig {
+
+    /**
+     * Quanto a latência recente pode passar da latência normal antes de o limite diminuir.
+     */
+    @Value("${api.compartimentos.tolerancia:2.0}")
+    private double tolerancia;
+
+    @Value("${api.compartimentos.retry-after:PT1S}")
+    private Duration retryAfter;
+
+    @Bean
+    WebMvcConfigurer compartimentosConfigurer(Environment environment, MeterRegistry meterRegistry) {
+        Binder binder = Binder.get(environment);
+        CompartimentosInterceptor interceptor = new CompartimentosInterceptor(
+                nome -> criar(nome, binder, meterRegistry));
+        return new WebMvcConfigurer() {
+            @Override
+            public void addInterceptors(InterceptorRegistry registry) {
+                registry.addInterceptor(interceptor);
+            }
+        };
+    }
+
+    private CompartimentoConcorrencia criar(String nome, Binder binder, MeterRegistry meterRegistry) {
+        String prefixo = "api.compartimentos." + nome + ".";
+        int minimo = binder.bind(prefixo + "limite-minimo", Integer.class).orElse(1);
+        int maximo = binder.bind(prefixo + "limite-maximo", Integer.class).orElse(10);
+        int inicial = binder.bind(prefixo + "limite-inicial", Integer.class).orElse(maximo / 2);
+        int fila = binder.bind(prefixo + "fila", Integer.class).orElse(10);
+        Duration esperaMaxima = binder.bind(prefixo + "espera-maxima", Duration.class).orElse(Duration.ofMillis(500));
+
+        return new CompartimentoConcorrencia(nome, new LimiteAdaptativo(inicial, minimo, maximo, tolerancia), fila,
+                esperaMaxima, Math.max(1, retryAfter.toSeconds()), meterRegistry);
+    }
+}
@@ -0,0 +1,69 @@
+package com.programacao.web.fatec.api_fatec.infra;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Function;
+
+import org.springframework.http.HttpStatus;
+import org.springframework.web.method.HandlerMethod;
+import org.springframework.web.servlet.HandlerInterceptor;
+
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+
+/**
+ * Aplica os compartimentos de concorrência aos endpoints anotados com {@link Compartimento}.
+ *
+ * A vaga é ocupada antes do controller e liberada ao fim da requisição, com a latência medida
+ * entre os dois. Uma recusa lança ServiceUnavailableException no preHandle, tratada pelo
+ * GlobalExceptionHandler como as demais (503, Retry-After e ApiError). Respostas 304 liberam a
+ * vaga sem entrar no ajuste do limite: elas não consultam o banco e puxariam a latência normal
+ * do compartimento para baixo.
+ */
+class CompartimentosInterceptor implements HandlerInterceptor {
+
+    private static final String ATRIBUTO_ENTRADA = CompartimentosInterceptor.class.getName() + ".entrada";
+
+    private final Map<String, CompartimentoConcorrencia> compartimentos = new ConcurrentHashMap<>();
+
+    private final Function<String, CompartimentoConcorrencia> criarCompartimento;
+
+    CompartimentosInterceptor(Function<String, CompartimentoConcorrencia> criarCompartimento) {
+        this.criarCompartimento = criarCompartimento;
+        for (String nome : new String[] { Compartimento.BUSCA, Compartimento.LISTAGEM, Compartimento.ESCRITA }) {
+            compartimentos.put(nome, criarCompartimento.apply(nome));
+        }
+    }
+
+    @Override
+    public boolean preHandle(HttpServletRequest request, HttpServletResponse response, Object handler) {
+        if (!(handler instanceof HandlerMethod metodo)) {
+            return true;
+        }
+        Compartimento anotacao = metodo.getMethodAnnotation(Compartimento.class);
+        if (anotacao == null) {
+            anotacao = metodo.getBeanType().getAnnotation(Compartimento.class);
+        }
+        if (anotacao == null) {
+            return true;
+        }
+        CompartimentoConcorrencia compartimento = compartimentos.computeIfAbsent(anotacao.value(),
+                criarCompartimento);
+        int emExecucao = compartimento.entrar();
+        request.setAttribute(ATRIBUTO_ENTRADA, new Entrada(compartimento, emExecucao, System.nanoTime()));
+        return true;
+    }
+
+    @Override
+    public void afterCompletion(HttpServletRequest request, HttpServletResponse response, Object handler,
+            Exception ex) {
+        if (request.getAttribute(ATRIBUTO_ENTRADA) instanceof Entrada entrada) {
+            request.removeAttribute(ATRIBUTO_ENTRADA);
+            entrada.compartimento().sair(System.nanoTime() - entrada.inicio(), entrada.emExecucao(),
+                    response.getStatus() != HttpStatus.NOT_MODIFIED.value());
+        }
+    }
+
+    private record Entrada(CompartimentoConcorrencia compartimento, int emExecucao, long inicio) {
+    }
+}
@@ -0,0 +1,15 @@
+package com.programacao.web.fatec.api_fatec.infra;
+
+import java.time.LocalDateTime;
+
+/**
+ * Registro de uma execução de SQL que passou do limite de consulta lenta.
+ *
+ * @param sql SQL normalizado (espaços colapsados e literais trocados por ?)
+ * @param tempoMs Tempo de execução do statement em milissegundos
+ * @param lote Quantidade de statements no lote JDBC (1 se não for lote)
+ * @param parametros Parâmetros de uma das execuções, apenas quando a execução foi amostrada
+ * @param momento Momento em que a execução terminou
+ */
+public record ConsultaLenta(String sql, long tempoMs, int lote, String parametros, LocalDateTime momento) {
+}
@@ -0,0 +1,36 @@
+package com.programacao.web.fatec.api_fatec.infra;
+
+import java.util.List;
+import java.util.Map;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.actuate.endpoint.annotation.DeleteOperation;
+import org.springframework.boot.actuate.endpoint.annotation.Endpoint;
+import org.springframework.boot.actuate.endpoint.annotation.ReadOperation;
+import org.springframework.stereotype.Component;
+
+/**
+ * Endpoint administrativo (/actuator/consultaslentas) com as execuções de SQL mais lentas.
+ *
+ * GET retorna o limite configurado e as execuções mais lentas; DELETE descarta o registro.
+ * Não é exposto por padrão: como mostra o SQL executado, deve ser incluído em
+ * management.endpoints.web.exposure.include apenas em uma porta de gerenciamento separada.
+ */
+@Component
+@Endpoint(id = "consultaslentas")
+public class ConsultasLentasEndpoint {
+
+    @Autowired
+    private ConsultasLentasMonitor monitor;
+
+    @ReadOperation
+    public Map<String, Object> consultasLentas() {
+        List<ConsultaLenta> consultas = monitor.maisLentas();
+        return Map.of("limiteMs", monitor.limiteMs(), "consultas", consultas);
+    }
+
+    @DeleteOperation
+    public void limpar() {
+        monitor.limpar();
+    }
+}
@@ -0,0 +1,165 @@
+package com.programacao.web.fatec.api_fatec.infra;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.PriorityQueue;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.regex.Pattern;
+import java.util.stream.Collectors;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import net.ttddyy.dsproxy.ExecutionInfo;
+import net.ttddyy.dsproxy.QueryInfo;
+import net.ttddyy.dsproxy.listener.QueryExecutionListener;
+import net.ttddyy.dsproxy.proxy.ParameterSetOperation;
+
+/**
+ * Registro de consultas lentas no nível do JDBC.
+ *
+ * Recebe o tempo de cada statement executado pelo DataSource (via datasource-proxy) e registra
+ * em log apenas os que passam de api.sql.consultas-lentas.limite-ms, com o SQL normalizado.
+ * Os valores dos parâmetros são incluídos só em uma fração das ocorrências
+ * (api.sql.consultas-lentas.amostra-parametros), para não pagar o custo de formatá-los
+ * em toda execução lenta, e mascarados (cada valor como ?) a menos que
+ * api.sql.consultas-lentas.mostrar-parametros seja true, porque podem conter dados de clientes
+ * e o log e o endpoint não são restritos a quem pode vê-los. As api.sql.consultas-lentas.top execuções mais lentas ficam em memória
+ * e podem ser consultadas no endpoint /actuator/consultaslentas.
+ */
+@Component
+public class ConsultasLentasMonitor implements QueryExecutionListener {
+
+    private static final Logger log = LoggerFactory.getLogger(ConsultasLentasMonitor.class);
+
+    private static final Pattern LITERAL_TEXTO = Pattern.compile("'(?:[^']|'')*'");
+
+    private static final Pattern LITERAL_NUMERO = Pattern.compile("\\b\\d+(\\.\\d+)?\\b");
+
+    /**
+     * Lista de parâmetros ou literais (já trocados por ?) de um IN, de qualquer tamanho. A lista é
+     * uma classe de caracteres, e não um grupo repetido, porque a repetição de um grupo é
+     * recursiva e estoura a pilha com milhares de itens.
+     */
+    private static final Pattern LISTA_IN =
+            Pattern.compile("\\bin\\s*\\(\\s*\\?[\\s,?]*\\)", Pattern.CASE_INSENSITIVE);
+
+    private static final Pattern ESPACOS = Pattern.compile("\\s+");
+
+    @Value("${api.sql.consultas-lentas.limite-ms:100}")
+    private long limiteMs;
+
+    @Value("${api.sql.consultas-lentas.amostra-parametros:0.1}")
+    private double amostraParametros;
+
+    @Value("${api.sql.consultas-lentas.mostrar-parametros:false}")
+    private boolean mostrarParametros;
+
+    @Value("${api.sql.consultas-lentas.top:20}")
+    private int top;
+
+    /**
+     * As execuções mais lentas, com a mais rápida no topo para ser descartada primeiro.
+     */
+    private final PriorityQueue<ConsultaLenta> maisLentas =
+            new PriorityQueue<>(Comparator.comparingLong(ConsultaLenta::tempoMs));
+
+    @Override
+    public void beforeQuery(ExecutionInfo execInfo, List<QueryInfo> queryInfoList) {
+    }
+
+    @Override
+    public void afterQuery(ExecutionInfo execInfo, List<QueryInfo> queryInfoList) {
+        long tempoMs = execInfo.getElapsedTime();
+        if (tempoMs < limiteMs) {
+            return;
+        }
+
+        String sql = queryInfoList.stream()
+                .map(q -> normalizar(q.getQuery()))
+                .distinct()
+                .collect(Collectors.joining("; "));
+        int lote = execInfo.isBatch() ? execInfo.getBatchSize() : 1;
+        String parametros = ThreadLocalRandom.current().nextDouble() < amostraParametros
+                ? parametros(queryInfoList)
+                : null;
+        if (parametros != null && parametros.isEmpty()) {
+            parametros = null;
+        }
+
+        if (parametros != null) {
+            log.warn("Consulta lenta ({} ms, lote {}): {} | parâmetros: {}", tempoMs, lote, sql, parametros);
+        } else {
+            log.warn("Consulta lenta ({} ms, lote {}): {}", tempoMs, lote, sql);
+        }
+
+        registrar(new ConsultaLenta(sql, tempoMs, lote, parametros, LocalDateTime.now()));
+    }
+
+    /**
+     * @return As execuções mais lentas registradas, da mais lenta para a mais rápida
+     */
+    public synchronized List<ConsultaLenta> maisLentas() {
+        List<ConsultaLenta> lista = new ArrayList<>(maisLentas);
+        lista.sort(Comparator.comparingLong(ConsultaLenta::tempoMs).reversed());
+        return lista;
+    }
+
+    /**
+     * Descarta todas as execuções registradas.
+     */
+    public synchronized void limpar() {
+        maisLentas.clear();
+    }
+
+    /**
+     * @return Limite, em milissegundos, a partir do qual uma execução é considerada lenta
+     */
+    public long limiteMs() {
+        return limiteMs;
+    }
+
+    private synchronized void registrar(ConsultaLenta consulta) {
+        maisLentas.add(consulta);
+        if (maisLentas.size() > top) {
+            maisLentas.poll();
+        }
+    }
+
+    /**
+     * Normaliza o SQL para agrupar execuções equivalentes: colapsa espaços, troca literais por ?
+     * e reduz cada lista de um IN a in (?), para que IN (?, ?, ...) com qualquer quantidade de
+     * itens (por exemplo, as remoções em lote) resulte no mesmo texto.
+     */
+    static String normalizar(String sql) {
+        String normalizado = LITERAL_TEXTO.matcher(sql).replaceAll("?");
+        normalizado = LITERAL_NUMERO.matcher(normalizado).replaceAll("?");
+        normalizado = LISTA_IN.matcher(normalizado).replaceAll("in (?)");
+        return ESPACOS.matcher(normalizado).replaceAll(" ").trim();
+    }
+
+    /**
+     * Formata os parâmetros da primeira execução de cada statement (em um lote, apenas a primeira).
+     * Com os valores mascarados, mostra apenas quantos parâmetros cada statement recebeu.
+     */
+    private String parametros(List<QueryInfo> queryInfoList) {
+        return queryInfoList.stream()
+                .filter(q -> !q.getParametersList().isEmpty() && !q.getParametersList().get(0).isEmpty())
+                .map(q -> q.getParametersList().get(0).stream()
+                        .map(operacao -> mostrarParametros ? valor(operacao) : "?")
+                        .collect(Collectors.joining(", ", "[", "]")))
+                .collect(Collectors.joining(" "));
+    }
+
+    private static String valor(ParameterSetOperation operacao) {
+        Object[] args = operacao.getArgs();
+        if (ParameterSetOperation.isSetNullParameterOperation(operacao)) {
+            return "null";
+        }
+        return args.length > 1 ? String.valueOf(args[1]) : "?";
+    }
+}
@@ -0,0 +1,43 @@
+package com.programacao.web.fatec.api_fatec.infra;
+
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.core.MethodParameter;
+import org.springframework.http.CacheControl;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.MediaType;
+import org.springframework.http.converter.HttpMessageConverter;
+import org.springframework.http.server.ServerHttpRequest;
+import org.springframework.http.server.ServerHttpResponse;
+import org.springframework.web.bind.annotation.ControllerAdvice;
+import org.springframework.web.servlet.mvc.method.annotation.ResponseBodyAdvice;
+
+/**
+ * Impede que o cliente HTTP guarde uma resposta lida de uma réplica atrasada.
+ *
+ * O ETag das listagens e buscas vem da versão atual dos clientes (ClienteVersao), mas o corpo
+ * lido de uma réplica que ainda não aplicou as últimas escritas é de uma versão anterior. Com
+ * Cache-Control: no-store o cliente não guarda esse corpo, e o ETag é removido da resposta (aqui,
+ * o definido pelo controller na ResponseEntity; o de checkNotModified, pelo
+ * {@link LeituraDefasadaFiltro}): reenviado em If-None-Match, ele resultaria em 304 para um
+ * conteúdo desatualizado.
+ */
+@ControllerAdvice
+@ConditionalOnProperty(name = "api.replicas.habilitado", havingValue = "true")
+public class LeituraDefasadaAdvice implements ResponseBodyAdvice<Object> {
+
+    @Override
+    public boolean supports(MethodParameter returnType, Class<? extends HttpMessageConverter<?>> converterType) {
+        return true;
+    }
+
+    @Override
+    public Object beforeBodyWrite(Object body, MethodParameter returnType, MediaType selectedContentType,
+            Class<? extends HttpMessageConverter<?>> selectedConverterType, ServerHttpRequest request,
+            ServerHttpResponse response) {
+        if (LeituraReplica.requisicaoDefasada()) {
+            response.getHeaders().setCacheControl(CacheControl.noStore());
+            response.getHeaders().remove(HttpHeaders.ETAG);
+        }
+        return body;
+    }
+}
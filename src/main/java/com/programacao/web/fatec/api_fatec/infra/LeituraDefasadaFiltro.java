@@ -0,0 +1,118 @@
+package com.programacao.web.fatec.api_fatec.infra;
+
+import java.io.IOException;
+import java.io.PrintWriter;
+import java.util.Collection;
+import java.util.List;
+
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.http.HttpHeaders;
+import org.springframework.stereotype.Component;
+import org.springframework.web.filter.OncePerRequestFilter;
+
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.ServletOutputStream;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import jakarta.servlet.http.HttpServletResponseWrapper;
+
+/**
+ * Retira o ETag das respostas lidas de uma réplica atrasada.
+ *
+ * O ETag das listagens e buscas é definido (checkNotModified) antes da consulta, com a versão
+ * atual dos clientes, e só depois da consulta se sabe se ela foi feita em uma réplica atrasada.
+ * Como o Tomcat não permite remover um cabeçalho já definido, o ETag fica retido até o corpo
+ * começar a ser escrito (ou a requisição terminar sem corpo, como em um 304), e é descartado se a
+ * requisição leu dados defasados: reenviado em If-None-Match, ele resultaria em 304 para um
+ * conteúdo desatualizado. O Cache-Control: no-store dessas respostas fica com o
+ * {@link LeituraDefasadaAdvice}.
+ */
+@Component
+@ConditionalOnProperty(name = "api.replicas.habilitado", havingValue = "true")
+public class LeituraDefasadaFiltro extends OncePerRequestFilter {
+
+    @Override
+    protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response, FilterChain chain)
+            throws ServletException, IOException {
+        EtagRetido resposta = new EtagRetido(response);
+        try {
+            chain.doFilter(request, resposta);
+        } finally {
+            resposta.liberarEtag();
+        }
+    }
+
+    private static final class EtagRetido extends HttpServletResponseWrapper {
+
+        private String etag;
+
+        EtagRetido(HttpServletResponse response) {
+            super(response);
+        }
+
+        /**
+         * Define o ETag retido na resposta, a menos que a requisição tenha lido dados defasados.
+         */
+        void liberarEtag() {
+            if (etag == null) {
+                return;
+            }
+            if (!LeituraReplica.requisicaoDefasada() && !isCommitted()) {
+                super.setHeader(HttpHeaders.ETAG, etag);
+            }
+            etag = null;
+        }
+
+        @Override
+        public void setHeader(String name, String value) {
+            if (HttpHeaders.ETAG.equalsIgnoreCase(name)) {
+                etag = value;
+            } else {
+                super.setHeader(name, value);
+            }
+        }
+
+        @Override
+        public void addHeader(String name, String value) {
+            if (HttpHeaders.ETAG.equalsIgnoreCase(name)) {
+                etag = value;
+            } else {
+                super.addHeader(name, value);
+            }
+        }
+
+        @Override
+        public boolean containsHeader(String name) {
+            return HttpHeaders.ETAG.equalsIgnoreCase(name) && etag != null || super.containsHeader(name);
+        }
+
+        @Override
+        public String getHeader(String name) {
+            return HttpHeaders.ETAG.equalsIgnoreCase(name) && etag != null ? etag : super.getHeader(name);
+        }
+
+        @Override
+        public Collection<String> getHeaders(String name) {
+            return HttpHeaders.ETAG.equalsIgnoreCase(name) && etag != null ? List.of(etag) : super.getHeaders(name);
+        }
+
+        @Override
+        public ServletOutputStream getOutputStream() throws IOException {
+            liberarEtag();
+            return super.getOutputStream();
+        }
+
+        @Override
+        public PrintWriter getWriter() throws IOException {
+            liberarEtag();
+            return super.getWriter();
+        }
+
+        @Override
+        public void flushBuffer() throws IOException {
+            liberarEtag();
+            super.flushBuffer();
+        }
+    }
+}
@@ -0,0 +1,152 @@
+package com.programacao.web.fatec.api_fatec.infra;
+
+import java.util.function.Supplier;
+
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+/**
+ * Marca as leituras que podem ser atendidas por uma réplica do banco.
+ *
+ * Os métodos de leitura dos serviços (listagens e buscas) executam as consultas dentro de
+ * {@link #executar(Supplier)}; com api.replicas.habilitado=true, as conexões obtidas nesse trecho
+ * vêm de uma réplica disponível ({@link RoteamentoDataSource}). Fora dele, e sempre que as réplicas
+ * estão desligadas, tudo vai para o banco principal.
+ *
+ * Como a réplica aplica as escritas com atraso, uma leitura feita em uma réplica que ainda não
+ * aplicou todas as transações confirmadas fica marcada como defasada: o resultado não deve ser
+ * guardado em cache ({@link #defasada()}) e a resposta HTTP não deve ser armazenada pelo cliente
+ * ({@link #requisicaoDefasada()}).
+ *
+ * O estado é por thread, como o de TransactionSynchronizationManager.
+ */
+public final class LeituraReplica {
+
+    private static final ThreadLocal<Escopo> ESCOPO = new ThreadLocal<>();
+
+    private static final ThreadLocal<Long> POSICAO_MINIMA = new ThreadLocal<>();
+
+    private static final ThreadLocal<Boolean> REQUISICAO_DEFASADA = new ThreadLocal<>();
+
+    private static final ThreadLocal<Runnable> REGISTRO_ESCRITA = new ThreadLocal<>();
+
+    private LeituraReplica() {
+    }
+
+    /**
+     * Executa uma leitura permitindo que as suas consultas sejam feitas em uma réplica.
+     * Chamadas aninhadas fazem parte da mesma leitura.
+     *
+     * @param leitura Leitura a executar (não deve gravar nada)
+     * @return Resultado da leitura
+     */
+    public static <T> T executar(Supplier<T> leitura) {
+        if (ESCOPO.get() != null) {
+            return leitura.get();
+        }
+        ESCOPO.set(new Escopo());
+        try {
+            return leitura.get();
+        } finally {
+            ESCOPO.remove();
+        }
+    }
+
+    /**
+     * Verifica se a thread está em uma leitura que pode usar uma réplica.
+     *
+     * @return true dentro de {@link #executar(Supplier)}
+     */
+    public static boolean ativa() {
+        return ESCOPO.get() != null;
+    }
+
+    /**
+     * Verifica se a leitura em andamento usou uma réplica atrasada em relação ao banco principal.
+     *
+     * @return true se algum resultado da leitura pode não refletir todas as escritas confirmadas
+     */
+    public static boolean defasada() {
+        Escopo escopo = ESCOPO.get();
+        return escopo != null && escopo.defasada;
+    }
+
+    /**
+     * Verifica se alguma leitura da requisição em andamento usou uma réplica atrasada.
+     *
+     * @return true se a resposta pode não refletir todas as escritas confirmadas
+     */
+    public static boolean requisicaoDefasada() {
+        return Boolean.TRUE.equals(REQUISICAO_DEFASADA.get());
+    }
+
+    /**
+     * Posição mínima de replicação que uma réplica precisa ter aplicado para atender a thread
+     * (a da última escrita do mesmo cliente), ou 0 se qualquer réplica disponível serve.
+     */
+    public static long posicaoMinima() {
+        Long posicao = POSICAO_MINIMA.get();
+        return posicao != null ? posicao : 0L;
+    }
+
+    static void exigirPosicao(long posicao) {
+        POSICAO_MINIMA.set(posicao);
+    }
+
+    /**
+     * Registra que a requisição em andamento confirmou uma escrita, para que as próximas leituras
+     * do mesmo cliente exijam das réplicas a posição atual do principal (leia-suas-escritas).
+     *
+     * Deve ser chamado pelo caminho de escrita, na thread da requisição, e não ao fim dela: a
+     * resposta pode chegar ao cliente, e a próxima requisição dele começar, antes de o
+     * interceptor terminar. Dentro de uma transação o registro é feito após o commit; sem
+     * transação, a escrita já foi confirmada e o registro é feito na hora. Fora de uma requisição
+     * (ou com as réplicas desligadas) não faz nada.
+     */
+    public static void registrarEscrita() {
+        Runnable registro = REGISTRO_ESCRITA.get();
+        if (registro == null) {
+            return;
+        }
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    registro.run();
+                }
+            });
+        } else {
+            registro.run();
+        }
+    }
+
+    static void aoRegistrarEscrita(Runnable registro) {
+        REGISTRO_ESCRITA.set(registro);
+    }
+
+    /**
+     * Marca a leitura em andamento, e a requisição, como defasadas. Usado também por quem recebe
+     * o resultado de uma leitura defasada feita por outra thread.
+     */
+    public static void registrarDefasada() {
+        Escopo escopo = ESCOPO.get();
+        if (escopo != null) {
+            escopo.defasada = true;
+        }
+        REQUISICAO_DEFASADA.set(Boolean.TRUE);
+    }
+
+    /**
+     * Limpa o estado da requisição (posição mínima, marca de defasagem e registro de escritas)
+     * ao fim dela.
+     */
+    static void limparRequisicao() {
+        POSICAO_MINIMA.remove();
+        REQUISICAO_DEFASADA.remove();
+        REGISTRO_ESCRITA.remove();
+    }
+
+    private static final class Escopo {
+        private boolean defasada;
+    }
+}
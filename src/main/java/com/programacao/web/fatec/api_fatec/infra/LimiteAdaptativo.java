@@ -0,0 +1,89 @@
+package com.programacao.web.fatec.api_fatec.infra;
+
+/**
+ * Limite de concorrência ajustado pela latência das requisições (gradiente).
+ *
+ * A latência de referência é uma média móvel exponencial das requisições que executaram sem disputa:
+ * sozinhas no compartimento, ou com ele folgado (menos da metade do limite em execução); a latência
+ * recente é uma média das últimas requisições, com qualquer carga. Com o compartimento cheio,
+ * enquanto a recente fica abaixo de tolerância vezes a de referência o limite cresce (cerca de
+ * raiz do limite por requisição); quando a latência sobe além disso, sinal de que as requisições
+ * estão disputando CPU ou conexões, o limite cai na proporção, sem o acréscimo, até o mínimo.
+ * Com o compartimento folgado o limite não muda: ele só cresce depois de testado com carga.
+ *
+ * Não é thread-safe: o {@link CompartimentoConcorrencia} chama os métodos sob o seu lock.
+ */
+class LimiteAdaptativo {
+
+    /**
+     * Peso de cada amostra na latência recente (cerca das últimas 5 requisições).
+     */
+    private static final double PESO_RECENTE = 0.2;
+
+    /**
+     * Peso de cada amostra na latência de referência (cerca das últimas 20 requisições sem disputa).
+     */
+    private static final double PESO_REFERENCIA = 0.05;
+
+    /**
+     * Fração do novo limite calculado aplicada a cada amostra, para o limite não oscilar.
+     */
+    private static final double SUAVIZACAO = 0.2;
+
+    private final int minimo;
+
+    private final int maximo;
+
+    private final double tolerancia;
+
+    private double limite;
+
+    private double latenciaRecente;
+
+    private double latenciaReferencia;
+
+    private long amostrasReferencia;
+
+    LimiteAdaptativo(int inicial, int minimo, int maximo, double tolerancia) {
+        this.minimo = minimo;
+        this.maximo = maximo;
+        this.tolerancia = tolerancia;
+        this.limite = Math.clamp(inicial, minimo, maximo);
+    }
+
+    int atual() {
+        return (int) limite;
+    }
+
+    /**
+     * Registra a latência de uma requisição concluída e recalcula o limite.
+     *
+     * @param latenciaNanos Tempo de execução da requisição, sem a espera na fila
+     * @param emExecucao Maior quantidade de requisições em execução na entrada e na saída desta
+     *            (incluindo ela)
+     */
+    void registrar(long latenciaNanos, int emExecucao) {
+        latenciaRecente = latenciaRecente == 0 ? latenciaNanos
+                : latenciaRecente + (latenciaNanos - latenciaRecente) * PESO_RECENTE;
+
+        boolean folgado = emExecucao < limite / 2;
+        boolean primeira = amostrasReferencia == 0;
+        // Uma requisição sozinha também não disputa nada: sem isso, com limite abaixo de 2 o
+        // compartimento nunca fica folgado e a referência pararia na primeira amostra
+        if (folgado || emExecucao <= 1 || primeira) {
+            // Nas primeiras amostras a referência é a média simples, para que a primeira requisição
+            // (ainda sem JIT, com caches vazios) não fique como ponto de partida da média móvel
+            amostrasReferencia++;
+            double peso = Math.max(PESO_REFERENCIA, 1.0 / amostrasReferencia);
+            latenciaReferencia += (latenciaNanos - latenciaReferencia) * peso;
+        }
+        if (folgado || primeira) {
+            return;
+        }
+        double gradiente = Math.clamp(tolerancia * latenciaReferencia / latenciaRecente, 0.5, 1.0);
+        // O acréscimo só vale sem sinal de disputa: somado a uma queda, ele a anularia com limites
+        // pequenos (limite * 0.5 + raiz(limite) >= limite até 4)
+        double novoLimite = gradiente < 1 ? limite * gradiente : limite + Math.sqrt(limite);
+        limite = Math.clamp(limite * (1 - SUAVIZACAO) + novoLimite * SUAVIZACAO, minimo, maximo);
+    }
+}
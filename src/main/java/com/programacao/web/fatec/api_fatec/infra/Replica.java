@@ -0,0 +1,200 @@
+package com.programacao.web.fatec.api_fatec.infra;
+
+import java.lang.reflect.InvocationTargetException;
+import java.sql.Connection;
+import java.sql.DriverManager;
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.time.Duration;
+import java.util.List;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.TimeUnit;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import com.zaxxer.hikari.HikariDataSource;
+
+import net.ttddyy.dsproxy.proxy.ParameterSetOperation;
+
+/**
+ * Uma réplica de leitura: um banco H2 separado, com o seu pool de conexões para as leituras e
+ * uma thread que aplica, em ordem, as transações confirmadas no banco principal
+ * ({@link ReplicacaoSimulada}).
+ *
+ * Cada transação só é aplicada depois do atraso de replicação configurado, contado a partir do
+ * commit no principal, para que o comportamento de uma réplica real (dados um pouco atrasados)
+ * possa ser observado localmente. Se uma transação falhar na réplica, ela deixa de aplicar as
+ * seguintes e fica indisponível, em vez de servir dados divergentes.
+ */
+class Replica {
+
+    private static final Logger log = LoggerFactory.getLogger(Replica.class);
+
+    private final String nome;
+
+    private final HikariDataSource leitura;
+
+    private final Duration atrasoReplicacao;
+
+    private final BlockingQueue<ReplicacaoSimulada.Transacao> fila = new LinkedBlockingQueue<>();
+
+    /**
+     * Transação retirada da fila e ainda não aplicada (esperando o atraso ou em execução).
+     */
+    private volatile ReplicacaoSimulada.Transacao emAplicacao;
+
+    private volatile long posicaoAplicada;
+
+    private volatile boolean disponivel;
+
+    private volatile boolean falhou;
+
+    private volatile boolean executando;
+
+    private Thread aplicadora;
+
+    Replica(String nome, HikariDataSource leitura, Duration atrasoReplicacao) {
+        this.nome = nome;
+        this.leitura = leitura;
+        this.atrasoReplicacao = atrasoReplicacao;
+    }
+
+    String nome() {
+        return nome;
+    }
+
+    HikariDataSource leitura() {
+        return leitura;
+    }
+
+    /**
+     * Posição (sequência de transações do principal) da última transação aplicada.
+     */
+    long posicaoAplicada() {
+        return posicaoAplicada;
+    }
+
+    /**
+     * Indica se a réplica pode atender leituras, conforme a última verificação de saúde.
+     */
+    boolean disponivel() {
+        return disponivel && !falhou;
+    }
+
+    boolean falhou() {
+        return falhou;
+    }
+
+    void definirDisponivel(boolean disponivel) {
+        this.disponivel = disponivel;
+    }
+
+    /**
+     * Transações confirmadas no principal e ainda não aplicadas na réplica.
+     */
+    int pendentes() {
+        return fila.size() + (emAplicacao != null ? 1 : 0);
+    }
+
+    /**
+     * Tempo desde o commit, no principal, da transação mais antiga ainda não aplicada.
+     *
+     * @return Atraso atual da réplica (zero se ela aplicou tudo)
+     */
+    Duration atraso() {
+        ReplicacaoSimulada.Transacao primeira = emAplicacao;
+        if (primeira == null) {
+            primeira = fila.peek();
+        }
+        return primeira != null ? Duration.ofNanos(System.nanoTime() - primeira.confirmadaEm()) : Duration.ZERO;
+    }
+
+    void enfileirar(ReplicacaoSimulada.Transacao transacao) {
+        fila.add(transacao);
+    }
+
+    void iniciar() {
+        executando = true;
+        aplicadora = Thread.ofPlatform().name("replicacao-" + nome).daemon().start(this::aplicar);
+    }
+
+    void finalizar() throws InterruptedException {
+        executando = false;
+        if (aplicadora != null) {
+            aplicadora.join(TimeUnit.SECONDS.toMillis(10));
+        }
+        leitura.close();
+    }
+
+    private void aplicar() {
+        // Conexão própria, fora do pool de leituras
+        try (Connection conexao = DriverManager.getConnection(leitura.getJdbcUrl(), leitura.getUsername(),
+                leitura.getPassword())) {
+            conexao.setAutoCommit(false);
+            while (executando) {
+                ReplicacaoSimulada.Transacao transacao = fila.poll(100, TimeUnit.MILLISECONDS);
+                if (transacao == null) {
+                    continue;
+                }
+                emAplicacao = transacao;
+                long espera = transacao.confirmadaEm() + atrasoReplicacao.toNanos() - System.nanoTime();
+                if (espera > 0) {
+                    TimeUnit.NANOSECONDS.sleep(espera);
+                }
+                aplicar(conexao, transacao);
+                posicaoAplicada = transacao.posicao();
+                emAplicacao = null;
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        } catch (SQLException | RuntimeException e) {
+            falhou = true;
+            log.error("Réplica {} parou de aplicar transações na posição {} e ficou indisponível",
+                    nome, posicaoAplicada, e);
+        }
+    }
+
+    private static void aplicar(Connection conexao, ReplicacaoSimulada.Transacao transacao) throws SQLException {
+        try {
+            for (ReplicacaoSimulada.Comando comando : transacao.comandos()) {
+                executar(conexao, comando);
+            }
+            conexao.commit();
+        } catch (SQLException | RuntimeException e) {
+            conexao.rollback();
+            throw e;
+        }
+    }
+
+    private static void executar(Connection conexao, ReplicacaoSimulada.Comando comando) throws SQLException {
+        if (comando.parametros().isEmpty()) {
+            try (Statement statement = conexao.createStatement()) {
+                statement.execute(comando.sql());
+            }
+            return;
+        }
+        try (PreparedStatement statement = conexao.prepareStatement(comando.sql())) {
+            for (List<ParameterSetOperation> parametros : comando.parametros()) {
+                for (ParameterSetOperation operacao : parametros) {
+                    try {
+                        operacao.getMethod().invoke(statement, operacao.getArgs());
+                    } catch (IllegalAccessException | InvocationTargetException e) {
+                        throw new SQLException("Não foi possível repetir " + operacao.getMethod().getName()
+                                + " em " + comando.sql(), e);
+                    }
+                }
+                if (comando.lote()) {
+                    statement.addBatch();
+                } else {
+                    statement.execute();
+                }
+            }
+            if (comando.lote()) {
+                statement.executeBatch();
+            }
+        }
+    }
+}
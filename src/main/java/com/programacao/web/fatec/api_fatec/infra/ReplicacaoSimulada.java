@@ -0,0 +1,223 @@
+package com.programacao.web.fatec.api_fatec.infra;
+
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.ReentrantLock;
+
+import javax.sql.DataSource;
+
+import net.ttddyy.dsproxy.ExecutionInfo;
+import net.ttddyy.dsproxy.QueryInfo;
+import net.ttddyy.dsproxy.listener.MethodExecutionContext;
+import net.ttddyy.dsproxy.listener.MethodExecutionListener;
+import net.ttddyy.dsproxy.listener.QueryExecutionListener;
+import net.ttddyy.dsproxy.proxy.ParameterSetOperation;
+import net.ttddyy.dsproxy.support.ProxyDataSourceBuilder;
+
+/**
+ * Replicação por statements do banco principal para as réplicas, substituta local da replicação
+ * de um banco real.
+ *
+ * O DataSource do principal é envolvido por um proxy JDBC (datasource-proxy) que guarda os
+ * statements de escrita de cada conexão (com os parâmetros, inclusive lotes) e, no commit,
+ * publica a transação com a próxima posição de replicação. Statements em auto-commit formam uma
+ * transação sozinhos; os de uma transação desfeita são descartados. O commit no principal e a
+ * publicação acontecem sob o mesmo lock, então as réplicas recebem as transações na ordem em que
+ * foram confirmadas.
+ *
+ * As réplicas começam vazias e aplicam tudo desde o primeiro statement, inclusive o DDL gerado
+ * pelo Hibernate e a carga inicial de dados.
+ */
+class ReplicacaoSimulada {
+
+    private final List<Replica> replicas;
+
+    private final AtomicLong posicao = new AtomicLong();
+
+    private final ReentrantLock ordemCommits = new ReentrantLock();
+
+    /**
+     * Escritas das transações em andamento, por conexão.
+     */
+    private final Map<String, List<Comando>> pendentes = new ConcurrentHashMap<>();
+
+    ReplicacaoSimulada(List<Replica> replicas) {
+        this.replicas = replicas;
+    }
+
+    List<Replica> replicas() {
+        return replicas;
+    }
+
+    /**
+     * Posição da última transação confirmada no banco principal.
+     */
+    long posicao() {
+        return posicao.get();
+    }
+
+    /**
+     * Envolve o DataSource do banco principal para capturar as transações confirmadas nele.
+     *
+     * @param principal DataSource do banco principal
+     * @return DataSource que deve ser usado para todo acesso ao principal
+     */
+    DataSource capturar(DataSource principal) {
+        return ProxyDataSourceBuilder.create(principal)
+                .name("principal")
+                .listener(new Captura())
+                .methodListener(new Commits())
+                .build();
+    }
+
+    void iniciar() {
+        replicas.forEach(Replica::iniciar);
+    }
+
+    void finalizar() throws InterruptedException {
+        for (Replica replica : replicas) {
+            replica.finalizar();
+        }
+    }
+
+    private void publicar(List<Comando> comandos) {
+        Transacao transacao = new Transacao(posicao.incrementAndGet(), System.nanoTime(), List.copyOf(comandos));
+        for (Replica replica : replicas) {
+            replica.enfileirar(transacao);
+        }
+    }
+
+    private static boolean escrita(List<QueryInfo> queries) {
+        for (QueryInfo query : queries) {
+            String sql = query.getQuery().stripLeading().toLowerCase(Locale.ROOT);
+            if (!sql.startsWith("select") && !sql.startsWith("values") && !sql.startsWith("with")) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private static boolean autoCommit(ExecutionInfo execInfo) {
+        try {
+            return execInfo.getStatement().getConnection().getAutoCommit();
+        } catch (SQLException e) {
+            return false;
+        }
+    }
+
+    private static List<Comando> comandos(ExecutionInfo execInfo, List<QueryInfo> queries) {
+        List<Comando> comandos = new ArrayList<>(queries.size());
+        for (QueryInfo query : queries) {
+            List<List<ParameterSetOperation>> parametros = query.getParametersList().stream()
+                    .map(List::copyOf)
+                    .toList();
+            comandos.add(new Comando(query.getQuery(), parametros, execInfo.isBatch()));
+        }
+        return comandos;
+    }
+
+    /**
+     * Guarda as escritas bem-sucedidas até o commit da conexão, ou publica na hora as feitas em
+     * auto-commit (que já estão confirmadas quando o statement termina).
+     */
+    private class Captura implements QueryExecutionListener {
+
+        private static final String TRAVADO = "replicacao.travado";
+
+        @Override
+        public void beforeQuery(ExecutionInfo execInfo, List<QueryInfo> queries) {
+            if (escrita(queries) && autoCommit(execInfo)) {
+                ordemCommits.lock();
+                execInfo.addCustomValue(TRAVADO, Boolean.TRUE);
+            }
+        }
+
+        @Override
+        public void afterQuery(ExecutionInfo execInfo, List<QueryInfo> queries) {
+            boolean travado = Boolean.TRUE.equals(execInfo.getCustomValue(TRAVADO, Boolean.class));
+            try {
+                if (!execInfo.isSuccess() || !escrita(queries)) {
+                    return;
+                }
+                if (travado) {
+                    publicar(comandos(execInfo, queries));
+                } else {
+                    pendentes.computeIfAbsent(execInfo.getConnectionId(), id -> new ArrayList<>())
+                            .addAll(comandos(execInfo, queries));
+                }
+            } finally {
+                if (travado) {
+                    ordemCommits.unlock();
+                }
+            }
+        }
+    }
+
+    /**
+     * Publica as escritas de uma conexão no commit e as descarta no rollback ou no fechamento.
+     */
+    private class Commits implements MethodExecutionListener {
+
+        @Override
+        public void beforeMethod(MethodExecutionContext context) {
+            if (commit(context)) {
+                ordemCommits.lock();
+            }
+        }
+
+        @Override
+        public void afterMethod(MethodExecutionContext context) {
+            String metodo = context.getMethod().getName();
+            if (commit(context)) {
+                try {
+                    List<Comando> comandos = pendentes.remove(context.getConnectionInfo().getConnectionId());
+                    if (context.getThrown() == null && comandos != null && !comandos.isEmpty()) {
+                        publicar(comandos);
+                    }
+                } finally {
+                    ordemCommits.unlock();
+                }
+            } else if (context.getTarget() instanceof Connection && (rollbackCompleto(context) || "close".equals(metodo))) {
+                pendentes.remove(context.getConnectionInfo().getConnectionId());
+            }
+        }
+
+        private static boolean commit(MethodExecutionContext context) {
+            return context.getTarget() instanceof Connection && "commit".equals(context.getMethod().getName());
+        }
+
+        /**
+         * rollback() sem savepoint, que desfaz a transação inteira.
+         */
+        private static boolean rollbackCompleto(MethodExecutionContext context) {
+            Object[] argumentos = context.getMethodArgs();
+            return "rollback".equals(context.getMethod().getName()) && (argumentos == null || argumentos.length == 0);
+        }
+    }
+
+    /**
+     * Statement de escrita executado no principal.
+     *
+     * @param sql SQL do statement
+     * @param parametros Parâmetros de cada execução (vazio para um Statement sem parâmetros)
+     * @param lote true se as execuções foram feitas em lote (addBatch/executeBatch)
+     */
+    record Comando(String sql, List<List<ParameterSetOperation>> parametros, boolean lote) {
+    }
+
+    /**
+     * Transação confirmada no principal.
+     *
+     * @param posicao Posição de replicação (sequencial, na ordem dos commits)
+     * @param confirmadaEm Momento do commit (System.nanoTime)
+     * @param comandos Escritas da transação, na ordem em que foram executadas
+     */
+    record Transacao(long posicao, long confirmadaEm, List<Comando> comandos) {
+    }
+}
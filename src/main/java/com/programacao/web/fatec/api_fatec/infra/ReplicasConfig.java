@@ -0,0 +1,118 @@
+package com.programacao.web.fatec.api_fatec.infra;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+
+import javax.sql.DataSource;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.autoconfigure.jdbc.DataSourceProperties;
+import org.springframework.boot.context.properties.bind.Bindable;
+import org.springframework.boot.context.properties.bind.Binder;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.Primary;
+import org.springframework.core.env.Environment;
+import org.springframework.web.servlet.config.annotation.InterceptorRegistry;
+import org.springframework.web.servlet.config.annotation.WebMvcConfigurer;
+
+import com.zaxxer.hikari.HikariDataSource;
+import com.zaxxer.hikari.metrics.micrometer.MicrometerMetricsTrackerFactory;
+
+import io.micrometer.core.instrument.MeterRegistry;
+
+/**
+ * Réplicas de leitura (api.replicas.habilitado=true).
+ *
+ * Substitui o DataSource da aplicação por um {@link RoteamentoDataSource} sobre o banco
+ * principal (spring.datasource.*) e api.replicas.quantidade réplicas H2 em memória
+ * (api.replicas.url, com {n} trocado pelo número da réplica), mantidas em sincronia pela
+ * {@link ReplicacaoSimulada}. O bean continua se chamando "dataSource", então é ele que o
+ * {@link SqlMonitoramentoConfig} envolve: as consultas lentas são registradas tanto no principal
+ * quanto nas réplicas.
+ *
+ * Os pools do principal e das réplicas não são beans (não há outro DataSource no contexto) e
+ * publicam as métricas hikaricp.* com o nome do pool.
+ */
+@Configuration
+@ConditionalOnProperty(name = "api.replicas.habilitado", havingValue = "true")
+public class ReplicasConfig {
+
+    @Value("${api.replicas.quantidade:2}")
+    private int quantidade;
+
+    @Value("${api.replicas.url:jdbc:h2:mem:replica{n};DB_CLOSE_DELAY=-1}")
+    private String url;
+
+    @Value("${api.replicas.pool.tamanho-maximo:20}")
+    private int tamanhoPool;
+
+    /**
+     * Espera máxima por uma conexão de réplica antes de a leitura ir para o principal.
+     */
+    @Value("${api.replicas.pool.espera-maxima:PT1S}")
+    private Duration esperaPool;
+
+    /**
+     * Atraso simulado entre o commit no principal e a aplicação na réplica.
+     */
+    @Value("${api.replicas.replicacao.atraso:PT0.1S}")
+    private Duration atrasoReplicacao;
+
+    @Value("${api.replicas.atraso-maximo:PT5S}")
+    private Duration atrasoMaximo;
+
+    @Value("${api.replicas.aderencia:PT5S}")
+    private Duration aderencia;
+
+    @Bean(destroyMethod = "finalizar")
+    ReplicacaoSimulada replicacaoSimulada(DataSourceProperties properties, MeterRegistry meterRegistry) {
+        List<Replica> replicas = new ArrayList<>(quantidade);
+        for (int n = 1; n <= quantidade; n++) {
+            HikariDataSource leitura = new HikariDataSource();
+            leitura.setPoolName("replica-" + n);
+            leitura.setJdbcUrl(url.replace("{n}", String.valueOf(n)));
+            leitura.setUsername(properties.determineUsername());
+            leitura.setPassword(properties.determinePassword());
+            leitura.setMaximumPoolSize(tamanhoPool);
+            leitura.setConnectionTimeout(esperaPool.toMillis());
+            leitura.setMetricsTrackerFactory(new MicrometerMetricsTrackerFactory(meterRegistry));
+            replicas.add(new Replica("replica-" + n, leitura, atrasoReplicacao));
+        }
+        ReplicacaoSimulada replicacao = new ReplicacaoSimulada(List.copyOf(replicas));
+        replicacao.iniciar();
+        return replicacao;
+    }
+
+    /**
+     * DataSource da aplicação: roteia as leituras marcadas para as réplicas.
+     */
+    @Bean
+    @Primary
+    DataSource dataSource(DataSourceProperties properties, Environment environment,
+            ReplicacaoSimulada replicacaoSimulada, MeterRegistry meterRegistry) {
+        HikariDataSource principal = properties.initializeDataSourceBuilder().type(HikariDataSource.class).build();
+        Binder.get(environment).bind("spring.datasource.hikari", Bindable.ofInstance(principal));
+        principal.setPoolName("principal");
+        principal.setMetricsTrackerFactory(new MicrometerMetricsTrackerFactory(meterRegistry));
+        return new RoteamentoDataSource(principal, replicacaoSimulada, meterRegistry);
+    }
+
+    @Bean
+    ReplicasSaude replicasHealthIndicator(ReplicacaoSimulada replicacaoSimulada, MeterRegistry meterRegistry) {
+        return new ReplicasSaude(replicacaoSimulada, atrasoMaximo, meterRegistry);
+    }
+
+    @Bean
+    WebMvcConfigurer aderenciaEscritaConfigurer(ReplicacaoSimulada replicacaoSimulada) {
+        AderenciaEscritaInterceptor interceptor = new AderenciaEscritaInterceptor(replicacaoSimulada, aderencia);
+        return new WebMvcConfigurer() {
+            @Override
+            public void addInterceptors(InterceptorRegistry registry) {
+                registry.addInterceptor(interceptor);
+            }
+        };
+    }
+}
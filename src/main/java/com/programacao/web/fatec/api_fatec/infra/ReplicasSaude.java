@@ -0,0 +1,97 @@
+package com.programacao.web.fatec.api_fatec.infra;
+
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.time.Duration;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.boot.actuate.health.Health;
+import org.springframework.boot.actuate.health.HealthIndicator;
+import org.springframework.scheduling.annotation.Scheduled;
+
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.TimeGauge;
+
+/**
+ * Verificação periódica das réplicas (api.replicas.verificacao.intervalo).
+ *
+ * Uma réplica fica disponível para leituras quando entrega uma conexão válida, não parou de
+ * aplicar transações e o seu atraso é no máximo api.replicas.atraso-maximo. Enquanto alcança o
+ * principal (por exemplo, logo após a carga inicial de dados) ela fica fora do roteamento.
+ *
+ * Exposto em /actuator/health como "replicas" (sempre UP: sem réplicas as leituras vão para o
+ * principal) e como métricas api.replicas.atraso, api.replicas.pendentes e api.replicas.disponivel.
+ */
+class ReplicasSaude implements HealthIndicator {
+
+    private static final Logger log = LoggerFactory.getLogger(ReplicasSaude.class);
+
+    private final ReplicacaoSimulada replicacao;
+
+    private final Duration atrasoMaximo;
+
+    ReplicasSaude(ReplicacaoSimulada replicacao, Duration atrasoMaximo, MeterRegistry meterRegistry) {
+        this.replicacao = replicacao;
+        this.atrasoMaximo = atrasoMaximo;
+
+        for (Replica replica : replicacao.replicas()) {
+            TimeGauge.builder("api.replicas.atraso", replica, TimeUnit.MILLISECONDS, r -> r.atraso().toMillis())
+                    .description("Tempo desde o commit da transação mais antiga ainda não aplicada na réplica")
+                    .tag("replica", replica.nome())
+                    .register(meterRegistry);
+            Gauge.builder("api.replicas.pendentes", replica, Replica::pendentes)
+                    .description("Transações confirmadas no principal e ainda não aplicadas na réplica")
+                    .tag("replica", replica.nome())
+                    .register(meterRegistry);
+            Gauge.builder("api.replicas.disponivel", replica, r -> r.disponivel() ? 1 : 0)
+                    .description("1 se a réplica está recebendo leituras")
+                    .tag("replica", replica.nome())
+                    .register(meterRegistry);
+        }
+    }
+
+    @Scheduled(fixedDelayString = "${api.replicas.verificacao.intervalo:PT2S}")
+    void verificar() {
+        for (Replica replica : replicacao.replicas()) {
+            boolean disponivel = !replica.falhou() && conexaoValida(replica)
+                    && replica.atraso().compareTo(atrasoMaximo) <= 0;
+            if (disponivel != replica.disponivel()) {
+                if (disponivel) {
+                    log.info("Réplica {} disponível (posição {})", replica.nome(), replica.posicaoAplicada());
+                } else {
+                    log.warn("Réplica {} indisponível (atraso de {} ms, {} transações pendentes)",
+                            replica.nome(), replica.atraso().toMillis(), replica.pendentes());
+                }
+            }
+            replica.definirDisponivel(disponivel);
+        }
+    }
+
+    private static boolean conexaoValida(Replica replica) {
+        try (Connection conexao = replica.leitura().getConnection()) {
+            return conexao.isValid(1);
+        } catch (SQLException e) {
+            return false;
+        }
+    }
+
+    @Override
+    public Health health() {
+        Health.Builder saude = Health.up().withDetail("posicaoPrincipal", replicacao.posicao());
+        for (Replica replica : replicacao.replicas()) {
+            Map<String, Object> detalhes = new LinkedHashMap<>();
+            detalhes.put("disponivel", replica.disponivel());
+            detalhes.put("posicaoAplicada", replica.posicaoAplicada());
+            detalhes.put("pendentes", replica.pendentes());
+            detalhes.put("atrasoMs", replica.atraso().toMillis());
+            detalhes.put("falhou", replica.falhou());
+            saude.withDetail(replica.nome(), detalhes);
+        }
+        return saude.build();
+    }
+}
@@ -0,0 +1,135 @@
+package com.programacao.web.fatec.api_fatec.infra;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import javax.sql.DataSource;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.jdbc.datasource.AbstractDataSource;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import com.zaxxer.hikari.HikariDataSource;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+
+/**
+ * DataSource que envia as leituras marcadas com {@link LeituraReplica} para uma réplica e todo o
+ * resto para o banco principal.
+ *
+ * Uma conexão vem de uma réplica somente se a thread está em uma leitura marcada, não há uma
+ * transação de escrita em andamento, e existe uma réplica disponível que já aplicou a última
+ * escrita do mesmo cliente (leia-suas-escritas, {@link AderenciaEscritaInterceptor}). Entre as
+ * réplicas elegíveis a escolha é alternada. Sem réplica elegível, ou se a réplica escolhida não
+ * entregar uma conexão, a leitura vai para o principal.
+ *
+ * A decisão é tomada a cada conexão obtida, por isso depende de spring.jpa.open-in-view=false:
+ * com open-in-view a primeira conexão da requisição seria mantida até o fim dela.
+ */
+class RoteamentoDataSource extends AbstractDataSource implements Closeable {
+
+    private static final Logger log = LoggerFactory.getLogger(RoteamentoDataSource.class);
+
+    private final HikariDataSource principal;
+
+    private final DataSource principalCapturado;
+
+    private final ReplicacaoSimulada replicacao;
+
+    private final AtomicInteger proxima = new AtomicInteger();
+
+    private final Counter leiturasPrincipal;
+
+    private final List<Counter> leiturasReplicas;
+
+    /**
+     * @param principal Pool do banco principal
+     * @param replicacao Replicação para as réplicas, que também captura as escritas do principal
+     * @param meterRegistry Registro das métricas api.replicas.leituras
+     */
+    RoteamentoDataSource(HikariDataSource principal, ReplicacaoSimulada replicacao, MeterRegistry meterRegistry) {
+        this.principal = principal;
+        this.principalCapturado = replicacao.capturar(principal);
+        this.replicacao = replicacao;
+        this.leiturasPrincipal = leituras(meterRegistry, "principal");
+        this.leiturasReplicas = replicacao.replicas().stream()
+                .map(replica -> leituras(meterRegistry, replica.nome()))
+                .toList();
+    }
+
+    private static Counter leituras(MeterRegistry meterRegistry, String destino) {
+        return Counter.builder("api.replicas.leituras")
+                .description("Conexões obtidas por leituras marcadas, por destino")
+                .tag("destino", destino)
+                .register(meterRegistry);
+    }
+
+    @Override
+    public Connection getConnection() throws SQLException {
+        if (!LeituraReplica.ativa() || transacaoDeEscrita()) {
+            return principalCapturado.getConnection();
+        }
+
+        int indice = escolher(LeituraReplica.posicaoMinima());
+        if (indice < 0) {
+            leiturasPrincipal.increment();
+            return principalCapturado.getConnection();
+        }
+
+        Replica replica = replicacao.replicas().get(indice);
+        long posicaoPrincipal = replicacao.posicao();
+        try {
+            Connection conexao = replica.leitura().getConnection();
+            if (replica.posicaoAplicada() < posicaoPrincipal) {
+                LeituraReplica.registrarDefasada();
+            }
+            leiturasReplicas.get(indice).increment();
+            return conexao;
+        } catch (SQLException e) {
+            // Até a próxima verificação de saúde, a réplica deixa de receber leituras
+            replica.definirDisponivel(false);
+            log.warn("Réplica {} não entregou uma conexão ({}); lendo do principal", replica.nome(), e.getMessage());
+            leiturasPrincipal.increment();
+            return principalCapturado.getConnection();
+        }
+    }
+
+    @Override
+    public Connection getConnection(String username, String password) throws SQLException {
+        return principalCapturado.getConnection(username, password);
+    }
+
+    /**
+     * Escolhe, alternando, uma réplica disponível que já aplicou a posição mínima.
+     *
+     * @return Índice da réplica, ou -1 se nenhuma pode atender
+     */
+    private int escolher(long posicaoMinima) {
+        List<Replica> replicas = replicacao.replicas();
+        int inicio = Math.floorMod(proxima.getAndIncrement(), replicas.size());
+        for (int i = 0; i < replicas.size(); i++) {
+            int indice = (inicio + i) % replicas.size();
+            Replica replica = replicas.get(indice);
+            if (replica.disponivel() && replica.posicaoAplicada() >= posicaoMinima) {
+                return indice;
+            }
+        }
+        return -1;
+    }
+
+    private static boolean transacaoDeEscrita() {
+        return TransactionSynchronizationManager.isActualTransactionActive()
+                && !TransactionSynchronizationManager.isCurrentTransactionReadOnly();
+    }
+
+    @Override
+    public void close() throws IOException {
+        principal.close();
+    }
+}
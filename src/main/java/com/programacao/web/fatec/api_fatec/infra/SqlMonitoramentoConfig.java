@@ -0,0 +1,61 @@
+package com.programacao.web.fatec.api_fatec.infra;
+
+import java.util.List;
+
+import javax.sql.DataSource;
+
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.config.BeanPostProcessor;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+import net.ttddyy.dsproxy.ExecutionInfo;
+import net.ttddyy.dsproxy.QueryInfo;
+import net.ttddyy.dsproxy.listener.QueryExecutionListener;
+import net.ttddyy.dsproxy.support.ProxyDataSource;
+import net.ttddyy.dsproxy.support.ProxyDataSourceBuilder;
+
+/**
+ * Configuração que envolve o DataSource da aplicação com um proxy JDBC (datasource-proxy),
+ * para que o {@link ConsultasLentasMonitor} receba o tempo de execução de cada statement.
+ *
+ * Substitui o log de todo SQL (show-sql, org.hibernate.SQL=DEBUG e bind de parâmetros em TRACE),
+ * que agora fica desligado por padrão e pode ser ligado em tempo de execução pelo endpoint
+ * /actuator/loggers, quando ele for exposto (não é por padrão).
+ */
+@Configuration
+public class SqlMonitoramentoConfig {
+
+    /**
+     * O BeanPostProcessor é estático e recebe o monitor por ObjectProvider para não forçar a
+     * criação antecipada de outros beans. Apenas o bean "dataSource" é envolvido.
+     */
+    @Bean
+    static BeanPostProcessor dataSourceProxyBeanPostProcessor(ObjectProvider<ConsultasLentasMonitor> monitor) {
+        QueryExecutionListener listener = new QueryExecutionListener() {
+            @Override
+            public void beforeQuery(ExecutionInfo execInfo, List<QueryInfo> queryInfoList) {
+            }
+
+            @Override
+            public void afterQuery(ExecutionInfo execInfo, List<QueryInfo> queryInfoList) {
+                monitor.getObject().afterQuery(execInfo, queryInfoList);
+            }
+        };
+
+        return new BeanPostProcessor() {
+            @Override
+            public Object postProcessAfterInitialization(Object bean, String beanName) {
+                if (bean instanceof DataSource dataSource
+                        && !(bean instanceof ProxyDataSource)
+                        && "dataSource".equals(beanName)) {
+                    return ProxyDataSourceBuilder.create(dataSource)
+                            .name(beanName)
+                            .listener(listener)
+                            .build();
+                }
+                return bean;
+            }
+        };
+    }
+}
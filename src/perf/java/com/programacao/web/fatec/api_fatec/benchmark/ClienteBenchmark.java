@@ -0,0 +1,136 @@
+package com.programacao.web.fatec.api_fatec.benchmark;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.boot.WebApplicationType;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.context.ConfigurableApplicationContext;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.programacao.web.fatec.api_fatec.ApiFatecApplication;
+import com.programacao.web.fatec.api_fatec.domain.cliente.ClienteRepository;
+import com.programacao.web.fatec.api_fatec.domain.cliente.ClienteService;
+import com.programacao.web.fatec.api_fatec.domain.cliente.dto.ClientePostDto;
+import com.programacao.web.fatec.api_fatec.domain.cliente.dto.ClienteResponseDto;
+import com.programacao.web.fatec.api_fatec.entities.Cliente;
+
+/**
+ * Benchmarks JMH dos caminhos mais usados do serviço de clientes, contra um H2 populado.
+ *
+ * A aplicação é iniciada sem servidor web, uma vez por combinação de parâmetros, e o banco é
+ * populado pelo GeradorDadosSinteticos com a quantidade de clientes do parâmetro "clientes"
+ * (de 1.000 a 1.000.000, por exemplo -p clientes=1000,100000,1000000). O parâmetro "indiceTrigrama" compara a busca por
+ * texto com e sem o índice em memória.
+ *
+ * As buscas repetem o mesmo termo, então o cache de buscas fica desligado por padrão: com ele, toda
+ * iteração depois da primeira seria um acerto no cache e o resultado não mediria a consulta. Com
+ * -p cacheBusca=true mede-se a busca atendida pelo cache. O compartilhamento de buscas simultâneas
+ * fica sempre desligado (o benchmark usa uma thread e não teria o que compartilhar).
+ *
+ * Execução: ./mvnw -Pperf test-compile exec:exec -Djmh.args="ClienteBenchmark -p clientes=100000"
+ * O resultado em JSON é gravado em target/jmh-result.json.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class ClienteBenchmark {
+
+    @Param({ "1000" })
+    private int clientes;
+
+    @Param({ "true" })
+    private String indiceTrigrama;
+
+    @Param({ "false" })
+    private String cacheBusca;
+
+    private ConfigurableApplicationContext contexto;
+
+    private ClienteService clienteService;
+
+    private ObjectMapper objectMapper;
+
+    private Cliente cliente;
+
+    private List<ClienteResponseDto> pagina;
+
+    private ClientePostDto novoCliente;
+
+    @Setup(Level.Trial)
+    public void iniciar() {
+        contexto = new SpringApplicationBuilder(ApiFatecApplication.class)
+                .web(WebApplicationType.NONE)
+                // Argumentos de linha de comando, que têm precedência sobre o application.properties
+                .run(
+                        "--spring.datasource.url=jdbc:h2:mem:benchmark;DB_CLOSE_DELAY=-1",
+                        "--logging.level.root=WARN",
+                        "--api.clientes.busca.indice-trigrama.habilitado=" + indiceTrigrama,
+                        "--api.clientes.busca.cache.habilitado=" + cacheBusca,
+                        "--api.clientes.busca.compartilhamento.habilitado=false",
+                        "--api.dados.sinteticos.clientes=" + clientes);
+
+        clienteService = contexto.getBean(ClienteService.class);
+        objectMapper = contexto.getBean(ObjectMapper.class);
+        pagina = clienteService.listarClientesPaginado(null, 50).getClientes();
+        cliente = contexto.getBean(ClienteRepository.class).findById(pagina.get(0).id()).orElseThrow();
+        novoCliente = new ClientePostDto("Benchmark Silva", "Rua do Benchmark, 1", cliente.getCidadeId());
+    }
+
+    @TearDown(Level.Trial)
+    public void encerrar() {
+        contexto.close();
+    }
+
+    @Benchmark
+    public List<ClienteResponseDto> buscarPorTexto() {
+        return clienteService.buscarPorTexto("carvalho");
+    }
+
+    @Benchmark
+    public List<ClienteResponseDto> buscarPorTextoCidade() {
+        return clienteService.buscarPorTexto("belo horizonte");
+    }
+
+    @Benchmark
+    public List<ClienteResponseDto> buscaPorIdOuNomeGenerico() {
+        return clienteService.buscaPorIdOuNomeGenerico("natália");
+    }
+
+    @Benchmark
+    public List<ClienteResponseDto> listarClientes() {
+        return clienteService.listarClientes().getClientes();
+    }
+
+    @Benchmark
+    public Cliente createCliente() {
+        return clienteService.createCliente(novoCliente);
+    }
+
+    @Benchmark
+    public byte[] serializarCliente() throws JsonProcessingException {
+        return objectMapper.writeValueAsBytes(cliente);
+    }
+
+    @Benchmark
+    public byte[] serializarPagina() throws JsonProcessingException {
+        return objectMapper.writeValueAsBytes(pagina);
+    }
+}
@@ -0,0 +1,337 @@
+package com.programacao.web.fatec.api_fatec.carga;
+
+import java.net.URI;
+import java.net.URLEncoder;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Deque;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.SplittableRandom;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.context.ConfigurableApplicationContext;
+
+import com.programacao.web.fatec.api_fatec.ApiFatecApplication;
+
+/**
+ * Gerador de carga HTTP para a API de clientes, com leituras e escritas misturadas.
+ *
+ * Mantém "concorrencia" clientes simultâneos (cada um em uma thread virtual do gerador), que
+ * repetem as operações da carga sem pausa durante "duracao" segundos, depois de "aquecimento"
+ * segundos descartados. No final imprime vazão e percentis de latência por operação e no total.
+ *
+ * Cada operação é sorteada pelo peso informado em "mistura". As escritas alteram e removem
+ * apenas clientes criados pela própria thread (enquanto ela não criou nenhum, remover vira
+ * criar), então a amostra usada pelas leituras continua existindo. Cada thread usa um gerador
+ * aleatório com a semente mais o seu índice, e a mesma semente repete a mesma sequência de
+ * operações por thread.
+ *
+ * Com "embutido=true" a aplicação é iniciada no próprio processo, em uma porta livre de
+ * localhost, com "clientes" clientes sintéticos (GeradorDadosSinteticos), e encerrada no final.
+ *
+ * Argumentos (todos opcionais), no formato -nome=valor:
+ *   -url=http://localhost:8081  -concorrencia=100  -duracao=30  -aquecimento=5  -semente=42
+ *   -mistura=listarClientes:30,buscarPorTexto:25,buscaPorIdOuNome:25,criar:8,alterarParcial:8,remover:4
+ *   -embutido=false  -clientes=1000000
+ *
+ * Exemplo: ./mvnw -Pperf test-compile exec:exec@carga -Dcarga.args="-embutido=true -clientes=1000000"
+ */
+public class CargaDriver {
+
+    private static final String MISTURA_PADRAO =
+            "listarClientes:30,buscarPorTexto:25,buscaPorIdOuNome:25,criar:8,alterarParcial:8,remover:4";
+
+    private static final Pattern NOME = Pattern.compile("\"nome\":\"([^\"]*)\"");
+
+    private static final Pattern ID = Pattern.compile("\"id\":(\\d+)");
+
+    private static final Pattern CIDADE_ID = Pattern.compile("\"cidade_id\":(\\d+)");
+
+    public static void main(String[] args) throws Exception {
+        Map<String, String> opcoes = lerOpcoes(args);
+        int concorrencia = Integer.parseInt(opcoes.getOrDefault("concorrencia", "100"));
+        int duracao = Integer.parseInt(opcoes.getOrDefault("duracao", "30"));
+        int aquecimento = Integer.parseInt(opcoes.getOrDefault("aquecimento", "5"));
+        long semente = Long.parseLong(opcoes.getOrDefault("semente", "42"));
+        Map<String, Integer> mistura = lerMistura(opcoes.getOrDefault("mistura", MISTURA_PADRAO));
+
+        ConfigurableApplicationContext aplicacao = null;
+        String url = opcoes.getOrDefault("url", "http://localhost:8081");
+        if (Boolean.parseBoolean(opcoes.getOrDefault("embutido", "false"))) {
+            aplicacao = iniciarAplicacao(opcoes.getOrDefault("clientes", "1000000"), semente);
+            url = "http://localhost:" + aplicacao.getEnvironment().getProperty("local.server.port");
+        }
+
+        try {
+            executar(url, concorrencia, duracao, aquecimento, semente, mistura);
+        } finally {
+            if (aplicacao != null) {
+                aplicacao.close();
+            }
+        }
+    }
+
+    private static void executar(String url, int concorrencia, int duracao, int aquecimento, long semente,
+            Map<String, Integer> mistura) throws Exception {
+        HttpClient http = HttpClient.newBuilder()
+                .version(HttpClient.Version.HTTP_1_1)
+                .connectTimeout(Duration.ofSeconds(10))
+                .build();
+
+        Amostra amostra = carregarAmostra(http, url);
+        List<String> nomes = new ArrayList<>(mistura.keySet());
+        String[] sorteio = new String[mistura.values().stream().mapToInt(Integer::intValue).sum()];
+        int posicao = 0;
+        for (Map.Entry<String, Integer> operacao : mistura.entrySet()) {
+            for (int i = 0; i < operacao.getValue(); i++) {
+                sorteio[posicao++] = operacao.getKey();
+            }
+        }
+
+        System.out.printf("Carga: %d clientes simultâneos, %ds de aquecimento + %ds medidos contra %s%n",
+                concorrencia, aquecimento, duracao, url);
+        System.out.println("Mistura: " + mistura);
+
+        long inicioMedicao = System.nanoTime() + TimeUnit.SECONDS.toNanos(aquecimento);
+        long fim = inicioMedicao + TimeUnit.SECONDS.toNanos(duracao);
+
+        List<Map<String, Latencias>> porThread = new ArrayList<>();
+        try (ExecutorService executor = Executors.newVirtualThreadPerTaskExecutor()) {
+            for (int i = 0; i < concorrencia; i++) {
+                Map<String, Latencias> registros = new HashMap<>();
+                porThread.add(registros);
+                Sessao sessao = new Sessao(url, amostra, new SplittableRandom(semente + i));
+                executor.submit(() -> {
+                    while (System.nanoTime() < fim) {
+                        String nome = sessao.ajustar(sorteio[sessao.random.nextInt(sorteio.length)]);
+                        HttpRequest requisicao = sessao.requisicao(nome);
+                        long inicio = System.nanoTime();
+                        boolean sucesso;
+                        try {
+                            HttpResponse<String> resposta = http.send(requisicao, HttpResponse.BodyHandlers.ofString());
+                            sucesso = resposta.statusCode() < 400;
+                            if (sucesso) {
+                                sessao.registrarResposta(nome, resposta.body());
+                            }
+                        } catch (Exception e) {
+                            sucesso = false;
+                        }
+                        long termino = System.nanoTime();
+                        if (inicio >= inicioMedicao && termino <= fim) {
+                            Latencias latencias = registros.computeIfAbsent(nome, n -> new Latencias());
+                            if (sucesso) {
+                                latencias.registrar(termino - inicio);
+                            } else {
+                                latencias.registrarErro();
+                            }
+                        }
+                    }
+                });
+            }
+        }
+
+        imprimirRelatorio(porThread, nomes, duracao);
+    }
+
+    /**
+     * Inicia a aplicação em uma porta livre, com os dados sintéticos e sem o log de cada requisição.
+     */
+    private static ConfigurableApplicationContext iniciarAplicacao(String clientes, long semente) {
+        System.out.printf("Iniciando a aplicação com %s clientes sintéticos...%n", clientes);
+        // Argumentos de linha de comando, que têm precedência sobre o application.properties
+        return new SpringApplicationBuilder(ApiFatecApplication.class).run(
+                "--server.port=0",
+                "--server.address=127.0.0.1",
+                "--spring.h2.console.enabled=false",
+                "--logging.level.root=WARN",
+                "--logging.level.com.programacao.web.fatec.api_fatec=INFO",
+                "--api.dados.sinteticos.clientes=" + clientes,
+                "--api.dados.sinteticos.semente=" + semente);
+    }
+
+    /**
+     * Estado de um cliente simulado: seu gerador aleatório e os clientes que ele criou.
+     */
+    private static final class Sessao {
+
+        private final String url;
+
+        private final Amostra amostra;
+
+        private final SplittableRandom random;
+
+        private final Deque<String> criados = new ArrayDeque<>();
+
+        private int sequencia;
+
+        Sessao(String url, Amostra amostra, SplittableRandom random) {
+            this.url = url;
+            this.amostra = amostra;
+            this.random = random;
+        }
+
+        /**
+         * Troca remover por criar enquanto a thread não tiver criado nenhum cliente.
+         */
+        String ajustar(String operacao) {
+            return operacao.equals("remover") && criados.isEmpty() ? "criar" : operacao;
+        }
+
+        HttpRequest requisicao(String operacao) {
+            String clientes = url + "/api/clientes";
+            return switch (operacao) {
+                case "listarClientes" -> get(clientes + "/listarClientes?limit=50&after=" + amostra.id(random));
+                case "buscarPorTexto" -> get(clientes + "/buscarPorTexto?texto=" + amostra.nome(random));
+                case "buscaPorIdOuNome" -> get(clientes + "/buscaPorIdOuNome/" + amostra.id(random));
+                case "criar" -> json("POST", clientes, String.format(Locale.ROOT,
+                        "{\"nome\":\"Carga %d\",\"endereco\":\"Rua da Carga, %d\",\"cidadeId\":%s}",
+                        random.nextInt(1_000_000), ++sequencia, amostra.cidadeId(random)));
+                case "alterarParcial" -> json("PATCH", clientes + "/" + alvo(),
+                        "{\"endereco\":\"Rua da Carga, " + random.nextInt(5000) + "\"}");
+                case "remover" -> HttpRequest.newBuilder(URI.create(clientes + "/" + criados.pollFirst()))
+                        .timeout(Duration.ofSeconds(30)).DELETE().build();
+                default -> throw new IllegalArgumentException("Operação desconhecida: " + operacao);
+            };
+        }
+
+        void registrarResposta(String operacao, String corpo) {
+            if (operacao.equals("criar")) {
+                Matcher id = ID.matcher(corpo);
+                if (id.find()) {
+                    criados.addLast(id.group(1));
+                }
+            }
+        }
+
+        /**
+         * Cliente alterado: o criado mais recentemente pela thread, ou um da amostra se ela
+         * ainda não criou nenhum.
+         */
+        private String alvo() {
+            String id = criados.peekLast();
+            return id != null ? id : amostra.id(random);
+        }
+    }
+
+    /**
+     * Lê uma página de clientes existentes para usar seus IDs e nomes completos como termos de
+     * busca, de forma que as buscas sejam seletivas independentemente dos dados carregados.
+     */
+    private static Amostra carregarAmostra(HttpClient http, String url) throws Exception {
+        String corpo = http.send(get(url + "/api/clientes/listarClientes?limit=500"),
+                HttpResponse.BodyHandlers.ofString()).body();
+        List<String> ids = encontrar(ID, corpo);
+        List<String> nomes = encontrar(NOME, corpo).stream()
+                .map(nome -> URLEncoder.encode(nome, StandardCharsets.UTF_8))
+                .toList();
+        List<String> cidadeIds = encontrar(CIDADE_ID, corpo);
+        if (ids.isEmpty() || nomes.isEmpty() || cidadeIds.isEmpty()) {
+            throw new IllegalStateException("Nenhum cliente encontrado em " + url + " para montar a carga");
+        }
+        return new Amostra(ids, nomes, cidadeIds);
+    }
+
+    private static List<String> encontrar(Pattern padrao, String corpo) {
+        List<String> valores = new ArrayList<>();
+        Matcher matcher = padrao.matcher(corpo);
+        while (matcher.find()) {
+            valores.add(matcher.group(1));
+        }
+        return valores;
+    }
+
+    private record Amostra(List<String> ids, List<String> nomes, List<String> cidadeIds) {
+
+        String id(SplittableRandom random) {
+            return ids.get(random.nextInt(ids.size()));
+        }
+
+        String nome(SplittableRandom random) {
+            return nomes.get(random.nextInt(nomes.size()));
+        }
+
+        String cidadeId(SplittableRandom random) {
+            return cidadeIds.get(random.nextInt(cidadeIds.size()));
+        }
+    }
+
+    private static HttpRequest get(String url) {
+        return HttpRequest.newBuilder(URI.create(url)).timeout(Duration.ofSeconds(30)).GET().build();
+    }
+
+    private static HttpRequest json(String metodo, String url, String corpo) {
+        return HttpRequest.newBuilder(URI.create(url))
+                .timeout(Duration.ofSeconds(30))
+                .header("Content-Type", "application/json")
+                .method(metodo, HttpRequest.BodyPublishers.ofString(corpo))
+                .build();
+    }
+
+    private static void imprimirRelatorio(List<Map<String, Latencias>> porThread, List<String> nomes, int duracao) {
+        Latencias total = new Latencias();
+        System.out.printf(Locale.ROOT, "%-20s %10s %8s %10s %9s %9s %9s %9s%n",
+                "operacao", "req/s", "erros", "total", "p50 ms", "p95 ms", "p99 ms", "max ms");
+        for (String nome : nomes) {
+            Latencias operacao = new Latencias();
+            porThread.forEach(registros -> {
+                Latencias latencias = registros.get(nome);
+                if (latencias != null) {
+                    operacao.combinar(latencias);
+                }
+            });
+            total.combinar(operacao);
+            imprimirLinha(nome, operacao, duracao);
+        }
+        imprimirLinha("TOTAL", total, duracao);
+    }
+
+    private static void imprimirLinha(String nome, Latencias latencias, int duracao) {
+        double[] p = latencias.percentisMs(50, 95, 99, 100);
+        System.out.printf(Locale.ROOT, "%-20s %10.1f %8d %10d %9.2f %9.2f %9.2f %9.2f%n",
+                nome, (double) latencias.quantidade() / duracao, latencias.erros(), latencias.quantidade(),
+                p[0], p[1], p[2], p[3]);
+    }
+
+    /**
+     * Lê a mistura no formato operacao:peso,operacao:peso, mantendo a ordem informada.
+     */
+    private static Map<String, Integer> lerMistura(String mistura) {
+        Map<String, Integer> pesos = new LinkedHashMap<>();
+        for (String item : mistura.split(",")) {
+            String[] partes = item.trim().split(":");
+            int peso = Integer.parseInt(partes[1].trim());
+            if (peso > 0) {
+                pesos.put(partes[0].trim(), peso);
+            }
+        }
+        if (pesos.isEmpty()) {
+            throw new IllegalArgumentException("A mistura deve ter pelo menos uma operação com peso positivo");
+        }
+        return pesos;
+    }
+
+    private static Map<String, String> lerOpcoes(String[] args) {
+        Map<String, String> opcoes = new HashMap<>();
+        for (String arg : args) {
+            if (arg.startsWith("-") && arg.contains("=")) {
+                int igual = arg.indexOf('=');
+                opcoes.put(arg.substring(1, igual), arg.substring(igual + 1));
+            }
+        }
+        return opcoes;
+    }
+}
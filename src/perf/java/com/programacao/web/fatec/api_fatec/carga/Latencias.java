@@ -0,0 +1,59 @@
+package com.programacao.web.fatec.api_fatec.carga;
+
+import java.util.Arrays;
+
+/**
+ * Registro de latências (em nanossegundos) de uma operação, usado por uma única thread.
+ * Os registros de várias threads são combinados com {@link #combinar(Latencias)} no final.
+ */
+final class Latencias {
+
+    private long[] valores = new long[1024];
+
+    private int tamanho;
+
+    private long erros;
+
+    void registrar(long nanos) {
+        if (tamanho == valores.length) {
+            valores = Arrays.copyOf(valores, tamanho * 2);
+        }
+        valores[tamanho++] = nanos;
+    }
+
+    void registrarErro() {
+        erros++;
+    }
+
+    void combinar(Latencias outra) {
+        for (int i = 0; i < outra.tamanho; i++) {
+            registrar(outra.valores[i]);
+        }
+        erros += outra.erros;
+    }
+
+    long quantidade() {
+        return tamanho;
+    }
+
+    long erros() {
+        return erros;
+    }
+
+    /**
+     * Calcula os percentis pedidos (0 a 100) em milissegundos.
+     */
+    double[] percentisMs(double... percentis) {
+        long[] ordenados = Arrays.copyOf(valores, tamanho);
+        Arrays.sort(ordenados);
+        double[] resultado = new double[percentis.length];
+        for (int i = 0; i < percentis.length; i++) {
+            if (ordenados.length == 0) {
+                continue;
+            }
+            int posicao = (int) Math.ceil(percentis[i] / 100.0 * ordenados.length) - 1;
+            resultado[i] = ordenados[Math.max(0, Math.min(posicao, ordenados.length - 1))] / 1_000_000.0;
+        }
+        return resultado;
+    }
+}
@@ -0,0 +1,113 @@
+package com.programacao.web.fatec.api_fatec.reativo;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.MediaType;
+import org.springframework.stereotype.Component;
+import org.springframework.web.reactive.function.server.ServerRequest;
+import org.springframework.web.reactive.function.server.ServerResponse;
+
+import com.programacao.web.fatec.api_fatec.domain.cliente.ClienteConsulta;
+import com.programacao.web.fatec.api_fatec.domain.cliente.ClienteCursor;
+import com.programacao.web.fatec.api_fatec.domain.cliente.TextoBusca;
+import com.programacao.web.fatec.api_fatec.domain.cliente.dto.ClienteResponseDto;
+import com.programacao.web.fatec.api_fatec.exception.BadRequestException;
+
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+/**
+ * Operações de leitura de clientes da API reativa (/api/reativo/clientes).
+ *
+ * Equivalentes a listarClientes, buscaPorIdOuNome e buscarPorTexto de ClienteController, com os
+ * mesmos parâmetros e limites (api.clientes.listagem.maximo e api.clientes.pagina.*), mas com a
+ * resposta em NDJSON (um cliente JSON por linha) escrita conforme as linhas chegam do banco.
+ * A leitura acompanha o consumo do cliente HTTP: um cliente lento não faz o servidor acumular
+ * o resultado em memória, e um cliente que desconecta cancela a consulta.
+ *
+ * Como a resposta começa a ser enviada antes do fim da consulta, a listagem paginada não tem o
+ * cabeçalho X-Next-Cursor: a próxima página é pedida com after igual ao ID da última linha.
+ * As buscas não passam pelo cache nem pelo índice de trigramas da API servlet.
+ */
+@Component
+public class ClienteReativoHandler {
+
+    @Autowired
+    private ClienteReativoRepository clienteReativoRepository;
+
+    @Value("${api.clientes.listagem.maximo:1000}")
+    private int listagemMaximo;
+
+    @Value("${api.clientes.pagina.tamanho-padrao:50}")
+    private int paginaTamanhoPadrao;
+
+    @Value("${api.clientes.pagina.tamanho-maximo:500}")
+    private int paginaTamanhoMaximo;
+
+    /**
+     * Lista os clientes: sem parâmetros, no máximo api.clientes.listagem.maximo; com after, cursor
+     * ou limit, uma página keyset ordenada por ID.
+     *
+     * @param request Requisição com os parâmetros after, cursor e limit (opcionais)
+     * @return Resposta NDJSON com os clientes
+     */
+    public Mono<ServerResponse> listarClientes(ServerRequest request) {
+        String after = request.queryParam("after").orElse(null);
+        String cursor = request.queryParam("cursor").orElse(null);
+        String limit = request.queryParam("limit").orElse(null);
+
+        if (after == null && cursor == null && limit == null) {
+            return ndjson(clienteReativoRepository.buscarPagina(0L, listagemMaximo));
+        }
+
+        Long ultimoId = cursor != null ? ClienteCursor.decodificar(cursor) : numero("after", after);
+        long tamanho = limit != null ? numero("limit", limit) : paginaTamanhoPadrao;
+        if (tamanho < 1 || tamanho > paginaTamanhoMaximo) {
+            throw new BadRequestException(
+                    "O parâmetro limit deve estar entre 1 e " + paginaTamanhoMaximo + ": " + tamanho);
+        }
+        return ndjson(clienteReativoRepository.buscarPagina(ultimoId != null ? ultimoId : 0L, (int) tamanho));
+    }
+
+    /**
+     * Busca clientes por ID ou nome a partir do caminho /buscaPorIdOuNome/{search}.
+     *
+     * @param request Requisição com a variável de caminho search
+     * @return Resposta NDJSON com os clientes encontrados
+     */
+    public Mono<ServerResponse> buscaPorIdOuNome(ServerRequest request) {
+        String search = request.pathVariable("search");
+        return ndjson(clienteReativoRepository.buscarPorIdOuNome(TextoBusca.converterId(search), search));
+    }
+
+    /**
+     * Busca clientes por texto no ID, no nome e no nome da cidade.
+     *
+     * Consultas com campos (estado:SP nome:jo*) são compiladas para JPA Criteria e só existem na
+     * API servlet; aqui são recusadas com 400 em vez de serem tratadas como texto simples.
+     *
+     * @param request Requisição com o parâmetro texto
+     * @return Resposta NDJSON com os clientes encontrados
+     */
+    public Mono<ServerResponse> buscarPorTexto(ServerRequest request) {
+        String texto = request.queryParam("texto")
+                .orElseThrow(() -> new BadRequestException("O parâmetro texto é obrigatório"));
+        if (ClienteConsulta.interpretar(texto).isPresent()) {
+            throw new BadRequestException(
+                    "Consultas com campos estão disponíveis apenas em /api/clientes/buscarPorTexto: " + texto);
+        }
+        return ndjson(clienteReativoRepository.buscarPorIdOuNomeComCidade(texto, TextoBusca.converterId(texto)));
+    }
+
+    private static Mono<ServerResponse> ndjson(Flux<ClienteResponseDto> clientes) {
+        return ServerResponse.ok().contentType(MediaType.APPLICATION_NDJSON).body(clientes, ClienteResponseDto.class);
+    }
+
+    private static Long numero(String parametro, String valor) {
+        Long numero = valor != null ? TextoBusca.converterId(valor) : null;
+        if (valor != null && numero == null) {
+            throw new BadRequestException("O parâmetro " + parametro + " deve ser um número: " + valor);
+        }
+        return numero;
+    }
+}
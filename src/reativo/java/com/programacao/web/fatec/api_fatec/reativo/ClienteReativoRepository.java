@@ -0,0 +1,208 @@
+package com.programacao.web.fatec.api_fatec.reativo;
+
+import java.time.Duration;
+import java.util.function.Function;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Repository;
+
+import com.programacao.web.fatec.api_fatec.domain.cliente.TextoBusca;
+import com.programacao.web.fatec.api_fatec.domain.cliente.dto.ClienteResponseDto;
+import com.programacao.web.fatec.api_fatec.entities.Estado;
+
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.r2dbc.pool.ConnectionPool;
+import io.r2dbc.pool.ConnectionPoolConfiguration;
+import io.r2dbc.pool.PoolMetrics;
+import io.r2dbc.spi.Connection;
+import io.r2dbc.spi.ConnectionFactories;
+import io.r2dbc.spi.ConnectionFactoryOptions;
+import io.r2dbc.spi.Readable;
+import io.r2dbc.spi.Statement;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import reactor.core.publisher.Flux;
+import reactor.core.scheduler.Scheduler;
+import reactor.core.scheduler.Schedulers;
+
+/**
+ * Consultas de leitura de clientes pelo driver R2DBC, para a API reativa.
+ *
+ * Usa as mesmas tabelas (clientes e cidades) e a mesma semântica das consultas JPQL de
+ * ClienteRepository, com SQL direto sobre a API do R2DBC: cada consulta pega uma conexão do pool
+ * reativo (api.reativo.r2dbc.*) sem bloquear quem espera por ela, e as linhas são emitidas
+ * conforme a demanda de quem assina o Flux. A conexão volta ao pool ao fim da emissão, em caso
+ * de erro ou quando a assinatura é cancelada (cliente HTTP desconectado).
+ *
+ * O pool não é um bean: com um ConnectionFactory no contexto o Spring Boot deixaria de criar o
+ * DataSource do JPA. As conexões em uso e as esperas pelo pool são expostas como métricas
+ * api.reativo.r2dbc.conexoes.*.
+ *
+ * O H2 embarcado executa a consulta na thread que a assina; por isso a execução é feita no
+ * scheduler "consultas-reativas" (api.reativo.consultas.threads) e nunca nas threads de
+ * I/O do servidor.
+ */
+@Repository
+public class ClienteReativoRepository {
+
+    private static final String SELECT = """
+        select c.id, c.nome, c.endereco, cid.id as cidade_id, cid.nome as cidade_nome, cid.estado as cidade_estado
+        from clientes c
+        left join cidades cid on cid.id = c.cidade_id
+        """;
+
+    @Autowired
+    private MeterRegistry meterRegistry;
+
+    /**
+     * URL R2DBC do banco; por padrão o mesmo banco em memória de spring.datasource.url.
+     */
+    @Value("${api.reativo.r2dbc.url:r2dbc:h2:mem:///db;DB_CLOSE_DELAY=-1}")
+    private String url;
+
+    @Value("${spring.datasource.username:sa}")
+    private String usuario;
+
+    @Value("${spring.datasource.password:}")
+    private String senha;
+
+    /**
+     * Conexões do pool reativo, separadas das do Hikari.
+     */
+    @Value("${api.reativo.r2dbc.pool.tamanho-maximo:10}")
+    private int tamanhoMaximo;
+
+    /**
+     * Tempo máximo de espera por uma conexão antes de a consulta falhar.
+     */
+    @Value("${api.reativo.r2dbc.pool.espera-maxima:PT5S}")
+    private Duration esperaMaxima;
+
+    /**
+     * Threads que executam as consultas no H2; padrão igual à quantidade de processadores.
+     */
+    @Value("${api.reativo.consultas.threads:0}")
+    private int threads;
+
+    /**
+     * Linhas pedidas ao driver de cada vez, independentemente da demanda de quem assina.
+     */
+    @Value("${api.reativo.consultas.lote:256}")
+    private int lote;
+
+    private ConnectionPool pool;
+
+    private Scheduler consultas;
+
+    @PostConstruct
+    void inicializar() {
+        ConnectionFactoryOptions opcoes = ConnectionFactoryOptions.parse(url).mutate()
+                .option(ConnectionFactoryOptions.USER, usuario)
+                .option(ConnectionFactoryOptions.PASSWORD, senha)
+                .build();
+        pool = new ConnectionPool(ConnectionPoolConfiguration.builder(ConnectionFactories.get(opcoes))
+                .name("consultas-reativas")
+                .maxSize(tamanhoMaximo)
+                .initialSize(0)
+                .maxAcquireTime(esperaMaxima)
+                .build());
+        PoolMetrics metricas = pool.getMetrics().orElseThrow();
+        Gauge.builder("api.reativo.r2dbc.conexoes.em-uso", metricas, PoolMetrics::acquiredSize)
+                .description("Conexões R2DBC em uso por consultas da API reativa")
+                .register(meterRegistry);
+        Gauge.builder("api.reativo.r2dbc.conexoes.pendentes", metricas, PoolMetrics::pendingAcquireSize)
+                .description("Consultas da API reativa esperando uma conexão R2DBC")
+                .register(meterRegistry);
+
+        int quantidade = threads > 0 ? threads : Runtime.getRuntime().availableProcessors();
+        consultas = Schedulers.newParallel("consultas-reativas", quantidade, true);
+    }
+
+    @PreDestroy
+    void finalizar() {
+        consultas.dispose();
+        pool.dispose();
+    }
+
+    /**
+     * Busca uma página de clientes com ID maior que o informado, ordenados por ID (keyset).
+     *
+     * @param after ID do último cliente da página anterior (0 para a primeira)
+     * @param limite Quantidade máxima de clientes
+     * @return Clientes da página, emitidos em ordem de ID
+     */
+    public Flux<ClienteResponseDto> buscarPagina(long after, int limite) {
+        return consultar(SELECT + "where c.id > $1 order by c.id limit $2",
+                statement -> statement.bind("$1", after).bind("$2", limite));
+    }
+
+    /**
+     * Busca clientes por ID ou nome (parcial, sem diferenciar maiúsculas nem acentos),
+     * como ClienteRepository.buscarPorIdOuNome.
+     *
+     * @param id ID do cliente (pode ser null)
+     * @param nome Nome parcial (pode ser null)
+     * @return Clientes encontrados
+     */
+    public Flux<ClienteResponseDto> buscarPorIdOuNome(Long id, String nome) {
+        return consultar(SELECT + "where c.id = $1 or c.nome_normalizado like $2", statement -> {
+            bindOuNull(statement, "$1", id, Long.class);
+            bindOuNull(statement, "$2", termo(nome), String.class);
+            return statement;
+        });
+    }
+
+    /**
+     * Busca clientes por texto no ID, no nome e no nome da cidade, como
+     * ClienteRepository.buscarPorIdOuNomeComCidade.
+     *
+     * @param texto Texto buscado
+     * @param id ID, quando o texto é um número (pode ser null)
+     * @return Clientes encontrados
+     */
+    public Flux<ClienteResponseDto> buscarPorIdOuNomeComCidade(String texto, Long id) {
+        String sql = SELECT + "where c.nome_normalizado like $1 or cid.nome_normalizado like $1";
+        if (id == null) {
+            return consultar(sql, statement -> statement.bind("$1", termo(texto)));
+        }
+        return consultar(sql + " or c.id = $2", statement -> statement.bind("$1", termo(texto)).bind("$2", id));
+    }
+
+    private Flux<ClienteResponseDto> consultar(String sql, Function<Statement, Statement> parametros) {
+        return Flux.usingWhen(
+                        pool.create(),
+                        conexao -> Flux.from(parametros.apply(conexao.createStatement(sql)).execute())
+                                .concatMap(resultado -> resultado.map(ClienteReativoRepository::mapear)),
+                        Connection::close)
+                .subscribeOn(consultas)
+                .limitRate(lote);
+    }
+
+    private static ClienteResponseDto mapear(Readable linha) {
+        String estado = linha.get("cidade_estado", String.class);
+        return new ClienteResponseDto(
+                linha.get("id", Long.class),
+                linha.get("nome", String.class),
+                linha.get("endereco", String.class),
+                linha.get("cidade_id", Long.class),
+                linha.get("cidade_nome", String.class),
+                estado != null ? Estado.valueOf(estado) : null);
+    }
+
+    /**
+     * Termo do LIKE sobre as colunas nome_normalizado, equivalente a concat('%', :nome, '%').
+     */
+    private static String termo(String texto) {
+        return texto != null ? "%" + TextoBusca.normalizar(texto) + "%" : null;
+    }
+
+    private static void bindOuNull(Statement statement, String nome, Object valor, Class<?> tipo) {
+        if (valor != null) {
+            statement.bind(nome, valor);
+        } else {
+            statement.bindNull(nome, tipo);
+        }
+    }
+}
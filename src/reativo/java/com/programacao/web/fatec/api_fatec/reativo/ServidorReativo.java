@@ -0,0 +1,123 @@
+package com.programacao.web.fatec.api_fatec.reativo;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.SmartLifecycle;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.codec.json.Jackson2JsonDecoder;
+import org.springframework.http.codec.json.Jackson2JsonEncoder;
+import org.springframework.http.server.reactive.HttpHandler;
+import org.springframework.http.server.reactive.ReactorHttpHandlerAdapter;
+import org.springframework.stereotype.Component;
+import org.springframework.web.reactive.function.server.HandlerFunction;
+import org.springframework.web.reactive.function.server.HandlerStrategies;
+import org.springframework.web.reactive.function.server.RouterFunction;
+import org.springframework.web.reactive.function.server.RouterFunctions;
+import org.springframework.web.reactive.function.server.ServerRequest;
+import org.springframework.web.reactive.function.server.ServerResponse;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.programacao.web.fatec.api_fatec.exception.ApiError;
+import com.programacao.web.fatec.api_fatec.exception.BadRequestException;
+
+import reactor.core.publisher.Mono;
+import reactor.netty.DisposableServer;
+import reactor.netty.http.server.HttpServer;
+
+/**
+ * Servidor HTTP da API reativa de leitura, ao lado do Tomcat da API servlet.
+ *
+ * A aplicação continua sendo servlet (server.port); este servidor Reactor Netty escuta em
+ * api.reativo.porta e atende as rotas de {@link ClienteReativoHandler} com poucas threads de
+ * event loop, sem uma thread por requisição: enquanto uma resposta espera o banco ou um cliente
+ * HTTP lento, nenhuma thread fica parada por ela. Os dois servidores estão no mesmo processo e
+ * leem o mesmo banco H2 (spring.r2dbc.url aponta para o banco de spring.datasource.url).
+ *
+ * Só é compilado com o profile Maven reativo; api.reativo.habilitado=false não abre a porta.
+ */
+@Component
+public class ServidorReativo implements SmartLifecycle {
+
+    private static final Logger log = LoggerFactory.getLogger(ServidorReativo.class);
+
+    @Autowired
+    private ClienteReativoHandler clienteReativoHandler;
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    @Value("${api.reativo.habilitado:true}")
+    private boolean habilitado;
+
+    @Value("${api.reativo.porta:8082}")
+    private int porta;
+
+    private volatile DisposableServer servidor;
+
+    /**
+     * Rotas da API reativa. Erros de parâmetro viram 400 com o mesmo corpo (ApiError) da API servlet.
+     */
+    RouterFunction<ServerResponse> rotas() {
+        return RouterFunctions.route()
+                .path("/api/reativo/clientes", clientes -> clientes
+                        .GET("/listarClientes", adiado(clienteReativoHandler::listarClientes))
+                        .GET("/buscaPorIdOuNome/{search}", adiado(clienteReativoHandler::buscaPorIdOuNome))
+                        .GET("/buscarPorTexto", adiado(clienteReativoHandler::buscarPorTexto)))
+                .onError(BadRequestException.class,
+                        (e, request) -> erro(HttpStatus.BAD_REQUEST, "Requisição inválida", e, request))
+                .onError(Exception.class, (e, request) -> {
+                    log.error("Erro na API reativa em {}", request.path(), e);
+                    return erro(HttpStatus.INTERNAL_SERVER_ERROR, "Erro interno do servidor", e, request);
+                })
+                .build();
+    }
+
+    /**
+     * Executa o handler dentro do Mono, para que exceções de validação lançadas por ele cheguem
+     * aos tratamentos de onError em vez de escapar como 500.
+     */
+    private static HandlerFunction<ServerResponse> adiado(HandlerFunction<ServerResponse> handler) {
+        return request -> Mono.defer(() -> handler.handle(request));
+    }
+
+    private static Mono<ServerResponse> erro(HttpStatus status, String tipo, Throwable e, ServerRequest request) {
+        return ServerResponse.status(status)
+                .bodyValue(new ApiError(status.value(), tipo, e.getMessage(), request.path()));
+    }
+
+    @Override
+    public void start() {
+        if (!habilitado) {
+            return;
+        }
+        HandlerStrategies estrategias = HandlerStrategies.builder()
+                .codecs(codecs -> {
+                    // Mesmo ObjectMapper da API servlet: o JSON dos clientes é idêntico nas duas
+                    codecs.defaultCodecs().jackson2JsonEncoder(new Jackson2JsonEncoder(objectMapper));
+                    codecs.defaultCodecs().jackson2JsonDecoder(new Jackson2JsonDecoder(objectMapper));
+                })
+                .build();
+        HttpHandler httpHandler = RouterFunctions.toHttpHandler(rotas(), estrategias);
+        servidor = HttpServer.create()
+                .port(porta)
+                .handle(new ReactorHttpHandlerAdapter(httpHandler))
+                .bindNow();
+        log.info("API reativa de leitura em http://localhost:{}/api/reativo/clientes", servidor.port());
+    }
+
+    @Override
+    public void stop() {
+        DisposableServer atual = servidor;
+        if (atual != null) {
+            atual.disposeNow();
+            servidor = null;
+        }
+    }
+
+    @Override
+    public boolean isRunning() {
+        return servidor != null;
+    }
+}
@@ -0,0 +1,172 @@
+package com.programacao.web.fatec.api_fatec.controller;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.hamcrest.Matchers.containsString;
+import static org.mockito.AdditionalAnswers.delegatesTo;
+import static org.mockito.Mockito.doAnswer;
+import static org.mockito.Mockito.mock;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.header;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.MediaType;
+import org.springframework.test.util.AopTestUtils;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.MvcResult;
+import org.springframework.test.web.servlet.setup.MockMvcBuilders;
+import org.springframework.web.context.WebApplicationContext;
+
+import com.jayway.jsonpath.JsonPath;
+import com.programacao.web.fatec.api_fatec.domain.cliente.ClienteService;
+
+import io.micrometer.core.instrument.MeterRegistry;
+
+/**
+ * Compartimentos ligados, com o de buscas limitado a uma requisição e sem fila: enquanto uma
+ * busca está em execução, outra busca recebe 503 com Retry-After, e as escritas e listagens, em
+ * outros compartimentos, continuam sendo atendidas.
+ *
+ * Para manter a primeira busca em execução, o ClienteService do controller é trocado por um mock
+ * que delega ao serviço real e segura a busca pelo texto "bloqueada" até o teste liberá-la. O
+ * banco tem nome próprio, para não dividir o banco com o contexto dos outros testes.
+ */
+@SpringBootTest(properties = {
+        "api.compartimentos.habilitado=true",
+        "api.compartimentos.retry-after=PT1S",
+        "api.compartimentos.busca.limite-inicial=1",
+        "api.compartimentos.busca.limite-minimo=1",
+        "api.compartimentos.busca.limite-maximo=1",
+        "api.compartimentos.busca.fila=0",
+        "spring.datasource.url=jdbc:h2:mem:compartimentos-teste;DB_CLOSE_DELAY=-1"
+})
+class ClienteControllerCompartimentosTest {
+
+    private static final String BUSCA = "/api/clientes/buscarPorTexto";
+
+    @Autowired
+    private WebApplicationContext context;
+
+    @Autowired
+    private ClienteController clienteController;
+
+    @Autowired
+    private ClienteService clienteService;
+
+    @Autowired
+    private MeterRegistry meterRegistry;
+
+    private final CountDownLatch liberarBusca = new CountDownLatch(1);
+
+    private final ExecutorService threads = Executors.newSingleThreadExecutor();
+
+    private MockMvc mockMvc;
+
+    private Long id;
+
+    @BeforeEach
+    void trocarServico() {
+        mockMvc = MockMvcBuilders.webAppContextSetup(context).build();
+        ClienteService bloqueando = mock(ClienteService.class, delegatesTo(clienteService));
+        doAnswer(invocacao -> {
+            liberarBusca.await(10, TimeUnit.SECONDS);
+            return List.of();
+        }).when(bloqueando).buscarPorTexto("bloqueada");
+        ReflectionTestUtils.setField(controller(), "clienteService", bloqueando);
+    }
+
+    @AfterEach
+    void restaurar() throws Exception {
+        liberarBusca.countDown();
+        threads.shutdownNow();
+        threads.awaitTermination(10, TimeUnit.SECONDS);
+        ReflectionTestUtils.setField(controller(), "clienteService", clienteService);
+        if (id != null) {
+            clienteService.deletarClientes(List.of(id));
+        }
+    }
+
+    @Test
+    void buscaSimultaneaERecusadaEAEscritaContinua() throws Exception {
+        Future<MvcResult> emExecucao = threads.submit(() -> mockMvc.perform(get(BUSCA).param("texto", "bloqueada"))
+                .andReturn());
+        aguardarEmExecucao(1);
+        double recusasAntes = recusas("fila-cheia");
+
+        mockMvc.perform(get(BUSCA).param("texto", "outra"))
+                .andExpect(status().isServiceUnavailable())
+                .andExpect(header().string(HttpHeaders.RETRY_AFTER, "1"))
+                .andExpect(jsonPath("$.status").value(503))
+                .andExpect(jsonPath("$.message").value(containsString("busca")));
+        // Os outros endpoints de busca dividem o mesmo compartimento
+        mockMvc.perform(get("/api/clientes/buscaPorIdOuNome/{search}", "outra"))
+                .andExpect(status().isServiceUnavailable());
+        assertThat(recusas("fila-cheia")).isEqualTo(recusasAntes + 2);
+
+        String criado = mockMvc.perform(post("/api/clientes")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content("{\"nome\": \"Cliente Compartimento\", \"endereco\": \"Rua 1\"}"))
+                .andExpect(status().isCreated())
+                .andReturn().getResponse().getContentAsString();
+        id = ((Number) JsonPath.read(criado, "$.id")).longValue();
+        mockMvc.perform(get("/api/clientes/listarClientes").param("limit", "1"))
+                .andExpect(status().isOk());
+
+        liberarBusca.countDown();
+        assertThat(emExecucao.get(10, TimeUnit.SECONDS).getResponse().getStatus()).isEqualTo(200);
+        aguardarEmExecucao(0);
+        mockMvc.perform(get(BUSCA).param("texto", "outra"))
+                .andExpect(status().isOk());
+    }
+
+    @Test
+    void respostaNaoModificadaLiberaAVaga() throws Exception {
+        String etag = mockMvc.perform(get(BUSCA).param("texto", "outra"))
+                .andExpect(status().isOk())
+                .andReturn().getResponse().getHeader(HttpHeaders.ETAG);
+
+        mockMvc.perform(get(BUSCA).param("texto", "outra").header(HttpHeaders.IF_NONE_MATCH, etag))
+                .andExpect(status().isNotModified());
+
+        // Com limite 1 e sem fila, uma vaga presa pelo 304 recusaria a próxima busca
+        assertThat(emExecucao()).isZero();
+        mockMvc.perform(get(BUSCA).param("texto", "outra"))
+                .andExpect(status().isOk());
+    }
+
+    private ClienteController controller() {
+        return AopTestUtils.getUltimateTargetObject(clienteController);
+    }
+
+    private double emExecucao() {
+        return meterRegistry.get("api.compartimentos.em-execucao").tag("compartimento", "busca").gauge().value();
+    }
+
+    private double recusas(String motivo) {
+        return meterRegistry.get("api.compartimentos.recusas").tag("compartimento", "busca").tag("motivo", motivo)
+                .counter().count();
+    }
+
+    private void aguardarEmExecucao(int quantidade) throws InterruptedException {
+        long limite = System.nanoTime() + TimeUnit.SECONDS.toNanos(5);
+        while (emExecucao() != quantidade && System.nanoTime() < limite) {
+            Thread.sleep(1);
+        }
+        assertThat(emExecucao()).isEqualTo(quantidade);
+    }
+}
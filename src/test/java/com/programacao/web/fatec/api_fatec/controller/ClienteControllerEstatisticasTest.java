@@ -0,0 +1,119 @@
+package com.programacao.web.fatec.api_fatec.controller;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.Mockito.doAnswer;
+import static org.mockito.Mockito.spy;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.delete;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.header;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.MediaType;
+import org.springframework.mock.web.MockHttpServletResponse;
+import org.springframework.test.util.AopTestUtils;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.setup.MockMvcBuilders;
+import org.springframework.web.context.WebApplicationContext;
+
+import com.jayway.jsonpath.JsonPath;
+import com.programacao.web.fatec.api_fatec.domain.cliente.ClienteEstatisticas;
+import com.programacao.web.fatec.api_fatec.domain.cliente.ClienteService;
+
+/**
+ * GET /api/clientes/stats depois de uma criação: o ETag novo só aparece junto com as contagens
+ * que já incluem o cliente criado.
+ *
+ * Para observar o intervalo entre os passos da escrita, as estatísticas usadas pelo ClienteService
+ * são trocadas por um spy que consulta /stats imediatamente antes de aplicar a contagem.
+ */
+@SpringBootTest
+class ClienteControllerEstatisticasTest {
+
+    @Autowired
+    private WebApplicationContext context;
+
+    @Autowired
+    private ClienteService clienteService;
+
+    @Autowired
+    private ClienteEstatisticas estatisticas;
+
+    private MockMvc mockMvc;
+
+    /**
+     * Respostas de /stats obtidas no meio da escrita, antes de a contagem ser aplicada.
+     */
+    private final List<MockHttpServletResponse> duranteAEscrita = new ArrayList<>();
+
+    private Long id;
+
+    @BeforeEach
+    void trocarEstatisticas() {
+        mockMvc = MockMvcBuilders.webAppContextSetup(context).build();
+        ClienteEstatisticas espiao = spy(estatisticas);
+        doAnswer(invocacao -> {
+            duranteAEscrita.add(mockMvc.perform(get("/api/clientes/stats")).andReturn().getResponse());
+            return invocacao.callRealMethod();
+        }).when(espiao).adicionar(anyList());
+        ReflectionTestUtils.setField(servico(), "estatisticas", espiao);
+    }
+
+    @AfterEach
+    void restaurar() throws Exception {
+        ReflectionTestUtils.setField(servico(), "estatisticas", estatisticas);
+        if (id != null) {
+            mockMvc.perform(delete("/api/clientes/{id}", id));
+        }
+    }
+
+    @Test
+    void etagNovoDeStatsSoApareceComAContagemNova() throws Exception {
+        MockHttpServletResponse antes = mockMvc.perform(get("/api/clientes/stats"))
+                .andExpect(status().isOk())
+                .andReturn().getResponse();
+        long totalAntes = total(antes);
+
+        String criado = mockMvc.perform(post("/api/clientes")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content("{\"nome\": \"Cliente Estatística\", \"endereco\": \"Rua 1\"}"))
+                .andExpect(status().isCreated())
+                .andReturn().getResponse().getContentAsString();
+        id = ((Number) JsonPath.read(criado, "$.id")).longValue();
+
+        MockHttpServletResponse depois = mockMvc.perform(get("/api/clientes/stats")
+                        .header(HttpHeaders.IF_NONE_MATCH, antes.getHeader(HttpHeaders.ETAG)))
+                .andExpect(status().isOk())
+                .andReturn().getResponse();
+        String etag = depois.getHeader(HttpHeaders.ETAG);
+        assertThat(total(depois)).isEqualTo(totalAntes + 1);
+
+        // A leitura no meio da escrita ainda tem o ETag anterior: quem a guardou não recebe 304
+        assertThat(duranteAEscrita).hasSize(1);
+        assertThat(duranteAEscrita.get(0).getHeader(HttpHeaders.ETAG)).isNotEqualTo(etag);
+        assertThat(total(duranteAEscrita.get(0))).isEqualTo(totalAntes);
+
+        mockMvc.perform(get("/api/clientes/stats").header(HttpHeaders.IF_NONE_MATCH, etag))
+                .andExpect(status().isNotModified())
+                .andExpect(header().string(HttpHeaders.ETAG, etag));
+    }
+
+    private ClienteService servico() {
+        return AopTestUtils.getUltimateTargetObject(clienteService);
+    }
+
+    private static long total(MockHttpServletResponse resposta) throws Exception {
+        return ((Number) JsonPath.read(resposta.getContentAsString(), "$.total")).longValue();
+    }
+}
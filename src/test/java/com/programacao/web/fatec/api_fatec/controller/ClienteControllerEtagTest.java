@@ -0,0 +1,124 @@
+package com.programacao.web.fatec.api_fatec.controller;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.delete;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.patch;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.content;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.header;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.ValueSource;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.MediaType;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.setup.MockMvcBuilders;
+import org.springframework.web.context.WebApplicationContext;
+
+import com.jayway.jsonpath.JsonPath;
+import com.programacao.web.fatec.api_fatec.domain.cidade.CidadeRepository;
+import com.programacao.web.fatec.api_fatec.entities.Cidade;
+import com.programacao.web.fatec.api_fatec.entities.Estado;
+
+/**
+ * ETag e If-None-Match das listagens, buscas e estatísticas: 304 sem corpo enquanto nada muda, e
+ * um ETag novo depois de qualquer escrita em clientes.
+ */
+@SpringBootTest
+class ClienteControllerEtagTest {
+
+    @Autowired
+    private WebApplicationContext context;
+
+    @Autowired
+    private CidadeRepository cidadeRepository;
+
+    private MockMvc mockMvc;
+
+    private Cidade cidade;
+
+    private long id;
+
+    @BeforeEach
+    void criarCliente() throws Exception {
+        mockMvc = MockMvcBuilders.webAppContextSetup(context).build();
+        cidade = cidadeRepository.save(new Cidade(null, "Cidade ETag", Estado.SP));
+        String resposta = mockMvc.perform(post("/api/clientes")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content("{\"nome\": \"Cliente ETag\", \"endereco\": \"Rua ETag, 1\", \"cidadeId\": "
+                                + cidade.getId() + "}"))
+                .andExpect(status().isCreated())
+                .andReturn().getResponse().getContentAsString();
+        id = ((Number) JsonPath.read(resposta, "$.id")).longValue();
+    }
+
+    @AfterEach
+    void removerCliente() throws Exception {
+        mockMvc.perform(delete("/api/clientes/{id}", id));
+        cidadeRepository.deleteById(cidade.getId());
+    }
+
+    @ParameterizedTest
+    @ValueSource(strings = { "/api/clientes/listarClientes", "/api/clientes/listarClientes?limit=5",
+            "/api/clientes/buscarPorTexto?texto=Cliente ETag", "/api/clientes/buscarPorTexto?texto=nome:cliente*",
+            "/api/clientes/stats", "/api/cidades/{cidade}/clientes" })
+    void ifNoneMatchRetorna304AteUmaEscrita(String url) throws Exception {
+        String etag = mockMvc.perform(get(url, cidade.getId()))
+                .andExpect(status().isOk())
+                .andExpect(header().string(HttpHeaders.CACHE_CONTROL, "no-cache"))
+                .andReturn().getResponse().getHeader(HttpHeaders.ETAG);
+        assertThat(etag).matches("\"clientes-[0-9a-f]+\"");
+
+        mockMvc.perform(get(url, cidade.getId()).header(HttpHeaders.IF_NONE_MATCH, etag))
+                .andExpect(status().isNotModified())
+                .andExpect(header().string(HttpHeaders.ETAG, etag))
+                .andExpect(content().string(""));
+
+        mockMvc.perform(patch("/api/clientes/{id}", id)
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content("{\"endereco\": \"Rua ETag, 2\"}"))
+                .andExpect(status().isNoContent());
+
+        String novoEtag = mockMvc.perform(get(url, cidade.getId()).header(HttpHeaders.IF_NONE_MATCH, etag))
+                .andExpect(status().isOk())
+                .andReturn().getResponse().getHeader(HttpHeaders.ETAG);
+        assertThat(novoEtag).isNotEqualTo(etag);
+    }
+
+    @Test
+    void respostaAposEscritaTrazOsDadosNovos() throws Exception {
+        String url = "/api/cidades/{cidade}/clientes";
+        String etag = mockMvc.perform(get(url, cidade.getId()))
+                .andExpect(jsonPath("$[0].endereco").value("Rua ETag, 1"))
+                .andReturn().getResponse().getHeader(HttpHeaders.ETAG);
+
+        mockMvc.perform(patch("/api/clientes/{id}", id)
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content("{\"endereco\": \"Rua ETag, 3\"}"))
+                .andExpect(status().isNoContent());
+
+        mockMvc.perform(get(url, cidade.getId()).header(HttpHeaders.IF_NONE_MATCH, etag))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$[0].endereco").value("Rua ETag, 3"));
+    }
+
+    @Test
+    void etagDaListagemNaoEAceitoComoVersaoNoIfMatch() throws Exception {
+        String etag = mockMvc.perform(get("/api/clientes/listarClientes"))
+                .andReturn().getResponse().getHeader(HttpHeaders.ETAG);
+
+        mockMvc.perform(patch("/api/clientes/{id}", id)
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .header(HttpHeaders.IF_MATCH, etag)
+                        .content("{\"nome\": \"Outro\"}"))
+                .andExpect(status().isBadRequest());
+    }
+}
@@ -0,0 +1,177 @@
+package com.programacao.web.fatec.api_fatec.controller;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.hamcrest.Matchers.containsString;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.content;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.stream.IntStream;
+import java.util.stream.Stream;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.ValueSource;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.MediaType;
+import org.springframework.mock.web.MockHttpServletResponse;
+import org.springframework.test.util.AopTestUtils;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.setup.MockMvcBuilders;
+import org.springframework.web.context.WebApplicationContext;
+
+import jakarta.servlet.Filter;
+
+import com.fasterxml.jackson.core.type.TypeReference;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.programacao.web.fatec.api_fatec.domain.cliente.ClienteRepository;
+import com.programacao.web.fatec.api_fatec.domain.cliente.ClienteService;
+import com.programacao.web.fatec.api_fatec.domain.cliente.dto.ClienteLoteResultadoDto;
+import com.programacao.web.fatec.api_fatec.domain.cliente.dto.ClientePostDto;
+import com.programacao.web.fatec.api_fatec.domain.cliente.dto.ClienteResponseDto;
+import com.programacao.web.fatec.api_fatec.entities.Estado;
+
+/**
+ * GET /api/clientes/export: um cliente JSON por linha, 406 para quem aceita apenas JSON e a
+ * resposta interrompida (sem um erro da API no fim) quando a leitura falha depois do primeiro
+ * flush.
+ *
+ * Um filtro guarda a resposta de cada requisição, para que ela possa ser conferida mesmo quando
+ * a exceção chega ao MockMvc.
+ */
+@SpringBootTest
+class ClienteControllerExportacaoTest {
+
+    private static final MediaType NDJSON = MediaType.parseMediaType("application/x-ndjson");
+
+    @Autowired
+    private WebApplicationContext context;
+
+    @Autowired
+    private ClienteService clienteService;
+
+    @Autowired
+    private ClienteRepository clienteRepository;
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    private final AtomicReference<MockHttpServletResponse> resposta = new AtomicReference<>();
+
+    private MockMvc mockMvc;
+
+    private final List<Long> criados = new ArrayList<>();
+
+    @BeforeEach
+    void criarMockMvc() {
+        Filter guardarResposta = (request, response, chain) -> {
+            resposta.set((MockHttpServletResponse) response);
+            chain.doFilter(request, response);
+        };
+        mockMvc = MockMvcBuilders.webAppContextSetup(context).addFilters(guardarResposta).build();
+    }
+
+    @AfterEach
+    void restaurar() {
+        ReflectionTestUtils.setField(servico(), "clienteRepository", clienteRepository);
+        if (!criados.isEmpty()) {
+            clienteService.deletarClientes(criados);
+        }
+    }
+
+    @Test
+    void exportaUmClienteJsonPorLinha() throws Exception {
+        criar(3);
+
+        for (String accept : new String[] { "application/x-ndjson", "*/*", "application/json, application/*" }) {
+            String corpo = mockMvc.perform(get("/api/clientes/export").header(HttpHeaders.ACCEPT, accept))
+                    .andExpect(status().isOk())
+                    .andExpect(content().contentTypeCompatibleWith(NDJSON))
+                    .andReturn().getResponse().getContentAsString();
+
+            assertThat(corpo).endsWith("\n");
+            String[] linhas = corpo.split("\n");
+            assertThat(linhas).hasSize((int) clienteRepository.count());
+            List<Long> ids = new ArrayList<>();
+            for (String linha : linhas) {
+                Map<String, Object> cliente = objectMapper.readValue(linha, new TypeReference<>() { });
+                assertThat(cliente).containsKeys("id", "nome", "endereco");
+                ids.add(((Number) cliente.get("id")).longValue());
+            }
+            assertThat(ids).containsAll(criados).isSorted();
+        }
+    }
+
+    @Test
+    void acceptApenasJsonRetornaNotAcceptable() throws Exception {
+        mockMvc.perform(get("/api/clientes/export").accept(MediaType.APPLICATION_JSON))
+                .andExpect(status().isNotAcceptable())
+                .andExpect(content().contentTypeCompatibleWith(MediaType.APPLICATION_JSON))
+                .andExpect(jsonPath("$.status").value(406))
+                .andExpect(jsonPath("$.message").value(containsString("application/x-ndjson")));
+    }
+
+    @ParameterizedTest
+    @ValueSource(strings = { "text/html", "application/json;q=0.9, text/csv", "isto não é um tipo" })
+    void acceptSemNdjsonRetornaNotAcceptable(String accept) throws Exception {
+        // Não pode cair em /{id} com id=export (400)
+        mockMvc.perform(get("/api/clientes/export").header(HttpHeaders.ACCEPT, accept))
+                .andExpect(status().isNotAcceptable());
+    }
+
+    @Test
+    void falhaNoMeioDaExportacaoInterrompeARespostaSemCompletarComErro() throws Exception {
+        ClienteResponseDto primeiro = new ClienteResponseDto(1L, "Ana", "Rua A", 10L, "Campinas", Estado.SP);
+        ClienteResponseDto segundo = new ClienteResponseDto(2L, "Bia", "Rua B", null, null, null);
+        ClienteRepository falhando = mock(ClienteRepository.class);
+        when(falhando.streamTodos()).thenReturn(Stream.concat(Stream.of(primeiro, segundo),
+                Stream.<ClienteResponseDto>generate(() -> {
+                    throw new IllegalStateException("Conexão com o banco perdida");
+                }).limit(1)));
+        ReflectionTestUtils.setField(servico(), "clienteRepository", falhando);
+        // Um flush por cliente: a resposta já foi enviada quando a leitura falha
+        Object bloco = ReflectionTestUtils.getField(servico(), "exportacaoBloco");
+        ReflectionTestUtils.setField(servico(), "exportacaoBloco", 1);
+
+        try {
+            assertThatThrownBy(() -> mockMvc.perform(get("/api/clientes/export")))
+                    .hasRootCauseInstanceOf(IllegalStateException.class);
+        } finally {
+            ReflectionTestUtils.setField(servico(), "exportacaoBloco", bloco);
+        }
+
+        MockHttpServletResponse enviada = resposta.get();
+        assertThat(enviada.isCommitted()).isTrue();
+        assertThat(enviada.getStatus()).isEqualTo(200);
+        String[] linhas = enviada.getContentAsString().split("\n");
+        assertThat(linhas).hasSize(2);
+        assertThat(objectMapper.readValue(linhas[0], ClienteResponseDto.class)).isEqualTo(primeiro);
+        assertThat(objectMapper.readValue(linhas[1], ClienteResponseDto.class)).isEqualTo(segundo);
+    }
+
+    private ClienteService servico() {
+        return AopTestUtils.getUltimateTargetObject(clienteService);
+    }
+
+    private void criar(int quantidade) {
+        List<ClientePostDto> dtos = IntStream.range(0, quantidade)
+                .mapToObj(i -> new ClientePostDto("Cliente Exportado " + i, "Rua " + i, null))
+                .toList();
+        for (ClienteLoteResultadoDto item : clienteService.createClientesEmLote(dtos)) {
+            criados.add(item.getId());
+        }
+    }
+}
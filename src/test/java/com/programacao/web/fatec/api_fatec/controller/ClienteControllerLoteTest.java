@@ -0,0 +1,125 @@
+package com.programacao.web.fatec.api_fatec.controller;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.hamcrest.Matchers.containsString;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.http.MediaType;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.ResultActions;
+import org.springframework.test.web.servlet.setup.MockMvcBuilders;
+import org.springframework.web.context.WebApplicationContext;
+
+import com.jayway.jsonpath.JsonPath;
+import com.programacao.web.fatec.api_fatec.domain.cliente.ClienteRepository;
+import com.programacao.web.fatec.api_fatec.domain.cliente.ClienteService;
+import com.programacao.web.fatec.api_fatec.entities.Cliente;
+
+/**
+ * POST /api/clientes/batch: 201 quando todos os itens são criados e 207 com o erro de cada item
+ * inválido, sem impedir a criação dos demais.
+ */
+@SpringBootTest
+class ClienteControllerLoteTest {
+
+    private static final String URL = "/api/clientes/batch";
+
+    @Autowired
+    private WebApplicationContext context;
+
+    @Autowired
+    private ClienteService clienteService;
+
+    @Autowired
+    private ClienteRepository clienteRepository;
+
+    private MockMvc mockMvc;
+
+    private final List<Long> criados = new ArrayList<>();
+
+    @BeforeEach
+    void criarMockMvc() {
+        mockMvc = MockMvcBuilders.webAppContextSetup(context).build();
+    }
+
+    @AfterEach
+    void removerClientes() {
+        if (!criados.isEmpty()) {
+            clienteService.deletarClientes(criados);
+        }
+    }
+
+    @Test
+    void todosValidosRetornaCreated() throws Exception {
+        String corpo = enviar("""
+                [{"nome": "Lote Um", "endereco": "Rua 1"},
+                 {"nome": "Lote Dois", "endereco": "Rua 2"}]
+                """)
+                .andExpect(status().isCreated())
+                .andExpect(jsonPath("$.length()").value(2))
+                .andExpect(jsonPath("$[0].indice").value(0))
+                .andExpect(jsonPath("$[0].status").value("CRIADO"))
+                .andExpect(jsonPath("$[1].indice").value(1))
+                .andExpect(jsonPath("$[1].status").value("CRIADO"))
+                .andReturn().getResponse().getContentAsString();
+
+        registrarCriados(corpo);
+        assertThat(clienteRepository.findAllById(criados)).extracting(Cliente::getNome)
+                .containsExactlyInAnyOrder("Lote Um", "Lote Dois");
+    }
+
+    @Test
+    void itensInvalidosRetornamMultiStatusComOErroDeCada() throws Exception {
+        String enderecoLongo = "R".repeat(61);
+        String corpo = enviar("""
+                [{"nome": "Lote Válido", "endereco": "Rua 1"},
+                 {"nome": " ", "endereco": "Rua 2"},
+                 null,
+                 {"nome": "Lote Longo", "endereco": "%s"},
+                 {"nome": "Lote Outro", "endereco": "Rua 5"}]
+                """.formatted(enderecoLongo))
+                .andExpect(status().isMultiStatus())
+                .andExpect(jsonPath("$.length()").value(5))
+                .andExpect(jsonPath("$[0].status").value("CRIADO"))
+                .andExpect(jsonPath("$[1].status").value("ERRO"))
+                .andExpect(jsonPath("$[1].indice").value(1))
+                .andExpect(jsonPath("$[1].id").doesNotExist())
+                .andExpect(jsonPath("$[1].erro").value(containsString("nome")))
+                .andExpect(jsonPath("$[2].status").value("ERRO"))
+                .andExpect(jsonPath("$[2].erro").value("Cliente não informado"))
+                .andExpect(jsonPath("$[3].status").value("ERRO"))
+                .andExpect(jsonPath("$[3].erro").value(containsString("endereco")))
+                .andExpect(jsonPath("$[4].status").value("CRIADO"))
+                .andReturn().getResponse().getContentAsString();
+
+        registrarCriados(corpo);
+        assertThat(clienteRepository.findAllById(criados)).extracting(Cliente::getNome)
+                .containsExactlyInAnyOrder("Lote Válido", "Lote Outro");
+    }
+
+    @Test
+    void listaVaziaRetornaBadRequest() throws Exception {
+        enviar("[]")
+                .andExpect(status().isBadRequest())
+                .andExpect(jsonPath("$.message").value(containsString("O lote deve conter entre 1 e")));
+    }
+
+    private ResultActions enviar(String json) throws Exception {
+        return mockMvc.perform(post(URL).contentType(MediaType.APPLICATION_JSON).content(json));
+    }
+
+    private void registrarCriados(String corpo) {
+        List<Number> ids = JsonPath.read(corpo, "$[?(@.status == 'CRIADO')].id");
+        ids.forEach(id -> criados.add(id.longValue()));
+    }
+}
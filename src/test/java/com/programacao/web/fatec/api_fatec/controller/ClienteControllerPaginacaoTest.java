@@ -0,0 +1,163 @@
+package com.programacao.web.fatec.api_fatec.controller;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.hamcrest.Matchers.containsString;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.header;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.stream.IntStream;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.ValueSource;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.MvcResult;
+import org.springframework.test.web.servlet.setup.MockMvcBuilders;
+import org.springframework.web.context.WebApplicationContext;
+
+import com.jayway.jsonpath.JsonPath;
+import com.programacao.web.fatec.api_fatec.domain.cliente.ClienteCursor;
+import com.programacao.web.fatec.api_fatec.domain.cliente.ClienteRepository;
+import com.programacao.web.fatec.api_fatec.domain.cliente.ClienteService;
+import com.programacao.web.fatec.api_fatec.domain.cliente.dto.ClienteLoteResultadoDto;
+import com.programacao.web.fatec.api_fatec.domain.cliente.dto.ClientePostDto;
+
+/**
+ * Listagem de clientes: paginação por chave com o cursor de X-Next-Cursor, o limite da listagem
+ * sem parâmetros (api.clientes.listagem.maximo) e os parâmetros inválidos.
+ */
+@SpringBootTest
+class ClienteControllerPaginacaoTest {
+
+    private static final String URL = "/api/clientes/listarClientes";
+
+    @Autowired
+    private WebApplicationContext context;
+
+    @Autowired
+    private ClienteService clienteService;
+
+    @Autowired
+    private ClienteRepository clienteRepository;
+
+    @Value("${api.clientes.listagem.maximo}")
+    private int listagemMaximo;
+
+    private MockMvc mockMvc;
+
+    private final List<Long> criados = new ArrayList<>();
+
+    @BeforeEach
+    void criarMockMvc() {
+        mockMvc = MockMvcBuilders.webAppContextSetup(context).build();
+    }
+
+    @AfterEach
+    void removerClientes() {
+        if (!criados.isEmpty()) {
+            clienteService.deletarClientes(criados);
+        }
+    }
+
+    @Test
+    void cursorDeCadaPaginaLevaAProximaAteAUltima() throws Exception {
+        List<Long> ids = criar(5);
+        String primeira = URL + "?limit=2&after=" + (ids.get(0) - 1);
+
+        MvcResult pagina = listar(primeira);
+        assertThat(idsDa(pagina)).containsExactly(ids.get(0), ids.get(1));
+        String cursor = pagina.getResponse().getHeader(ClienteController.HEADER_PROXIMO_CURSOR);
+        assertThat(ClienteCursor.decodificar(cursor)).isEqualTo(ids.get(1));
+
+        pagina = listar(URL + "?limit=2&cursor=" + cursor);
+        assertThat(idsDa(pagina)).containsExactly(ids.get(2), ids.get(3));
+        // O cursor equivale ao after com o último ID da página
+        assertThat(idsDa(listar(URL + "?limit=2&after=" + ids.get(1)))).isEqualTo(idsDa(pagina));
+
+        pagina = listar(URL + "?limit=2&cursor="
+                + pagina.getResponse().getHeader(ClienteController.HEADER_PROXIMO_CURSOR));
+        assertThat(idsDa(pagina)).containsExactly(ids.get(4));
+        assertThat(pagina.getResponse().getHeader(ClienteController.HEADER_PROXIMO_CURSOR)).isNull();
+    }
+
+    @Test
+    void paginaCheiaNoFimTemCursorParaUmaPaginaVazia() throws Exception {
+        List<Long> ids = criar(2);
+
+        MvcResult pagina = listar(URL + "?limit=2&after=" + (ids.get(0) - 1));
+        String cursor = pagina.getResponse().getHeader(ClienteController.HEADER_PROXIMO_CURSOR);
+        assertThat(cursor).isNotNull();
+
+        mockMvc.perform(get(URL + "?limit=2&cursor=" + cursor))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.length()").value(0))
+                .andExpect(header().doesNotExist(ClienteController.HEADER_PROXIMO_CURSOR));
+    }
+
+    @Test
+    void listagemSemParametrosParaNoMaximoEIndicaOCursorDoRestante() throws Exception {
+        long faltam = listagemMaximo + 1 - clienteRepository.count();
+        if (faltam > 0) {
+            criar((int) faltam);
+        }
+
+        MvcResult listagem = listar(URL);
+        List<Long> ids = idsDa(listagem);
+        assertThat(ids).hasSize(listagemMaximo).isSorted();
+        String cursor = listagem.getResponse().getHeader(ClienteController.HEADER_PROXIMO_CURSOR);
+        assertThat(ClienteCursor.decodificar(cursor)).isEqualTo(ids.get(ids.size() - 1));
+
+        List<Long> restante = idsDa(listar(URL + "?cursor=" + cursor));
+        assertThat(restante).isNotEmpty().allMatch(id -> id > ids.get(ids.size() - 1));
+    }
+
+    @ParameterizedTest
+    @ValueSource(strings = { "nao-e-base64!", "eDox", "aWQ6YWJj", "" })
+    void cursorInvalidoRetornaBadRequest(String cursor) throws Exception {
+        // eDox é "x:1" (sem o prefixo) e aWQ6YWJj é "id:abc" (sem um número)
+        mockMvc.perform(get(URL).param("cursor", cursor))
+                .andExpect(status().isBadRequest())
+                .andExpect(jsonPath("$.status").value(400))
+                .andExpect(jsonPath("$.message").value(containsString("Cursor de paginação inválido")));
+    }
+
+    @ParameterizedTest
+    @ValueSource(ints = { 0, -1, 501 })
+    void limitForaDoIntervaloRetornaBadRequest(int limit) throws Exception {
+        mockMvc.perform(get(URL).param("limit", String.valueOf(limit)))
+                .andExpect(status().isBadRequest())
+                .andExpect(jsonPath("$.message").value(containsString("limit")));
+    }
+
+    private List<Long> criar(int quantidade) {
+        List<ClientePostDto> dtos = IntStream.range(0, quantidade)
+                .mapToObj(i -> new ClientePostDto("Cliente Página " + i, "Rua " + i, null))
+                .toList();
+        List<Long> ids = new ArrayList<>();
+        for (ClienteLoteResultadoDto item : clienteService.createClientesEmLote(dtos)) {
+            ids.add(item.getId());
+        }
+        criados.addAll(ids);
+        return ids;
+    }
+
+    private MvcResult listar(String url) throws Exception {
+        return mockMvc.perform(get(url))
+                .andExpect(status().isOk())
+                .andReturn();
+    }
+
+    private static List<Long> idsDa(MvcResult resultado) throws Exception {
+        List<Number> ids = JsonPath.read(resultado.getResponse().getContentAsString(), "$[*].id");
+        return ids.stream().map(Number::longValue).toList();
+    }
+}
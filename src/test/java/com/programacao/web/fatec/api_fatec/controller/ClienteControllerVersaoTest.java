@@ -0,0 +1,135 @@
+package com.programacao.web.fatec.api_fatec.controller;
+
+import static org.hamcrest.Matchers.containsString;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.delete;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.patch;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.header;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.MediaType;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.ResultActions;
+import org.springframework.test.web.servlet.setup.MockMvcBuilders;
+import org.springframework.web.context.WebApplicationContext;
+
+import com.jayway.jsonpath.JsonPath;
+
+/**
+ * GET /api/clientes/{id} com a versão no ETag e PATCH condicional com If-Match.
+ *
+ * O MockMvc é montado sobre o mesmo contexto dos demais testes (sem @AutoConfigureMockMvc), para
+ * não iniciar um segundo contexto com outro servidor reativo e outro esquema no mesmo banco H2.
+ */
+@SpringBootTest
+class ClienteControllerVersaoTest {
+
+    private static final long ID_INEXISTENTE = 999_999_999L;
+
+    @Autowired
+    private WebApplicationContext context;
+
+    private MockMvc mockMvc;
+
+    private long id;
+
+    @BeforeEach
+    void criarCliente() throws Exception {
+        mockMvc = MockMvcBuilders.webAppContextSetup(context).build();
+        String resposta = mockMvc.perform(post("/api/clientes")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content("{\"nome\": \"Cliente Versão\", \"endereco\": \"Rua da Versão, 1\"}"))
+                .andExpect(status().isCreated())
+                .andReturn().getResponse().getContentAsString();
+        id = ((Number) JsonPath.read(resposta, "$.id")).longValue();
+    }
+
+    @AfterEach
+    void removerCliente() throws Exception {
+        mockMvc.perform(delete("/api/clientes/{id}", id));
+    }
+
+    @Test
+    void buscarRetornaAVersaoNoEtag() throws Exception {
+        mockMvc.perform(get("/api/clientes/{id}", id))
+                .andExpect(status().isOk())
+                .andExpect(header().string(HttpHeaders.ETAG, "\"0\""))
+                .andExpect(jsonPath("$.nome").value("Cliente Versão"));
+
+        mockMvc.perform(get("/api/clientes/{id}", id).header(HttpHeaders.IF_NONE_MATCH, "\"0\""))
+                .andExpect(status().isNotModified());
+    }
+
+    @Test
+    void alterarComIfMatchDaVersaoAtual() throws Exception {
+        alterar("\"0\"", "Cliente Alterado")
+                .andExpect(status().isNoContent())
+                .andExpect(header().string(HttpHeaders.ETAG, "\"1\""));
+
+        mockMvc.perform(get("/api/clientes/{id}", id))
+                .andExpect(header().string(HttpHeaders.ETAG, "\"1\""))
+                .andExpect(jsonPath("$.nome").value("Cliente Alterado"));
+    }
+
+    @Test
+    void alterarComVersaoDesatualizadaRetornaConflito() throws Exception {
+        alterar("\"0\"", "Primeira").andExpect(status().isNoContent());
+
+        alterar("\"0\"", "Segunda").andExpect(status().isConflict());
+        mockMvc.perform(patch("/api/clientes/{id}", id)
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content("{\"nome\": \"Segunda\", \"versao\": 0}"))
+                .andExpect(status().isConflict());
+
+        mockMvc.perform(get("/api/clientes/{id}", id))
+                .andExpect(header().string(HttpHeaders.ETAG, "\"1\""))
+                .andExpect(jsonPath("$.nome").value("Primeira"));
+    }
+
+    @Test
+    void ifMatchQueNaoEVersaoRetornaBadRequest() throws Exception {
+        alterar("\"abc\"", "Outro").andExpect(status().isBadRequest());
+    }
+
+    @Test
+    void clienteInexistenteRetornaNaoEncontrado() throws Exception {
+        mockMvc.perform(get("/api/clientes/{id}", ID_INEXISTENTE))
+                .andExpect(status().isNotFound());
+        mockMvc.perform(patch("/api/clientes/{id}", ID_INEXISTENTE)
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .header(HttpHeaders.IF_MATCH, "\"0\"")
+                        .content("{\"nome\": \"Ninguém\"}"))
+                .andExpect(status().isNotFound());
+    }
+
+    @Test
+    void idQueNaoENumeroRetornaBadRequest() throws Exception {
+        // Caminhos digitados errado também caem em /{id}
+        for (String caminho : new String[] { "/api/clientes/abc", "/api/clientes/listarCliente" }) {
+            mockMvc.perform(get(caminho))
+                    .andExpect(status().isBadRequest())
+                    .andExpect(jsonPath("$.status").value(400))
+                    .andExpect(jsonPath("$.message").value(containsString("id")));
+        }
+        mockMvc.perform(patch("/api/clientes/abc")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .header(HttpHeaders.IF_MATCH, "\"0\"")
+                        .content("{\"nome\": \"Ninguém\"}"))
+                .andExpect(status().isBadRequest());
+    }
+
+    private ResultActions alterar(String ifMatch, String nome) throws Exception {
+        return mockMvc.perform(patch("/api/clientes/{id}", id)
+                .contentType(MediaType.APPLICATION_JSON)
+                .header(HttpHeaders.IF_MATCH, ifMatch)
+                .content("{\"nome\": \"" + nome + "\"}"));
+    }
+}
@@ -0,0 +1,234 @@
+package com.programacao.web.fatec.api_fatec.domain.cliente;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.programacao.web.fatec.api_fatec.domain.cliente.ClienteBuscaCache.Chave;
+import com.programacao.web.fatec.api_fatec.domain.cliente.dto.ClienteResponseDto;
+import com.programacao.web.fatec.api_fatec.entities.Cidade;
+import com.programacao.web.fatec.api_fatec.entities.Cliente;
+import com.programacao.web.fatec.api_fatec.entities.Estado;
+import com.programacao.web.fatec.api_fatec.infra.LeituraReplica;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+
+class ClienteBuscaCacheTest {
+
+    private static final ClienteResponseDto MARIA =
+            new ClienteResponseDto(1L, "Maria", "Rua A", 10L, "Campinas", Estado.SP);
+
+    private static final ClienteResponseDto JOAO =
+            new ClienteResponseDto(2L, "João", "Rua B", 20L, "Recife", Estado.PE);
+
+    private ClienteBuscaCache cache;
+
+    @BeforeEach
+    void criarCache() {
+        cache = new ClienteBuscaCache();
+        ReflectionTestUtils.setField(cache, "meterRegistry", new SimpleMeterRegistry());
+        ReflectionTestUtils.setField(cache, "habilitado", true);
+        ReflectionTestUtils.setField(cache, "pesoMaximo", 1000L);
+        ReflectionTestUtils.setField(cache, "expiracao", Duration.ofMinutes(5));
+        cache.inicializar();
+    }
+
+    @Test
+    void guardaOResultadoDaConsulta() {
+        AtomicInteger consultas = new AtomicInteger();
+        Chave chave = Chave.texto(null, "maria");
+
+        cache.buscar(chave, () -> {
+            consultas.incrementAndGet();
+            return List.of(MARIA);
+        });
+        List<ClienteResponseDto> resultado = cache.buscar(chave, () -> {
+            consultas.incrementAndGet();
+            return List.of(MARIA);
+        });
+
+        assertThat(resultado).containsExactly(MARIA);
+        assertThat(consultas).hasValue(1);
+    }
+
+    @Test
+    void naoGuardaConsultaIniciadaAntesDeUmaInvalidacao() {
+        Chave chave = Chave.texto(null, "maria");
+
+        // A escrita é gravada e invalida o cache enquanto a consulta ainda está em andamento
+        List<ClienteResponseDto> resultado = cache.buscar(chave, () -> {
+            cache.invalidarClientesRemovidos(List.of(99L));
+            return List.of(MARIA);
+        });
+
+        assertThat(resultado).containsExactly(MARIA);
+        assertThat(emCache(chave)).isFalse();
+    }
+
+    @Test
+    void naoGuardaLeituraDeReplicaDefasada() throws Exception {
+        Chave chave = Chave.texto(null, "maria");
+
+        // Em outra thread, para que a marcação da requisição defasada não fique nesta
+        CompletableFuture.runAsync(() -> LeituraReplica.executar(() -> cache.buscar(chave, () -> {
+            LeituraReplica.registrarDefasada();
+            return List.of(MARIA);
+        }))).get();
+
+        assertThat(emCache(chave)).isFalse();
+    }
+
+    @Test
+    void invalidarClientesRemoveApenasAsBuscasQueOClientePassaACorresponder() {
+        Chave maria = guardar(Chave.texto(null, "maria"), MARIA);
+        Chave joao = guardar(Chave.texto(null, "joao"), JOAO);
+        Chave recife = guardar(Chave.idOuNome(null, "recife"), JOAO);
+
+        Cliente novo = new Cliente(3L, "Mariana", "Rua C",
+                new Cidade(30L, "Recife", Estado.PE));
+        cache.invalidarClientes(List.of(novo));
+
+        assertThat(emCache(maria)).isFalse();
+        assertThat(emCache(joao)).isTrue();
+        // A busca por ID ou nome não compara o nome da cidade
+        assertThat(emCache(recife)).isTrue();
+    }
+
+    @Test
+    void invalidarClientesRemoveAsBuscasQueContinhamOCliente() {
+        Chave maria = guardar(Chave.texto(null, "maria"), MARIA);
+        Chave joao = guardar(Chave.texto(null, "joao"), JOAO);
+
+        cache.invalidarClientes(List.of(new Cliente(1L, "Ana", "Rua A")));
+
+        assertThat(emCache(maria)).isFalse();
+        assertThat(emCache(joao)).isTrue();
+    }
+
+    @Test
+    void invalidarAlteracaoParcialRemoveApenasAsBuscasAfetadas() {
+        Chave maria = guardar(Chave.texto(null, "maria"), MARIA);
+        Chave joao = guardar(Chave.texto(null, "joao"), JOAO);
+        Chave carlos = guardar(Chave.idOuNome(null, "carlos"));
+        Chave pedro = guardar(Chave.idOuNome(null, "pedro"));
+
+        cache.invalidarAlteracaoParcial(2L, "Carlos", null);
+
+        assertThat(emCache(joao)).isFalse();
+        assertThat(emCache(carlos)).isFalse();
+        assertThat(emCache(maria)).isTrue();
+        assertThat(emCache(pedro)).isTrue();
+    }
+
+    @Test
+    void invalidarClientesRemovidosRemoveApenasAsBuscasQueOsContinham() {
+        Chave maria = guardar(Chave.texto(null, "maria"), MARIA);
+        Chave joao = guardar(Chave.texto(null, "joao"), JOAO);
+        Chave vazia = guardar(Chave.idOuNome(null, "maria"));
+
+        cache.invalidarClientesRemovidos(List.of(1L));
+
+        assertThat(emCache(maria)).isFalse();
+        assertThat(emCache(joao)).isTrue();
+        assertThat(emCache(vazia)).isTrue();
+    }
+
+    @Test
+    void invalidarCidadeRemoveApenasAsBuscasAfetadas() {
+        Chave maria = guardar(Chave.texto(null, "maria"), MARIA);
+        Chave joao = guardar(Chave.texto(null, "joao"), JOAO);
+        Chave olinda = guardar(Chave.texto(null, "olinda"));
+        Chave olindaPorNome = guardar(Chave.idOuNome(null, "olinda"));
+
+        // A cidade 10 (de Maria) passa a se chamar Olinda
+        cache.invalidarCidade(10L, "Olinda");
+
+        assertThat(emCache(maria)).isFalse();
+        assertThat(emCache(olinda)).isFalse();
+        assertThat(emCache(joao)).isTrue();
+        assertThat(emCache(olindaPorNome)).isTrue();
+    }
+
+    @Test
+    void buscasSemTrigramaSaoConferidasEmTodaAlteracao() {
+        Chave curta = guardar(Chave.texto(null, "ma"));
+        Chave curinga = guardar(Chave.texto(null, "m%a"));
+        Chave outra = guardar(Chave.texto(null, "jo"));
+
+        cache.invalidarClientes(List.of(new Cliente(3L, "Mariana", "Rua C")));
+
+        assertThat(emCache(curta)).isFalse();
+        assertThat(emCache(curinga)).isFalse();
+        assertThat(emCache(outra)).isTrue();
+    }
+
+    @Test
+    void indicesAcompanhamAsEntradasRemovidas() {
+        guardar(Chave.texto(null, "maria"), MARIA);
+        guardar(Chave.texto(null, "ma"), MARIA);
+        guardar(Chave.idOuNome(1L, "1"), MARIA);
+
+        cache.invalidarClientesRemovidos(List.of(1L));
+
+        assertThat(indice("porCliente")).isEmpty();
+        assertThat(indice("porCidade")).isEmpty();
+        assertThat(indice("porTrigrama")).isEmpty();
+        assertThat(indice("semTrigrama")).isEmpty();
+    }
+
+    @Test
+    void indicesAcompanhamAsEntradasDescartadasPorTamanho() {
+        ReflectionTestUtils.setField(cache, "meterRegistry", new SimpleMeterRegistry());
+        ReflectionTestUtils.setField(cache, "pesoMaximo", 4L);
+        cache.inicializar();
+
+        for (String termo : List.of("maria", "mario", "marta", "marcos")) {
+            cache.buscar(Chave.texto(null, termo), () -> List.of(MARIA));
+        }
+        Cache<?, ?> entradas = (Cache<?, ?>) ReflectionTestUtils.getField(cache, "cache");
+        entradas.cleanUp();
+
+        assertThat(entradas.estimatedSize()).isEqualTo(2);
+        assertThat(indice("porTrigrama").values().stream().mapToInt(chaves -> ((Set<?>) chaves).size()).sum())
+                .isEqualTo(2);
+        assertThat((Set<?>) indice("porCliente").get(1L)).hasSize(2);
+    }
+
+    private Map<?, ?> indice(String nome) {
+        Object indice = ReflectionTestUtils.getField(cache, nome);
+        if (indice instanceof Set<?> chaves) {
+            return chaves.isEmpty() ? Map.of() : Map.of("", chaves);
+        }
+        return (Map<?, ?>) indice;
+    }
+
+    private Chave guardar(Chave chave, ClienteResponseDto... clientes) {
+        cache.buscar(chave, () -> List.of(clientes));
+        assertThat(emCache(chave)).isTrue();
+        return chave;
+    }
+
+    /**
+     * Verifica se a busca é atendida pelo cache. Uma busca que não estava no cache fica guardada
+     * com resultado vazio.
+     */
+    private boolean emCache(Chave chave) {
+        AtomicBoolean consultou = new AtomicBoolean();
+        cache.buscar(chave, () -> {
+            consultou.set(true);
+            return List.of();
+        });
+        return !consultou.get();
+    }
+}
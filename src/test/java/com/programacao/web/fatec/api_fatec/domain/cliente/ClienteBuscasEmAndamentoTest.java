@@ -0,0 +1,162 @@
+package com.programacao.web.fatec.api_fatec.domain.cliente;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Supplier;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import com.programacao.web.fatec.api_fatec.domain.cliente.ClienteBuscaCache.Chave;
+import com.programacao.web.fatec.api_fatec.domain.cliente.dto.ClienteResponseDto;
+import com.programacao.web.fatec.api_fatec.entities.Estado;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+
+class ClienteBuscasEmAndamentoTest {
+
+    private static final int SEGUIDORAS = 4;
+
+    private static final Chave CHAVE = Chave.texto(null, "maria");
+
+    private static final List<ClienteResponseDto> RESULTADO =
+            List.of(new ClienteResponseDto(1L, "Maria", "Rua A", 10L, "Campinas", Estado.SP));
+
+    private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+
+    private final ExecutorService threads = Executors.newFixedThreadPool(SEGUIDORAS + 1);
+
+    private final List<Thread> seguidoras = new ArrayList<>();
+
+    private ClienteBuscasEmAndamento buscas;
+
+    @BeforeEach
+    void criar() {
+        buscas = new ClienteBuscasEmAndamento();
+        ReflectionTestUtils.setField(buscas, "clienteVersao", new ClienteVersao());
+        ReflectionTestUtils.setField(buscas, "meterRegistry", meterRegistry);
+        ReflectionTestUtils.setField(buscas, "habilitado", true);
+        buscas.inicializar();
+    }
+
+    @AfterEach
+    void encerrar() {
+        threads.shutdownNow();
+    }
+
+    @Test
+    void buscasIdenticasCompartilhamUmaConsulta() throws Exception {
+        AtomicInteger consultas = new AtomicInteger();
+        CountDownLatch iniciou = new CountDownLatch(1);
+        CountDownLatch liberar = new CountDownLatch(1);
+
+        Future<List<ClienteResponseDto>> lider = threads.submit(() -> buscas.executar(CHAVE, () -> {
+            consultas.incrementAndGet();
+            iniciou.countDown();
+            aguardar(liberar);
+            return RESULTADO;
+        }));
+        assertThat(iniciou.await(5, TimeUnit.SECONDS)).isTrue();
+
+        List<Future<List<ClienteResponseDto>>> resultados = seguir(() -> {
+            consultas.incrementAndGet();
+            return List.of();
+        });
+        liberar.countDown();
+
+        assertThat(lider.get(5, TimeUnit.SECONDS)).isEqualTo(RESULTADO);
+        for (Future<List<ClienteResponseDto>> resultado : resultados) {
+            assertThat(resultado.get(5, TimeUnit.SECONDS)).isEqualTo(RESULTADO);
+        }
+        assertThat(consultas).hasValue(1);
+        assertThat(meterRegistry.counter("api.clientes.busca.compartilhadas").count()).isEqualTo(SEGUIDORAS);
+    }
+
+    @Test
+    void buscasQueAguardavamRecebemAExcecaoDaConsulta() throws Exception {
+        IllegalStateException falha = new IllegalStateException("Falha na consulta");
+        CountDownLatch iniciou = new CountDownLatch(1);
+        CountDownLatch liberar = new CountDownLatch(1);
+
+        Future<List<ClienteResponseDto>> lider = threads.submit(() -> buscas.executar(CHAVE, () -> {
+            iniciou.countDown();
+            aguardar(liberar);
+            throw falha;
+        }));
+        assertThat(iniciou.await(5, TimeUnit.SECONDS)).isTrue();
+
+        List<Future<List<ClienteResponseDto>>> resultados = seguir(() -> RESULTADO);
+        liberar.countDown();
+
+        assertThatThrownBy(() -> lider.get(5, TimeUnit.SECONDS)).hasCause(falha);
+        for (Future<List<ClienteResponseDto>> resultado : resultados) {
+            assertThatThrownBy(() -> resultado.get(5, TimeUnit.SECONDS)).cause().isSameAs(falha);
+        }
+    }
+
+    @Test
+    void consultaTerminadaNaoEReaproveitada() {
+        AtomicInteger consultas = new AtomicInteger();
+        Supplier<List<ClienteResponseDto>> consulta = () -> {
+            consultas.incrementAndGet();
+            return RESULTADO;
+        };
+
+        buscas.executar(CHAVE, consulta);
+        buscas.executar(CHAVE, consulta);
+
+        assertThat(consultas).hasValue(2);
+    }
+
+    /**
+     * Inicia as buscas seguidoras com a mesma chave e espera todas ficarem aguardando a consulta
+     * em andamento.
+     */
+    private List<Future<List<ClienteResponseDto>>> seguir(Supplier<List<ClienteResponseDto>> consulta)
+            throws InterruptedException {
+        List<Future<List<ClienteResponseDto>>> resultados = new ArrayList<>();
+        for (int i = 0; i < SEGUIDORAS; i++) {
+            resultados.add(threads.submit(() -> {
+                synchronized (seguidoras) {
+                    seguidoras.add(Thread.currentThread());
+                }
+                return buscas.executar(CHAVE, consulta);
+            }));
+        }
+        long limite = System.nanoTime() + TimeUnit.SECONDS.toNanos(5);
+        while (!todasAguardando() && System.nanoTime() < limite) {
+            Thread.sleep(1);
+        }
+        assertThat(todasAguardando()).isTrue();
+        return resultados;
+    }
+
+    private boolean todasAguardando() {
+        synchronized (seguidoras) {
+            return seguidoras.size() == SEGUIDORAS
+                    && seguidoras.stream().allMatch(t -> t.getState() == Thread.State.WAITING);
+        }
+    }
+
+    private static void aguardar(CountDownLatch latch) {
+        try {
+            if (!latch.await(5, TimeUnit.SECONDS)) {
+                throw new IllegalStateException("A consulta não foi liberada");
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException(e);
+        }
+    }
+}
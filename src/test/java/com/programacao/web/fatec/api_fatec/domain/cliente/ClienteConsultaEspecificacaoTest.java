@@ -0,0 +1,99 @@
+package com.programacao.web.fatec.api_fatec.domain.cliente;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.util.List;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.ValueSource;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.transaction.annotation.Transactional;
+
+import com.programacao.web.fatec.api_fatec.entities.Cidade;
+import com.programacao.web.fatec.api_fatec.entities.Cliente;
+import com.programacao.web.fatec.api_fatec.entities.Estado;
+
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.criteria.CriteriaBuilder;
+import jakarta.persistence.criteria.CriteriaQuery;
+import jakarta.persistence.criteria.Root;
+
+/**
+ * Confere que {@link ClienteConsulta#corresponde} (usado pelo cache de buscas) seleciona os mesmos
+ * clientes que {@link ClienteConsulta#especificacao()} executada no H2.
+ */
+@SpringBootTest
+@Transactional
+class ClienteConsultaEspecificacaoTest {
+
+    @Autowired
+    private EntityManager entityManager;
+
+    @BeforeEach
+    void criarClientes() {
+        Cidade saoPaulo = persistir(new Cidade(null, "São Paulo Teste", Estado.SP));
+        Cidade silvania = persistir(new Cidade(null, "Silvânia Teste", Estado.GO));
+        Cidade belo = persistir(new Cidade(null, "Belo Horizonte Teste", Estado.MG));
+
+        persistir(new Cliente(null, "Maria da Silva", "Rua A", saoPaulo));
+        persistir(new Cliente(null, "João Silva", "Rua B", belo));
+        persistir(new Cliente(null, "Joana", "Rua C"));
+        persistir(new Cliente(null, "Silvana", "Rua D", silvania));
+        persistir(new Cliente(null, "Ana 50%_x", "Rua E", saoPaulo));
+        persistir(new Cliente(null, "Ana 500x", "Rua F", belo));
+        entityManager.flush();
+        entityManager.clear();
+    }
+
+    @ParameterizedTest
+    @ValueSource(strings = {
+            "nome:jo*",
+            "nome:*silva*",
+            "nome:*silva",
+            "nome:joana",
+            "nome:\"joão silva\"",
+            "nome:*50%_*",
+            "estado:SP",
+            "estado:\"Minas Gerais\" nome:*a*",
+            "cidade:\"sao paulo teste\"",
+            "cidade:*teste nome:ana*",
+            "estado:SP silva",
+            "estado:GO silv",
+            "nome:ana* 50%",
+            "nome:ana* 500",
+            "cidade:silv* silvana",
+            "nome:*x 50%_" })
+    void correspondeIgualAoSql(String texto) {
+        ClienteConsulta consulta = ClienteConsulta.interpretar(texto).orElseThrow();
+
+        CriteriaBuilder cb = entityManager.getCriteriaBuilder();
+        CriteriaQuery<Long> query = cb.createQuery(Long.class);
+        Root<Cliente> cliente = query.from(Cliente.class);
+        query.select(cliente.get("id"))
+                .where(consulta.especificacao().toPredicate(cliente, query, cb))
+                .orderBy(cb.asc(cliente.get("id")));
+        List<Long> sql = entityManager.createQuery(query).getResultList();
+
+        List<Long> emMemoria = entityManager
+                .createQuery("select c from Cliente c left join fetch c.cidade order by c.id", Cliente.class)
+                .getResultStream()
+                .filter(c -> {
+                    Cidade cidade = c.getCidade();
+                    return consulta.corresponde(c.getId(), c.getNomeNormalizado(),
+                            cidade != null ? cidade.getId() : null,
+                            cidade != null ? cidade.getNomeNormalizado() : null,
+                            cidade != null ? cidade.getEstado() : null);
+                })
+                .map(Cliente::getId)
+                .toList();
+
+        assertThat(sql).isNotEmpty().isEqualTo(emMemoria);
+    }
+
+    private <T> T persistir(T entidade) {
+        entityManager.persist(entidade);
+        return entidade;
+    }
+}
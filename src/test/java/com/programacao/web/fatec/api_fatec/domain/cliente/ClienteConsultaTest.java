@@ -0,0 +1,103 @@
+package com.programacao.web.fatec.api_fatec.domain.cliente;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+import java.util.Optional;
+import java.util.stream.Stream;
+
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.Arguments;
+import org.junit.jupiter.params.provider.CsvSource;
+import org.junit.jupiter.params.provider.MethodSource;
+import org.junit.jupiter.params.provider.NullSource;
+import org.junit.jupiter.params.provider.ValueSource;
+
+import com.programacao.web.fatec.api_fatec.entities.Estado;
+import com.programacao.web.fatec.api_fatec.exception.BadRequestException;
+
+class ClienteConsultaTest {
+
+    static Stream<Arguments> consultas() {
+        return Stream.of(
+                // Valores entre aspas, inclusive sem a aspa de fechamento
+                Arguments.of("nome:\"Maria da Silva\"",
+                        new ClienteConsulta(null, null, null, "maria da silva", null, null, null)),
+                Arguments.of("cidade:\"Belo Horizonte",
+                        new ClienteConsulta(null, null, null, null, "belo horizonte", null, null)),
+                Arguments.of("estado:\"Minas Gerais\" nome:jo*",
+                        new ClienteConsulta(null, null, Estado.MG, "jo*", null, null, null)),
+                // Sigla e nome do campo sem diferenciar maiúsculas
+                Arguments.of("Estado:sp", new ClienteConsulta(null, null, Estado.SP, null, null, null, null)),
+                Arguments.of("ID:42 cidade_id:7", new ClienteConsulta(42L, 7L, null, null, null, null, null)),
+                // "12:30" e campos desconhecidos são texto livre
+                Arguments.of("estado:SP 12:30", new ClienteConsulta(null, null, Estado.SP, null, null, "12:30", null)),
+                Arguments.of("estado:SP foo:bar", new ClienteConsulta(null, null, Estado.SP, null, null, "foo:bar", null)),
+                Arguments.of("nome:*silva* São 42",
+                        new ClienteConsulta(null, null, null, "*silva*", null, "sao 42", null)),
+                Arguments.of("estado:RJ 42", new ClienteConsulta(null, null, Estado.RJ, null, null, "42", 42L)),
+                // Campo repetido: vale o último
+                Arguments.of("nome:ana nome:Maria", new ClienteConsulta(null, null, null, "maria", null, null, null)));
+    }
+
+    @ParameterizedTest
+    @MethodSource("consultas")
+    void interpretaConsultaComCampos(String texto, ClienteConsulta esperada) {
+        assertThat(ClienteConsulta.interpretar(texto)).contains(esperada);
+    }
+
+    @ParameterizedTest
+    @NullSource
+    @ValueSource(strings = { "", "maria", "12:30", "foo:bar", "\"nome:maria\"", "maria silva" })
+    void textoSemCampoNaoEConsulta(String texto) {
+        assertThat(ClienteConsulta.interpretar(texto)).isEqualTo(Optional.empty());
+    }
+
+    @ParameterizedTest
+    @ValueSource(strings = { "estado:XX", "estado:\"Terra do Nunca\"", "id:abc", "id:-1", "cidade_id:1.5",
+            "nome:", "cidade:\"\"", "id:1234567890123456789" })
+    void campoInvalidoEBadRequest(String texto) {
+        assertThatThrownBy(() -> ClienteConsulta.interpretar(texto)).isInstanceOf(BadRequestException.class);
+    }
+
+    @ParameterizedTest
+    @CsvSource({
+            "jo*, joao, true",
+            "jo*, jo, true",
+            "jo*, ajo, false",
+            "*silva*, maria da silva, true",
+            "*silva*, silvana, true",
+            "*silva*, silv, false",
+            "*silva, maria silva, true",
+            "*silva, silvana, false",
+            "joao, joao, true",
+            "joao, joao silva, false",
+            "joao, jo, false",
+            "*, '', true",
+            "a*b*c, axxbyyc, true",
+            "a*b*c, axxbyy, false",
+            "50%_*, 50%_x, true",
+            "50%_*, 500x, false" })
+    void correspondePadrao(String padrao, String valor, boolean esperado) {
+        assertThat(ClienteConsulta.corresponde(padrao, valor)).isEqualTo(esperado);
+    }
+
+    @ParameterizedTest
+    @CsvSource({
+            "nome:jo*, 1, joao, 7, campinas, SP, true",
+            "nome:jo*, 1, maria, 7, campinas, SP, false",
+            "nome:joao estado:SP, 1, joao, 7, campinas, SP, true",
+            "nome:joao estado:SP, 1, joao, 7, campinas, RJ, false",
+            "cidade_id:7, 1, joao, 7, campinas, SP, true",
+            "cidade_id:7, 1, joao, , , , false",
+            "estado:SP camp, 1, joao, 7, campinas, SP, true",
+            "estado:SP 1, 1, maria, 7, campinas, SP, true",
+            "estado:SP 2, 1, maria, 7, campinas, SP, false",
+            "cidade:camp*, 1, joao, , , , false",
+            "id:1 nome:*o*, 1, joao, , , , true" })
+    void correspondeCliente(String texto, Long id, String nome, Long cidadeId, String cidadeNome, Estado estado,
+            boolean esperado) {
+        ClienteConsulta consulta = ClienteConsulta.interpretar(texto).orElseThrow();
+        assertThat(consulta.corresponde(id, nome, cidadeId, cidadeNome, estado)).isEqualTo(esperado);
+    }
+}
@@ -0,0 +1,255 @@
+package com.programacao.web.fatec.api_fatec.domain.cliente;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import com.programacao.web.fatec.api_fatec.domain.cidade.CidadeCache;
+import com.programacao.web.fatec.api_fatec.domain.cidade.CidadeRepository;
+import com.programacao.web.fatec.api_fatec.domain.cliente.dto.ClienteEstatisticasCidadeDto;
+import com.programacao.web.fatec.api_fatec.domain.cliente.dto.ClienteEstatisticasDto;
+import com.programacao.web.fatec.api_fatec.domain.cliente.dto.ClienteEstatisticasEstadoDto;
+import com.programacao.web.fatec.api_fatec.entities.Cidade;
+import com.programacao.web.fatec.api_fatec.entities.Cliente;
+import com.programacao.web.fatec.api_fatec.entities.Estado;
+import com.programacao.web.fatec.api_fatec.exception.ServiceUnavailableException;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+
+/**
+ * Contagens em memória com o banco substituído por mocks: {@link #banco} é o resultado do
+ * GROUP BY (chave null para os clientes sem cidade) e {@link #cidades} o da tabela de cidades.
+ */
+class ClienteEstatisticasTest {
+
+    private static final Cidade CAMPINAS = new Cidade(10L, "Campinas", Estado.SP);
+
+    private static final Cidade SANTOS = new Cidade(11L, "Santos", Estado.SP);
+
+    private static final Cidade RECIFE = new Cidade(20L, "Recife", Estado.PE);
+
+    private final ClienteRepository clienteRepository = mock(ClienteRepository.class);
+
+    private final CidadeRepository cidadeRepository = mock(CidadeRepository.class);
+
+    private final CidadeCache cidadeCache = mock(CidadeCache.class);
+
+    private final ClienteVersao clienteVersao = new ClienteVersao();
+
+    private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+
+    private final Map<Long, Long> banco = new HashMap<>();
+
+    private final List<Cidade> cidades = new ArrayList<>(List.of(CAMPINAS, SANTOS, RECIFE));
+
+    /**
+     * Executado durante o GROUP BY, para simular escritas concorrentes com a consulta.
+     */
+    private Runnable duranteAConsulta = () -> { };
+
+    private ClienteEstatisticas estatisticas;
+
+    @BeforeEach
+    void criar() {
+        when(cidadeRepository.findAll()).thenAnswer(invocacao -> List.copyOf(cidades));
+        when(clienteRepository.contarPorCidade()).thenAnswer(invocacao -> {
+            List<ClienteContagemProjecao> contagens = new ArrayList<>();
+            banco.forEach((cidadeId, quantidade) -> contagens.add(contagem(cidadeId, quantidade)));
+            duranteAConsulta.run();
+            return contagens;
+        });
+
+        estatisticas = new ClienteEstatisticas();
+        ReflectionTestUtils.setField(estatisticas, "clienteRepository", clienteRepository);
+        ReflectionTestUtils.setField(estatisticas, "cidadeRepository", cidadeRepository);
+        ReflectionTestUtils.setField(estatisticas, "cidadeCache", cidadeCache);
+        ReflectionTestUtils.setField(estatisticas, "clienteVersao", clienteVersao);
+        ReflectionTestUtils.setField(estatisticas, "meterRegistry", meterRegistry);
+        estatisticas.inicializar();
+
+        banco.put(CAMPINAS.getId(), 3L);
+        banco.put(RECIFE.getId(), 2L);
+        banco.put(null, 1L);
+    }
+
+    @Test
+    void contagemInicialVemDoGroupBy() {
+        assertThatThrownBy(estatisticas::consultar).isInstanceOf(ServiceUnavailableException.class);
+        assertThat(estatisticas.quantidadeDaCidade(CAMPINAS.getId())).isNull();
+        long versao = clienteVersao.atual();
+
+        estatisticas.reconciliar();
+
+        ClienteEstatisticasDto dto = estatisticas.consultar();
+        assertThat(dto.getTotal()).isEqualTo(6);
+        assertThat(dto.getSemCidade()).isEqualTo(1);
+        assertThat(dto.getReconciliadoEm()).isNotNull();
+        assertThat(dto.getCidades()).extracting(ClienteEstatisticasCidadeDto::getCidadeId)
+                .containsExactly(CAMPINAS.getId(), RECIFE.getId(), SANTOS.getId());
+        assertThat(dto.getCidades()).extracting(ClienteEstatisticasCidadeDto::getNome)
+                .containsExactly("Campinas", "Recife", "Santos");
+        assertThat(dto.getEstados()).contains(
+                new ClienteEstatisticasEstadoDto(Estado.SP, 3),
+                new ClienteEstatisticasEstadoDto(Estado.PE, 2),
+                new ClienteEstatisticasEstadoDto(Estado.RJ, 0));
+        assertThat(estatisticas.quantidadeDaCidade(SANTOS.getId())).isZero();
+        // A primeira contagem não é uma correção
+        assertThat(correcoes()).isZero();
+        assertThat(clienteVersao.atual()).isEqualTo(versao);
+    }
+
+    @Test
+    void criacaoTrocaDeCidadeERemocaoAtualizamAsContagens() {
+        estatisticas.reconciliar();
+
+        estatisticas.adicionar(List.of(new Cliente(1L, "Ana", "Rua A", SANTOS), new Cliente(2L, "Bia", "Rua B")));
+        assertThat(estatisticas.quantidadeDaCidade(SANTOS.getId())).isEqualTo(1);
+        assertThat(estatisticas.consultar().getSemCidade()).isEqualTo(2);
+
+        estatisticas.mover(CAMPINAS.getId(), RECIFE);
+        estatisticas.mover(RECIFE.getId(), RECIFE);
+        estatisticas.mover(null, SANTOS);
+        assertThat(estatisticas.quantidadeDaCidade(CAMPINAS.getId())).isEqualTo(2);
+        assertThat(estatisticas.quantidadeDaCidade(RECIFE.getId())).isEqualTo(3);
+        assertThat(estatisticas.quantidadeDaCidade(SANTOS.getId())).isEqualTo(2);
+        assertThat(estatisticas.consultar().getSemCidade()).isEqualTo(1);
+
+        // Cidade criada depois da reconciliação
+        Cidade olinda = new Cidade(30L, "Olinda", Estado.PE);
+        estatisticas.mover(CAMPINAS.getId(), olinda);
+        assertThat(estatisticas.consultar().getCidades())
+                .contains(new ClienteEstatisticasCidadeDto(olinda.getId(), "Olinda", Estado.PE, 1));
+
+        estatisticas.remover(List.of(removido(1L, SANTOS.getId()), removido(2L, null), removido(3L, olinda.getId())));
+        ClienteEstatisticasDto dto = estatisticas.consultar();
+        assertThat(dto.getTotal()).isEqualTo(5);
+        assertThat(dto.getSemCidade()).isZero();
+        assertThat(estatisticas.quantidadeDaCidade(SANTOS.getId())).isEqualTo(1);
+        assertThat(estatisticas.quantidadeDaCidade(olinda.getId())).isZero();
+    }
+
+    @Test
+    void cidadeDesconhecidaTemNomeEEstadoLidosDoCacheDeCidades() {
+        estatisticas.reconciliar();
+        Cidade olinda = new Cidade(30L, "Olinda", Estado.PE);
+        when(cidadeCache.buscarPorId(olinda.getId())).thenReturn(Optional.of(olinda));
+
+        // Primeira escrita da cidade desde a reconciliação é uma saída: o contador é criado só com
+        // o ID, e a criação que ainda não chegou aqui é acertada pela próxima reconciliação
+        estatisticas.mover(olinda.getId(), CAMPINAS);
+
+        assertThat(estatisticas.consultar().getCidades())
+                .contains(new ClienteEstatisticasCidadeDto(olinda.getId(), "Olinda", Estado.PE, -1));
+    }
+
+    @Test
+    void reconciliacaoCorrigeAsCidadesQueDivergiram() {
+        estatisticas.reconciliar();
+        // Escritas que não passaram pelas estatísticas
+        banco.put(CAMPINAS.getId(), 5L);
+        banco.put(null, 0L);
+        long versao = clienteVersao.atual();
+
+        estatisticas.reconciliar();
+
+        assertThat(estatisticas.quantidadeDaCidade(CAMPINAS.getId())).isEqualTo(5);
+        assertThat(estatisticas.quantidadeDaCidade(RECIFE.getId())).isEqualTo(2);
+        assertThat(estatisticas.consultar().getSemCidade()).isZero();
+        assertThat(correcoes()).isEqualTo(2);
+        assertThat(clienteVersao.atual()).isEqualTo(versao + 1);
+
+        estatisticas.reconciliar();
+        assertThat(correcoes()).isEqualTo(2);
+        assertThat(clienteVersao.atual()).isEqualTo(versao + 1);
+    }
+
+    @Test
+    void reconciliacaoAcompanhaCidadesAlteradasERemovidas() {
+        estatisticas.reconciliar();
+        cidades.set(0, new Cidade(CAMPINAS.getId(), "Campinas Nova", Estado.SP));
+        cidades.remove(RECIFE);
+        banco.remove(RECIFE.getId());
+
+        estatisticas.reconciliar();
+
+        assertThat(estatisticas.consultar().getCidades()).extracting(ClienteEstatisticasCidadeDto::getNome)
+                .containsExactly("Campinas Nova", "Santos");
+    }
+
+    @Test
+    void cidadeAlteradaDuranteAConsultaEConferidaNaRodadaSeguinte() {
+        estatisticas.reconciliar();
+        banco.put(RECIFE.getId(), 9L);
+        // Criação gravada depois que o GROUP BY leu a tabela e aplicada enquanto ele executa
+        duranteAConsulta = () -> estatisticas.adicionar(List.of(new Cliente(1L, "Ana", "Rua A", CAMPINAS)));
+
+        estatisticas.reconciliar();
+
+        assertThat(estatisticas.quantidadeDaCidade(CAMPINAS.getId())).isEqualTo(4);
+        assertThat(estatisticas.quantidadeDaCidade(RECIFE.getId())).isEqualTo(9);
+        assertThat(correcoes()).isEqualTo(1);
+
+        duranteAConsulta = () -> { };
+        banco.put(CAMPINAS.getId(), 4L);
+        estatisticas.reconciliar();
+        assertThat(estatisticas.quantidadeDaCidade(CAMPINAS.getId())).isEqualTo(4);
+        assertThat(correcoes()).isEqualTo(1);
+    }
+
+    @Test
+    void escritaContadaPeloGroupByEAplicadaDepoisFicaDobradaAteAProximaReconciliacao() {
+        estatisticas.reconciliar();
+        // Confirmada antes do GROUP BY, mas aplicada às estatísticas só depois da reconciliação
+        banco.put(CAMPINAS.getId(), 4L);
+        estatisticas.reconciliar();
+        estatisticas.adicionar(List.of(new Cliente(1L, "Ana", "Rua A", CAMPINAS)));
+
+        assertThat(estatisticas.quantidadeDaCidade(CAMPINAS.getId())).isEqualTo(5);
+
+        estatisticas.reconciliar();
+        assertThat(estatisticas.quantidadeDaCidade(CAMPINAS.getId())).isEqualTo(4);
+    }
+
+    private double correcoes() {
+        return meterRegistry.get("api.clientes.estatisticas.correcoes").counter().count();
+    }
+
+    private static ClienteContagemProjecao contagem(Long cidadeId, long quantidade) {
+        return new ClienteContagemProjecao() {
+            @Override
+            public Long getCidadeId() {
+                return cidadeId;
+            }
+
+            @Override
+            public Long getQuantidade() {
+                return quantidade;
+            }
+        };
+    }
+
+    private static ClienteCidadeProjecao removido(Long id, Long cidadeId) {
+        return new ClienteCidadeProjecao() {
+            @Override
+            public Long getId() {
+                return id;
+            }
+
+            @Override
+            public Long getCidadeId() {
+                return cidadeId;
+            }
+        };
+    }
+}
@@ -0,0 +1,237 @@
+package com.programacao.web.fatec.api_fatec.domain.cliente;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.Mockito.doAnswer;
+import static org.mockito.Mockito.mock;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import com.programacao.web.fatec.api_fatec.domain.cidade.CidadeCache;
+import com.programacao.web.fatec.api_fatec.domain.cliente.dto.ClientePostDto;
+import com.programacao.web.fatec.api_fatec.entities.Cliente;
+import com.programacao.web.fatec.api_fatec.exception.ServiceUnavailableException;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+
+/**
+ * Gravação agrupada com o banco substituído por um mock de {@link ClienteService#salvarBloco(List)}.
+ *
+ * Um cliente chamado "Lento" prende a gravadora dentro da transação até {@link #liberar} ser
+ * liberado, para que os testes controlem o que está na fila e o que já foi retirado dela.
+ */
+class ClienteGravacaoAgrupadaTest {
+
+    private final ClienteService clienteService = mock(ClienteService.class);
+
+    private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+
+    private final ExecutorService threads = Executors.newCachedThreadPool();
+
+    private final AtomicLong ids = new AtomicLong();
+
+    /**
+     * Nomes dos clientes de cada chamada a salvarBloco, inclusive das que falharam.
+     */
+    private final List<List<String>> lotes = new ArrayList<>();
+
+    private final CountDownLatch gravandoLento = new CountDownLatch(1);
+
+    private final CountDownLatch liberar = new CountDownLatch(1);
+
+    private ClienteGravacaoAgrupada gravacao;
+
+    @BeforeEach
+    void criar() {
+        doAnswer(invocacao -> {
+            List<Cliente> clientes = invocacao.getArgument(0);
+            List<String> nomes = clientes.stream().map(Cliente::getNome).toList();
+            synchronized (lotes) {
+                lotes.add(nomes);
+            }
+            if (nomes.contains("Lento")) {
+                gravandoLento.countDown();
+                assertThat(liberar.await(10, TimeUnit.SECONDS)).isTrue();
+            }
+            if (nomes.contains("Inválido")) {
+                throw new IllegalArgumentException("Cliente inválido");
+            }
+            clientes.forEach(cliente -> cliente.setId(ids.incrementAndGet()));
+            return null;
+        }).when(clienteService).salvarBloco(anyList());
+
+        gravacao = new ClienteGravacaoAgrupada();
+        ReflectionTestUtils.setField(gravacao, "clienteService", clienteService);
+        ReflectionTestUtils.setField(gravacao, "cidadeCache", mock(CidadeCache.class));
+        ReflectionTestUtils.setField(gravacao, "meterRegistry", meterRegistry);
+        ReflectionTestUtils.setField(gravacao, "habilitado", true);
+        ReflectionTestUtils.setField(gravacao, "capacidadeFila", 3);
+        ReflectionTestUtils.setField(gravacao, "loteMaximo", 10);
+        ReflectionTestUtils.setField(gravacao, "esperaMaxima", Duration.ofMillis(1));
+        ReflectionTestUtils.setField(gravacao, "esperaResultado", Duration.ofSeconds(10));
+    }
+
+    @AfterEach
+    void encerrar() throws InterruptedException {
+        liberar.countDown();
+        gravacao.finalizar();
+        threads.shutdownNow();
+    }
+
+    @Test
+    void criacoesQueChegamDuranteUmaGravacaoSaoGravadasEmUmLote() throws Exception {
+        gravacao.inicializar();
+        Future<Cliente> lento = prenderGravadora();
+
+        List<Future<Cliente>> criacoes = List.of(criar("Ana"), criar("Bia"), criar("Caio"));
+        aguardarNaFila(3);
+        liberar.countDown();
+
+        assertThat(lento.get(5, TimeUnit.SECONDS).getId()).isEqualTo(1L);
+        List<Long> idsGerados = new ArrayList<>();
+        for (Future<Cliente> criacao : criacoes) {
+            idsGerados.add(criacao.get(5, TimeUnit.SECONDS).getId());
+        }
+        assertThat(idsGerados).containsExactlyInAnyOrder(2L, 3L, 4L);
+        assertThat(lotes).hasSize(2);
+        assertThat(lotes.get(1)).containsExactlyInAnyOrder("Ana", "Bia", "Caio");
+        assertThat(meterRegistry.get("api.clientes.criacao.agrupada.lote").summary().max()).isEqualTo(3);
+    }
+
+    @Test
+    void filaCheiaRecusaComServiceUnavailable() throws Exception {
+        gravacao.inicializar();
+        prenderGravadora();
+        List<Future<Cliente>> naFila = List.of(criar("Ana"), criar("Bia"), criar("Caio"));
+        aguardarNaFila(3);
+
+        assertThatThrownBy(() -> gravacao.criar(dto("Davi")))
+                .isInstanceOfSatisfying(ServiceUnavailableException.class,
+                        e -> assertThat(e.getRetryAfterSegundos()).isEqualTo(1));
+        assertThat(meterRegistry.get("api.clientes.criacao.agrupada.recusas").counter().count()).isEqualTo(1);
+
+        liberar.countDown();
+        for (Future<Cliente> criacao : naFila) {
+            assertThat(criacao.get(5, TimeUnit.SECONDS).getId()).isNotNull();
+        }
+    }
+
+    @Test
+    void loteQueFalhaERegravadoItemAItem() throws Exception {
+        gravacao.inicializar();
+        prenderGravadora();
+        Future<Cliente> ana = criar("Ana");
+        aguardarNaFila(1);
+        Future<Cliente> invalido = criar("Inválido");
+        aguardarNaFila(2);
+        Future<Cliente> bia = criar("Bia");
+        aguardarNaFila(3);
+        liberar.countDown();
+
+        assertThat(ana.get(5, TimeUnit.SECONDS).getNome()).isEqualTo("Ana");
+        assertThat(bia.get(5, TimeUnit.SECONDS).getNome()).isEqualTo("Bia");
+        assertThatThrownBy(() -> invalido.get(5, TimeUnit.SECONDS))
+                .isInstanceOf(ExecutionException.class)
+                .cause().isInstanceOf(IllegalArgumentException.class);
+        assertThat(lotes.subList(1, lotes.size())).containsExactly(
+                List.of("Ana", "Inválido", "Bia"), List.of("Ana"), List.of("Inválido"), List.of("Bia"));
+    }
+
+    @Test
+    void pedidoAindaNaFilaDepoisDaEsperaECanceladoENaoEGravado() throws Exception {
+        ReflectionTestUtils.setField(gravacao, "esperaResultado", Duration.ofMillis(50));
+        gravacao.inicializar();
+        Future<Cliente> lento = prenderGravadora();
+
+        assertThatThrownBy(() -> gravacao.criar(dto("Ana"))).isInstanceOf(ServiceUnavailableException.class);
+        liberar.countDown();
+        lento.get(5, TimeUnit.SECONDS);
+        gravacao.finalizar();
+
+        assertThat(lotes).containsExactly(List.of("Lento"));
+    }
+
+    @Test
+    void pedidoJaEmUmaTransacaoEsperaOResultadoAlemDaEspera() throws Exception {
+        ReflectionTestUtils.setField(gravacao, "esperaResultado", Duration.ofMillis(50));
+        gravacao.inicializar();
+        Future<Cliente> lento = criar("Lento");
+        assertThat(gravandoLento.await(5, TimeUnit.SECONDS)).isTrue();
+
+        // Bem depois da espera-resultado, a transação é confirmada: a requisição recebe o cliente, não 503
+        Thread.sleep(200);
+        liberar.countDown();
+
+        assertThat(lento.get(5, TimeUnit.SECONDS).getId()).isEqualTo(1L);
+        assertThat(meterRegistry.get("api.clientes.criacao.agrupada.recusas").counter().count()).isZero();
+    }
+
+    @Test
+    void encerramentoGravaOQueEstaNaFilaERecusaNovasCriacoes() throws Exception {
+        gravacao.inicializar();
+        prenderGravadora();
+        List<Future<Cliente>> naFila = List.of(criar("Ana"), criar("Bia"));
+        aguardarNaFila(2);
+
+        Future<?> encerramento = threads.submit(() -> {
+            gravacao.finalizar();
+            return null;
+        });
+        long limite = System.nanoTime() + TimeUnit.SECONDS.toNanos(5);
+        while ((boolean) ReflectionTestUtils.getField(gravacao, "executando") && System.nanoTime() < limite) {
+            Thread.sleep(1);
+        }
+        assertThatThrownBy(() -> gravacao.criar(dto("Caio"))).isInstanceOf(ServiceUnavailableException.class);
+        liberar.countDown();
+        encerramento.get(5, TimeUnit.SECONDS);
+
+        for (Future<Cliente> criacao : naFila) {
+            assertThat(criacao.get(5, TimeUnit.SECONDS).getId()).isNotNull();
+        }
+        assertThat(lotes).doesNotContain(List.of("Caio"));
+    }
+
+    /**
+     * Cria o cliente "Lento" e espera a gravadora ficar presa na transação dele.
+     */
+    private Future<Cliente> prenderGravadora() throws InterruptedException {
+        Future<Cliente> lento = criar("Lento");
+        assertThat(gravandoLento.await(5, TimeUnit.SECONDS)).isTrue();
+        return lento;
+    }
+
+    private Future<Cliente> criar(String nome) {
+        return threads.submit(() -> gravacao.criar(dto(nome)));
+    }
+
+    private static ClientePostDto dto(String nome) {
+        return new ClientePostDto(nome, "Rua " + nome, null);
+    }
+
+    private void aguardarNaFila(int quantidade) throws InterruptedException {
+        long limite = System.nanoTime() + TimeUnit.SECONDS.toNanos(5);
+        while (naFila() < quantidade && System.nanoTime() < limite) {
+            Thread.sleep(1);
+        }
+        assertThat(naFila()).isEqualTo(quantidade);
+    }
+
+    private double naFila() {
+        return meterRegistry.get("api.clientes.criacao.agrupada.fila").gauge().value();
+    }
+}
@@ -0,0 +1,195 @@
+package com.programacao.web.fatec.api_fatec.domain.cliente;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.Mockito.doAnswer;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Optional;
+import java.util.concurrent.TimeUnit;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.mock.web.MockMultipartFile;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import com.programacao.web.fatec.api_fatec.domain.cidade.CidadeCache;
+import com.programacao.web.fatec.api_fatec.domain.cidade.CidadeRepository;
+import com.programacao.web.fatec.api_fatec.domain.cliente.dto.ClienteImportacaoDto;
+import com.programacao.web.fatec.api_fatec.domain.cliente.dto.ClienteImportacaoErroDto;
+import com.programacao.web.fatec.api_fatec.entities.Cidade;
+import com.programacao.web.fatec.api_fatec.entities.Cliente;
+import com.programacao.web.fatec.api_fatec.entities.Estado;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+
+/**
+ * Importação executada de ponta a ponta sobre o executor real, com o banco substituído por mocks:
+ * confere o relatório de erros por linha, o isolamento de blocos que falham e a resolução de cada
+ * cidade uma única vez por importação.
+ */
+class ClienteImportacaoServiceTest {
+
+    private static final Cidade CAMPINAS = new Cidade(10L, "Campinas", Estado.SP);
+
+    private static final Cidade RECIFE = new Cidade(7L, "Recife", Estado.PE);
+
+    private final ClienteService clienteService = mock(ClienteService.class);
+
+    private final CidadeCache cidadeCache = mock(CidadeCache.class);
+
+    private final CidadeRepository cidadeRepository = mock(CidadeRepository.class);
+
+    /**
+     * Nomes dos clientes de cada bloco, no momento da gravação (a importação reaproveita a lista).
+     */
+    private final List<List<String>> blocos = new ArrayList<>();
+
+    private final List<Cliente> gravados = new ArrayList<>();
+
+    private ClienteImportacaoService service;
+
+    @BeforeEach
+    void criar() {
+        when(cidadeRepository.findFirstByNomeNormalizadoAndEstado("campinas", Estado.SP))
+                .thenReturn(Optional.of(CAMPINAS));
+        when(cidadeCache.buscarPorId(7L)).thenReturn(Optional.of(RECIFE));
+        doAnswer(invocacao -> {
+            List<Cliente> bloco = invocacao.getArgument(0);
+            blocos.add(bloco.stream().map(Cliente::getNome).toList());
+            if (bloco.stream().anyMatch(c -> c.getNome().equals("Falha"))) {
+                throw new IllegalStateException("violação de restrição");
+            }
+            gravados.addAll(bloco);
+            return null;
+        }).when(clienteService).salvarBloco(anyList());
+
+        service = new ClienteImportacaoService();
+        ReflectionTestUtils.setField(service, "clienteService", clienteService);
+        ReflectionTestUtils.setField(service, "cidadeCache", cidadeCache);
+        ReflectionTestUtils.setField(service, "cidadeRepository", cidadeRepository);
+        ReflectionTestUtils.setField(service, "meterRegistry", new SimpleMeterRegistry());
+        ReflectionTestUtils.setField(service, "threads", 1);
+        ReflectionTestUtils.setField(service, "fila", 1);
+        ReflectionTestUtils.setField(service, "maximoErros", 100);
+        ReflectionTestUtils.setField(service, "retencao", Duration.ofHours(1));
+        ReflectionTestUtils.setField(service, "tamanhoBloco", 100);
+        service.inicializar();
+    }
+
+    @AfterEach
+    void encerrar() {
+        service.encerrar();
+    }
+
+    @Test
+    void relataOsErrosPorLinhaEResolveCadaCidadeUmaVez() throws Exception {
+        ClienteImportacaoDto situacao = importar("""
+                nome,endereco,cidade,estado,cidade_id
+                Maria,Rua A,Campinas,SP,
+                João,Rua B,campinas,São Paulo,
+                Ana,Rua C,CAMPINAS,sp,
+                ,Rua D,,,
+                Pedro,Rua E,Atlântida,SP,
+                Paula,Rua F,Atlantida,SP,
+                Beto,Rua G,Campinas,XX,
+                Carla,Rua H,,,7
+                Davi,Rua I,,,7
+                Eva,Rua J,,,abc
+                Fabio,"Rua K, 2",,,
+                """);
+
+        assertThat(situacao.getStatus()).isEqualTo(ClienteImportacaoDto.CONCLUIDA);
+        assertThat(situacao.getLinhasProcessadas()).isEqualTo(11);
+        assertThat(situacao.getImportados()).isEqualTo(6);
+        assertThat(situacao.getLinhasComErro()).isEqualTo(5);
+        assertThat(situacao.getErros()).extracting(ClienteImportacaoErroDto::getLinha)
+                .containsExactly(5L, 6L, 7L, 8L, 11L);
+        assertThat(situacao.getErros().get(0).getErro()).contains("nome");
+        assertThat(situacao.getErros().get(1).getErro()).contains("Cidade não encontrada");
+        assertThat(situacao.getErros().get(3).getErro()).contains("estado inválido");
+        assertThat(situacao.getErros().get(4).getErro()).contains("cidade_id inválido");
+
+        assertThat(gravados).extracting(Cliente::getNome)
+                .containsExactly("Maria", "João", "Ana", "Carla", "Davi", "Fabio");
+        assertThat(gravados).extracting(Cliente::getCidade)
+                .containsExactly(CAMPINAS, CAMPINAS, CAMPINAS, RECIFE, RECIFE, null);
+        assertThat(gravados.get(5).getEndereco()).isEqualTo("Rua K, 2");
+
+        // Inclusive a cidade não encontrada é consultada uma única vez
+        verify(cidadeRepository, times(1)).findFirstByNomeNormalizadoAndEstado("campinas", Estado.SP);
+        verify(cidadeRepository, times(1)).findFirstByNomeNormalizadoAndEstado("atlantida", Estado.SP);
+        verify(cidadeRepository, times(2)).findFirstByNomeNormalizadoAndEstado(any(), any());
+        verify(cidadeCache, times(1)).buscarPorId(7L);
+    }
+
+    @Test
+    void blocoQueFalhaRegistraTodasAsSuasLinhasEAImportacaoContinua() throws Exception {
+        ReflectionTestUtils.setField(service, "tamanhoBloco", 2);
+
+        ClienteImportacaoDto situacao = importar("""
+                nome;endereco
+                Ana;Rua A
+                Falha;Rua B
+
+                Bia;Rua C
+                Caio;Rua D
+                Duda;Rua E
+                """);
+
+        assertThat(blocos).containsExactly(List.of("Ana", "Falha"), List.of("Bia", "Caio"), List.of("Duda"));
+        assertThat(situacao.getStatus()).isEqualTo(ClienteImportacaoDto.CONCLUIDA);
+        assertThat(situacao.getImportados()).isEqualTo(3);
+        assertThat(situacao.getErros()).extracting(ClienteImportacaoErroDto::getLinha).containsExactly(2L, 3L);
+        assertThat(situacao.getErros()).allSatisfy(erro -> assertThat(erro.getErro())
+                .startsWith("Falha ao gravar o bloco").contains("violação de restrição"));
+    }
+
+    @Test
+    void cabecalhoSemColunasObrigatoriasFalhaAImportacao() throws Exception {
+        ClienteImportacaoDto situacao = importar("nome,cidade\nMaria,Campinas\n");
+
+        assertThat(situacao.getStatus()).isEqualTo(ClienteImportacaoDto.FALHOU);
+        assertThat(situacao.getMensagem()).contains("nome e endereco");
+        assertThat(blocos).isEmpty();
+    }
+
+    @Test
+    void arquivoMalformadoFalhaDepoisDeGravarAsLinhasAnteriores() throws Exception {
+        ReflectionTestUtils.setField(service, "tamanhoBloco", 1);
+
+        ClienteImportacaoDto situacao = importar("nome,endereco\nAna,Rua A\n\"Bia,Rua B\nCaio,Rua C\n");
+
+        assertThat(situacao.getStatus()).isEqualTo(ClienteImportacaoDto.FALHOU);
+        assertThat(situacao.getMensagem()).contains("linha 3");
+        assertThat(situacao.getImportados()).isEqualTo(1);
+    }
+
+    private ClienteImportacaoDto importar(String csv) throws Exception {
+        ClienteImportacaoDto inicial = service.iniciar(new MockMultipartFile("arquivo", "clientes.csv", "text/csv",
+                csv.getBytes(StandardCharsets.UTF_8)));
+
+        long limite = System.nanoTime() + TimeUnit.SECONDS.toNanos(10);
+        ClienteImportacaoDto situacao = service.consultar(inicial.getId());
+        while (!finalizada(situacao) && System.nanoTime() < limite) {
+            Thread.sleep(5);
+            situacao = service.consultar(inicial.getId());
+        }
+        assertThat(finalizada(situacao)).isTrue();
+        return situacao;
+    }
+
+    private static boolean finalizada(ClienteImportacaoDto situacao) {
+        return ClienteImportacaoDto.CONCLUIDA.equals(situacao.getStatus())
+                || ClienteImportacaoDto.FALHOU.equals(situacao.getStatus());
+    }
+}
@@ -0,0 +1,115 @@
+package com.programacao.web.fatec.api_fatec.domain.cliente;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Set;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.ValueSource;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.transaction.annotation.Transactional;
+
+import com.programacao.web.fatec.api_fatec.domain.cliente.dto.ClienteResponseDto;
+import com.programacao.web.fatec.api_fatec.entities.Cidade;
+import com.programacao.web.fatec.api_fatec.entities.Cliente;
+import com.programacao.web.fatec.api_fatec.entities.Estado;
+
+import jakarta.persistence.EntityManager;
+
+/**
+ * Confere que a busca por texto pelo índice de trigramas retorna os mesmos clientes que o LIKE
+ * de buscarPorIdOuNomeComCidade.
+ */
+@SpringBootTest
+@Transactional
+class ClienteIndiceTrigramaTest {
+
+    @Autowired
+    private EntityManager entityManager;
+
+    @Autowired
+    private ClienteRepository clienteRepository;
+
+    @Autowired
+    private ClienteIndiceTrigrama indiceTrigrama;
+
+    private final List<Cliente> clientes = new ArrayList<>();
+
+    private Cidade saoPaulo;
+
+    private Cidade silvania;
+
+    @BeforeEach
+    void criarClientes() {
+        saoPaulo = persistir(new Cidade(null, "São Paulo Trigrama", Estado.SP));
+        silvania = persistir(new Cidade(null, "Silvânia Trigrama", Estado.GO));
+
+        clientes.add(persistir(new Cliente(null, "Maria da Silva", "Rua A", saoPaulo)));
+        clientes.add(persistir(new Cliente(null, "João Silva", "Rua B")));
+        clientes.add(persistir(new Cliente(null, "Avlis Sil", "Rua C", silvania)));
+        clientes.add(persistir(new Cliente(null, "Ânderson Ávila", "Rua D", saoPaulo)));
+        clientes.add(persistir(new Cliente(null, "Silvana", "Rua E", silvania)));
+        entityManager.flush();
+        clientes.forEach(indiceTrigrama::indexar);
+    }
+
+    @AfterEach
+    void removerDoIndice() {
+        indiceTrigrama.remover(clientes.stream().map(Cliente::getId).toList());
+        indiceTrigrama.removerCidade(saoPaulo.getId());
+        indiceTrigrama.removerCidade(silvania.getId());
+    }
+
+    @ParameterizedTest
+    @ValueSource(strings = { "silva", "SILVA", "silv", "ilv", "avila", "ávila", "são paulo", "paulo tri",
+            "trigrama", "ânder", "maria da", "sil", "vlis", "inexistente" })
+    void buscaIgualAoLike(String texto) {
+        assertThat(indiceTrigrama.podeAtender(texto)).isTrue();
+        assertThat(peloIndice(texto)).isEqualTo(peloLike(texto));
+    }
+
+    @Test
+    void buscaPorIdIgualAoLike() {
+        // Com zeros à esquerda, para ter os 3 caracteres que o índice exige
+        String texto = String.format("%03d", clientes.get(2).getId());
+        assertThat(indiceTrigrama.podeAtender(texto)).isTrue();
+        assertThat(peloIndice(texto)).isEqualTo(peloLike(texto)).isNotEmpty();
+    }
+
+    @Test
+    void renomearCidadeAtualizaOIndice() {
+        silvania.setNome("Goiânia Trigrama");
+        entityManager.flush();
+        indiceTrigrama.atualizarCidade(silvania);
+
+        assertThat(peloIndice("silvan")).isEqualTo(peloLike("silvan")).hasSize(1);
+        assertThat(peloIndice("goiania")).isEqualTo(peloLike("goiania")).hasSize(2);
+    }
+
+    private List<ClienteResponseDto> peloIndice(String texto) {
+        Long id = TextoBusca.converterId(texto);
+        Set<Long> candidatos = indiceTrigrama.candidatosPorTexto(texto, id);
+        if (candidatos.isEmpty()) {
+            return List.of();
+        }
+        return indiceTrigrama.confirmar(clienteRepository.buscarPorIds(candidatos), texto, id);
+    }
+
+    private List<ClienteResponseDto> peloLike(String texto) {
+        List<ClienteResponseDto> encontrados = new ArrayList<>(
+                clienteRepository.buscarPorIdOuNomeComCidade(TextoBusca.normalizar(texto), TextoBusca.converterId(texto)));
+        encontrados.sort((a, b) -> a.id().compareTo(b.id()));
+        return encontrados;
+    }
+
+    private <T> T persistir(T entidade) {
+        entityManager.persist(entidade);
+        return entidade;
+    }
+}
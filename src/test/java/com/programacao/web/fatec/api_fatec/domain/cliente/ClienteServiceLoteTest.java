@@ -0,0 +1,89 @@
+package com.programacao.web.fatec.api_fatec.domain.cliente;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.argThat;
+import static org.mockito.Mockito.doThrow;
+import static org.mockito.Mockito.spy;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.test.util.AopTestUtils;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import com.programacao.web.fatec.api_fatec.domain.cliente.dto.ClienteLoteResultadoDto;
+import com.programacao.web.fatec.api_fatec.domain.cliente.dto.ClientePostDto;
+import com.programacao.web.fatec.api_fatec.entities.Cliente;
+
+/**
+ * Criação em lote com blocos de 2 itens, em que a gravação do bloco que contém o cliente "Falha"
+ * é substituída por um erro do banco: apenas os itens daquele bloco são marcados com erro, e os
+ * demais blocos são gravados e indexados normalmente.
+ *
+ * O teste usa um spy do ClienteService real (sem o proxy de transação), para que a chamada interna
+ * a salvarBloco possa falhar sem criar outro contexto da aplicação.
+ */
+@SpringBootTest
+class ClienteServiceLoteTest {
+
+    @Autowired
+    private ClienteService clienteService;
+
+    @Autowired
+    private ClienteRepository clienteRepository;
+
+    @Autowired
+    private ClienteIndiceTrigrama indiceTrigrama;
+
+    private ClienteService service;
+
+    private final List<Long> criados = new ArrayList<>();
+
+    @BeforeEach
+    void criarSpy() {
+        service = spy(AopTestUtils.<ClienteService>getUltimateTargetObject(clienteService));
+        ReflectionTestUtils.setField(service, "loteTamanhoBloco", 2);
+        doThrow(new DataIntegrityViolationException("Violação simulada"))
+                .when(service).salvarBloco(argThat(bloco -> bloco.stream().map(Cliente::getNome).anyMatch("Falha"::equals)));
+    }
+
+    @AfterEach
+    void removerClientes() {
+        if (!criados.isEmpty()) {
+            clienteService.deletarClientes(criados);
+        }
+    }
+
+    @Test
+    void blocoQueFalhaNaoImpedeOsDemais() {
+        // Blocos gravados: [Ana, Bia], [Falha, Caio], [Davi]; o item inválido não entra em nenhum
+        List<ClienteLoteResultadoDto> resultados = service.createClientesEmLote(List.of(
+                dto("Ana"), dto("Bia"), dto(""), dto("Falha"), dto("Caio"), dto("Davi")));
+
+        assertThat(resultados).extracting(ClienteLoteResultadoDto::getIndice).containsExactly(0, 1, 2, 3, 4, 5);
+        assertThat(resultados).extracting(ClienteLoteResultadoDto::getStatus).containsExactly(
+                ClienteLoteResultadoDto.CRIADO, ClienteLoteResultadoDto.CRIADO, ClienteLoteResultadoDto.ERRO,
+                ClienteLoteResultadoDto.ERRO, ClienteLoteResultadoDto.ERRO, ClienteLoteResultadoDto.CRIADO);
+        assertThat(resultados.get(2).getErro()).contains("nome");
+        assertThat(resultados.get(3).getErro()).startsWith("Falha ao gravar o bloco").contains("Violação simulada");
+        assertThat(resultados.get(4).getErro()).isEqualTo(resultados.get(3).getErro());
+
+        resultados.stream().map(ClienteLoteResultadoDto::getId).filter(id -> id != null).forEach(criados::add);
+        assertThat(criados).hasSize(3);
+        List<Cliente> gravados = clienteRepository.findAllById(criados);
+        assertThat(gravados).extracting(Cliente::getNome).containsExactlyInAnyOrder("Ana", "Bia", "Davi");
+        for (Cliente cliente : gravados) {
+            assertThat(indiceTrigrama.candidatosPorTexto(cliente.getNome(), null)).contains(cliente.getId());
+        }
+    }
+
+    private static ClientePostDto dto(String nome) {
+        return new ClientePostDto(nome, "Lote Isolado", null);
+    }
+}
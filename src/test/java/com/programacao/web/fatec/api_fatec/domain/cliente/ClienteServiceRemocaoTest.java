@@ -0,0 +1,187 @@
+package com.programacao.web.fatec.api_fatec.domain.cliente;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.stream.IntStream;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+
+import com.programacao.web.fatec.api_fatec.domain.cidade.CidadeRepository;
+import com.programacao.web.fatec.api_fatec.domain.cliente.dto.ClienteLoteResultadoDto;
+import com.programacao.web.fatec.api_fatec.domain.cliente.dto.ClientePostDto;
+import com.programacao.web.fatec.api_fatec.domain.cliente.dto.ClienteRemocaoDto;
+import com.programacao.web.fatec.api_fatec.domain.cliente.dto.ClienteResponseDto;
+import com.programacao.web.fatec.api_fatec.entities.Cidade;
+import com.programacao.web.fatec.api_fatec.entities.Estado;
+import com.programacao.web.fatec.api_fatec.exception.BadRequestException;
+
+import io.micrometer.core.instrument.MeterRegistry;
+
+/**
+ * Remoção de clientes em lote (por IDs e por cidade): quantidades informadas, filtro por cidade
+ * e os dados derivados (cache de busca, índice de trigramas, estatísticas e versão da tabela)
+ * consistentes com o banco depois da remoção.
+ */
+@SpringBootTest
+class ClienteServiceRemocaoTest {
+
+    private static final String NOME = "Removível";
+
+    private static final String TERMO = "removivel";
+
+    private static final long ID_INEXISTENTE = 999_999_999L;
+
+    @Autowired
+    private ClienteService clienteService;
+
+    @Autowired
+    private ClienteRepository clienteRepository;
+
+    @Autowired
+    private CidadeRepository cidadeRepository;
+
+    @Autowired
+    private ClienteIndiceTrigrama indiceTrigrama;
+
+    @Autowired
+    private ClienteEstatisticas estatisticas;
+
+    @Autowired
+    private ClienteVersao clienteVersao;
+
+    @Autowired
+    private MeterRegistry meterRegistry;
+
+    private Cidade alfa;
+
+    private Cidade beta;
+
+    @BeforeEach
+    void criarCidades() {
+        alfa = cidadeRepository.save(new Cidade(null, "Remoção Alfa", Estado.SP));
+        beta = cidadeRepository.save(new Cidade(null, "Remoção Beta", Estado.RJ));
+    }
+
+    @AfterEach
+    void removerCidades() {
+        clienteService.deletarClientesPorCidade(alfa.getId());
+        clienteService.deletarClientesPorCidade(beta.getId());
+        cidadeRepository.deleteById(alfa.getId());
+        cidadeRepository.deleteById(beta.getId());
+    }
+
+    @Test
+    void deletarClientesContaOsIdsDistintosEOsRemovidos() {
+        List<Long> ids = criar(alfa, 3);
+        // Guarda a busca no cache antes da remoção
+        assertThat(buscar()).containsExactlyInAnyOrderElementsOf(ids);
+        long versao = clienteVersao.atual();
+
+        ClienteRemocaoDto resultado = clienteService.deletarClientes(
+                List.of(ids.get(0), ids.get(1), ids.get(0), ID_INEXISTENTE));
+
+        assertThat(resultado.getSolicitados()).isEqualTo(3);
+        assertThat(resultado.getRemovidos()).isEqualTo(2);
+        assertThat(clienteRepository.findAllById(ids)).extracting("id").containsExactly(ids.get(2));
+        assertThat(buscar()).containsExactly(ids.get(2));
+        assertThat(indiceTrigrama.candidatosPorTexto(TERMO, null)).doesNotContain(ids.get(0), ids.get(1));
+        assertThat(estatisticas.quantidadeDaCidade(alfa.getId())).isEqualTo(1);
+        assertThat(clienteVersao.atual()).isEqualTo(versao + 1);
+        assertReconciliacaoSemCorrecoes();
+    }
+
+    @Test
+    void deletarClientesPorCidadeRemoveApenasOsDaCidadeEmVariosBlocos() {
+        // Mais clientes que um bloco de IN (1000), para que sejam dois DELETEs na mesma transação
+        List<Long> daAlfa = criar(alfa, 1001);
+        List<Long> daBeta = criar(beta, 2);
+        assertThat(buscar()).hasSize(1003);
+        long versao = clienteVersao.atual();
+
+        ClienteRemocaoDto resultado = clienteService.deletarClientesPorCidade(alfa.getId());
+
+        assertThat(resultado.getSolicitados()).isEqualTo(1001);
+        assertThat(resultado.getRemovidos()).isEqualTo(1001);
+        assertThat(clienteRepository.findAllById(daAlfa)).isEmpty();
+        assertThat(clienteRepository.findAllById(daBeta)).hasSize(2);
+        assertThat(buscar()).containsExactlyInAnyOrderElementsOf(daBeta);
+        assertThat(indiceTrigrama.candidatosPorTexto(TERMO, null))
+                .containsAll(daBeta)
+                .doesNotContainAnyElementsOf(daAlfa);
+        assertThat(indiceTrigrama.candidatosPorTexto("remocao alfa", null)).isEmpty();
+        assertThat(estatisticas.quantidadeDaCidade(alfa.getId())).isZero();
+        assertThat(estatisticas.quantidadeDaCidade(beta.getId())).isEqualTo(2);
+        assertThat(clienteVersao.atual()).isEqualTo(versao + 1);
+        assertReconciliacaoSemCorrecoes();
+    }
+
+    @Test
+    void cidadeSemClientesNaoRemoveNadaNemMudaAVersao() {
+        List<Long> daBeta = criar(beta, 1);
+        long versao = clienteVersao.atual();
+
+        ClienteRemocaoDto resultado = clienteService.deletarClientesPorCidade(alfa.getId());
+
+        assertThat(resultado.getSolicitados()).isZero();
+        assertThat(resultado.getRemovidos()).isZero();
+        assertThat(clienteRepository.findAllById(daBeta)).hasSize(1);
+        assertThat(clienteVersao.atual()).isEqualTo(versao);
+    }
+
+    @Test
+    void idsInexistentesNaoMudamAVersao() {
+        long versao = clienteVersao.atual();
+
+        ClienteRemocaoDto resultado = clienteService.deletarClientes(List.of(ID_INEXISTENTE));
+
+        assertThat(resultado.getSolicitados()).isEqualTo(1);
+        assertThat(resultado.getRemovidos()).isZero();
+        assertThat(clienteVersao.atual()).isEqualTo(versao);
+    }
+
+    @Test
+    void listaVaziaOuComNuloERecusada() {
+        assertThatThrownBy(() -> clienteService.deletarClientes(List.of()))
+                .isInstanceOf(BadRequestException.class);
+        assertThatThrownBy(() -> clienteService.deletarClientes(null))
+                .isInstanceOf(BadRequestException.class);
+        assertThatThrownBy(() -> clienteService.deletarClientes(Arrays.asList(1L, null)))
+                .isInstanceOf(BadRequestException.class);
+    }
+
+    private List<Long> criar(Cidade cidade, int quantidade) {
+        List<ClientePostDto> dtos = IntStream.range(0, quantidade)
+                .mapToObj(i -> new ClientePostDto(NOME + " " + i, "Rua " + i, cidade.getId()))
+                .toList();
+        List<Long> ids = new ArrayList<>();
+        for (ClienteLoteResultadoDto item : clienteService.createClientesEmLote(dtos)) {
+            assertThat(item.getStatus()).isEqualTo(ClienteLoteResultadoDto.CRIADO);
+            ids.add(item.getId());
+        }
+        return ids;
+    }
+
+    /**
+     * IDs encontrados pela busca por texto, atendida pelo cache quando ele já tem a busca.
+     */
+    private List<Long> buscar() {
+        return clienteService.buscarPorTexto(TERMO).stream().map(ClienteResponseDto::id).toList();
+    }
+
+    /**
+     * Confere as contagens incrementais com o GROUP BY: nenhuma cidade pode precisar de correção.
+     */
+    private void assertReconciliacaoSemCorrecoes() {
+        double antes = meterRegistry.get("api.clientes.estatisticas.correcoes").counter().count();
+        estatisticas.reconciliar();
+        assertThat(meterRegistry.get("api.clientes.estatisticas.correcoes").counter().count()).isEqualTo(antes);
+    }
+}
@@ -0,0 +1,116 @@
+package com.programacao.web.fatec.api_fatec.domain.cliente;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+import java.io.IOException;
+import java.io.StringReader;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.stream.Stream;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.Arguments;
+import org.junit.jupiter.params.provider.MethodSource;
+
+class LeitorCsvTest {
+
+    static Stream<Arguments> arquivos() {
+        return Stream.of(
+                Arguments.of("nome,endereco\nMaria,Rua A\n",
+                        List.of(List.of("nome", "endereco"), List.of("Maria", "Rua A"))),
+                // Sem quebra de linha no fim, campos vazios e separador no fim do registro
+                Arguments.of("a,b,c\n1,,3\n4,5,", List.of(List.of("a", "b", "c"), List.of("1", "", "3"),
+                        List.of("4", "5", ""))),
+                // Separador entre aspas
+                Arguments.of("nome,endereco\n\"Silva, Maria\",\"Rua A, 10\"\n",
+                        List.of(List.of("nome", "endereco"), List.of("Silva, Maria", "Rua A, 10"))),
+                // Aspas escapadas
+                Arguments.of("nome\n\"Diz \"\"oi\"\"\"\n\"\"\"\"\n",
+                        List.of(List.of("nome"), List.of("Diz \"oi\""), List.of("\""))),
+                // Quebras de linha entre aspas são parte do campo; fora delas, CRLF separa registros
+                Arguments.of("a,b\r\n\"linha 1\r\nlinha 2\",x\r\n\"c\rd\",y\r\n",
+                        List.of(List.of("a", "b"), List.of("linha 1\r\nlinha 2", "x"), List.of("c\rd", "y"))),
+                // Linhas em branco são ignoradas
+                Arguments.of("a\n\n1\r\n\r\n\n2\n", List.of(List.of("a"), List.of("1"), List.of("2"))),
+                // BOM UTF-8 descartado e ponto e vírgula detectado
+                Arguments.of("\uFEFFnome;endereco\nMaria;Rua A, 10\n",
+                        List.of(List.of("nome", "endereco"), List.of("Maria", "Rua A, 10"))),
+                // Empate entre vírgulas e ponto e vírgula: vírgula
+                Arguments.of("a;b,c\n1;2,3\n", List.of(List.of("a;b", "c"), List.of("1;2", "3"))),
+                // Vírgulas dentro de aspas no cabeçalho não contam na detecção
+                Arguments.of("\"nome, completo, social\";endereco\nMaria;Rua A\n",
+                        List.of(List.of("nome, completo, social", "endereco"), List.of("Maria", "Rua A"))),
+                // Quebra de linha entre aspas no cabeçalho também não encerra a detecção
+                Arguments.of("\"nome\ncompleto\";endereco;cidade,estado\nMaria;Rua A;Campinas,SP\n",
+                        List.of(List.of("nome\ncompleto", "endereco", "cidade,estado"),
+                                List.of("Maria", "Rua A", "Campinas,SP"))),
+                Arguments.of("", List.of()));
+    }
+
+    @ParameterizedTest
+    @MethodSource("arquivos")
+    void leRegistros(String csv, List<List<String>> esperados) throws IOException {
+        assertThat(ler(csv)).isEqualTo(esperados);
+    }
+
+    static Stream<Arguments> linhas() {
+        return Stream.of(
+                Arguments.of("a\n1\n2\n", List.of(1L, 2L, 3L)),
+                Arguments.of("a\r\n1\r\n2\r\n", List.of(1L, 2L, 3L)),
+                Arguments.of("a\r1\r2\r", List.of(1L, 2L, 3L)),
+                // Registros de várias linhas, com \n, \r\n e \r sozinho entre aspas
+                Arguments.of("a,b\n\"x\ny\",1\n\"x\r\ny\",2\r\n\"x\ry\",3\n4,5\n", List.of(1L, 2L, 4L, 6L, 8L)),
+                // Linhas em branco contam
+                Arguments.of("a\n\n\"x\n\n\",1\n\r\n2\n", List.of(1L, 3L, 7L)));
+    }
+
+    @ParameterizedTest
+    @MethodSource("linhas")
+    void informaALinhaOndeComecaCadaRegistro(String csv, List<Long> esperadas) throws IOException {
+        List<Long> linhas = new ArrayList<>();
+        try (LeitorCsv leitor = new LeitorCsv(new StringReader(csv))) {
+            while (leitor.proximoRegistro() != null) {
+                linhas.add(leitor.linhaDoRegistro());
+            }
+        }
+        assertThat(linhas).isEqualTo(esperadas);
+    }
+
+    @Test
+    void aspasNaoFechadasSaoErroComALinhaDoRegistro() {
+        assertThatThrownBy(() -> ler("nome,endereco\nMaria,Rua A\n\"Joana\n,Rua B\n"))
+                .isInstanceOf(IOException.class)
+                .hasMessageContaining("linha 3");
+    }
+
+    @Test
+    void registroAcimaDoTamanhoMaximoEErro() {
+        String campo = "x".repeat(LeitorCsv.TAMANHO_MAXIMO_REGISTRO);
+
+        assertThatThrownBy(() -> ler("nome\nMaria\n\"" + campo + "\"\n"))
+                .isInstanceOf(IOException.class)
+                .hasMessageContaining("linha 3")
+                .hasMessageContaining("excede");
+    }
+
+    @Test
+    void registroNoTamanhoMaximoELido() throws IOException {
+        // O caractere de fim de linha conta no tamanho do registro
+        String campo = "x".repeat(LeitorCsv.TAMANHO_MAXIMO_REGISTRO - 1);
+
+        assertThat(ler("nome\n" + campo + "\n")).containsExactly(List.of("nome"), List.of(campo));
+    }
+
+    private static List<List<String>> ler(String csv) throws IOException {
+        List<List<String>> registros = new ArrayList<>();
+        try (LeitorCsv leitor = new LeitorCsv(new StringReader(csv))) {
+            List<String> registro;
+            while ((registro = leitor.proximoRegistro()) != null) {
+                registros.add(registro);
+            }
+        }
+        return registros;
+    }
+}
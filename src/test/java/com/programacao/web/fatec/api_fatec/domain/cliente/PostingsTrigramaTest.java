@@ -0,0 +1,93 @@
+package com.programacao.web.fatec.api_fatec.domain.cliente;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Random;
+import java.util.Set;
+import java.util.stream.Collectors;
+
+import org.junit.jupiter.api.Test;
+
+class PostingsTrigramaTest {
+
+    /**
+     * Alfabeto pequeno, para que muitos textos tenham os trigramas de um termo fora de sequência.
+     */
+    private static final String ALFABETO = "abc ";
+
+    private final Random random = new Random(42);
+
+    @Test
+    void buscaEncontraOsMesmosIdsQueOContains() {
+        PostingsTrigrama postings = new PostingsTrigrama();
+        Map<Long, String> textos = new HashMap<>();
+        for (long id = 1; id <= 3000; id++) {
+            adicionar(postings, textos, id, texto());
+        }
+        conferir(postings, textos);
+
+        // Alterações e remoções suficientes para compactar as listas mais de uma vez
+        for (int i = 0; i < 6000; i++) {
+            long id = 1 + random.nextInt(4000);
+            if (random.nextInt(3) == 0) {
+                postings.remover(id);
+                textos.remove(id);
+            } else {
+                adicionar(postings, textos, id, texto());
+            }
+        }
+        conferir(postings, textos);
+        assertThat(postings.tamanho()).isEqualTo(textos.size());
+    }
+
+    @Test
+    void removerERecolocarOMesmoId() {
+        PostingsTrigrama postings = new PostingsTrigrama();
+        postings.adicionar(1, "maria da silva");
+        postings.adicionar(1, "joao");
+        postings.adicionar(2, null);
+
+        assertThat(postings.buscar("silva")).isEmpty();
+        assertThat(postings.buscar("joao")).containsExactly(1L);
+        assertThat(postings.tamanho()).isEqualTo(1);
+
+        postings.remover(1);
+        assertThat(postings.buscar("joao")).isEmpty();
+        assertThat(postings.tamanho()).isZero();
+    }
+
+    private void adicionar(PostingsTrigrama postings, Map<Long, String> textos, long id, String texto) {
+        postings.adicionar(id, texto);
+        textos.put(id, texto);
+    }
+
+    private void conferir(PostingsTrigrama postings, Map<Long, String> textos) {
+        for (int i = 0; i < 300; i++) {
+            String termo = texto().substring(0, 3 + random.nextInt(3));
+            Set<Long> esperados = textos.entrySet().stream()
+                    .filter(e -> e.getValue().contains(termo))
+                    .map(Map.Entry::getKey)
+                    .collect(Collectors.toSet());
+
+            long[] candidatos = postings.buscar(termo);
+            Set<Long> confirmados = Arrays.stream(candidatos)
+                    .boxed()
+                    .filter(id -> textos.get(id).contains(termo))
+                    .collect(Collectors.toSet());
+
+            assertThat(candidatos).doesNotHaveDuplicates();
+            assertThat(confirmados).as(termo).isEqualTo(esperados);
+        }
+    }
+
+    private String texto() {
+        char[] texto = new char[6 + random.nextInt(10)];
+        for (int i = 0; i < texto.length; i++) {
+            texto[i] = ALFABETO.charAt(random.nextInt(ALFABETO.length()));
+        }
+        return new String(texto);
+    }
+}
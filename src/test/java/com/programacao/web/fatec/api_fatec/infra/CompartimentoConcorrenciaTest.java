@@ -0,0 +1,123 @@
+package com.programacao.web.fatec.api_fatec.infra;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+import java.time.Duration;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+
+import com.programacao.web.fatec.api_fatec.exception.ServiceUnavailableException;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+
+class CompartimentoConcorrenciaTest {
+
+    private static final long NORMAL = TimeUnit.MILLISECONDS.toNanos(1);
+
+    private static final long LENTA = TimeUnit.MILLISECONDS.toNanos(10);
+
+    private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+
+    private final ExecutorService threads = Executors.newSingleThreadExecutor();
+
+    @AfterEach
+    void encerrar() {
+        threads.shutdownNow();
+    }
+
+    @Test
+    void filaCheiaRecusaNaHora() throws Exception {
+        CompartimentoConcorrencia compartimento = compartimento(new LimiteAdaptativo(1, 1, 1, 2.0), 1,
+                Duration.ofSeconds(5));
+        assertThat(compartimento.entrar()).isEqualTo(1);
+        Future<Integer> naFila = threads.submit(compartimento::entrar);
+        aguardarNaFila(1);
+
+        long inicio = System.nanoTime();
+        assertThatThrownBy(compartimento::entrar)
+                .isInstanceOfSatisfying(ServiceUnavailableException.class,
+                        e -> assertThat(e.getRetryAfterSegundos()).isEqualTo(3));
+        assertThat(System.nanoTime() - inicio).isLessThan(TimeUnit.SECONDS.toNanos(1));
+        assertThat(recusas("fila-cheia")).isEqualTo(1);
+
+        // A vaga liberada vai para quem estava na fila
+        compartimento.sair(NORMAL, 1, false);
+        assertThat(naFila.get(5, TimeUnit.SECONDS)).isEqualTo(1);
+        assertThat(medida("api.compartimentos.aguardando")).isZero();
+    }
+
+    @Test
+    void esperaAlemDoLimiteERecusada() {
+        CompartimentoConcorrencia compartimento = compartimento(new LimiteAdaptativo(1, 1, 1, 2.0), 5,
+                Duration.ofMillis(50));
+        compartimento.entrar();
+
+        long inicio = System.nanoTime();
+        assertThatThrownBy(compartimento::entrar).isInstanceOf(ServiceUnavailableException.class);
+
+        assertThat(System.nanoTime() - inicio).isGreaterThanOrEqualTo(TimeUnit.MILLISECONDS.toNanos(50));
+        assertThat(recusas("espera")).isEqualTo(1);
+        assertThat(recusas("fila-cheia")).isZero();
+        assertThat(medida("api.compartimentos.aguardando")).isZero();
+        assertThat(medida("api.compartimentos.em-execucao")).isEqualTo(1);
+    }
+
+    @Test
+    void limiteCresceComLatenciaNormal() {
+        CompartimentoConcorrencia compartimento = compartimento(new LimiteAdaptativo(1, 1, 4, 2.0), 0,
+                Duration.ZERO);
+
+        for (int i = 0; i < 20; i++) {
+            compartimento.sair(NORMAL, compartimento.entrar(), true);
+        }
+
+        assertThat(medida("api.compartimentos.limite")).isGreaterThanOrEqualTo(2);
+        assertThat(compartimento.entrar()).isEqualTo(1);
+        assertThat(compartimento.entrar()).isEqualTo(2);
+    }
+
+    @Test
+    void limiteCaiAteOMinimoComLatenciaAlta() {
+        CompartimentoConcorrencia compartimento = compartimento(new LimiteAdaptativo(4, 1, 10, 2.0), 0,
+                Duration.ZERO);
+        for (int i = 0; i < 5; i++) {
+            compartimento.sair(NORMAL, compartimento.entrar(), true);
+        }
+
+        // Quatro requisições simultâneas, todas lentas
+        for (int i = 0; i < 30; i++) {
+            compartimento.entrar();
+            compartimento.sair(LENTA, 4, true);
+        }
+
+        assertThat(medida("api.compartimentos.limite")).isEqualTo(1);
+        compartimento.entrar();
+        assertThatThrownBy(compartimento::entrar).isInstanceOf(ServiceUnavailableException.class);
+    }
+
+    private CompartimentoConcorrencia compartimento(LimiteAdaptativo limite, int fila, Duration espera) {
+        return new CompartimentoConcorrencia("teste", limite, fila, espera, 3, meterRegistry);
+    }
+
+    private double medida(String nome) {
+        return meterRegistry.get(nome).gauge().value();
+    }
+
+    private double recusas(String motivo) {
+        return meterRegistry.get("api.compartimentos.recusas").tag("motivo", motivo).counter().count();
+    }
+
+    private void aguardarNaFila(int quantidade) throws InterruptedException {
+        long limite = System.nanoTime() + TimeUnit.SECONDS.toNanos(5);
+        while (medida("api.compartimentos.aguardando") < quantidade && System.nanoTime() < limite) {
+            Thread.sleep(1);
+        }
+        assertThat(medida("api.compartimentos.aguardando")).isEqualTo(quantidade);
+    }
+}
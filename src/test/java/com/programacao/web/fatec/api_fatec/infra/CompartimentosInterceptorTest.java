@@ -0,0 +1,158 @@
+package com.programacao.web.fatec.api_fatec.infra;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.ArgumentMatchers.anyBoolean;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+import org.springframework.web.method.HandlerMethod;
+
+import com.programacao.web.fatec.api_fatec.exception.ServiceUnavailableException;
+
+/**
+ * Escolha do compartimento de cada handler e liberação da vaga ao fim da requisição, com
+ * compartimentos simulados.
+ */
+class CompartimentosInterceptorTest {
+
+    private final Map<String, CompartimentoConcorrencia> criados = new HashMap<>();
+
+    private final List<String> criacoes = new ArrayList<>();
+
+    private CompartimentosInterceptor interceptor;
+
+    @BeforeEach
+    void criarInterceptor() {
+        interceptor = new CompartimentosInterceptor(nome -> {
+            criacoes.add(nome);
+            CompartimentoConcorrencia compartimento = mock(CompartimentoConcorrencia.class);
+            when(compartimento.entrar()).thenReturn(1);
+            criados.put(nome, compartimento);
+            return compartimento;
+        });
+    }
+
+    @Test
+    void compartimentosConhecidosSaoCriadosNoInicio() {
+        assertThat(criacoes).containsExactly(Compartimento.BUSCA, Compartimento.LISTAGEM, Compartimento.ESCRITA);
+    }
+
+    @Test
+    void compartimentoDesconhecidoECriadoNoPrimeiroUsoEReaproveitado() throws Exception {
+        executar(handler(new Endpoints(), "relatorio"), 200);
+        executar(handler(new Endpoints(), "relatorio"), 200);
+
+        assertThat(criacoes).containsOnlyOnce("relatorios");
+        verify(criados.get("relatorios"), times(2)).entrar();
+        verify(criados.get("relatorios"), times(2)).sair(anyLong(), eq(1), eq(true));
+    }
+
+    @Test
+    void anotacaoDoMetodoPrevaleceSobreADaClasse() throws Exception {
+        executar(handler(new EndpointsDeBusca(), "listar"), 200);
+
+        verify(criados.get(Compartimento.LISTAGEM)).entrar();
+        verify(criados.get(Compartimento.BUSCA), never()).entrar();
+    }
+
+    @Test
+    void semAnotacaoNoMetodoValeADaClasse() throws Exception {
+        executar(handler(new EndpointsDeBusca(), "buscar"), 200);
+
+        verify(criados.get(Compartimento.BUSCA)).entrar();
+        verify(criados.get(Compartimento.BUSCA)).sair(anyLong(), eq(1), eq(true));
+    }
+
+    @Test
+    void handlerSemCompartimentoNaoOcupaVaga() throws Exception {
+        executar(handler(new Endpoints(), "semCompartimento"), 200);
+        executar(new Object(), 200);
+
+        for (CompartimentoConcorrencia compartimento : criados.values()) {
+            verify(compartimento, never()).entrar();
+        }
+    }
+
+    @Test
+    void respostaNaoModificadaLiberaAVagaSemAmostrarALatencia() throws Exception {
+        executar(handler(new Endpoints(), "buscar"), 304);
+
+        verify(criados.get(Compartimento.BUSCA)).sair(anyLong(), eq(1), eq(false));
+    }
+
+    @Test
+    void respostaDeErroTambemEAmostrada() throws Exception {
+        executar(handler(new Endpoints(), "buscar"), 500);
+
+        verify(criados.get(Compartimento.BUSCA)).sair(anyLong(), eq(1), eq(true));
+    }
+
+    @Test
+    void recusaNaoLiberaUmaVagaQueNaoFoiOcupada() throws Exception {
+        when(criados.get(Compartimento.BUSCA).entrar())
+                .thenThrow(new ServiceUnavailableException("Muitas requisições simultâneas de busca", 1));
+        MockHttpServletRequest request = new MockHttpServletRequest();
+        MockHttpServletResponse response = new MockHttpServletResponse();
+        Object handler = handler(new Endpoints(), "buscar");
+
+        assertThatThrownBy(() -> interceptor.preHandle(request, response, handler))
+                .isInstanceOf(ServiceUnavailableException.class);
+        response.setStatus(503);
+        interceptor.afterCompletion(request, response, handler, null);
+
+        verify(criados.get(Compartimento.BUSCA), never()).sair(anyLong(), anyInt(), anyBoolean());
+    }
+
+    private void executar(Object handler, int status) throws Exception {
+        MockHttpServletRequest request = new MockHttpServletRequest();
+        MockHttpServletResponse response = new MockHttpServletResponse();
+        assertThat(interceptor.preHandle(request, response, handler)).isTrue();
+        response.setStatus(status);
+        interceptor.afterCompletion(request, response, handler, null);
+    }
+
+    private static HandlerMethod handler(Object bean, String metodo) throws NoSuchMethodException {
+        return new HandlerMethod(bean, bean.getClass().getMethod(metodo));
+    }
+
+    static class Endpoints {
+
+        @Compartimento(Compartimento.BUSCA)
+        public void buscar() {
+        }
+
+        @Compartimento("relatorios")
+        public void relatorio() {
+        }
+
+        public void semCompartimento() {
+        }
+    }
+
+    @Compartimento(Compartimento.BUSCA)
+    static class EndpointsDeBusca {
+
+        public void buscar() {
+        }
+
+        @Compartimento(Compartimento.LISTAGEM)
+        public void listar() {
+        }
+    }
+}
@@ -0,0 +1,72 @@
+package com.programacao.web.fatec.api_fatec.infra;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.util.Collections;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.ValueSource;
+
+class ConsultasLentasMonitorTest {
+
+    @Test
+    void literaisViramParametros() {
+        assertThat(ConsultasLentasMonitor.normalizar(
+                "select c.id from cliente c where c.nome = 'D''Ávila' and c.id > 42 and c.saldo < 10.5"))
+                .isEqualTo("select c.id from cliente c where c.nome = ? and c.id > ? and c.saldo < ?");
+    }
+
+    @Test
+    void identificadoresComNumerosSaoMantidos() {
+        assertThat(ConsultasLentasMonitor.normalizar("select c1_0.id from cliente c1_0 where c1_0.id=?"))
+                .isEqualTo("select c1_0.id from cliente c1_0 where c1_0.id=?");
+    }
+
+    @Test
+    void espacosSaoColapsados() {
+        assertThat(ConsultasLentasMonitor.normalizar("  select *\n\tfrom   cliente\r\n where id = ?  "))
+                .isEqualTo("select * from cliente where id = ?");
+    }
+
+    @ParameterizedTest
+    @ValueSource(strings = {
+            "delete from cliente where id in (?)",
+            "delete from cliente where id in (?,?)",
+            "delete from cliente where id in (?, ?, ?, ?, ?)",
+            "delete from cliente where id IN ( ? ,\n ? )",
+            "delete from cliente where id in (1, 2, 3)",
+            "delete from cliente where id in ('a', ?, 3.5)"
+    })
+    void listasDoInDeQualquerTamanhoResultamNoMesmoTexto(String sql) {
+        assertThat(ConsultasLentasMonitor.normalizar(sql)).isEqualTo("delete from cliente where id in (?)");
+    }
+
+    @Test
+    void listaDoInComMilharesDeItensEReduzida() {
+        String lista = String.join(", ", Collections.nCopies(20_000, "?"));
+
+        assertThat(ConsultasLentasMonitor.normalizar("delete from cliente where id in (" + lista + ")"))
+                .isEqualTo("delete from cliente where id in (?)");
+    }
+
+    @Test
+    void cadaListaDoInEReduzidaSeparadamente() {
+        assertThat(ConsultasLentasMonitor.normalizar(
+                "select * from cliente where cidade_id in (?, ?) and id not in (7, 8, 9)"))
+                .isEqualTo("select * from cliente where cidade_id in (?) and id not in (?)");
+    }
+
+    @Test
+    void inComSubconsultaNaoEAlterado() {
+        assertThat(ConsultasLentasMonitor.normalizar(
+                "select * from cliente where cidade_id in (select id from cidade where estado = 'SP')"))
+                .isEqualTo("select * from cliente where cidade_id in (select id from cidade where estado = ?)");
+    }
+
+    @Test
+    void palavrasTerminadasEmInNaoSaoConfundidasComIn() {
+        assertThat(ConsultasLentasMonitor.normalizar("select coalesce(?, ?), min(?, ?) from cliente"))
+                .isEqualTo("select coalesce(?, ?), min(?, ?) from cliente");
+    }
+}
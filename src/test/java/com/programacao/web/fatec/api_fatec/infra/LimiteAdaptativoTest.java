@@ -0,0 +1,70 @@
+package com.programacao.web.fatec.api_fatec.infra;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.util.concurrent.TimeUnit;
+
+import org.junit.jupiter.api.Test;
+
+class LimiteAdaptativoTest {
+
+    private static final long NORMAL = TimeUnit.MILLISECONDS.toNanos(1);
+
+    private static final long LENTA = TimeUnit.MILLISECONDS.toNanos(10);
+
+    @Test
+    void cresceAteOMaximoComLatenciaNormalSobCarga() {
+        LimiteAdaptativo limite = new LimiteAdaptativo(4, 1, 10, 2.0);
+        limite.registrar(NORMAL, 1);
+
+        for (int i = 0; i < 50; i++) {
+            limite.registrar(NORMAL, limite.atual());
+        }
+
+        assertThat(limite.atual()).isEqualTo(10);
+    }
+
+    @Test
+    void caiAteOMinimoQuandoALatenciaSobe() {
+        LimiteAdaptativo limite = new LimiteAdaptativo(4, 1, 10, 2.0);
+        for (int i = 0; i < 5; i++) {
+            limite.registrar(NORMAL, 1);
+        }
+
+        // Abaixo de 4 o acréscimo de raiz do limite anulava a queda
+        for (int i = 0; i < 30; i++) {
+            limite.registrar(LENTA, Math.max(limite.atual(), 2));
+        }
+
+        assertThat(limite.atual()).isEqualTo(1);
+    }
+
+    @Test
+    void naoMudaComOCompartimentoFolgado() {
+        LimiteAdaptativo limite = new LimiteAdaptativo(8, 2, 16, 2.0);
+
+        for (int i = 0; i < 50; i++) {
+            limite.registrar(i % 2 == 0 ? NORMAL : LENTA, 1);
+        }
+
+        assertThat(limite.atual()).isEqualTo(8);
+    }
+
+    @Test
+    void referenciaAcompanhaRequisicoesSozinhasComLimitePequeno() {
+        LimiteAdaptativo limite = new LimiteAdaptativo(1, 1, 2, 2.0);
+        // Primeira requisição lenta (sem JIT, caches vazios), depois a latência normal
+        limite.registrar(100 * NORMAL, 1);
+        for (int i = 0; i < 200; i++) {
+            limite.registrar(NORMAL, 1);
+        }
+        assertThat(limite.atual()).isEqualTo(2);
+
+        // Com a referência parada na primeira amostra, 10 ms ainda pareceria rápido
+        for (int i = 0; i < 30; i++) {
+            limite.registrar(LENTA, 2);
+        }
+
+        assertThat(limite.atual()).isEqualTo(1);
+    }
+}
@@ -0,0 +1,196 @@
+package com.programacao.web.fatec.api_fatec.infra;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.MediaType;
+import org.springframework.mock.web.MockHttpServletResponse;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.setup.MockMvcBuilders;
+import org.springframework.web.context.WebApplicationContext;
+
+import com.jayway.jsonpath.JsonPath;
+import com.programacao.web.fatec.api_fatec.domain.cliente.ClienteService;
+
+/**
+ * Leituras com réplicas e atraso de replicação de 2 segundos: o cliente que escreveu lê a própria
+ * escrita, outro cliente pode receber a listagem anterior (sem ETag e com no-store), e as leituras
+ * vão para o principal quando as réplicas passam de api.replicas.atraso-maximo ou falham.
+ *
+ * O banco principal e as réplicas têm nomes próprios, para não dividir o banco com o contexto dos
+ * outros testes. A verificação periódica das réplicas fica desligada (intervalo de 1 hora): cada
+ * teste espera as réplicas alcançarem o principal e chama {@link ReplicasSaude#verificar()}.
+ */
+@SpringBootTest(properties = {
+        "api.replicas.habilitado=true",
+        "api.replicas.replicacao.atraso=PT2S",
+        "api.replicas.atraso-maximo=PT0.5S",
+        "api.replicas.verificacao.intervalo=PT1H",
+        "api.replicas.url=jdbc:h2:mem:replicas-teste-replica{n};DB_CLOSE_DELAY=-1",
+        "spring.datasource.url=jdbc:h2:mem:replicas-teste-principal;DB_CLOSE_DELAY=-1"
+})
+class ReplicasLeituraTest {
+
+    private static final String LISTAGEM = "/api/clientes/listarClientes";
+
+    @Autowired
+    private WebApplicationContext context;
+
+    @Autowired
+    private LeituraDefasadaFiltro leituraDefasadaFiltro;
+
+    @Autowired
+    private ReplicacaoSimulada replicacao;
+
+    @Autowired
+    private ReplicasSaude replicasSaude;
+
+    @Autowired
+    private ClienteService clienteService;
+
+    private MockMvc mockMvc;
+
+    private final List<Long> criados = new ArrayList<>();
+
+    @BeforeEach
+    void aguardarReplicas() throws InterruptedException {
+        mockMvc = MockMvcBuilders.webAppContextSetup(context).addFilters(leituraDefasadaFiltro).build();
+        aguardarReplicacao();
+        replicasSaude.verificar();
+        assertThat(replicacao.replicas()).allMatch(Replica::disponivel);
+    }
+
+    @AfterEach
+    void restaurar() {
+        for (Replica replica : replicacao.replicas()) {
+            ReflectionTestUtils.setField(replica, "falhou", false);
+        }
+        if (!criados.isEmpty()) {
+            clienteService.deletarClientes(criados);
+        }
+    }
+
+    @Test
+    void clienteQueEscreveuLeAPropriaEscrita() throws Exception {
+        long id = criar("cliente-a");
+
+        MockHttpServletResponse resposta = listar(id, "cliente-a");
+
+        assertThat(idsDa(resposta)).containsExactly(id);
+        assertThat(resposta.getHeader(HttpHeaders.ETAG)).isNotNull();
+        assertThat(resposta.getHeader(HttpHeaders.CACHE_CONTROL)).doesNotContain("no-store");
+        assertThat(replicacao.replicas()).allMatch(replica -> replica.posicaoAplicada() < replicacao.posicao());
+    }
+
+    @Test
+    void outroClienteRecebeAListagemDefasadaSemEtagESemArmazenamento() throws Exception {
+        long id = criar("cliente-a");
+
+        MockHttpServletResponse defasada = listar(id, "cliente-b");
+
+        assertThat(idsDa(defasada)).isEmpty();
+        assertThat(defasada.getHeader(HttpHeaders.ETAG)).isNull();
+        assertThat(defasada.getHeader(HttpHeaders.CACHE_CONTROL)).isEqualTo("no-store");
+
+        // Depois de a réplica aplicar a escrita, a mesma leitura volta a ter ETag
+        aguardarReplicacao();
+        MockHttpServletResponse emDia = listar(id, "cliente-b");
+        assertThat(idsDa(emDia)).containsExactly(id);
+        assertThat(emDia.getHeader(HttpHeaders.ETAG)).isNotNull();
+        assertThat(emDia.getHeader(HttpHeaders.CACHE_CONTROL)).doesNotContain("no-store");
+    }
+
+    @Test
+    void replicasAlemDoAtrasoMaximoDeixamAsLeiturasComOPrincipal() throws Exception {
+        long id = criar("cliente-a");
+        aguardarAtraso(Duration.ofMillis(600));
+
+        replicasSaude.verificar();
+
+        assertThat(replicacao.replicas()).noneMatch(Replica::disponivel);
+        MockHttpServletResponse resposta = listar(id, "cliente-b");
+        assertThat(idsDa(resposta)).containsExactly(id);
+        assertThat(resposta.getHeader(HttpHeaders.ETAG)).isNotNull();
+    }
+
+    @Test
+    void replicasQueFalharamDeixamAsLeiturasComOPrincipal() throws Exception {
+        for (Replica replica : replicacao.replicas()) {
+            ReflectionTestUtils.setField(replica, "falhou", true);
+        }
+        long id = criar("cliente-a");
+
+        // Sem esperar a verificação: uma réplica que falhou não está disponível
+        MockHttpServletResponse resposta = listar(id, "cliente-b");
+
+        assertThat(idsDa(resposta)).containsExactly(id);
+        assertThat(resposta.getHeader(HttpHeaders.ETAG)).isNotNull();
+        replicasSaude.verificar();
+        assertThat(replicacao.replicas()).noneMatch(Replica::disponivel);
+    }
+
+    private long criar(String cliente) throws Exception {
+        String corpo = mockMvc.perform(post("/api/clientes")
+                        .header(AderenciaEscritaInterceptor.HEADER_CLIENTE, cliente)
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content("{\"nome\": \"Cliente Réplica\", \"endereco\": \"Rua 1\"}"))
+                .andExpect(status().isCreated())
+                .andReturn().getResponse().getContentAsString();
+        long id = ((Number) JsonPath.read(corpo, "$.id")).longValue();
+        criados.add(id);
+        return id;
+    }
+
+    private MockHttpServletResponse listar(long id, String cliente) throws Exception {
+        return mockMvc.perform(get(LISTAGEM)
+                        .param("after", String.valueOf(id - 1))
+                        .param("limit", "1")
+                        .header(AderenciaEscritaInterceptor.HEADER_CLIENTE, cliente))
+                .andExpect(status().isOk())
+                .andReturn().getResponse();
+    }
+
+    private static List<Long> idsDa(MockHttpServletResponse resposta) throws Exception {
+        List<Number> ids = JsonPath.read(resposta.getContentAsString(), "$[*].id");
+        return ids.stream().map(Number::longValue).toList();
+    }
+
+    private void aguardarReplicacao() throws InterruptedException {
+        long limite = System.nanoTime() + TimeUnit.SECONDS.toNanos(10);
+        while (!emDia() && System.nanoTime() < limite) {
+            Thread.sleep(10);
+        }
+        assertThat(emDia()).isTrue();
+    }
+
+    private boolean emDia() {
+        return replicacao.replicas().stream()
+                .allMatch(replica -> replica.pendentes() == 0 && replica.posicaoAplicada() == replicacao.posicao());
+    }
+
+    private void aguardarAtraso(Duration atraso) throws InterruptedException {
+        long limite = System.nanoTime() + TimeUnit.SECONDS.toNanos(1);
+        while (!atrasadas(atraso) && System.nanoTime() < limite) {
+            Thread.sleep(10);
+        }
+        assertThat(atrasadas(atraso)).isTrue();
+    }
+
+    private boolean atrasadas(Duration atraso) {
+        return replicacao.replicas().stream().allMatch(replica -> replica.atraso().compareTo(atraso) > 0);
+    }
+}
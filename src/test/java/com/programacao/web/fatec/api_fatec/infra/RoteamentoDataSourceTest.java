@@ -0,0 +1,197 @@
+package com.programacao.web.fatec.api_fatec.infra;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.util.List;
+
+import javax.sql.DataSource;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import com.zaxxer.hikari.HikariDataSource;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+
+/**
+ * Escolha do banco de cada conexão: o principal fora de uma leitura marcada ou dentro de uma
+ * transação de escrita, e, nas leituras, as réplicas disponíveis que já aplicaram a posição
+ * exigida, alternando entre elas.
+ */
+class RoteamentoDataSourceTest {
+
+    private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+
+    private final ReplicacaoSimulada replicacao = mock(ReplicacaoSimulada.class);
+
+    private final DataSource principal = mock(DataSource.class);
+
+    private final Connection conexaoPrincipal = mock(Connection.class);
+
+    private final Replica replica1 = mock(Replica.class);
+
+    private final Replica replica2 = mock(Replica.class);
+
+    private final Connection conexaoReplica1 = mock(Connection.class);
+
+    private final Connection conexaoReplica2 = mock(Connection.class);
+
+    private RoteamentoDataSource dataSource;
+
+    @BeforeEach
+    void criarDataSource() throws SQLException {
+        HikariDataSource pool = mock(HikariDataSource.class);
+        when(replicacao.capturar(pool)).thenReturn(principal);
+        when(replicacao.replicas()).thenReturn(List.of(replica1, replica2));
+        when(replicacao.posicao()).thenReturn(10L);
+        when(principal.getConnection()).thenReturn(conexaoPrincipal);
+        configurar(replica1, "replica-1", conexaoReplica1);
+        configurar(replica2, "replica-2", conexaoReplica2);
+        dataSource = new RoteamentoDataSource(pool, replicacao, meterRegistry);
+    }
+
+    @AfterEach
+    void limpar() {
+        LeituraReplica.limparRequisicao();
+        if (TransactionSynchronizationManager.isActualTransactionActive()) {
+            TransactionSynchronizationManager.setActualTransactionActive(false);
+            TransactionSynchronizationManager.setCurrentTransactionReadOnly(false);
+        }
+    }
+
+    @Test
+    void foraDeUmaLeituraMarcadaUsaOPrincipal() throws SQLException {
+        assertThat(dataSource.getConnection()).isSameAs(conexaoPrincipal);
+
+        verify(replica1, never()).leitura();
+        verify(replica2, never()).leitura();
+        // Só as leituras marcadas entram na métrica
+        assertThat(leituras("principal")).isZero();
+    }
+
+    @Test
+    void transacaoDeEscritaUsaOPrincipalMesmoEmUmaLeituraMarcada() {
+        TransactionSynchronizationManager.setActualTransactionActive(true);
+        TransactionSynchronizationManager.setCurrentTransactionReadOnly(false);
+
+        assertThat(ler()).isSameAs(conexaoPrincipal);
+    }
+
+    @Test
+    void transacaoSomenteLeituraPodeUsarUmaReplica() {
+        TransactionSynchronizationManager.setActualTransactionActive(true);
+        TransactionSynchronizationManager.setCurrentTransactionReadOnly(true);
+
+        assertThat(ler()).isSameAs(conexaoReplica1);
+    }
+
+    @Test
+    void leiturasAlternamEntreAsReplicas() {
+        assertThat(ler()).isSameAs(conexaoReplica1);
+        assertThat(ler()).isSameAs(conexaoReplica2);
+        assertThat(ler()).isSameAs(conexaoReplica1);
+
+        assertThat(leituras("replica-1")).isEqualTo(2);
+        assertThat(leituras("replica-2")).isEqualTo(1);
+        assertThat(leituras("principal")).isZero();
+    }
+
+    @Test
+    void replicaIndisponivelNaoRecebeLeituras() {
+        when(replica1.disponivel()).thenReturn(false);
+
+        assertThat(ler()).isSameAs(conexaoReplica2);
+        assertThat(ler()).isSameAs(conexaoReplica2);
+    }
+
+    @Test
+    void semReplicaDisponivelUsaOPrincipal() {
+        when(replica1.disponivel()).thenReturn(false);
+        when(replica2.disponivel()).thenReturn(false);
+
+        assertThat(ler()).isSameAs(conexaoPrincipal);
+        assertThat(leituras("principal")).isEqualTo(1);
+    }
+
+    @Test
+    void replicaQueNaoAplicouAUltimaEscritaDoClienteNaoRecebeLeituras() {
+        when(replica1.posicaoAplicada()).thenReturn(7L);
+        when(replica2.posicaoAplicada()).thenReturn(9L);
+
+        LeituraReplica.exigirPosicao(8L);
+        assertThat(ler()).isSameAs(conexaoReplica2);
+        assertThat(ler()).isSameAs(conexaoReplica2);
+
+        LeituraReplica.exigirPosicao(10L);
+        assertThat(ler()).isSameAs(conexaoPrincipal);
+    }
+
+    @Test
+    void leituraEmReplicaAtrasadaFicaMarcadaComoDefasada() {
+        when(replica1.posicaoAplicada()).thenReturn(9L);
+
+        boolean defasada = LeituraReplica.executar(() -> {
+            obterConexao();
+            return LeituraReplica.defasada();
+        });
+
+        assertThat(defasada).isTrue();
+        assertThat(LeituraReplica.requisicaoDefasada()).isTrue();
+    }
+
+    @Test
+    void leituraEmReplicaEmDiaNaoFicaDefasada() {
+        boolean defasada = LeituraReplica.executar(() -> {
+            obterConexao();
+            return LeituraReplica.defasada();
+        });
+
+        assertThat(defasada).isFalse();
+        assertThat(LeituraReplica.requisicaoDefasada()).isFalse();
+    }
+
+    @Test
+    void replicaQueNaoEntregaConexaoSaiDoRoteamentoEALeituraVaiParaOPrincipal() throws SQLException {
+        HikariDataSource falhando = replica1.leitura();
+        when(falhando.getConnection()).thenThrow(new SQLException("Connection is not available"));
+
+        assertThat(ler()).isSameAs(conexaoPrincipal);
+
+        verify(replica1).definirDisponivel(false);
+        assertThat(leituras("principal")).isEqualTo(1);
+        assertThat(leituras("replica-1")).isZero();
+    }
+
+    private static void configurar(Replica replica, String nome, Connection conexao) throws SQLException {
+        HikariDataSource leitura = mock(HikariDataSource.class);
+        when(leitura.getConnection()).thenReturn(conexao);
+        when(replica.nome()).thenReturn(nome);
+        when(replica.leitura()).thenReturn(leitura);
+        when(replica.disponivel()).thenReturn(true);
+        when(replica.posicaoAplicada()).thenReturn(10L);
+    }
+
+    private Connection ler() {
+        return LeituraReplica.executar(this::obterConexao);
+    }
+
+    private Connection obterConexao() {
+        try {
+            return dataSource.getConnection();
+        } catch (SQLException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+
+    private double leituras(String destino) {
+        return meterRegistry.get("api.replicas.leituras").tag("destino", destino).counter().count();
+    }
+}